@@ -1,17 +1,24 @@
 package net.atos.webtools.tapestry.core;
 
+import java.io.File;
 import java.io.IOException;
-import java.lang.ref.SoftReference;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
+import net.atos.webtools.tapestry.core.models.LibraryFeatureCache;
 import net.atos.webtools.tapestry.core.models.ProjectModel;
+import net.atos.webtools.tapestry.core.models.ProjectModelCache;
+import net.atos.webtools.tapestry.core.models.ProjectModelUpdater;
+import net.atos.webtools.tapestry.core.models.ProjectModelWarmUp;
+import net.atos.webtools.tapestry.core.models.index.FeatureIndex;
+import net.atos.webtools.tapestry.core.models.index.LibraryMappingCache;
+import net.atos.webtools.tapestry.core.util.ClassLoaderPool;
 import net.atos.webtools.tapestry.core.util.Constants;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.text.templates.ContextTypeRegistry;
 import org.eclipse.jface.text.templates.persistence.TemplateStore;
@@ -52,18 +59,70 @@ public class TapestryCore extends AbstractUIPlugin {
 	 */
 	private TemplateStore tmlTemplateStore;
 
+	/**
+	 * Maximum number of {@link ProjectModel}s kept in the cache
+	 */
+	private static final int PROJECT_MODEL_CACHE_SIZE = 16;
+
+	/**
+	 * Maximum estimated heap size of the {@link ProjectModel}s kept in the
+	 * cache (see {@link ProjectModel#getMemoryFootprint()})
+	 */
+	private static final long PROJECT_MODEL_CACHE_BYTES = 256L * 1024 * 1024;
+
 	/**
 	 * <p>
-	 * Very short time cache implemented with HashMap, that map project name to
-	 * <code>SoftReference&lt;ProjectModel&gt;&gt;</code>
-	 * 
-	 * <p>
-	 * In the end,
-	 * <li>when no more editor holds reference to the ProjectModel, it can be
-	 * GC, and <code>get(project).get()</code> will return null
-	 * 
+	 * Cache of the project models, by project name: concurrent requests for
+	 * the same project share the same load, and the least recently used models
+	 * are evicted when it's full
+	 */
+	private final ProjectModelCache projectModelCache = new ProjectModelCache(
+			PROJECT_MODEL_CACHE_SIZE, PROJECT_MODEL_CACHE_BYTES);
+
+	/**
+	 * Name of the file, in the plugin state location, where the {@link FeatureIndex} is persisted
+	 */
+	private static final String FEATURE_INDEX_FILE = "feature-index.bin"; //$NON-NLS-1$
+
+	/**
+	 * Persistent index of the features found in classpath jars, lazily loaded
+	 */
+	private FeatureIndex featureIndex;
+
+	/**
+	 * Name of the file, in the plugin state location, where the {@link LibraryMappingCache} is persisted
+	 */
+	private static final String LIBRARY_MAPPING_CACHE_FILE = "library-mappings.bin"; //$NON-NLS-1$
+
+	/**
+	 * Persistent cache of the prefix & package of the libraries, lazily loaded
 	 */
-	private Map<String, SoftReference<ProjectModel>> projectModels = new HashMap<String, SoftReference<ProjectModel>>();
+	private LibraryMappingCache libraryMappingCache;
+
+	/**
+	 * Features of the library jars, shared by all projects
+	 */
+	private final LibraryFeatureCache libraryFeatureCache = new LibraryFeatureCache();
+
+	/**
+	 * Classloaders used to call the AppModules of the libraries, by classpath
+	 */
+	private final ClassLoaderPool classLoaderPool = new ClassLoaderPool();
+
+	/**
+	 * Name of the file of the Tapestry projects to warm up, in the plugin state location
+	 */
+	private static final String WARM_UP_PROJECTS_FILE = "warm-up-projects.txt"; //$NON-NLS-1$
+
+	/**
+	 * Preloads the project models after the startup, loaded on first access
+	 */
+	private ProjectModelWarmUp projectModelWarmUp;
+
+	/**
+	 * Updates cached {@link ProjectModel}s from Java element deltas
+	 */
+	private ProjectModelUpdater projectModelUpdater;
 
 	/**
 	 * The constructor
@@ -82,6 +141,9 @@ public class TapestryCore extends AbstractUIPlugin {
 	public void start(BundleContext context) throws Exception {
 		super.start(context);
 		plugin = this;
+		projectModelUpdater = new ProjectModelUpdater();
+		JavaCore.addElementChangedListener(projectModelUpdater,
+				ElementChangedEvent.POST_CHANGE);
 	}
 
 	/*
@@ -92,6 +154,28 @@ public class TapestryCore extends AbstractUIPlugin {
 	 * )
 	 */
 	public void stop(BundleContext context) throws Exception {
+		if (projectModelUpdater != null) {
+			JavaCore.removeElementChangedListener(projectModelUpdater);
+			projectModelUpdater = null;
+		}
+		synchronized (this) {
+			if (featureIndex != null) {
+				featureIndex.save();
+				featureIndex = null;
+			}
+			if (libraryMappingCache != null) {
+				libraryMappingCache.save();
+				libraryMappingCache = null;
+			}
+			if (projectModelWarmUp != null) {
+				projectModelWarmUp.cancel();
+				projectModelWarmUp.save();
+				projectModelWarmUp = null;
+			}
+		}
+		projectModelCache.clear();
+		libraryFeatureCache.clear();
+		classLoaderPool.clear();
 		plugin = null;
 		super.stop(context);
 	}
@@ -195,69 +279,124 @@ public class TapestryCore extends AbstractUIPlugin {
 		return tmlTemplateContextTypeRegistry;
 	}
 
+	/**
+	 * Returns the persistent index of the features found in the jars of the
+	 * classpath, shared by all projects. It's read from the plugin state
+	 * location on first call.
+	 * 
+	 * @return the feature index
+	 */
+	public synchronized FeatureIndex getFeatureIndex() {
+		if (featureIndex == null) {
+			File file = getStateLocation().append(FEATURE_INDEX_FILE).toFile();
+			featureIndex = new FeatureIndex(file, getBundle().getVersion()
+					.toString());
+			featureIndex.load();
+		}
+		return featureIndex;
+	}
+
+	/**
+	 * Returns the persistent cache of the prefix & package found for the
+	 * AppModules of the libraries, shared by all projects. It's read from the
+	 * plugin state location on first call.
+	 * 
+	 * @return the library mapping cache
+	 */
+	public synchronized LibraryMappingCache getLibraryMappingCache() {
+		if (libraryMappingCache == null) {
+			File file = getStateLocation().append(LIBRARY_MAPPING_CACHE_FILE)
+					.toFile();
+			libraryMappingCache = new LibraryMappingCache(file, getBundle()
+					.getVersion().toString());
+			libraryMappingCache.load();
+		}
+		return libraryMappingCache;
+	}
+
+	/**
+	 * Returns the warm-up of the project models, with the Tapestry projects of
+	 * the workspace read from the plugin state location on first call.
+	 * 
+	 * @return the project model warm-up
+	 */
+	public synchronized ProjectModelWarmUp getProjectModelWarmUp() {
+		if (projectModelWarmUp == null) {
+			File file = getStateLocation().append(WARM_UP_PROJECTS_FILE)
+					.toFile();
+			projectModelWarmUp = new ProjectModelWarmUp(file);
+			projectModelWarmUp.load();
+		}
+		return projectModelWarmUp;
+	}
+
+	/**
+	 * Returns the cache of the features found in the jars of the classpath,
+	 * shared by all the project models of the workspace.
+	 * 
+	 * @return the library feature cache
+	 */
+	public LibraryFeatureCache getLibraryFeatureCache() {
+		return libraryFeatureCache;
+	}
+
+	/**
+	 * Returns the pool of the classloaders used for reflection on the
+	 * AppModules. It also gives the number of open jars and loaded classes,
+	 * for diagnostics.
+	 * 
+	 * @return the classloader pool
+	 */
+	public ClassLoaderPool getClassLoaderPool() {
+		return classLoaderPool;
+	}
+
 	/**
 	 * <p>
 	 * Get the {@link ProjectModel} for a project.
 	 * 
 	 * <p>
-	 * On most calls, it will re-process the project (launching
-	 * {@link FeatureFinder} Job), except if the same project has been requested
-	 * very recently (&lt;2 sec). This is mostly useful when all the opened tml
-	 * editors are notified simultaneously by their listeners that a reload is
-	 * needed
+	 * The cached model is kept up to date incrementally by the
+	 * {@link ProjectModelUpdater}: it's only re-processed (launching a
+	 * {@link FeatureFinder} Job) when it has been marked stale (i.e. classpath
+	 * change). This is mostly useful when all the opened tml editors are
+	 * notified simultaneously by their listeners that a reload is needed
 	 * 
 	 * <p>
-	 * Inner synch prevents this method to be executed by different threads.
+	 * A model is only loaded once: the threads asking for a project being
+	 * loaded wait for that load (see {@link ProjectModelCache}).
 	 * 
 	 * @see TapestryMultiPageEditor#resourceChanged(org.eclipse.core.resources.IResourceChangeEvent)
 	 * 
 	 * @param project
 	 * @param forceReload
 	 *            true if you need to reload the model (i.e. rebuild of
-	 *            project), but it will only be executed if it hasn't been
-	 *            loaded &lt; 1min.
+	 *            project), but it will only be executed if the model is
+	 *            stale.
 	 * @return the ProjectModel
 	 */
 	public ProjectModel getProjectModel(IProject project, boolean forceReload) {
 		if (project == null) {
 			return null;
 		}
+		return projectModelCache.get(project, forceReload);
+	}
 
-		ProjectModel projectModel = null;
-		boolean mustInit = false;
-
-		synchronized (projectModels) {
-			// not null if it's already been in the cache
-			SoftReference<ProjectModel> softReference = projectModels
-					.get(project.getName());
-			if (softReference != null) {
-				// not null if an editor has kept a reference
-				projectModel = softReference.get();
-			}
-
-			if (projectModel != null) {
-				Date previousInitDate = projectModel.getInitDate();
-				Date now = new Date();
-				// > 1 minute:
-				if (forceReload
-						&& (now.getTime() - previousInitDate.getTime()) > 60000) {
-					projectModel = null;
-				}
-			}
-
-			if (projectModel == null) {
-				projectModel = new ProjectModel(project);
-				mustInit = true;
-				projectModels.put(project.getName(),
-						new SoftReference<ProjectModel>(projectModel));
-			}
-		}
+	/**
+	 * @return the project models currently in the cache (including the ones
+	 *         being loaded)
+	 */
+	public List<ProjectModel> getCachedProjectModels() {
+		return projectModelCache.getProjectModels();
+	}
 
-		if (projectModel != null && mustInit) {
-			projectModel.init();
-			projectModel.loadSubFeatures();
-			projectModel.loadAssets();
-		}
-		return projectModel;
+	/**
+	 * Returns the cache of the project models, with its hit/miss/load time
+	 * statistics.
+	 * 
+	 * @return the project model cache
+	 */
+	public ProjectModelCache getProjectModelCache() {
+		return projectModelCache;
 	}
 }
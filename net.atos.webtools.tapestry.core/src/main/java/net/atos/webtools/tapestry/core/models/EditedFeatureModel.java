@@ -7,31 +7,34 @@ import static net.atos.webtools.tapestry.core.models.FileType.TML;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Properties;
 import java.util.Set;
 
 import net.atos.webtools.tapestry.core.TapestryCore;
+import net.atos.webtools.tapestry.core.models.FeatureFileIndex.FeatureFiles;
 import net.atos.webtools.tapestry.core.models.features.ComponentModel;
 import net.atos.webtools.tapestry.core.util.Constants;
 import net.atos.webtools.tapestry.core.util.ErrorMessages;
 import net.atos.webtools.tapestry.core.util.Messages;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IStorage;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.IClassFile;
+import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJarEntryResource;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
-import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.IType;
-import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.ASTVisitor;
@@ -108,22 +111,55 @@ public class EditedFeatureModel {
 	 * List the java properties name that are in the Java file, and are
 	 * accessible in the tml file
 	 */
-	private Set<JavaElement> javaProperties = new HashSet<JavaElement>();
+	private volatile Set<JavaElement> javaProperties = new HashSet<JavaElement>();
 	/**
 	 * List the java methods name that are in the Java file, and are accessible
 	 * in the tml file
 	 */
-	private Set<JavaElement> javaMethods = new HashSet<JavaElement>();
+	private volatile Set<JavaElement> javaMethods = new HashSet<JavaElement>();
 
 	/**
-	 * List the messages found in the bundle (*.properties files), if any;
+	 * Catalogs of the messages (*.properties files) with their locale
+	 * variants: the catalog of the feature first, then the app catalog
 	 */
-	private Set<JavaElement> messages;
+	private volatile List<MessageCatalog> messageCatalogs = Collections
+			.emptyList();
+
+	/**
+	 * Modification stamp of the java file when {@link #initJavaFields()} last
+	 * loaded its properties
+	 */
+	private long javaFieldsStamp = UNKNOWN_STAMP;
+
+	/**
+	 * Modification stamp of the java file when the java properties were last
+	 * taken from the buffer of a Java editor (see
+	 * {@link #updateJavaFields(CompilationUnit)}): while the file keeps this
+	 * stamp, its content on disk is older than the properties
+	 */
+	private long liveJavaStamp = UNKNOWN_STAMP;
+
+	/**
+	 * Never returned by {@link #getStamp(IStorage)}
+	 */
+	private static final long UNKNOWN_STAMP = Long.MIN_VALUE;
 
 	private String className;
 	private String packageName;
 	private IType javaIType;
 
+	/**
+	 * AST of the java file, without the method bodies: parsed once for each
+	 * version of the file, and shared by {@link #loadJavaType()} and
+	 * {@link #initJavaFields()}
+	 */
+	private CompilationUnit javaAst;
+
+	/**
+	 * Modification stamp of the java file when {@link #javaAst} was parsed
+	 */
+	private long javaAstStamp = IResource.NULL_STAMP;
+
 	// -----------------------------------------------------------------------------------------
 	//
 	// getters/setters/construct:
@@ -154,8 +190,36 @@ public class EditedFeatureModel {
 		return tmlFile;
 	}
 
-	public Set<JavaElement> getMessages() {
-		return messages;
+	/**
+	 * @return the catalog of the feature, then the app catalog (if found),
+	 *         with their locale variants
+	 */
+	public List<MessageCatalog> getMessageCatalogs() {
+		return messageCatalogs;
+	}
+
+	/**
+	 * @param keyPrefix
+	 *            the beginning of the key, without <code>message:</code> (any
+	 *            case), empty for all the messages
+	 * @return the <code>message:key</code> elements whose key starts with
+	 *         keyPrefix: a message of the feature hides the app message with
+	 *         the same key. It must not be modified.
+	 */
+	public List<JavaElement> findMessages(String keyPrefix) {
+		List<MessageCatalog> catalogs = messageCatalogs;
+		if (catalogs.size() == 1) {
+			return catalogs.get(0).findByPrefix(keyPrefix);
+		}
+		List<JavaElement> found = new ArrayList<JavaElement>();
+		for (int i = 0; i < catalogs.size(); i++) {
+			for (JavaElement message : catalogs.get(i).findByPrefix(keyPrefix)) {
+				if (i == 0 || !catalogs.get(0).contains(message)) {
+					found.add(message);
+				}
+			}
+		}
+		return found;
 	}
 
 	public Set<JavaElement> getJavaProperties() {
@@ -200,8 +264,11 @@ public class EditedFeatureModel {
 		// but not when trying to open an external class/tml (i.e. in a
 		// classpath jar)
 		if (initialStorage instanceof IResource) {
-			projectModel = TapestryCore.getDefault().getProjectModel(
-					((IResource) initialStorage).getProject(), forceReload);
+			IProject project = ((IResource) initialStorage).getProject();
+			projectModel = TapestryCore.getDefault().getProjectModel(project,
+					forceReload);
+			TapestryCore.getDefault().getProjectModelWarmUp()
+					.recordEditedProject(project.getName());
 		} else if (initialStorage instanceof IJarEntryResource) {
 			IJarEntryResource jarEntryFile = (IJarEntryResource) initialStorage;
 			projectModel = TapestryCore.getDefault().getProjectModel(
@@ -294,7 +361,8 @@ public class EditedFeatureModel {
 	//
 	// -----------------------------------------------------------------------------------------
 	/**
-	 * Finds the tml file given the Java file and vice-versa
+	 * Finds the tml file given the Java file and vice-versa, with the
+	 * {@link FeatureFileIndex} of the project
 	 * 
 	 * Also sets the "Component Message Catalog" (property file with messages)
 	 * 
@@ -307,13 +375,27 @@ public class EditedFeatureModel {
 		if (openedStorage instanceof IResource) {
 			IResource openedFile = (IResource) openedStorage;
 
-			// get path
+			// 1 - Look up the files of the feature in the source folders
+			FeatureFiles featureFiles = projectModel != null ? projectModel
+					.getFeatureFileIndex().getFeatureFiles(openedFile) : null;
+			if (featureFiles != null) {
+				IStorage otherStorage = JAVA.getExtension().equals(
+						openedFile.getFileExtension()) ? featureFiles
+						.getTmlFile() : featureFiles.getJavaFile();
+				if (otherStorage instanceof IResource) {
+					otherFile = (IResource) otherStorage;
+				}
+				messageCatalogFile = featureFiles.getMessageCatalog();
+				return otherFile;
+			}
+
+			// 2 - Not in a source folder (e.g. a template in the webapp):
+			// search in the same dir
 			IPath otherFileInDirPath = changeExtension(openedFile.getFullPath());
 			IPath messageCatalogInDirPath = openedFile.getFullPath()
 					.removeFileExtension()
 					.addFileExtension(PROPERTY.getExtension());
 
-			// 1 - Search in the same dir
 			otherFile = openedFile.getParent().findMember(otherFileInDirPath);
 			IResource messageCatalogFound = openedFile.getProject().getParent()
 					.findMember(messageCatalogInDirPath);
@@ -321,76 +403,6 @@ public class EditedFeatureModel {
 					&& messageCatalogFound.exists()) {
 				messageCatalogFile = (IStorage) messageCatalogFound;
 			}
-
-			// If they are all found in the same dir/package, it's done
-			if (otherFile != null && messageCatalogFile != null) {
-				return otherFile;
-			}
-
-			// 2 - Search in project
-			if (projectModel != null && projectModel.getJavaProject() != null) {
-				try {
-					IPackageFragmentRoot[] allPackageFragmentRoots = projectModel
-							.getJavaProject().getAllPackageFragmentRoots();
-					// a - looking for the source dir containing the opened
-					// file, to have the relative path
-					IPath otherFileRelativePath = null;
-					IPath messageCatalogRelativePath = null;
-
-					for (IPackageFragmentRoot packageFragmentRoot : allPackageFragmentRoots) {
-						if (packageFragmentRoot.getKind() == IPackageFragmentRoot.K_SOURCE
-								&& packageFragmentRoot.getPath().isPrefixOf(
-										openedFile.getFullPath())) {
-
-							int srcDirSgmentCount = packageFragmentRoot
-									.getPath().segmentCount();
-							otherFileRelativePath = otherFileInDirPath
-									.removeFirstSegments(srcDirSgmentCount);
-							messageCatalogRelativePath = messageCatalogInDirPath
-									.removeFirstSegments(srcDirSgmentCount);
-							break;
-						}
-					}
-
-					// b - looking for the source dir containing the other file
-					if (otherFileRelativePath != null) {
-						for (IPackageFragmentRoot packageFragmentRoot : allPackageFragmentRoots) {
-							if (packageFragmentRoot.getKind() == IPackageFragmentRoot.K_SOURCE) {
-								if (otherFile == null) {
-									otherFile = openedFile
-											.getProject()
-											.getParent()
-											.findMember(
-													packageFragmentRoot
-															.getPath()
-															.append(otherFileRelativePath));
-								}
-								if (messageCatalogFile == null) {
-									IPath relPath = packageFragmentRoot
-											.getPath().append(
-													messageCatalogRelativePath);
-									messageCatalogFound = openedFile
-											.getProject().getParent()
-											.findMember(relPath);
-									if (messageCatalogFound instanceof IStorage
-											&& messageCatalogFound.exists()) {
-										messageCatalogFile = (IStorage) messageCatalogFound;
-									}
-								}
-
-							}
-							if (otherFile != null && messageCatalogFile != null) {
-								break;
-							}
-						}
-					}
-				} catch (JavaModelException e) {
-					TapestryCore
-							.logError(
-									ErrorMessages.CAN_T_FIND_CORRESPONDING_FILE_IN_PROJECT_SOURCE_S_DIRECTORIES,
-									e);
-				}
-			}
 		} else if (openedStorage instanceof IJarEntryResource) {
 			IJarEntryResource jarEntry = (IJarEntryResource) openedStorage;
 			if (jarEntry.isFile()) {
@@ -405,8 +417,8 @@ public class EditedFeatureModel {
 							.getParent();
 					classFile = packageFragment.getClassFile(classFileName);
 
-					messageCatalogFile = getNonJavaFile(packageFragment,
-							messageFileName);
+					messageCatalogFile = getJarFeatureFiles(packageFragment,
+							messageFileName).getMessageCatalog();
 				}
 			}
 		}
@@ -417,33 +429,31 @@ public class EditedFeatureModel {
 		IPackageFragment packageFragment = (IPackageFragment) classFile
 				.getAncestor(IJavaElement.PACKAGE_FRAGMENT);
 
-		String tmlFileName = classFile.getElementName().replace(".tml",
-				".class");
-		String messageFileName = classFile.getElementName().replace(".tml",
-				".properties");
-
-		tmlFile = getNonJavaFile(packageFragment, tmlFileName);
-		messageCatalogFile = getNonJavaFile(packageFragment, messageFileName);
+		FeatureFiles featureFiles = getJarFeatureFiles(packageFragment,
+				classFile.getElementName());
+		tmlFile = featureFiles.getTmlFile();
+		messageCatalogFile = featureFiles.getMessageCatalog();
 
 		return null;
 	}
 
-	private IStorage getNonJavaFile(IPackageFragment packageFragment,
+	/**
+	 * @param packageFragment
+	 *            a package of a jar
+	 * @param fileName
+	 *            the name of any file of the feature (e.g.
+	 *            <code>Index.class</code>)
+	 * @return the tml and properties files of the feature in the package
+	 */
+	private FeatureFiles getJarFeatureFiles(IPackageFragment packageFragment,
 			String fileName) {
-		try {
-			for (Object object : packageFragment.getNonJavaResources()) {
-				if (object instanceof IJarEntryResource) {
-					IJarEntryResource nonJavaJarEntry = (IJarEntryResource) object;
-					if (nonJavaJarEntry.getName().equalsIgnoreCase(fileName)) {
-						return nonJavaJarEntry;
-					}
-				}
-			}
-		} catch (JavaModelException e) {
-			TapestryCore.logWarning(
-					ErrorMessages.CAN_T_LOOK_FOR_FEATURE_S_MESSAGES, e);
+		String featureName = fileName.indexOf('.') > 0 ? fileName.substring(0,
+				fileName.lastIndexOf('.')) : fileName;
+		if (projectModel != null) {
+			return projectModel.getFeatureFileIndex().getFeatureFiles(
+					packageFragment, featureName);
 		}
-		return null;
+		return FeatureFileIndex.readFeatureFiles(packageFragment, featureName);
 	}
 
 	/**
@@ -471,26 +481,36 @@ public class EditedFeatureModel {
 
 	/**
 	 * <p>
-	 * AST parsing of the .java file, if it exists (and it was found), to find
-	 * it's javaIType:
-	 * <li>AST is used to extract class name & package name
-	 * <li>Uses {@link IJavaProject#findType(String, IProgressMonitor)} to load
-	 * the {@link IType}
+	 * Finds the javaIType of the .java file, if it exists (and it was found):
+	 * <li>when the file is a compilation unit of the Java model, its primary
+	 * type is read directly, without parsing
+	 * <li>otherwise, AST is used to extract class name & package name, and
+	 * {@link IJavaProject#findType(String, IProgressMonitor)} to load the
+	 * {@link IType}
 	 * 
 	 * <p>
 	 * In the case of a compiled class, we ignore this point (not a problem, as
 	 * we can't edit these files: no completion needed)
 	 */
 	private void loadJavaType() {
+		if (getJavaFile() instanceof IFile) {
+			IJavaElement javaElement = JavaCore.create((IFile) getJavaFile());
+			if (javaElement instanceof ICompilationUnit) {
+				IType primaryType = ((ICompilationUnit) javaElement)
+						.findPrimaryType();
+				if (primaryType != null && primaryType.exists()) {
+					javaIType = primaryType;
+					className = primaryType.getElementName();
+					packageName = primaryType.getPackageFragment()
+							.getElementName();
+					return;
+				}
+			}
+		}
+
 		if (getJavaFile() != null) {
-			String classContent;
 			try {
-				classContent = inputStream2String(getJavaFile().getContents());
-				ASTParser parser = ASTParser.newParser(AST.JLS3);
-				parser.setSource(classContent.toCharArray());
-				parser.setKind(ASTParser.K_COMPILATION_UNIT);
-				final CompilationUnit cu = (CompilationUnit) parser
-						.createAST(null);
+				final CompilationUnit cu = getJavaAst();
 
 				cu.accept(new ASTVisitor() {
 					@Override
@@ -504,7 +524,8 @@ public class EditedFeatureModel {
 					}
 				});
 
-				if (className != null) {
+				if (className != null && projectModel != null
+						&& projectModel.getJavaProject() != null) {
 					javaIType = projectModel.getJavaProject().findType(
 							packageName + "." + className,
 							(IProgressMonitor) null);
@@ -516,6 +537,36 @@ public class EditedFeatureModel {
 		}
 	}
 
+	/**
+	 * <p>
+	 * Parses the java file, or returns the AST already parsed if the file
+	 * hasn't changed since (same modification stamp).
+	 * 
+	 * <p>
+	 * Only the declarations are needed (types, fields, method signatures and
+	 * javadoc): the method bodies are skipped, which makes the parsing of
+	 * large page classes much faster.
+	 * 
+	 * @return the AST of the java file
+	 * @throws CoreException
+	 *             if the file can't be read
+	 */
+	private synchronized CompilationUnit getJavaAst() throws CoreException {
+		long stamp = getJavaFile() instanceof IResource ? ((IResource) getJavaFile())
+				.getModificationStamp() : 0;
+		if (javaAst == null || stamp != javaAstStamp
+				|| stamp == IResource.NULL_STAMP) {
+			ASTParser parser = ASTParser.newParser(AST.JLS3);
+			parser.setSource(inputStream2String(getJavaFile().getContents())
+					.toCharArray());
+			parser.setKind(ASTParser.K_COMPILATION_UNIT);
+			parser.setIgnoreMethodBodies(true);
+			javaAst = (CompilationUnit) parser.createAST(null);
+			javaAstStamp = stamp;
+		}
+		return javaAst;
+	}
+
 	// -----------------------------------------------------------------------------------------
 	//
 	// Java Class parsing (finding fields/methods with AST):
@@ -531,36 +582,90 @@ public class EditedFeatureModel {
 	 * <li>messages from application
 	 * <li>messages from the edited feature
 	 * 
+	 * <p>
+	 * It's called by each hover and completion session: the java file is only
+	 * parsed again when it has changed (modification stamp) since the last
+	 * call, and the messages come from the {@link MessageCatalogIndex} of the
+	 * project, shared by all the editors. The sets are replaced, never
+	 * modified, so they can be read while they're reloaded.
 	 */
-	public void initJavaFields() {
-		// 1- Load java properties & getter methods:
-		if (getJavaFile() != null) {
-			try {
-				javaProperties = new HashSet<JavaElement>();
-				javaMethods = new HashSet<JavaElement>();
-
-				parseClassPropertiesWithAST(inputStream2String(getJavaFile()
-						.getContents()));
-			} catch (CoreException e) {
-				TapestryCore
-						.logError(
-								ErrorMessages.CAN_T_GET_CONTENT_OF_JAVA_FILE_FOR_AST_PARSING,
-								e);
+	public synchronized void initJavaFields() {
+		long javaStamp = getStamp(getJavaFile());
+
+		// 1- Load java properties & getter methods (unless the Java editor
+		// has given newer ones):
+		if (javaStamp != javaFieldsStamp && javaStamp != liveJavaStamp) {
+			Set<JavaElement> properties = new HashSet<JavaElement>();
+			if (getJavaFile() != null) {
+				try {
+					parseClassPropertiesWithAST(getJavaAst(), properties);
+				} catch (CoreException e) {
+					TapestryCore
+							.logError(
+									ErrorMessages.CAN_T_GET_CONTENT_OF_JAVA_FILE_FOR_AST_PARSING,
+									e);
+				}
 			}
+			javaProperties = properties;
+			javaMethods = new HashSet<JavaElement>();
+		}
+
+		javaFieldsStamp = javaStamp;
 
+		// 2- Get messages (the index of the project reads each file once)...
+		List<MessageCatalog> catalogs = new ArrayList<MessageCatalog>(2);
+		if (projectModel != null) {
+			MessageCatalogIndex index = projectModel.getMessageCatalogIndex();
+			// ... from feature catalog file:
+			if (messageCatalogFile != null) {
+				catalogs.add(index.getCatalog(messageCatalogFile));
+			}
+			// ...from project message catalog:
+			if (projectModel.getAppMessageCatalogFile() != null) {
+				catalogs.add(index.getCatalog(projectModel
+						.getAppMessageCatalogFile()));
+			}
+		} else if (messageCatalogFile != null) {
+			catalogs.add(MessageCatalogIndex.readCatalog(messageCatalogFile));
 		}
+		messageCatalogs = catalogs;
+	}
+
+	/**
+	 * <p>
+	 * Updates the java properties from the AST of the unsaved content of the
+	 * java file, as reconciled by the Java editor: the properties added in the
+	 * Java tab are proposed in the tml without saving, and without parsing the
+	 * file again nor reading it from disk.
+	 * 
+	 * <p>
+	 * The messages are kept. The properties are taken from this AST until the
+	 * java file is saved (or modified on disk), then from the file again.
+	 * 
+	 * @param ast
+	 *            the AST reconciled by the Java editor of {@link #getJavaFile()}
+	 */
+	public synchronized void updateJavaFields(CompilationUnit ast) {
+		Set<JavaElement> properties = new HashSet<JavaElement>();
+		parseClassPropertiesWithAST(ast, properties);
+		javaProperties = properties;
+		liveJavaStamp = getStamp(getJavaFile());
+	}
 
-		// 2- Load messages...
-		messages = new HashSet<JavaElement>();
-		// ...from project message catalog:
-		if (projectModel != null
-				&& projectModel.getAppMessageCatalogFile() != null) {
-			loadPropertFiles(projectModel.getAppMessageCatalogFile());
+	/**
+	 * @param storage
+	 * @return the modification stamp of a workspace file,
+	 *         {@link IResource#NULL_STAMP} if there's no file, 0 for the
+	 *         storages that can't change (i.e. jar entries)
+	 */
+	private static long getStamp(IStorage storage) {
+		if (storage == null) {
+			return IResource.NULL_STAMP;
 		}
-		// ... from feature catalog file:
-		if (messageCatalogFile != null) {
-			loadPropertFiles(messageCatalogFile);
+		if (storage instanceof IResource) {
+			return ((IResource) storage).getModificationStamp();
 		}
+		return 0;
 	}
 
 	/**
@@ -574,13 +679,13 @@ public class EditedFeatureModel {
 	 * <li>"field" deduced from public getter name (starting with "get" or "is"
 	 * when they return boolean)
 	 * 
-	 * @param classContent
+	 * @param cu
+	 *            the AST of the java file (method bodies are not needed)
+	 * @param javaProperties
+	 *            the set to fill
 	 */
-	private void parseClassPropertiesWithAST(String classContent) {
-		ASTParser parser = ASTParser.newParser(AST.JLS3);
-		parser.setSource(classContent.toCharArray());
-		parser.setKind(ASTParser.K_COMPILATION_UNIT);
-		final CompilationUnit cu = (CompilationUnit) parser.createAST(null);
+	private void parseClassPropertiesWithAST(CompilationUnit cu,
+			final Set<JavaElement> javaProperties) {
 		cu.accept(new ASTVisitor() {
 
 			private String elNodeName;
@@ -646,7 +751,8 @@ public class EditedFeatureModel {
 					javaProperties.add(new JavaElement(propName, javadoc));
 				}
 
-				if (node.getReturnType2().isPrimitiveType()) {
+				if (node.getReturnType2() != null
+						&& node.getReturnType2().isPrimitiveType()) {
 					PrimitiveType type = (PrimitiveType) node.getReturnType2();
 					if (type.getPrimitiveTypeCode() == PrimitiveType.BOOLEAN
 							&& node.getModifiers() == Modifier.PUBLIC
@@ -671,36 +777,6 @@ public class EditedFeatureModel {
 		});
 	}
 
-	/**
-	 * <p>
-	 * Load a property file, and add its property/key to the {@link #messages}
-	 * Set
-	 * 
-	 * <p>
-	 * It automatically add "message:" binding to the property name
-	 * 
-	 * @param file
-	 */
-	private void loadPropertFiles(IStorage file) {
-		try {
-			Properties messagesProperties = new Properties();
-			messagesProperties.load(file.getContents());
-			Set<String> stringPropertyNames = messagesProperties
-					.stringPropertyNames();
-			for (String propertyName : stringPropertyNames) {
-				messages.add(new JavaElement(Constants.MESSAGE_BINDING
-						+ propertyName, messagesProperties
-						.getProperty(propertyName)));
-			}
-		} catch (IOException e) {
-			TapestryCore.logError(ErrorMessages.CAN_T_LOAD_PROPERTIES_FROM
-					+ messageCatalogFile.getFullPath(), e);
-		} catch (CoreException e) {
-			TapestryCore.logError(ErrorMessages.CAN_T_OPEN_PROPERTY_FILE
-					+ messageCatalogFile.getFullPath(), e);
-		}
-	}
-
 	/**
 	 * <p>
 	 * Converts a {@link Javadoc} element to String
@@ -734,7 +810,7 @@ public class EditedFeatureModel {
 		String all_content = "";
 		try {
 			ByteArrayOutputStream outputstream = new ByteArrayOutputStream();
-			byte[] str_b = new byte[1024];
+			byte[] str_b = new byte[8192];
 			int i = -1;
 			while ((i = ins.read(str_b)) > 0) {
 				outputstream.write(str_b, 0, i);
@@ -743,6 +819,13 @@ public class EditedFeatureModel {
 		} catch (IOException e) {
 			TapestryCore.logError(
 					ErrorMessages.CAN_T_READ_JAVA_FILE_FOR_AST_PARSING, e);
+		} finally {
+			try {
+				ins.close();
+			} catch (IOException e) {
+				TapestryCore.logWarning(ErrorMessages.FAILED_TO_CLOSE_STREAM,
+						e);
+			}
 		}
 		return all_content;
 	}
@@ -0,0 +1,383 @@
+package net.atos.webtools.tapestry.core.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.atos.webtools.tapestry.core.TapestryCore;
+import net.atos.webtools.tapestry.core.util.ErrorMessages;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IResourceProxyVisitor;
+import org.eclipse.core.resources.IStorage;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IJarEntryResource;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaModelException;
+
+/**
+ * Files of each feature of a {@link ProjectModel}: its <code>.java</code>, <code>.tml</code> and <code>.properties</code>
+ * files, and their locale variants (<code>Index_fr.tml</code>, <code>Index_fr.properties</code>), wherever they are
+ * in the source folders (e.g. <code>src/main/java</code> and <code>src/main/resources</code>) or in a jar.
+ *
+ * <p>The files of the source folders are indexed by path relative to their source folder, without extension
+ * (<code>com/app/pages/Index</code>): opening a file in the Tapestry editor finds the other ones with one lookup,
+ * instead of probing every source folder. The source folders are visited once, on first request, then the index is
+ * updated with the added and removed files (see {@link ProjectModelUpdater}).
+ *
+ * <p>The files of a package of a jar are indexed by feature name, when this package is first requested: jars don't
+ * change (the model is reloaded when they do).
+ *
+ * <p>Lookups don't lock. Builds and updates are synchronized.
+ */
+public class FeatureFileIndex {
+	/**
+	 * Files of one feature, immutable: a new instance replaces it when a file is added or removed
+	 */
+	public static final class FeatureFiles {
+		private static final FeatureFiles EMPTY = new FeatureFiles(null, null, null, Collections.<IStorage> emptyList());
+
+		private final IStorage javaFile;
+		private final IStorage tmlFile;
+		private final IStorage messageCatalog;
+		private final List<IStorage> localizedFiles;
+
+		private FeatureFiles(IStorage javaFile, IStorage tmlFile, IStorage messageCatalog, List<IStorage> localizedFiles) {
+			this.javaFile = javaFile;
+			this.tmlFile = tmlFile;
+			this.messageCatalog = messageCatalog;
+			this.localizedFiles = localizedFiles;
+		}
+
+		/**
+		 * @return the java file, or null (always null in jars: the class file is found by
+		 * {@link IPackageFragment#getClassFile(String)})
+		 */
+		public IStorage getJavaFile() {
+			return javaFile;
+		}
+
+		public IStorage getTmlFile() {
+			return tmlFile;
+		}
+
+		/**
+		 * @return the default message catalog (<code>Index.properties</code>), or null
+		 */
+		public IStorage getMessageCatalog() {
+			return messageCatalog;
+		}
+
+		/**
+		 * @return the localized templates and message catalogs (<code>Index_fr.tml</code>,
+		 * <code>Index_fr.properties</code>)
+		 */
+		public List<IStorage> getLocalizedFiles() {
+			return localizedFiles;
+		}
+
+		private boolean isEmpty() {
+			return javaFile == null && tmlFile == null && messageCatalog == null && localizedFiles.isEmpty();
+		}
+
+		/**
+		 * @param file
+		 * @param fileType
+		 * @param localized true for a locale variant
+		 * @return the files, with this one (the first file found of each type is kept)
+		 */
+		private FeatureFiles with(IStorage file, FileType fileType, boolean localized) {
+			if(localized){
+				List<IStorage> newLocalizedFiles = new ArrayList<IStorage>(localizedFiles.size() + 1);
+				newLocalizedFiles.addAll(localizedFiles);
+				newLocalizedFiles.add(file);
+				return new FeatureFiles(javaFile, tmlFile, messageCatalog, Collections.unmodifiableList(newLocalizedFiles));
+			}
+			if(fileType == FileType.JAVA && javaFile == null){
+				return new FeatureFiles(file, tmlFile, messageCatalog, localizedFiles);
+			}
+			if(fileType == FileType.TML && tmlFile == null){
+				return new FeatureFiles(javaFile, file, messageCatalog, localizedFiles);
+			}
+			if(fileType == FileType.PROPERTY && messageCatalog == null){
+				return new FeatureFiles(javaFile, tmlFile, file, localizedFiles);
+			}
+			return this;
+		}
+
+		/**
+		 * @param path
+		 * @return the files, without the one with this path
+		 */
+		private FeatureFiles without(IPath path) {
+			List<IStorage> newLocalizedFiles = new ArrayList<IStorage>(localizedFiles.size());
+			for (IStorage localizedFile : localizedFiles) {
+				if(! localizedFile.getFullPath().equals(path)){
+					newLocalizedFiles.add(localizedFile);
+				}
+			}
+			return new FeatureFiles(
+					javaFile != null && javaFile.getFullPath().equals(path) ? null : javaFile,
+					tmlFile != null && tmlFile.getFullPath().equals(path) ? null : tmlFile,
+					messageCatalog != null && messageCatalog.getFullPath().equals(path) ? null : messageCatalog,
+					newLocalizedFiles.isEmpty() ? Collections.<IStorage> emptyList() : Collections.unmodifiableList(newLocalizedFiles));
+		}
+	}
+
+	private final ProjectModel projectModel;
+
+	/**
+	 * Paths of the source folders of the project and of its required projects, null until they're indexed
+	 */
+	private volatile List<IPath> sourceRootPaths;
+
+	/**
+	 * Files of the source folders, by path relative to their source folder, without extension nor locale
+	 */
+	private final Map<String, FeatureFiles> sourceFeatures = new ConcurrentHashMap<String, FeatureFiles>();
+
+	/**
+	 * Files of the packages of jars, by handle of the package, then by lower case feature name
+	 */
+	private final Map<String, Map<String, FeatureFiles>> jarPackages = new ConcurrentHashMap<String, Map<String, FeatureFiles>>();
+
+	FeatureFileIndex(ProjectModel projectModel) {
+		this.projectModel = projectModel;
+	}
+
+	/**
+	 * @param file a file of a source folder
+	 * @return the files of its feature (including this one), or null if the file is not in a source folder
+	 */
+	public FeatureFiles getFeatureFiles(IResource file) {
+		List<IPath> rootPaths = sourceRootPaths;
+		if(rootPaths == null){
+			rootPaths = build();
+		}
+		String key = toKey(file.getFullPath(), rootPaths);
+		if(key == null){
+			return null;
+		}
+		FeatureFiles featureFiles = sourceFeatures.get(key);
+		return featureFiles == null ? FeatureFiles.EMPTY : featureFiles;
+	}
+
+	/**
+	 * @param packageFragment a package of a jar
+	 * @param featureName e.g. <code>Index</code> (any case)
+	 * @return the files of the feature in this package (never null)
+	 */
+	public FeatureFiles getFeatureFiles(IPackageFragment packageFragment, String featureName) {
+		String handle = packageFragment.getHandleIdentifier();
+		Map<String, FeatureFiles> features = jarPackages.get(handle);
+		if(features == null){
+			features = indexPackage(packageFragment);
+			jarPackages.put(handle, features);
+		}
+		FeatureFiles featureFiles = features.get(featureName.toLowerCase());
+		return featureFiles == null ? FeatureFiles.EMPTY : featureFiles;
+	}
+
+	/**
+	 * Reads the files of a feature of a package of a jar without index (outside of any project model)
+	 *
+	 * @param packageFragment
+	 * @param featureName
+	 * @return the files of the feature in this package (never null)
+	 */
+	static FeatureFiles readFeatureFiles(IPackageFragment packageFragment, String featureName) {
+		FeatureFiles featureFiles = indexPackage(packageFragment).get(featureName.toLowerCase());
+		return featureFiles == null ? FeatureFiles.EMPTY : featureFiles;
+	}
+
+	/**
+	 * A file has been added in the workspace (nothing is done if it's not in an indexed source folder)
+	 *
+	 * @param file
+	 */
+	synchronized void fileAdded(IResource file) {
+		if(sourceRootPaths != null){
+			add(file, sourceRootPaths);
+		}
+	}
+
+	/**
+	 * A file has been removed from the workspace (nothing is done if it's not in an indexed source folder)
+	 *
+	 * @param file
+	 */
+	synchronized void fileRemoved(IResource file) {
+		if(sourceRootPaths == null || getFileType(file.getName()) == null){
+			return;
+		}
+		String key = toKey(file.getFullPath(), sourceRootPaths);
+		FeatureFiles featureFiles = key == null ? null : sourceFeatures.get(key);
+		if(featureFiles != null){
+			featureFiles = featureFiles.without(file.getFullPath());
+			if(featureFiles.isEmpty()){
+				sourceFeatures.remove(key);
+			}
+			else{
+				sourceFeatures.put(key, featureFiles);
+			}
+		}
+	}
+
+	/**
+	 * A package (folder) has been added or removed: its files are not reported one by one, the source folders will be
+	 * indexed again on next request
+	 *
+	 * @param path
+	 */
+	synchronized void folderChanged(IPath path) {
+		if(sourceRootPaths != null && toKey(path, sourceRootPaths) != null){
+			sourceRootPaths = null;
+			sourceFeatures.clear();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "FeatureFileIndex [sourceFeatures=" + sourceFeatures.size() + ", jarPackages=" + jarPackages.size() + "]";
+	}
+
+	/**
+	 * Visits the source folders (the features may be split between several ones)
+	 *
+	 * @return the paths of the source folders
+	 */
+	private synchronized List<IPath> build() {
+		if(sourceRootPaths != null){
+			return sourceRootPaths;
+		}
+		final List<IPath> rootPaths = new ArrayList<IPath>();
+		IJavaProject javaProject = projectModel.getJavaProject();
+		if(javaProject != null){
+			try {
+				for (IPackageFragmentRoot packageFragmentRoot : javaProject.getAllPackageFragmentRoots()) {
+					if(packageFragmentRoot.getKind() == IPackageFragmentRoot.K_SOURCE
+							&& packageFragmentRoot.getResource() instanceof IContainer){
+						rootPaths.add(packageFragmentRoot.getPath());
+					}
+				}
+				for (IPath rootPath : rootPaths) {
+					IResource root = javaProject.getProject().getWorkspace().getRoot().findMember(rootPath);
+					if(root != null && root.isAccessible()){
+						root.accept(new IResourceProxyVisitor() {
+							@Override
+							public boolean visit(IResourceProxy proxy) throws CoreException {
+								if(proxy.getType() == IResource.FILE && getFileType(proxy.getName()) != null){
+									add(proxy.requestResource(), rootPaths);
+								}
+								return true;
+							}
+						}, IResource.NONE);
+					}
+				}
+			}
+			catch (CoreException e) {
+				TapestryCore.logError(ErrorMessages.CAN_T_FIND_CORRESPONDING_FILE_IN_PROJECT_SOURCE_S_DIRECTORIES, e);
+			}
+		}
+		sourceRootPaths = rootPaths;
+		return rootPaths;
+	}
+
+	private void add(IResource file, List<IPath> rootPaths) {
+		FileType fileType = getFileType(file.getName());
+		IPath path = file.getFullPath();
+		String key = fileType == null ? null : toKey(path, rootPaths);
+		if(key != null && file instanceof IStorage){
+			FeatureFiles featureFiles = sourceFeatures.get(key);
+			if(featureFiles == null){
+				featureFiles = FeatureFiles.EMPTY;
+			}
+			sourceFeatures.put(key, featureFiles.with((IStorage) file, fileType, isLocalized(path, fileType)));
+		}
+	}
+
+	private static Map<String, FeatureFiles> indexPackage(IPackageFragment packageFragment) {
+		Map<String, FeatureFiles> features = new ConcurrentHashMap<String, FeatureFiles>();
+		try {
+			for (Object nonJavaResource : packageFragment.getNonJavaResources()) {
+				if(nonJavaResource instanceof IJarEntryResource && ((IJarEntryResource) nonJavaResource).isFile()){
+					IJarEntryResource jarEntry = (IJarEntryResource) nonJavaResource;
+					FileType fileType = getFileType(jarEntry.getName());
+					if(fileType != null){
+						IPath path = jarEntry.getFullPath();
+						String featureName = getFeatureName(path, fileType).toLowerCase();
+						FeatureFiles featureFiles = features.get(featureName);
+						if(featureFiles == null){
+							featureFiles = FeatureFiles.EMPTY;
+						}
+						features.put(featureName, featureFiles.with(jarEntry, fileType, isLocalized(path, fileType)));
+					}
+				}
+			}
+		}
+		catch (JavaModelException e) {
+			TapestryCore.logWarning(ErrorMessages.CAN_T_LOOK_FOR_FEATURE_S_MESSAGES, e);
+		}
+		return features;
+	}
+
+	/**
+	 * @param path
+	 * @param rootPaths
+	 * @return the path relative to its source folder, without extension nor locale, or null if it's not in a
+	 * source folder
+	 */
+	private static String toKey(IPath path, List<IPath> rootPaths) {
+		//the deepest source folder, if they're nested (e.g. the project itself, and src):
+		IPath sourceRootPath = null;
+		for (IPath rootPath : rootPaths) {
+			if(rootPath.isPrefixOf(path) && path.segmentCount() > rootPath.segmentCount()
+					&& (sourceRootPath == null || rootPath.segmentCount() > sourceRootPath.segmentCount())){
+				sourceRootPath = rootPath;
+			}
+		}
+		if(sourceRootPath == null){
+			return null;
+		}
+		IPath relativePath = path.removeFirstSegments(sourceRootPath.segmentCount()).removeLastSegments(1);
+		FileType fileType = getFileType(path.lastSegment());
+		return relativePath.append(fileType == null ? path.lastSegment() : getFeatureName(path, fileType)).toPortableString();
+	}
+
+	/**
+	 * @return the name of the file without extension, nor locale for the templates and catalogs
+	 */
+	private static String getFeatureName(IPath path, FileType fileType) {
+		String name = path.removeFileExtension().lastSegment();
+		if(fileType == FileType.TML || fileType == FileType.PROPERTY){
+			int separator = name.indexOf('_');
+			while(separator > 0){
+				if(MessageCatalogIndex.isLocale(name.substring(separator + 1))){
+					return name.substring(0, separator);
+				}
+				separator = name.indexOf('_', separator + 1);
+			}
+		}
+		return name;
+	}
+
+	private static boolean isLocalized(IPath path, FileType fileType) {
+		return ! getFeatureName(path, fileType).equals(path.removeFileExtension().lastSegment());
+	}
+
+	/**
+	 * @return the type of the files that belong to a feature (java, tml, properties), null for the other ones
+	 */
+	private static FileType getFileType(String fileName) {
+		int dot = fileName.lastIndexOf('.');
+		FileType fileType = dot < 0 ? null : FileType.getTypeFromExtension(fileName.substring(dot + 1));
+		return fileType == FileType.CLASS ? null : fileType;
+	}
+}
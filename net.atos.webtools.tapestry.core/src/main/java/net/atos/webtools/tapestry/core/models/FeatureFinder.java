@@ -13,13 +13,31 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.Manifest;
 
 import net.atos.webtools.tapestry.core.TapestryCore;
-import net.atos.webtools.tapestry.core.models.features.ComponentModel;
-import net.atos.webtools.tapestry.core.models.features.MixinModel;
-import net.atos.webtools.tapestry.core.models.features.PageModel;
-import net.atos.webtools.tapestry.core.models.features.ServiceModel;
+import net.atos.webtools.tapestry.core.models.RootScan.FeaturePackage;
+import net.atos.webtools.tapestry.core.models.ScanReport.Resolution;
+import net.atos.webtools.tapestry.core.models.ScanReport.RootReport;
+import net.atos.webtools.tapestry.core.models.bytecode.JarScanner;
+import net.atos.webtools.tapestry.core.models.features.AbstractFeatureModel;
+import net.atos.webtools.tapestry.core.models.index.FeatureIndex;
+import net.atos.webtools.tapestry.core.models.index.IndexedFeature;
+import net.atos.webtools.tapestry.core.models.index.IndexedRoot;
+import net.atos.webtools.tapestry.core.models.index.JarFingerprint;
+import net.atos.webtools.tapestry.core.models.index.LibraryMappingCache;
+import net.atos.webtools.tapestry.core.models.index.LibraryMappingResolution;
+import net.atos.webtools.tapestry.core.models.index.LibraryMappingResolution.Source;
+import net.atos.webtools.tapestry.core.preferences.CorePreferenceNames;
+import net.atos.webtools.tapestry.core.util.ClassLoaderPool;
 import net.atos.webtools.tapestry.core.util.Constants;
 import net.atos.webtools.tapestry.core.util.ErrorMessages;
 import net.atos.webtools.tapestry.core.util.JarClassLoader;
@@ -28,6 +46,7 @@ import net.atos.webtools.tapestry.core.util.Messages;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtension;
 import org.eclipse.core.runtime.IExtensionPoint;
@@ -37,6 +56,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.IClassFile;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJarEntryResource;
@@ -69,8 +89,36 @@ public class FeatureFinder extends Job{
 	private static final String GET_PATH_PREFIX = "getPathPrefix";
 	private static final String CONTRIBUTE_COMPONENT_CLASS_RESOLVER = "contributeComponentClassResolver";
 	
+	/**
+	 * How often (ms) the Job thread checks for cancellation while workers are running
+	 */
+	private static final long CANCEL_POLLING_PERIOD = 200;
+	
+	/**
+	 * Scan reports are written in the plugin state location, one file per project
+	 */
+	private static final String SCAN_REPORT_FILE_PREFIX = "scan-report-";
+	
 	private ProjectModel projectModel;
 	
+	/**
+	 * Classloader used for reflection on AppModules: it's only created when a jar or a project 
+	 * must really be scanned (i.e. not when every jar is found in the {@link FeatureIndex}).
+	 * Workers may need it concurrently, so it's guarded by {@link #classLoaderLock}.
+	 * The jars are loaded by a {@link JarClassLoader} from the {@link ClassLoaderPool}, given back at the end of the run.
+	 */
+	private final Object classLoaderLock = new Object();
+	private ClassLoader classLoader;
+	private JarClassLoader jarClassLoader;
+	private boolean classLoaderInitialized;
+	
+	/**
+	 * Jars are read with a {@link JarScanner} instead of the JDT model
+	 */
+	private boolean bytecodeScanner;
+	
+	private LibraryFeatureCache libraryFeatureCache;
+	
 	/**
 	 * Initialize the {@link Job} with the {@link ProjectModel}
 	 * 
@@ -86,7 +134,7 @@ public class FeatureFinder extends Job{
 		if (projectModel != null && projectModel.getJavaProject() != null) {
 			
 			//Loads PackageFragmentRoots (source folders, and all jars in classpath)
-			IPackageFragmentRoot[] packageFragmentRoots;
+			final IPackageFragmentRoot[] packageFragmentRoots;
 			try {
 				packageFragmentRoots = projectModel.getJavaProject().getAllPackageFragmentRoots();
 			}
@@ -95,134 +143,449 @@ public class FeatureFinder extends Job{
 				return new Status(IStatus.ERROR, TapestryCore.PLUGIN_ID, ErrorMessages.CAN_T_LOAD_THE_PACKAGES);
 			}
 			
-			//Try to init a classloader with all classes, for reflexion (if it fails, we continue only looking in extension point)
-			ClassLoader classLoader = null;
-			try {
-				classLoader = getCLassLoader(packageFragmentRoots);
-			}
-			catch (JavaModelException e) {
-				TapestryCore.logWarning(ErrorMessages.CAN_T_SEARCH_DYNAMICALLY_FOR_TAPESTRY_LIBS, e);
+			final FeatureIndex featureIndex = TapestryCore.getDefault().getFeatureIndex();
+			bytecodeScanner = JarScanner.isEnabled();
+			libraryFeatureCache = TapestryCore.getDefault().getLibraryFeatureCache();
+			
+			//with only 1 thread, everything is done in the Job thread
+			int scanThreads = TapestryCore.getDefault().getPreferenceStore().getInt(CorePreferenceNames.SCAN_THREADS);
+			ExecutorService executor = null;
+			if(scanThreads > 1){
+				executor = Executors.newFixedThreadPool(Math.min(scanThreads, CorePreferenceNames.SCAN_THREADS_MAX), 
+															new WorkerThreadFactory(getName()));
 			}
 			
-			for (IPackageFragmentRoot iPackageFragmentRoot : packageFragmentRoots) {
-				if(isCancel(monitor)){
-					return new Status(IStatus.CANCEL, TapestryCore.PLUGIN_ID, "Job Cancelled before " 
-							+ iPackageFragmentRoot != null ? iPackageFragmentRoot.getElementName() : "");
-				}
-				
-				/*
-				 * Be careful, NOT to change order of step-1 & step-2:
-				 *  JarPackageFragmentRoot is a subclass of PackageFragmentRoot, 
-				 *  so jars would be managed in the wrong step 
-				 */
+			long startNanos = System.nanoTime();
+			List<RootScan> rootScans = new ArrayList<RootScan>(packageFragmentRoots.length);
+			boolean completed = false;
+			try {
+				monitor.beginTask(getName(), packageFragmentRoots.length * (FeatureType.values().length + 1));
 				
-				//---------- STEP-1: look for components in Classpath's Jars -------------- 
-				if(iPackageFragmentRoot instanceof JarPackageFragmentRoot){
-					//STEP-1-A: This is a Core Library (nothing special can be found in the Manifest)
-					IPackageFragment corePackageFragment = iPackageFragmentRoot.getPackageFragment(Constants.TAPESTRY5_CORELIB_PACKAGE);
-					if(corePackageFragment != null  && corePackageFragment.exists()){
-						for (FeatureType featureType : FeatureType.values()) {
-							loadFeaturesFromPackageFragmentRoot(iPackageFragmentRoot, "", Constants.TAPESTRY5_CORELIB_PACKAGE, featureType);
-						}
-					}
-					//STEP-1-B: This is a custom Library ("tapestry-module-classes" property can be found in the path)
-					else{
-						Manifest manifest = getManifest(iPackageFragmentRoot);
-						if(manifest != null){
-							String appModule = manifest.getMainAttributes().getValue(Constants.TAPESTRY_MANIFEST_PROPERTY);
-							if(appModule != null ){
-								String[] prefixPackageStrings = getPackageInfoByReflection(classLoader, appModule);
-								
-								if(prefixPackageStrings != null && prefixPackageStrings.length>1 
-										&& prefixPackageStrings[0] != null && prefixPackageStrings[1] != null){
-									String prefix = prefixPackageStrings[0];
-									String appPackageName = prefixPackageStrings[1];
-									for (FeatureType featureType : FeatureType.values()) {
-										loadFeaturesFromPackageFragmentRoot(iPackageFragmentRoot, prefix, appPackageName, featureType);
-									}
-								}
-							}
+				//---------- STEP-1: find the prefix & package of every root --------------
+				List<Runnable> tasks = new ArrayList<Runnable>(packageFragmentRoots.length);
+				for (IPackageFragmentRoot iPackageFragmentRoot : packageFragmentRoots) {
+					final RootScan rootScan = new RootScan(iPackageFragmentRoot);
+					rootScans.add(rootScan);
+					tasks.add(new Runnable() {
+						@Override
+						public void run() {
+							long start = System.nanoTime();
+							resolvePackageInfo(rootScan, packageFragmentRoots, featureIndex);
+							classifyPackages(rootScan);
+							rootScan.addResolveNanos(System.nanoTime() - start);
 						}
+					});
+				}
+				if(! runTasks(executor, tasks, rootScans, Messages.SCAN_RESOLVING_LIBRARIES, monitor)){
+					return new Status(IStatus.CANCEL, TapestryCore.PLUGIN_ID, Messages.JOB_CANCELLED);
+				}
+				
+				//source folders are remembered, to update their features incrementally (see ProjectModelUpdater)
+				for (RootScan rootScan : rootScans) {
+					if(! (rootScan.getPackageFragmentRoot() instanceof JarPackageFragmentRoot) && rootScan.isTapestryRoot()){
+						projectModel.setSourceRootPackageInfo(rootScan.getPackageFragmentRoot().getPath(), 
+								rootScan.getPrefix(), rootScan.getAppPackageName());
 					}
 				}
 				
-				//---------- STEP-2: look in sources for custom components ------------
-				else {
-					
-					//STEP-2-A: sources from the project itself:
-					if(iPackageFragmentRoot.getJavaProject() == projectModel.getJavaProject()){
-						if(projectModel.getAppPackage() != null){
-							for (FeatureType featureType : FeatureType.values()) {
-								loadFeaturesFromPackageFragmentRoot(iPackageFragmentRoot, "", projectModel.getAppPackage(), featureType);
+				//---------- STEP-2: load the features, one FeatureType after the other ------------
+				//All the roots must have finished a FeatureType before the next one starts (see FeatureType order)
+				for (final FeatureType featureType : FeatureType.values()) {
+					tasks = new ArrayList<Runnable>(rootScans.size());
+					for (final RootScan rootScan : rootScans) {
+						tasks.add(new Runnable() {
+							@Override
+							public void run() {
+								long start = System.nanoTime();
+								loadFeatures(rootScan, featureType);
+								rootScan.addLoadNanos(System.nanoTime() - start);
 							}
-						}
+						});
 					}
-					//STEP-2-B: Sources from a project in dependency: jar with components
-					else {
-						/*
-						 * Usually, the manifest is found in only one of the PackageFragment (often src/main,/resources),
-						 * but then, the sources are in the siblings PackageFragments (i.e. src/main/java)
-						 */
-						ProjectModel otherProjectModel = new ProjectModel(iPackageFragmentRoot.getJavaProject());
-						otherProjectModel.init();
-						if(otherProjectModel.getAppModule() != null){
-							String[] prefixPackageStrings = getPackageInfoByReflection(classLoader, otherProjectModel.getAppModule());
-							if(prefixPackageStrings != null && prefixPackageStrings.length>1 
-									&& prefixPackageStrings[0] != null && prefixPackageStrings[1] != null){
-								String prefix = prefixPackageStrings[0];
-								String appPackageName = prefixPackageStrings[1];
-								for (FeatureType featureType : FeatureType.values()) {
-									loadFeaturesFromPackageFragmentRoot(iPackageFragmentRoot, prefix, appPackageName, featureType);
-								}
-							}
-						}
+					if(! runTasks(executor, tasks, rootScans, Messages.SCAN_LOADING_FEATURES + featureType, monitor)){
+						return new Status(IStatus.CANCEL, TapestryCore.PLUGIN_ID, Messages.JOB_CANCELLED);
 					}
+					//all the features of that type are visible at once
+					projectModel.publish();
+				}
+				
+				//---------- STEP-3: keep the scanned jars for next time, and share them with the other projects ------------
+				//(only the ones whose result doesn't depend on the classpath of this project)
+				for (RootScan rootScan : rootScans) {
+					featureIndex.put(rootScan.toIndexedRoot());
+					libraryFeatureCache.put(rootScan.toLibraryFeatures());
+				}
+				featureIndex.save();
+				TapestryCore.getDefault().getLibraryMappingCache().save();
+				completed = true;
+			}
+			finally{
+				if(executor != null){
+					executor.shutdown();
 				}
+				releaseClassLoader();
+				//what has been found before a cancellation is kept
+				projectModel.publish();
+				publishScanReport(rootScans, (System.nanoTime() - startNanos) / 1000000, ! completed);
+				monitor.done();
 			}
 		}
 		return new Status(IStatus.OK, TapestryCore.PLUGIN_ID, Messages.JOB_DONE);
 	}
 	
 	/**
+	 * Runs the tasks, in the executor if there's one, or directly in the current thread otherwise.
 	 * 
+	 * <p>It returns only when all the tasks are finished, reporting 1 unit of work per task, 
+	 * and checking regularly for cancellation. The root of the task being run (or waited for) is shown as sub-task.
 	 * 
-	 * @param packageFragmentRoot
-	 * @param prefix
-	 * @param appPackageName
-	 * @param featureType 
+	 * @param executor the worker pool, or null
+	 * @param tasks one task per root
+	 * @param rootScans the roots of the tasks, in the same order
+	 * @param step the name of the step, for the sub-task
+	 * @param monitor
+	 * @return false if the Job has been cancelled
 	 */
-	private void loadFeaturesFromPackageFragmentRoot(IPackageFragmentRoot packageFragmentRoot, String prefix, String appPackageName, FeatureType featureType){
-		if(packageFragmentRoot != null && packageFragmentRoot.exists() && appPackageName != null){
-			IJavaElement[] children;
-			try {
-				children = packageFragmentRoot.getChildren();
+	private boolean runTasks(ExecutorService executor, List<Runnable> tasks, List<RootScan> rootScans, String step, 
+			IProgressMonitor monitor){
+		if(executor == null){
+			for (int i = 0; i < tasks.size(); i++) {
+				if(isCancel(monitor)){
+					return false;
+				}
+				monitor.subTask(step + ": " + rootScans.get(i).getPackageFragmentRoot().getElementName());
+				tasks.get(i).run();
+				monitor.worked(1);
 			}
-			catch (JavaModelException e) {
-				TapestryCore.logWarning(ErrorMessages.CAN_T_LOAD_TAPESTRY_LIBS_FROM + packageFragmentRoot.getElementName() 
-						+ " : " + packageFragmentRoot.getJavaProject().getElementName(), e);
+			return true;
+		}
+		
+		List<Future<?>> futures = new ArrayList<Future<?>>(tasks.size());
+		for (Runnable task : tasks) {
+			futures.add(executor.submit(task));
+		}
+		for (int i = 0; i < futures.size(); i++) {
+			Future<?> future = futures.get(i);
+			monitor.subTask(step + ": " + rootScans.get(i).getPackageFragmentRoot().getElementName());
+			while(true){
+				if(isCancel(monitor)){
+					cancelAll(futures);
+					return false;
+				}
+				try {
+					future.get(CANCEL_POLLING_PERIOD, TimeUnit.MILLISECONDS);
+					break;
+				}
+				catch (TimeoutException e) {
+					//still running: check again for cancellation
+				}
+				catch (ExecutionException e) {
+					TapestryCore.logError(ErrorMessages.FEATURE_SCAN_TASK_FAILED + projectModel.getJavaProject().getElementName(), 
+							e.getCause());
+					break;
+				}
+				catch (InterruptedException e) {
+					cancelAll(futures);
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+			monitor.worked(1);
+		}
+		return true;
+	}
+	
+	/**
+	 * Keeps the telemetry of the run in the project model, and writes it to the error log and to the plugin
+	 * state location if the {@link CorePreferenceNames#SCAN_REPORT} preference is set
+	 * 
+	 * @param rootScans
+	 * @param wallMillis
+	 * @param cancelled
+	 */
+	private void publishScanReport(List<RootScan> rootScans, long wallMillis, boolean cancelled){
+		List<RootReport> rootReports = new ArrayList<RootReport>(rootScans.size());
+		for (RootScan rootScan : rootScans) {
+			rootReports.add(rootScan.toRootReport());
+		}
+		String projectName = projectModel.getJavaProject().getElementName();
+		ScanReport scanReport = new ScanReport(projectName, wallMillis, cancelled, rootReports);
+		projectModel.setScanReport(scanReport);
+		
+		if(TapestryCore.getDefault().getPreferenceStore().getBoolean(CorePreferenceNames.SCAN_REPORT)){
+			TapestryCore.logInfo(scanReport.toString());
+			scanReport.writeTo(TapestryCore.getDefault().getStateLocation().append(SCAN_REPORT_FILE_PREFIX + projectName + ".txt").toFile());
+		}
+	}
+	
+	/**
+	 * Tasks that haven't started yet won't run, running ones will finish (JDT doesn't like to be interrupted)
+	 */
+	private void cancelAll(List<Future<?>> futures){
+		for (Future<?> future : futures) {
+			future.cancel(false);
+		}
+	}
+	
+	/**
+	 * STEP-1 for one root: finds the prefix & package where features must be searched.
+	 * 
+	 * @param rootScan
+	 * @param packageFragmentRoots all the roots of the classpath (for reflection)
+	 * @param featureIndex
+	 */
+	private void resolvePackageInfo(RootScan rootScan, IPackageFragmentRoot[] packageFragmentRoots, FeatureIndex featureIndex){
+		IPackageFragmentRoot iPackageFragmentRoot = rootScan.getPackageFragmentRoot();
+		/*
+		 * Be careful, NOT to change order of step-1 & step-2:
+		 *  JarPackageFragmentRoot is a subclass of PackageFragmentRoot, 
+		 *  so jars would be managed in the wrong step 
+		 */
+		
+		//---------- STEP-1: look for components in Classpath's Jars -------------- 
+		if(iPackageFragmentRoot instanceof JarPackageFragmentRoot){
+			//STEP-1-0: This jar has already been loaded by another project, or it hasn't changed since it has been indexed
+			// (only its size and date are checked: the jar isn't opened)
+			File jarFile = JarFingerprint.getJarFile(iPackageFragmentRoot);
+			LibraryFeatures sharedLibrary = libraryFeatureCache.get(jarFile);
+			if(sharedLibrary != null){
+				rootScan.setSharedLibrary(sharedLibrary);
+				return;
+			}
+			IndexedRoot indexedRoot = featureIndex.get(jarFile);
+			if(indexedRoot != null){
+				rootScan.setIndexedRoot(indexedRoot);
 				return;
 			}
-			String  featuresPackageName = appPackageName + "." + featureType.getSubPackage();
 			
-			for (IJavaElement iJavaElement : children) {
-				if(iJavaElement instanceof IPackageFragment){
-					IPackageFragment classesPackage = (IPackageFragment) iJavaElement;
-					if(classesPackage.getElementName().startsWith(featuresPackageName)){
-						String subPackage;
-						if(classesPackage.getElementName().length() > featuresPackageName.length()){
-							subPackage = classesPackage.getElementName().substring(featuresPackageName.length() + 1);
-						}
-						else{
-							subPackage = "";
-						}
+			//STEP-1-1: The jar must be read: its fingerprint is computed during the same pass as its central directory
+			JarScanner jarScanner = null;
+			JarFingerprint fingerprint;
+			if(bytecodeScanner){
+				jarScanner = new JarScanner(jarFile);
+				if(! jarScanner.scan()){
+					jarScanner = null;
+				}
+			}
+			if(jarScanner != null){
+				fingerprint = jarScanner.getFingerprint();
+			}
+			else{
+				fingerprint = JarFingerprint.of(jarFile);
+			}
+			//It may just have been copied again, with the same content
+			indexedRoot = featureIndex.get(fingerprint);
+			if(indexedRoot != null){
+				rootScan.setIndexedRoot(indexedRoot);
+				return;
+			}
+			if(fingerprint != null){
+				rootScan.setFingerprint(fingerprint);
+			}
+			if(jarScanner != null){
+				rootScan.setJarScanner(jarScanner);
+			}
+			
+			//STEP-1-A: This is a Core Library (nothing special can be found in the Manifest)
+			if(isCoreLibrary(iPackageFragmentRoot, jarScanner)){
+				rootScan.setPackageInfo("", Constants.TAPESTRY5_CORELIB_PACKAGE, Resolution.CORE_LIBRARY);
+			}
+			//STEP-1-B: This is a custom Library ("tapestry-module-classes" property can be found in the path)
+			else{
+				Manifest manifest = jarScanner != null ? jarScanner.getManifest() : getManifest(iPackageFragmentRoot);
+				if(manifest != null){
+					String appModule = manifest.getMainAttributes().getValue(Constants.TAPESTRY_MANIFEST_PROPERTY);
+					if(appModule != null ){
+						String[] prefixPackageStrings = getPackageInfo(appModule, fingerprint, packageFragmentRoots, rootScan);
 						
-						loadFeaturesFromPackageFragment(featureType, prefix, classesPackage, subPackage);
+						if(prefixPackageStrings != null && prefixPackageStrings.length>1 
+								&& prefixPackageStrings[0] != null && prefixPackageStrings[1] != null){
+							rootScan.setPackageInfo(prefixPackageStrings[0], prefixPackageStrings[1], Resolution.APP_MODULE);
+						}
+					}
+				}
+			}
+		}
+		
+		//---------- STEP-2: look in sources for custom components ------------
+		else {
+			
+			//STEP-2-A: sources from the project itself:
+			if(iPackageFragmentRoot.getJavaProject() == projectModel.getJavaProject()){
+				if(projectModel.getAppPackage() != null){
+					rootScan.setPackageInfo("", projectModel.getAppPackage(), Resolution.PROJECT_SOURCES);
+				}
+			}
+			//STEP-2-B: Sources from a project in dependency: jar with components
+			else {
+				/*
+				 * Usually, the manifest is found in only one of the PackageFragment (often src/main,/resources),
+				 * but then, the sources are in the siblings PackageFragments (i.e. src/main/java)
+				 */
+				ProjectModel otherProjectModel = new ProjectModel(iPackageFragmentRoot.getJavaProject());
+				otherProjectModel.init();
+				if(otherProjectModel.getAppModule() != null){
+					String[] prefixPackageStrings = getPackageInfo(otherProjectModel.getAppModule(), 
+							getAppModuleFingerprint(iPackageFragmentRoot.getJavaProject(), otherProjectModel.getAppModule()), 
+							packageFragmentRoots, rootScan);
+					if(prefixPackageStrings != null && prefixPackageStrings.length>1 
+							&& prefixPackageStrings[0] != null && prefixPackageStrings[1] != null){
+						rootScan.setPackageInfo(prefixPackageStrings[0], prefixPackageStrings[1], Resolution.APP_MODULE);
 					}
 				}
 			}
 		}
 	}
 	
+	/**
+	 * @param packageFragmentRoot a jar
+	 * @param jarScanner the content of the jar, or null if it's read with the JDT model
+	 * @return true if the jar contains the Tapestry core components
+	 */
+	private boolean isCoreLibrary(IPackageFragmentRoot packageFragmentRoot, JarScanner jarScanner){
+		if(jarScanner != null){
+			return jarScanner.hasPackage(Constants.TAPESTRY5_CORELIB_PACKAGE);
+		}
+		IPackageFragment corePackageFragment = packageFragmentRoot.getPackageFragment(Constants.TAPESTRY5_CORELIB_PACKAGE);
+		return corePackageFragment != null && corePackageFragment.exists();
+	}
+	
+	/**
+	 * STEP-2 for one root: loads the features of one type, from the index, or by scanning the root.
+	 * 
+	 * @param rootScan
+	 * @param featureType
+	 */
+	private void loadFeatures(RootScan rootScan, FeatureType featureType){
+		if(rootScan.getSharedLibrary() != null){
+			loadFeaturesFromIndex(rootScan, rootScan.getSharedLibrary().getFeatures(featureType), featureType);
+		}
+		else if(rootScan.getIndexedRoot() != null){
+			loadFeaturesFromIndex(rootScan, rootScan.getIndexedRoot().getFeatures(), featureType);
+		}
+		else{
+			for (FeaturePackage featurePackage : rootScan.getFeaturePackages(featureType)) {
+				if(rootScan.getJarScanner() != null){
+					loadFeaturesFromJarPackage(featureType, rootScan, featurePackage);
+				}
+				else{
+					loadFeaturesFromPackageFragment(featureType, rootScan.getPrefix(), featurePackage.getPackageFragment(), 
+							featurePackage.getSubPackage(), rootScan);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Loads the features of a jar that is already in the {@link FeatureIndex}, or already loaded by another project 
+	 * (see {@link LibraryFeatureCache}): class files are directly taken from their package, without enumerating 
+	 * the content of the jar. The features are created with the handles of this project: their parameters are 
+	 * loaded in its classpath.
+	 * 
+	 * @param rootScan the jar
+	 * @param knownFeatures the features found the last time it was scanned
+	 * @param featureType the type of features to load
+	 */
+	private void loadFeaturesFromIndex(RootScan rootScan, List<IndexedFeature> knownFeatures, FeatureType featureType){
+		IPackageFragmentRoot packageFragmentRoot = rootScan.getPackageFragmentRoot();
+		if(! rootScan.isTapestryRoot()){
+			return;
+		}
+		String source = packageFragmentRoot.getPath().toPortableString();
+		for (IndexedFeature indexedFeature : knownFeatures) {
+			if(indexedFeature.getFeatureType() != featureType){
+				continue;
+			}
+			IClassFile classFile = packageFragmentRoot.getPackageFragment(indexedFeature.getPackageName())
+											.getClassFile(indexedFeature.getTypeName() + "." + Constants.CLASS_FILE_EXTENSION);
+			loadFeatureFromClass(indexedFeature.getFeatureType(), classFile, rootScan.getPrefix(), source, 
+									indexedFeature.getSubPackage(), rootScan);
+		}
+	}
+	
+	/**
+	 * Enumerates the packages of a root that must be scanned, only once, and sorts the ones containing features
+	 * by {@link FeatureType}: <code>appPackage.components[.sub.package]</code> goes to {@link FeatureType#COMPONENT}...
+	 * 
+	 * @param rootScan a root for which {@link #resolvePackageInfo(RootScan, IPackageFragmentRoot[], FeatureIndex)} 
+	 * 			has already been called
+	 */
+	private void classifyPackages(RootScan rootScan){
+		IPackageFragmentRoot packageFragmentRoot = rootScan.getPackageFragmentRoot();
+		if(rootScan.getSharedLibrary() != null || rootScan.getIndexedRoot() != null || ! rootScan.isTapestryRoot()){
+			return;
+		}
+		
+		//the packages of the jar are already known: only handles are created for them
+		if(rootScan.getJarScanner() != null){
+			for (String packageName : rootScan.getJarScanner().getPackageNames()) {
+				FeaturePackage featurePackage = classifyPackage(packageFragmentRoot.getPackageFragment(packageName), rootScan.getAppPackageName());
+				if(featurePackage != null){
+					rootScan.addFeaturePackage(featurePackage);
+				}
+			}
+			return;
+		}
+		
+		if(! packageFragmentRoot.exists()){
+			return;
+		}
+		IJavaElement[] children;
+		try {
+			children = packageFragmentRoot.getChildren();
+		}
+		catch (JavaModelException e) {
+			TapestryCore.logWarning(ErrorMessages.CAN_T_LOAD_TAPESTRY_LIBS_FROM + packageFragmentRoot.getElementName() 
+					+ " : " + packageFragmentRoot.getJavaProject().getElementName(), e);
+			return;
+		}
+		
+		for (IJavaElement iJavaElement : children) {
+			if(iJavaElement instanceof IPackageFragment){
+				FeaturePackage featurePackage = classifyPackage((IPackageFragment) iJavaElement, rootScan.getAppPackageName());
+				if(featurePackage != null){
+					rootScan.addFeaturePackage(featurePackage);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Finds which type of features a package contains: <code>app.package.components.my.sub</code>
+	 * contains components, in the "my.sub" sub-package
+	 * 
+	 * @param packageFragment
+	 * @param appPackageName the root package of the application or library
+	 * @return the classified package, or null if the package isn't a features package
+	 */
+	static FeaturePackage classifyPackage(IPackageFragment packageFragment, String appPackageName){
+		String packageName = packageFragment.getElementName();
+		int appPackageLength = appPackageName.length();
+		if(packageName.length() <= appPackageLength + 1 
+				|| packageName.charAt(appPackageLength) != '.' 
+				|| ! packageName.startsWith(appPackageName)){
+			return null;
+		}
+		
+		int featureSegmentEnd = packageName.indexOf('.', appPackageLength + 1);
+		String featureSegment;
+		String subPackage;
+		if(featureSegmentEnd < 0){
+			featureSegment = packageName.substring(appPackageLength + 1);
+			subPackage = "";
+		}
+		else{
+			featureSegment = packageName.substring(appPackageLength + 1, featureSegmentEnd);
+			subPackage = packageName.substring(featureSegmentEnd + 1);
+		}
+		
+		FeatureType featureType = FeatureType.fromSubPackage(featureSegment);
+		if(featureType == null){
+			return null;
+		}
+		return new FeaturePackage(featureType, packageFragment, subPackage);
+	}
+	
 	/**
 	 * Enriches the projectModel with classes from the package...
 	 * @param subPackage 
@@ -231,15 +594,17 @@ public class FeatureFinder extends Job{
 	 * @param prefix: the Tapestry prefix for the component lib
 	 * @param componentsPackage: the package to explore
 	 * @param subPackage: the sub-package inside "components", if any, or empty String
+	 * @param rootScan: the scan of the root of the package, every loaded feature is recorded in it
 	 */
-	private void loadFeaturesFromPackageFragment(FeatureType featureType, String prefix, IPackageFragment classesPackage, String subPackage) {
+	private void loadFeaturesFromPackageFragment(FeatureType featureType, String prefix, IPackageFragment classesPackage, String subPackage,
+			RootScan rootScan) {
 		if(classesPackage != null && classesPackage.exists()){
 			String source = classesPackage.getPath().toPortableString();
 			try {
 				ITypeRoot[] classFiles = classesPackage.getClassFiles();
 				for (ITypeRoot classFile : classFiles) {
 					if(classFile.exists() && ! classFile.getElementName().contains("$")){
-						loadFeatureFromClass(featureType, classFile, prefix, source, subPackage);
+						loadFeatureFromClass(featureType, classFile, prefix, source, subPackage, rootScan);
 					}
 				}
 			}
@@ -251,7 +616,7 @@ public class FeatureFinder extends Job{
 				ICompilationUnit[] compilationUnits = classesPackage.getCompilationUnits();
 				for (ICompilationUnit compilationUnit : compilationUnits) {
 					if(compilationUnit.exists() && ! compilationUnit.getElementName().contains("$")){
-						loadFeatureFromClass(featureType, compilationUnit, prefix, source, subPackage);
+						loadFeatureFromClass(featureType, compilationUnit, prefix, source, subPackage, rootScan);
 					}
 				}
 			}
@@ -261,6 +626,23 @@ public class FeatureFinder extends Job{
 		}
 	}
 	
+	/**
+	 * Same as {@link #loadFeaturesFromPackageFragment(FeatureType, String, IPackageFragment, String, RootScan)} for a jar read by
+	 * a {@link JarScanner}: the class files come from the central directory of the jar, the package is not opened.
+	 * 
+	 * @param featureType
+	 * @param rootScan
+	 * @param featurePackage
+	 */
+	private void loadFeaturesFromJarPackage(FeatureType featureType, RootScan rootScan, FeaturePackage featurePackage){
+		IPackageFragment classesPackage = featurePackage.getPackageFragment();
+		String source = classesPackage.getPath().toPortableString();
+		for (String className : rootScan.getJarScanner().getClassNames(classesPackage.getElementName())) {
+			IClassFile classFile = classesPackage.getClassFile(className + "." + Constants.CLASS_FILE_EXTENSION);
+			loadFeatureFromClass(featureType, classFile, rootScan.getPrefix(), source, featurePackage.getSubPackage(), rootScan);
+		}
+	}
+	
 	/**
 	 * Instantiate the right component (corresponding to featureType), and add it to the project model
 	 * 
@@ -269,27 +651,111 @@ public class FeatureFinder extends Job{
 	 * @param prefix
 	 * @param source
 	 * @param subPackage
+	 * @param rootScan the scan of the root of the class, the loaded feature is recorded in it
 	 */
-	private void loadFeatureFromClass(FeatureType featureType, ITypeRoot typeRoot, String prefix, String source, String subPackage){
+	private void loadFeatureFromClass(FeatureType featureType, ITypeRoot typeRoot, String prefix, String source, String subPackage,
+			RootScan rootScan){
 		if(projectModel != null && typeRoot != null){
-			IType type = typeRoot.findPrimaryType();
+			//the type of a class file is a simple handle: the class file is only opened when the feature is really used
+			//(a class listed by the JarScanner but unknown to JDT is only detected then, see AbstractParameteredFeatureModel)
+			IType type = typeRoot instanceof IClassFile ? ((IClassFile) typeRoot).getType() : typeRoot.findPrimaryType();
+			rootScan.classVisited();
 			if(type != null){
-				if(featureType == FeatureType.COMPONENT){
-					projectModel.addComponent(new ComponentModel(prefix, type, projectModel, source, subPackage));
-				}
-				else if(featureType == FeatureType.MIXIN){
-					projectModel.addMixin(new MixinModel(prefix, type, projectModel, source, subPackage));
-				}
-				else if(featureType == FeatureType.PAGE){
-					projectModel.addPage(new PageModel(prefix, type, projectModel, source, subPackage));
+				AbstractFeatureModel feature = projectModel.addFeature(featureType, type, prefix, source, subPackage);
+				rootScan.featureLoaded(featureType, feature, type, subPackage);
+			}
+		}
+	}
+
+	/**
+	 * Finds the prefix & package of a library from its AppModule: by reflection first, then in the extension point,
+	 * and then by deduction.
+	 * 
+	 * <p>A mapping found by reflection or in the extension point is kept in the {@link LibraryMappingCache}: when the jar 
+	 * (or the class file) containing the AppModule hasn't changed, the AppModule isn't called again, and the classloader 
+	 * isn't even created.
+	 * 
+	 * @param appModule the fully qualified name of the AppModule class
+	 * @param fingerprint the jar or class file containing the AppModule, or null if it can't be found (nothing is cached)
+	 * @param packageFragmentRoots all the roots of the classpath (for reflection)
+	 * @param rootScan the root being scanned, the way its mapping has been found is recorded in it
+	 * @return String[]{prefix, package}, the values may be null
+	 */
+	private String[] getPackageInfo(String appModule, JarFingerprint fingerprint, IPackageFragmentRoot[] packageFragmentRoots, 
+			RootScan rootScan){
+		LibraryMappingCache libraryMappingCache = TapestryCore.getDefault().getLibraryMappingCache();
+		LibraryMappingResolution resolution = libraryMappingCache.get(appModule, fingerprint);
+		boolean cached = resolution != null;
+		if(! cached){
+			resolution = resolveLibraryMapping(appModule, fingerprint, packageFragmentRoots);
+			//a failed reflection may succeed with the classloader of another project: it's tried again
+			if(resolution.getSource() == Source.REFLECTION || resolution.getSource() == Source.EXTENSION_POINT){
+				libraryMappingCache.put(resolution);
+			}
+		}
+		rootScan.setMappingResolution(resolution.getSource(), cached);
+		return resolution.toPrefixPackageStrings();
+	}
+	
+	private LibraryMappingResolution resolveLibraryMapping(String appModule, JarFingerprint fingerprint, 
+			IPackageFragmentRoot[] packageFragmentRoots){
+		if(appModule == null || appModule.length() == 0){
+			return new LibraryMappingResolution(appModule, fingerprint, null, null, Source.UNRESOLVED);
+		}
+		
+		Source source = Source.REFLECTION;
+		String[] prefixPackageStrings = getPackageInfoByReflection(getClassLoader(packageFragmentRoots), appModule);
+		if(prefixPackageStrings == null){
+			source = Source.EXTENSION_POINT;
+			prefixPackageStrings = getPackageInfoByExtensionPoint(appModule);
+		}
+		if(prefixPackageStrings == null){
+			source = Source.DEDUCTION;
+			prefixPackageStrings = getPackageInfoByDeduction(appModule);
+			if(prefixPackageStrings[1] == null){
+				source = Source.UNRESOLVED;
+			}
+		}
+		return new LibraryMappingResolution(appModule, fingerprint, prefixPackageStrings[0], prefixPackageStrings[1], source);
+	}
+	
+	/**
+	 * Finds the compiled AppModule of a project of the workspace, in its output folders
+	 * 
+	 * @param javaProject
+	 * @param appModule
+	 * @return the fingerprint of the class file, or null if it's not found
+	 */
+	private JarFingerprint getAppModuleFingerprint(IJavaProject javaProject, String appModule){
+		if(appModule == null){
+			return null;
+		}
+		String classFilePath = appModule.replace('.', '/') + "." + Constants.CLASS_FILE_EXTENSION;
+		IWorkspaceRoot workspaceRoot = javaProject.getProject().getWorkspace().getRoot();
+		try {
+			List<IPath> outputLocations = new ArrayList<IPath>();
+			outputLocations.add(javaProject.getOutputLocation());
+			for (IClasspathEntry iClasspathEntry : javaProject.getRawClasspath()) {
+				if(iClasspathEntry.getOutputLocation() != null){
+					outputLocations.add(iClasspathEntry.getOutputLocation());
 				}
-				else if(featureType == FeatureType.SERVICE){
-					projectModel.addService(new ServiceModel(prefix, type, projectModel, source, subPackage));
+			}
+			for (IPath outputLocation : outputLocations) {
+				IResource outputFolder = workspaceRoot.findMember(outputLocation);
+				if(outputFolder != null && outputFolder.getLocation() != null){
+					File classFile = outputFolder.getLocation().append(classFilePath).toFile();
+					if(classFile.isFile()){
+						return JarFingerprint.ofFile(classFile);
+					}
 				}
 			}
 		}
+		catch (JavaModelException e) {
+			TapestryCore.logWarning(ErrorMessages.CAN_T_SEARCH_DYNAMICALLY_FOR_TAPESTRY_LIBS, e);
+		}
+		return null;
 	}
-
+	
 	/**
 	 * Loads the appModule class by reflection, and tries to execute a method with that signature:
 	 * <p>
@@ -297,13 +763,13 @@ public class FeatureFinder extends Job{
 	 * </p>
 	 * @param classLoader the classloader that should have already registered all the classes
 	 * @param appModule the fully qualified paramName of the AppModule class
-	 * @return
+	 * @return String[]{prefix, package}, or null if the reflection failed
 	 */
 	private String[] getPackageInfoByReflection(ClassLoader classLoader, String appModule){
 		String[] prefixPackageStrings = new String[2];
 		
 		if(classLoader == null){
-			return getPackageInfoByExtensionPoint(appModule);
+			return null;
 		}
 		
 		try {
@@ -340,7 +806,7 @@ public class FeatureFinder extends Job{
 			}
 			else{
 //				Activator.logWarning("Reflection failed for " + appModule + " -> No component loaded.");
-				return getPackageInfoByExtensionPoint(appModule);
+				return null;
 			}
 			
 			try{
@@ -380,23 +846,23 @@ public class FeatureFinder extends Job{
 		}
 		catch (NoSuchMethodException e) {
 //			Activator.logInfo("Reflection failed for " + appModule + " -> No component loaded.\n" + e.getMessage());
-			return getPackageInfoByExtensionPoint(appModule);
+			return null;
 		}
 		catch (ClassNotFoundException e) {
 //			Activator.logError("Reflection failed for " + appModule + " -> No component loaded.\n" + e.getMessage());
-			return getPackageInfoByExtensionPoint(appModule);
+			return null;
 		}
 		catch (IllegalArgumentException e) {
 //			Activator.logError("Reflection failed for " + appModule + " -> No component loaded.\n" + e.getMessage());
-			return getPackageInfoByExtensionPoint(appModule);
+			return null;
 		}
 		catch (Exception e) {
 //			Activator.logWarning("Reflection failed for " + appModule + " -> No component loaded.", e);
-			return getPackageInfoByExtensionPoint(appModule);
+			return null;
 		}
 		catch(LinkageError e){
 //			Activator.logWarning("Reflection failed for " + appModule + " -> No component loaded.", e);
-			return getPackageInfoByExtensionPoint(appModule);
+			return null;
 		}
 	}
 	
@@ -405,7 +871,7 @@ public class FeatureFinder extends Job{
 	 * extension point (net.atos.webtools.tapestry.components.libs). 
 	 * 
 	 * @param appModule: the fully qualified name of the appModule
-	 * @return String[]{prefix, package}
+	 * @return String[]{prefix, package}, or null if the appModule isn't declared
 	 */
 	private String[] getPackageInfoByExtensionPoint(String appModule){
 		String[] prefixPackageStrings = new String[2];
@@ -425,7 +891,7 @@ public class FeatureFinder extends Job{
 				}
 			}
 			if(prefixPackageStrings[0] == null || prefixPackageStrings[1] == null){
-				return getPackageInfoByDeduction(appModule);
+				return null;
 			}
 		}
 		return prefixPackageStrings;
@@ -451,6 +917,40 @@ public class FeatureFinder extends Job{
 		return prefixPackageStrings;
 	}
 
+	/**
+	 * Get the classloader for reflection, creating it on first call.
+	 * If it can't be created, null is returned, and we continue only looking in extension point
+	 * 
+	 * @param packageFragmentRoots all the roots of the classpath
+	 * @return the ClassLoader, or null
+	 */
+	private ClassLoader getClassLoader(IPackageFragmentRoot[] packageFragmentRoots) {
+		synchronized (classLoaderLock) {
+			if(! classLoaderInitialized){
+				classLoaderInitialized = true;
+				try {
+					classLoader = getCLassLoader(packageFragmentRoots);
+				}
+				catch (JavaModelException e) {
+					TapestryCore.logWarning(ErrorMessages.CAN_T_SEARCH_DYNAMICALLY_FOR_TAPESTRY_LIBS, e);
+				}
+			}
+			return classLoader;
+		}
+	}
+	
+	/**
+	 * Gives the jar classloader back to the pool: it stays open for the next scan, if the classpath doesn't change
+	 */
+	private void releaseClassLoader() {
+		synchronized (classLoaderLock) {
+			TapestryCore.getDefault().getClassLoaderPool().release(jarClassLoader);
+			jarClassLoader = null;
+			classLoader = null;
+			classLoaderInitialized = false;
+		}
+	}
+	
 	/**
 	 * Creates a classloader with all the jars in the classpath and all the compiled files
 	 * in the outputdir
@@ -470,7 +970,8 @@ public class FeatureFinder extends Job{
 			}
 		}
 		
-		JarClassLoader jarClassLoader = new JarClassLoader(theJarFiles, this.getClass().getClassLoader());
+		jarClassLoader = TapestryCore.getDefault().getClassLoaderPool().acquire(projectModel.getJavaProject().getElementName(), 
+				theJarFiles, this.getClass().getClassLoader());
 	
 		
 		//STEP-2: URL classloader with all the output dirs (and the previous one as parent)
@@ -560,6 +1061,27 @@ public class FeatureFinder extends Job{
 	}
 	
 	
+	/**
+	 * Creates the worker threads of the scan: daemon threads (a running scan must never prevent the IDE
+	 * from shutting down) with a low priority, named after the Job.
+	 */
+	private static class WorkerThreadFactory implements ThreadFactory {
+		private final String namePrefix;
+		private final AtomicInteger threadNumber = new AtomicInteger(1);
+		
+		WorkerThreadFactory(String jobName) {
+			this.namePrefix = jobName + " #";
+		}
+		
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, namePrefix + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		}
+	}
+	
 	private boolean isCancel(IProgressMonitor monitor) {
 		if(monitor.isCanceled()){
 			if(projectModel != null && projectModel.getJavaProject() != null){
@@ -0,0 +1,177 @@
+package net.atos.webtools.tapestry.core.models;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import net.atos.webtools.tapestry.core.models.features.AbstractFeatureModel;
+
+/**
+ * Immutable case-insensitive prefix index over the names of the features of one type, used by the content assist:
+ * a lookup costs a binary search, and returns a view of the matching features, without looking at the others.
+ *
+ * <p>Features are indexed by their full name (<code>prefix/sub/package/Name</code>, see
+ * {@link AbstractFeatureModel#getFullName()}) and by their qualified name without namespace
+ * (<code>prefix.sub.package.Name</code>, see {@link AbstractFeatureModel#getQualifiedName()}).
+ *
+ * <p>Both names are also indexed by their initials: the first char of each hump, a hump starting at each upper case
+ * letter, and at and after each separator (<code>/ . : _ -</code>), as the camel-case matches of the content assist.
+ * <code>jquery/DatePicker</code> has the initials <code>j/dp</code>, and is found when <code>jq/DP</code> is typed.
+ *
+ * <p>Each key is kept in a sorted array, with the features in the same order: the features whose key starts with
+ * a prefix are a range of it.
+ *
+ * <p>Each {@link ModelSnapshot} has its own indexes, built the first time they are needed.
+ *
+ * @param <T> the type of features
+ */
+public final class FeatureNameIndex<T extends AbstractFeatureModel> {
+	/**
+	 * Greater than any char of a Java identifier: <code>[prefix, prefix + LAST_CHAR)</code> is the range of keys
+	 * starting with prefix
+	 */
+	private static final char LAST_CHAR = '\uffff';
+
+	private final SortedNames<T> byFullName;
+	private final SortedNames<T> byQualifiedName;
+	private final SortedNames<T> byFullNameInitials;
+	private final SortedNames<T> byQualifiedNameInitials;
+
+	FeatureNameIndex(Collection<T> features) {
+		List<Entry<T>> fullNames = new ArrayList<Entry<T>>(features.size());
+		List<Entry<T>> qualifiedNames = new ArrayList<Entry<T>>(features.size());
+		List<Entry<T>> fullNameInitials = new ArrayList<Entry<T>>(features.size());
+		List<Entry<T>> qualifiedNameInitials = new ArrayList<Entry<T>>(features.size());
+		for (T feature : features) {
+			fullNames.add(new Entry<T>(feature.getFullNameKey(), feature));
+			qualifiedNames.add(new Entry<T>(feature.getQualifiedNameKey(), feature));
+			fullNameInitials.add(new Entry<T>(getInitials(feature.getFullName()), feature));
+			qualifiedNameInitials.add(new Entry<T>(getInitials(feature.getQualifiedName()), feature));
+		}
+		byFullName = new SortedNames<T>(fullNames);
+		byQualifiedName = new SortedNames<T>(qualifiedNames);
+		byFullNameInitials = new SortedNames<T>(fullNameInitials);
+		byQualifiedNameInitials = new SortedNames<T>(qualifiedNameInitials);
+	}
+
+	/**
+	 * @param prefix the beginning of the full name (any case), null or empty for all features
+	 * @return the features whose full name starts with prefix, sorted by name (a read-only view)
+	 */
+	public List<T> findByFullName(String prefix) {
+		return byFullName.find(prefix);
+	}
+
+	/**
+	 * @param prefix the beginning of the qualified name without namespace (any case), null or empty for all features
+	 * @return the features whose qualified name starts with prefix, sorted by name (a read-only view)
+	 */
+	public List<T> findByQualifiedName(String prefix) {
+		return byQualifiedName.find(prefix);
+	}
+
+	/**
+	 * @param typed the text typed by the user (any case): only the first char of its humps is used
+	 * @return the features whose full name initials start with the initials of the typed text, sorted by initials
+	 * 			(a read-only view)
+	 */
+	public List<T> findByFullNameInitials(String typed) {
+		return byFullNameInitials.find(getInitials(typed));
+	}
+
+	/**
+	 * @param typed the text typed by the user (any case): only the first char of its humps is used
+	 * @return the features whose qualified name initials start with the initials of the typed text, sorted by initials
+	 * 			(a read-only view)
+	 */
+	public List<T> findByQualifiedNameInitials(String typed) {
+		return byQualifiedNameInitials.find(getInitials(typed));
+	}
+
+	/**
+	 * @param name
+	 * @return the first char of each hump of the name, in lower case (empty String for null)
+	 */
+	static String getInitials(String name) {
+		if(name == null){
+			return "";
+		}
+		StringBuilder initials = new StringBuilder();
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if(i == 0 || Character.isUpperCase(c) || isSeparator(c) || isSeparator(name.charAt(i - 1))){
+				initials.append(Character.toLowerCase(c));
+			}
+		}
+		return initials.toString();
+	}
+
+	private static boolean isSeparator(char c) {
+		return c == '/' || c == '.' || c == ':' || c == '_' || c == '-';
+	}
+
+	/**
+	 * One kind of key: the keys, sorted, and the features in the same order
+	 */
+	private static final class SortedNames<T> {
+		private final String[] keys;
+		private final List<T> features;
+
+		private SortedNames(List<Entry<T>> entries) {
+			Collections.sort(entries);
+			keys = new String[entries.size()];
+			List<T> sortedFeatures = new ArrayList<T>(entries.size());
+			for (int i = 0; i < keys.length; i++) {
+				keys[i] = entries.get(i).key;
+				sortedFeatures.add(entries.get(i).feature);
+			}
+			features = Collections.unmodifiableList(sortedFeatures);
+		}
+
+		private List<T> find(String prefix) {
+			if(prefix == null || prefix.length() == 0){
+				return features;
+			}
+			String lowerPrefix = prefix.toLowerCase(Locale.ENGLISH);
+			int from = lowerBound(lowerPrefix);
+			int to = lowerBound(lowerPrefix + LAST_CHAR);
+			return features.subList(from, to);
+		}
+
+		/**
+		 * @param key
+		 * @return the index of the first key that is not lower than key
+		 */
+		private int lowerBound(String key) {
+			int low = 0;
+			int high = keys.length;
+			while(low < high){
+				int middle = (low + high) >>> 1;
+				if(keys[middle].compareTo(key) < 0){
+					low = middle + 1;
+				}
+				else{
+					high = middle;
+				}
+			}
+			return low;
+		}
+	}
+
+	private static final class Entry<T> implements Comparable<Entry<T>> {
+		private final String key;
+		private final T feature;
+
+		private Entry(String key, T feature) {
+			this.key = key;
+			this.feature = feature;
+		}
+
+		@Override
+		public int compareTo(Entry<T> other) {
+			return key.compareTo(other.key);
+		}
+	}
+}
@@ -1,5 +1,8 @@
 package net.atos.webtools.tapestry.core.models;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Defines what we call the different "features" types in Tapestry:
  * In webtools, a feature, is a generic name for Tapestry page, Tapestry component,
@@ -13,18 +16,36 @@ public enum FeatureType {
 	//this enum: features are searched in this particular order!
 	//For the moment, the only thing that we need is to have mixins BEFORE components
 	//(because components can "publish parameters" of their declared mixins)
+	//When scanning in parallel, every root must have finished one type before the next type is started.
 	
 	PAGE("pages"),
 	MIXIN("mixins"),
 	COMPONENT("components"),
 	SERVICE("services");
 	
+	private static final Map<String, FeatureType> BY_SUB_PACKAGE = new HashMap<String, FeatureType>();
+	static{
+		for (FeatureType featureType : values()) {
+			BY_SUB_PACKAGE.put(featureType.getSubPackage(), featureType);
+		}
+	}
+	
 	private String subPackage;
 	
 	private FeatureType(String subPackage){
 		this.subPackage = subPackage;
 	}
 	
+	/**
+	 * Reverse of {@link #getSubPackage()}
+	 * 
+	 * @param subPackage a simple package name, i.e. "components"
+	 * @return the corresponding FeatureType, or null
+	 */
+	public static FeatureType fromSubPackage(String subPackage) {
+		return BY_SUB_PACKAGE.get(subPackage);
+	}
+	
 	/**
 	 * get the sub-package of the app package in which these features elements are found
 	 * 
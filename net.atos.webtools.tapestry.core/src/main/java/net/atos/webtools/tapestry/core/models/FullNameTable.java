@@ -0,0 +1,138 @@
+package net.atos.webtools.tapestry.core.models;
+
+import java.util.Collection;
+
+import net.atos.webtools.tapestry.core.models.features.AbstractFeatureModel;
+
+/**
+ * Immutable table of the features of one type by full name, for the exact lookups done by the hovers, hyperlinks and
+ * content assist at each mouse move or keystroke.
+ *
+ * <p>The lookup is case-insensitive, ignores the spaces around the name, and accepts '.' for '/' (the notation of the
+ * tag names, <code>&lt;t:jquery.DatePicker&gt;</code>). It's done on a {@link CharSequence}, or a region of it, char by
+ * char: the name doesn't have to be extracted from the document nor lower-cased, so a lookup allocates nothing.
+ *
+ * <p>Open addressing with linear probing: the keys (normalized full names), their hashes and the features are kept in
+ * parallel arrays.
+ *
+ * @param <T> the type of features
+ */
+final class FullNameTable<T extends AbstractFeatureModel> {
+	private final String[] keys;
+	private final int[] hashes;
+	private final Object[] features;
+	private final int mask;
+
+	/**
+	 * @param features if 2 features have the same full name, the last one wins, like in the Tapestry registry
+	 */
+	FullNameTable(Collection<T> features) {
+		int capacity = 4;
+		while(capacity < features.size() * 2){
+			capacity <<= 1;
+		}
+		keys = new String[capacity];
+		hashes = new int[capacity];
+		this.features = new Object[capacity];
+		mask = capacity - 1;
+
+		for (T feature : features) {
+			String key = normalize(feature.getFullName());
+			if(key.length() > 0){
+				put(key, feature);
+			}
+		}
+	}
+
+	private void put(String key, T feature) {
+		int hash = hash(key, 0, key.length());
+		int index = mix(hash) & mask;
+		while(keys[index] != null && ! (hashes[index] == hash && keys[index].equals(key))){
+			index = (index + 1) & mask;
+		}
+		keys[index] = key;
+		hashes[index] = hash;
+		features[index] = feature;
+	}
+
+	/**
+	 * @param name
+	 * @return the feature, or null
+	 */
+	T get(CharSequence name) {
+		if(name == null){
+			return null;
+		}
+		return get(name, 0, name.length());
+	}
+
+	/**
+	 * @param text
+	 * @param start index of the first char of the name
+	 * @param end index after the last char of the name
+	 * @return the feature, or null
+	 */
+	@SuppressWarnings("unchecked")
+	T get(CharSequence text, int start, int end) {
+		while(start < end && Character.isWhitespace(text.charAt(start))){
+			start++;
+		}
+		while(end > start && Character.isWhitespace(text.charAt(end - 1))){
+			end--;
+		}
+		if(start == end){
+			return null;
+		}
+		int hash = hash(text, start, end);
+		int index = mix(hash) & mask;
+		String key;
+		while((key = keys[index]) != null){
+			if(hashes[index] == hash && matches(key, text, start, end)){
+				return (T) features[index];
+			}
+			index = (index + 1) & mask;
+		}
+		return null;
+	}
+
+	private static boolean matches(String key, CharSequence text, int start, int end) {
+		if(key.length() != end - start){
+			return false;
+		}
+		for (int i = 0; i < key.length(); i++) {
+			if(key.charAt(i) != normalize(text.charAt(start + i))){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int hash(CharSequence text, int start, int end) {
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + normalize(text.charAt(i));
+		}
+		return hash;
+	}
+
+	/**
+	 * Spreads the low bits, the names of a library often differ only by their last chars
+	 */
+	private static int mix(int hash) {
+		hash ^= (hash >>> 20) ^ (hash >>> 12);
+		return hash ^ (hash >>> 7) ^ (hash >>> 4);
+	}
+
+	private static char normalize(char c) {
+		return c == '.' ? '/' : Character.toLowerCase(c);
+	}
+
+	private static String normalize(String fullName) {
+		String trimmed = fullName.trim();
+		char[] chars = new char[trimmed.length()];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = normalize(trimmed.charAt(i));
+		}
+		return new String(chars);
+	}
+}
@@ -0,0 +1,105 @@
+package net.atos.webtools.tapestry.core.models;
+
+import java.io.File;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.atos.webtools.tapestry.core.models.index.JarFingerprint;
+
+/**
+ * Workspace-wide cache of the features found in library jars: when several projects use the same jar
+ * (same canonical path, same {@link JarFingerprint}), it's only scanned once, and all their {@link ProjectModel}s
+ * share its names, javadoc and parameters (see {@link LibraryFeatures}).
+ *
+ * <p>The entries don't reference any project: they stay valid when the project that scanned the jar is closed.
+ * They are kept by {@link SoftReference}, and can be collected under memory pressure.
+ *
+ * <p>Only one version of a jar is kept: a new fingerprint for a path replaces the previous one.
+ *
+ * <p>This class is thread safe.
+ */
+public class LibraryFeatureCache {
+	private final Map<JarFingerprint, SoftReference<LibraryFeatures>> libraries = new HashMap<JarFingerprint, SoftReference<LibraryFeatures>>();
+	private final Map<String, JarFingerprint> fingerprintsByPath = new HashMap<String, JarFingerprint>();
+
+	/**
+	 * Looks for a jar by its path, size and date, without opening it
+	 *
+	 * @param jarFile a jar, or null
+	 * @return the shared features, or null if the current version of the jar hasn't been scanned yet
+	 */
+	public LibraryFeatures get(File jarFile) {
+		if(jarFile == null){
+			return null;
+		}
+		String path = JarFingerprint.getCanonicalPath(jarFile);
+		JarFingerprint fingerprint;
+		synchronized (this) {
+			fingerprint = fingerprintsByPath.get(path);
+		}
+		if(fingerprint == null || ! fingerprint.isCurrent(jarFile)){
+			return null;
+		}
+		return get(fingerprint);
+	}
+
+	/**
+	 * @param fingerprint the current fingerprint of a jar, or null
+	 * @return the shared features, or null if that version of the jar hasn't been scanned yet
+	 */
+	public synchronized LibraryFeatures get(JarFingerprint fingerprint) {
+		if(fingerprint == null){
+			return null;
+		}
+		SoftReference<LibraryFeatures> reference = libraries.get(fingerprint);
+		if(reference == null){
+			return null;
+		}
+		LibraryFeatures libraryFeatures = reference.get();
+		if(libraryFeatures == null){
+			remove(fingerprint);
+		}
+		return libraryFeatures;
+	}
+
+	/**
+	 * Shares the features of a jar, unless another project has already shared them in the meantime.
+	 *
+	 * @param libraryFeatures the features (nothing is done if it's null)
+	 * @return the shared features for that jar: the ones given, or the ones already in the cache
+	 */
+	public synchronized LibraryFeatures put(LibraryFeatures libraryFeatures) {
+		if(libraryFeatures == null){
+			return null;
+		}
+		JarFingerprint fingerprint = libraryFeatures.getFingerprint();
+		LibraryFeatures existing = get(fingerprint);
+		if(existing != null){
+			return existing;
+		}
+		JarFingerprint previousVersion = fingerprintsByPath.get(fingerprint.getPath());
+		if(previousVersion != null){
+			libraries.remove(previousVersion);
+		}
+		libraries.put(fingerprint, new SoftReference<LibraryFeatures>(libraryFeatures));
+		fingerprintsByPath.put(fingerprint.getPath(), fingerprint);
+		return libraryFeatures;
+	}
+
+	public synchronized void clear() {
+		libraries.clear();
+		fingerprintsByPath.clear();
+	}
+
+	public synchronized int size() {
+		return libraries.size();
+	}
+
+	private void remove(JarFingerprint fingerprint) {
+		libraries.remove(fingerprint);
+		if(fingerprint.equals(fingerprintsByPath.get(fingerprint.getPath()))){
+			fingerprintsByPath.remove(fingerprint.getPath());
+		}
+	}
+}
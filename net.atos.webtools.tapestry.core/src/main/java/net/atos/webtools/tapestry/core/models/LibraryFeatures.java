@@ -0,0 +1,119 @@
+package net.atos.webtools.tapestry.core.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import net.atos.webtools.tapestry.core.models.features.LibraryContent;
+import net.atos.webtools.tapestry.core.models.index.IndexedFeature;
+import net.atos.webtools.tapestry.core.models.index.JarFingerprint;
+
+/**
+ * The features of one version of a library jar, as shared by all the {@link ProjectModel}s of the workspace
+ * that have this jar in their classpath (see {@link LibraryFeatureCache}).
+ *
+ * <p>Only what doesn't depend on a project is shared: the prefix and package of the library, the names of its
+ * features, and the javadoc and parameters of their classes once they have been loaded by any project
+ * (see {@link LibraryContent}). Each project creates its own light features from its own handles of the jar, that
+ * reference the shared content: no project model is kept alive by the others.
+ *
+ * <p>Instances are immutable, except for the content, that is added as it's loaded.
+ */
+public final class LibraryFeatures {
+	private final JarFingerprint fingerprint;
+	private final String prefix;
+	private final String appPackage;
+	private final Map<FeatureType, List<IndexedFeature>> features;
+
+	private final LibraryContent content;
+
+	/**
+	 * @param fingerprint the jar
+	 * @param prefix the Tapestry prefix of the library, or null
+	 * @param appPackage the root package of the library, or null if this is not a Tapestry library
+	 * @param features the features found in the jar
+	 * @param content the javadoc and parameters of the feature classes loaded so far (that keeps being filled)
+	 */
+	LibraryFeatures(JarFingerprint fingerprint, String prefix, String appPackage, List<IndexedFeature> features,
+			LibraryContent content) {
+		this.fingerprint = fingerprint;
+		this.prefix = prefix;
+		this.appPackage = appPackage;
+		this.features = new EnumMap<FeatureType, List<IndexedFeature>>(FeatureType.class);
+		for (IndexedFeature feature : features) {
+			List<IndexedFeature> typeFeatures = this.features.get(feature.getFeatureType());
+			if(typeFeatures == null){
+				typeFeatures = new ArrayList<IndexedFeature>();
+				this.features.put(feature.getFeatureType(), typeFeatures);
+			}
+			typeFeatures.add(feature);
+		}
+		this.content = content;
+	}
+
+	public JarFingerprint getFingerprint() {
+		return fingerprint;
+	}
+
+	public String getPrefix() {
+		return prefix;
+	}
+
+	public String getAppPackage() {
+		return appPackage;
+	}
+
+	/**
+	 * @param featureType
+	 * @return the features of that type (may be empty, never null)
+	 */
+	public List<IndexedFeature> getFeatures(FeatureType featureType) {
+		List<IndexedFeature> typeFeatures = features.get(featureType);
+		if(typeFeatures == null){
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(typeFeatures);
+	}
+
+	/**
+	 * @return the javadoc and parameters of the feature classes loaded so far
+	 */
+	LibraryContent getContent() {
+		return content;
+	}
+
+	/**
+	 * @return the number of features, of any type
+	 */
+	public int getFeatureCount() {
+		int count = 0;
+		for (List<IndexedFeature> typeFeatures : features.values()) {
+			count += typeFeatures.size();
+		}
+		return count;
+	}
+
+	/**
+	 * For debugging...
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("LibraryFeatures [fingerprint=");
+		builder.append(fingerprint);
+		builder.append(", prefix=");
+		builder.append(prefix);
+		builder.append(", appPackage=");
+		builder.append(appPackage);
+		builder.append(", features=");
+		builder.append(getFeatureCount());
+		builder.append(", javadocs=");
+		builder.append(content.getJavadocCount());
+		builder.append(", parameterSets=");
+		builder.append(content.getParameterSetCount());
+		builder.append("]");
+		return builder.toString();
+	}
+}
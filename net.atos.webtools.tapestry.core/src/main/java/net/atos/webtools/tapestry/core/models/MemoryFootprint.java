@@ -0,0 +1,294 @@
+package net.atos.webtools.tapestry.core.models;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import net.atos.webtools.tapestry.core.TapestryCore;
+import net.atos.webtools.tapestry.core.models.assets.AssetModel;
+import net.atos.webtools.tapestry.core.models.assets.AssetType;
+import net.atos.webtools.tapestry.core.models.features.AbstractFeatureModel;
+import net.atos.webtools.tapestry.core.models.features.AbstractParameteredFeatureModel;
+import net.atos.webtools.tapestry.core.util.ErrorMessages;
+
+/**
+ * Estimate of the heap retained by the features and assets of a {@link ProjectModel}, per feature type and per asset
+ * type: number of features, parameters and assets, and size of the javadoc rendered so far.
+ *
+ * <p>Only what has already been loaded is counted: measuring a model doesn't load the parameters or the javadoc of
+ * its features. The sizes are estimates (objects, references and chars on a 64 bits VM with compressed references),
+ * meant to compare the models and weigh them in the {@link ProjectModelCache}, not to replace a heap dump.
+ * The javadoc and parameters of the libraries shared by several projects (see {@link LibraryFeatureCache}) are counted
+ * in each of them.
+ *
+ * <p>The footprint of a project is available from {@link ProjectModel#getMemoryFootprint()}. Instances are immutable.
+ */
+public final class MemoryFootprint {
+	/**
+	 * Feature model, its names and source, its IType handle
+	 */
+	private static final int FEATURE_BYTES = 200;
+
+	/**
+	 * Parameter, its name, default value and prefix, its IField handle
+	 */
+	private static final int PARAMETER_BYTES = 120;
+
+	/**
+	 * Asset model and its IResource handle, without the chars of its name and path
+	 */
+	private static final int ASSET_BYTES = 96;
+
+	/**
+	 * Entry in the lists, tables and name indexes of the {@link ModelSnapshot}
+	 */
+	private static final int INDEX_ENTRY_BYTES = 64;
+
+	private static final int CHAR_BYTES = 2;
+
+	private static final int KB = 1024;
+
+	/**
+	 * Footprint of the features of one type, or of the assets of one type
+	 */
+	public static final class TypeFootprint {
+		private final String typeName;
+		private final boolean asset;
+		private final int count;
+		private final int parameterCount;
+		private final long javadocChars;
+		private final long estimatedBytes;
+
+		private TypeFootprint(String typeName, boolean asset, int count, int parameterCount, long javadocChars,
+				long estimatedBytes) {
+			this.typeName = typeName;
+			this.asset = asset;
+			this.count = count;
+			this.parameterCount = parameterCount;
+			this.javadocChars = javadocChars;
+			this.estimatedBytes = estimatedBytes;
+		}
+
+		/**
+		 * @return the feature type (e.g. <code>components</code>) or asset type (e.g. <code>images</code>)
+		 */
+		public String getTypeName() {
+			return typeName;
+		}
+
+		/**
+		 * @return true for an asset type, false for a feature type
+		 */
+		public boolean isAsset() {
+			return asset;
+		}
+
+		/**
+		 * @return the number of features or assets
+		 */
+		public int getCount() {
+			return count;
+		}
+
+		/**
+		 * @return the number of parameters loaded so far (always 0 for assets)
+		 */
+		public int getParameterCount() {
+			return parameterCount;
+		}
+
+		/**
+		 * @return the number of chars of the javadoc (of the features and of their parameters) loaded so far
+		 */
+		public long getJavadocChars() {
+			return javadocChars;
+		}
+
+		public long getEstimatedBytes() {
+			return estimatedBytes;
+		}
+	}
+
+	private final String projectName;
+	private final Date date = new Date();
+	private final long generation;
+	private final List<TypeFootprint> typeFootprints;
+
+	private MemoryFootprint(String projectName, long generation, List<TypeFootprint> typeFootprints) {
+		this.projectName = projectName;
+		this.generation = generation;
+		this.typeFootprints = Collections.unmodifiableList(typeFootprints);
+	}
+
+	/**
+	 * Measures the features and assets of a snapshot
+	 *
+	 * @param projectName
+	 * @param snapshot
+	 * @return the footprint
+	 */
+	static MemoryFootprint measure(String projectName, ModelSnapshot snapshot) {
+		List<TypeFootprint> typeFootprints = new ArrayList<TypeFootprint>();
+		typeFootprints.add(measureFeatures(FeatureType.PAGE.getSubPackage(), snapshot.getPages()));
+		typeFootprints.add(measureFeatures(FeatureType.MIXIN.getSubPackage(), snapshot.getMixins()));
+		typeFootprints.add(measureFeatures(FeatureType.COMPONENT.getSubPackage(), snapshot.getComponents()));
+		typeFootprints.add(measureFeatures(FeatureType.SERVICE.getSubPackage(), snapshot.getServices()));
+		typeFootprints.add(measureFeatures("validators", snapshot.getValidators()));
+		for (AssetType assetType : AssetType.values()) {
+			typeFootprints.add(measureAssets(assetType.name().toLowerCase(), snapshot.getAssetTree(assetType).getAssets()));
+		}
+		return new MemoryFootprint(projectName, snapshot.getGeneration(), typeFootprints);
+	}
+
+	private static TypeFootprint measureFeatures(String typeName, List<? extends AbstractFeatureModel> features) {
+		int parameterCount = 0;
+		long javadocChars = 0;
+		for (AbstractFeatureModel feature : features) {
+			if(feature instanceof AbstractParameteredFeatureModel){
+				parameterCount += ((AbstractParameteredFeatureModel) feature).getLoadedParameterCount();
+			}
+			javadocChars += feature.getLoadedJavadocLength();
+		}
+		long estimatedBytes = (long) features.size() * (FEATURE_BYTES + INDEX_ENTRY_BYTES)
+				+ (long) parameterCount * PARAMETER_BYTES
+				+ javadocChars * CHAR_BYTES;
+		return new TypeFootprint(typeName, false, features.size(), parameterCount, javadocChars, estimatedBytes);
+	}
+
+	private static TypeFootprint measureAssets(String typeName, List<AssetModel> assets) {
+		long chars = 0;
+		for (AssetModel asset : assets) {
+			chars += asset.getName().length() + asset.getPath().length();
+		}
+		long estimatedBytes = (long) assets.size() * (ASSET_BYTES + INDEX_ENTRY_BYTES) + chars * CHAR_BYTES;
+		return new TypeFootprint(typeName, true, assets.size(), 0, 0, estimatedBytes);
+	}
+
+	public String getProjectName() {
+		return projectName;
+	}
+
+	public Date getDate() {
+		return date;
+	}
+
+	/**
+	 * @return the generation of the measured snapshot (see {@link ProjectModel#getGeneration()})
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * @return the footprint of each feature type (pages, mixins, components, services, validators), then of each
+	 * asset type
+	 */
+	public List<TypeFootprint> getTypeFootprints() {
+		return typeFootprints;
+	}
+
+	public int getFeatureCount() {
+		int count = 0;
+		for (TypeFootprint typeFootprint : typeFootprints) {
+			if(! typeFootprint.isAsset()){
+				count += typeFootprint.getCount();
+			}
+		}
+		return count;
+	}
+
+	public int getParameterCount() {
+		int count = 0;
+		for (TypeFootprint typeFootprint : typeFootprints) {
+			count += typeFootprint.getParameterCount();
+		}
+		return count;
+	}
+
+	public long getJavadocChars() {
+		long chars = 0;
+		for (TypeFootprint typeFootprint : typeFootprints) {
+			chars += typeFootprint.getJavadocChars();
+		}
+		return chars;
+	}
+
+	public int getAssetCount() {
+		int count = 0;
+		for (TypeFootprint typeFootprint : typeFootprints) {
+			if(typeFootprint.isAsset()){
+				count += typeFootprint.getCount();
+			}
+		}
+		return count;
+	}
+
+	public long getEstimatedBytes() {
+		long bytes = 0;
+		for (TypeFootprint typeFootprint : typeFootprints) {
+			bytes += typeFootprint.getEstimatedBytes();
+		}
+		return bytes;
+	}
+
+	/**
+	 * Writes footprints in a text file (replaced if it exists)
+	 *
+	 * @param file
+	 * @param footprints
+	 */
+	public static void writeTo(File file, List<MemoryFootprint> footprints) {
+		Writer writer = null;
+		try {
+			writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+			for (MemoryFootprint footprint : footprints) {
+				writer.write(footprint.toString());
+				writer.write(System.getProperty("line.separator"));
+			}
+		}
+		catch (IOException e) {
+			TapestryCore.logWarning(ErrorMessages.CAN_T_WRITE_MEMORY_FOOTPRINT + file, e);
+		}
+		finally{
+			if(writer != null){
+				try {
+					writer.close();
+				}
+				catch (IOException e) {
+					TapestryCore.logWarning(ErrorMessages.FAILED_TO_CLOSE_STREAM, e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * One line per type: count, parameters, javadoc chars, estimated KB, type
+	 */
+	@Override
+	public String toString() {
+		String lineSeparator = System.getProperty("line.separator");
+		StringBuilder builder = new StringBuilder();
+		builder.append("Tapestry model of ").append(projectName).append(" (").append(date).append(", generation ");
+		builder.append(generation).append("): ");
+		builder.append(getFeatureCount()).append(" features, ");
+		builder.append(getParameterCount()).append(" parameters, ");
+		builder.append(getAssetCount()).append(" assets, ~");
+		builder.append(getEstimatedBytes() / KB).append(" KB");
+		builder.append(lineSeparator);
+		builder.append("count\tparams\tjavadoc\tKB\ttype").append(lineSeparator);
+		for (TypeFootprint typeFootprint : typeFootprints) {
+			builder.append(typeFootprint.getCount()).append('\t');
+			builder.append(typeFootprint.getParameterCount()).append('\t');
+			builder.append(typeFootprint.getJavadocChars()).append('\t');
+			builder.append(typeFootprint.getEstimatedBytes() / KB).append('\t');
+			builder.append(typeFootprint.getTypeName()).append(lineSeparator);
+		}
+		return builder.toString();
+	}
+}
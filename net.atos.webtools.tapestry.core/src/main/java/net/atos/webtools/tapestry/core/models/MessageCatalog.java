@@ -0,0 +1,226 @@
+package net.atos.webtools.tapestry.core.models;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import net.atos.webtools.tapestry.core.util.Constants;
+
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Messages of a catalog (<code>app.properties</code>, <code>MyPage.properties</code>) and of its locale variants
+ * (<code>app_fr.properties</code>, <code>app_fr_CA.properties</code>), as proposed after <code>${message:</code>.
+ *
+ * <p>The keys are case-insensitive, like in Tapestry, and a key defined only in a variant is listed too. The messages
+ * are sorted by key: a prefix lookup is a binary search, and returns a view of the sorted array, nothing is copied.
+ *
+ * <p>Immutable: it's built by {@link MessageCatalogIndex} for each version of the files, and shared by all the editors
+ * of the project.
+ */
+public final class MessageCatalog {
+	/**
+	 * Locale of the default file (<code>app.properties</code>)
+	 */
+	public static final String DEFAULT_LOCALE = "";
+
+	private final IPath path;
+
+	/**
+	 * Keys sorted with {@link String#CASE_INSENSITIVE_ORDER}, one per case-insensitive key
+	 */
+	private final String[] keys;
+
+	/**
+	 * <code>message:key</code> elements, in the order of {@link #keys}
+	 */
+	private final List<JavaElement> messages;
+
+	/**
+	 * {@link #DEFAULT_LOCALE} first, then the locales of the variants, sorted
+	 */
+	private final String[] locales;
+
+	/**
+	 * Values by locale, in the order of {@link #locales}, then of {@link #keys} (null if not defined in that locale)
+	 */
+	private final String[][] values;
+
+	/**
+	 * @param path path of the default file
+	 * @param fileKeys keys of each file, in the order of locales
+	 * @param fileValues values of each file, in the same order as their keys
+	 * @param locales {@link #DEFAULT_LOCALE} first, then the locales of the variants
+	 */
+	MessageCatalog(IPath path, List<String[]> fileKeys, List<String[]> fileValues, String[] locales) {
+		this.path = path;
+		this.locales = locales;
+
+		//the first file defining a key (the default one) gives its case:
+		Map<String, String> sortedKeys = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+		for (String[] keysOfFile : fileKeys) {
+			for (String key : keysOfFile) {
+				if(! sortedKeys.containsKey(key)){
+					sortedKeys.put(key, key);
+				}
+			}
+		}
+		keys = sortedKeys.values().toArray(new String[sortedKeys.size()]);
+
+		values = new String[locales.length][keys.length];
+		for (int locale = 0; locale < locales.length; locale++) {
+			String[] keysOfFile = fileKeys.get(locale);
+			String[] valuesOfFile = fileValues.get(locale);
+			for (int i = 0; i < keysOfFile.length; i++) {
+				values[locale][indexOf(keysOfFile[i])] = valuesOfFile[i];
+			}
+		}
+
+		JavaElement[] elements = new JavaElement[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			elements[i] = new JavaElement(Constants.MESSAGE_BINDING + keys[i], getFirstValue(i));
+		}
+		messages = Collections.unmodifiableList(Arrays.asList(elements));
+	}
+
+	/**
+	 * @return the path of the default file of the catalog
+	 */
+	public IPath getPath() {
+		return path;
+	}
+
+	/**
+	 * @return the number of distinct keys, in all the locales
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * @return {@link #DEFAULT_LOCALE}, then the locales of the variants, e.g. <code>fr</code>
+	 */
+	public List<String> getLocales() {
+		return Collections.unmodifiableList(Arrays.asList(locales));
+	}
+
+	/**
+	 * @return all the <code>message:key</code> elements, sorted by key (their javadoc is the value)
+	 */
+	public List<JavaElement> getMessages() {
+		return messages;
+	}
+
+	/**
+	 * @param keyPrefix the beginning of the key, without <code>message:</code> (any case), null or empty for all
+	 * @return the messages whose key starts with keyPrefix, sorted by key: a view, that must not be modified
+	 */
+	public List<JavaElement> findByPrefix(String keyPrefix) {
+		if(keyPrefix == null || keyPrefix.length() == 0){
+			return messages;
+		}
+		int from = Arrays.binarySearch(keys, keyPrefix, String.CASE_INSENSITIVE_ORDER);
+		if(from < 0){
+			from = -from - 1;
+		}
+		int to = from;
+		while(to < keys.length && keys[to].regionMatches(true, 0, keyPrefix, 0, keyPrefix.length())){
+			to++;
+		}
+		return messages.subList(from, to);
+	}
+
+	/**
+	 * @param key the key, without <code>message:</code> (any case)
+	 * @return the <code>message:key</code> element, or null if no file of the catalog defines it
+	 */
+	public JavaElement getMessage(String key) {
+		int index = indexOf(key);
+		return index < 0 ? null : messages.get(index);
+	}
+
+	/**
+	 * @param message a <code>message:key</code> element, of any catalog
+	 * @return true if this catalog defines the same key
+	 */
+	boolean contains(JavaElement message) {
+		String name = message.getName();
+		int offset = name.startsWith(Constants.MESSAGE_BINDING) ? Constants.MESSAGE_BINDING.length() : 0;
+		int low = 0;
+		int high = keys.length - 1;
+		while(low <= high){
+			int middle = (low + high) >>> 1;
+			int comparison = compareIgnoreCase(keys[middle], name, offset);
+			if(comparison < 0){
+				low = middle + 1;
+			}
+			else if(comparison > 0){
+				high = middle - 1;
+			}
+			else{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param key the key, without <code>message:</code> (any case)
+	 * @param locale e.g. <code>fr</code>, or {@link #DEFAULT_LOCALE}
+	 * @return the value defined in the file of that locale, or null
+	 */
+	public String getValue(String key, String locale) {
+		int index = indexOf(key);
+		int localeIndex = Arrays.asList(locales).indexOf(locale);
+		if(index < 0 || localeIndex < 0){
+			return null;
+		}
+		return values[localeIndex][index];
+	}
+
+	private int indexOf(String key) {
+		return Arrays.binarySearch(keys, key, String.CASE_INSENSITIVE_ORDER);
+	}
+
+	/**
+	 * @return the value of the default file, or of the first variant defining the key
+	 */
+	private String getFirstValue(int index) {
+		for (String[] valuesOfLocale : values) {
+			if(valuesOfLocale[index] != null){
+				return valuesOfLocale[index];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Same order as {@link String#CASE_INSENSITIVE_ORDER}, between key and the end of name from offset
+	 */
+	private static int compareIgnoreCase(String key, String name, int offset) {
+		int length = Math.min(key.length(), name.length() - offset);
+		for (int i = 0; i < length; i++) {
+			char c1 = key.charAt(i);
+			char c2 = name.charAt(offset + i);
+			if(c1 != c2){
+				c1 = Character.toUpperCase(c1);
+				c2 = Character.toUpperCase(c2);
+				if(c1 != c2){
+					c1 = Character.toLowerCase(c1);
+					c2 = Character.toLowerCase(c2);
+					if(c1 != c2){
+						return c1 - c2;
+					}
+				}
+			}
+		}
+		return key.length() - (name.length() - offset);
+	}
+
+	@Override
+	public String toString() {
+		return "MessageCatalog [path=" + path + ", keys=" + keys.length + ", locales=" + Arrays.toString(locales) + "]";
+	}
+}
@@ -0,0 +1,302 @@
+package net.atos.webtools.tapestry.core.models;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import net.atos.webtools.tapestry.core.TapestryCore;
+import net.atos.webtools.tapestry.core.util.Constants;
+import net.atos.webtools.tapestry.core.util.ErrorMessages;
+import net.atos.webtools.tapestry.core.util.StringPool;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IStorage;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IJarEntryResource;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+
+/**
+ * Message catalogs of a {@link ProjectModel} (the app catalog, and the catalogs of the features being edited), with
+ * their locale variants: shared by all the editors of the project, instead of each one loading its own copy.
+ *
+ * <p>A file is parsed once per version (modification stamp) in {@link #parsedFiles}: when a variant changes, only this
+ * file is parsed again, and its catalog rebuilt. The files of the jars are keyed by the path of their jar too, as the
+ * same <code>app.properties</code> path is found in several libraries. The catalogs are dropped on the resource deltas of their files (see
+ * {@link ProjectModelUpdater}), and rebuilt on next request, which also finds the variants added since.
+ *
+ * <p>Lookups don't lock. Loads and updates are synchronized.
+ */
+public class MessageCatalogIndex {
+	private static final String EXTENSION = '.' + Constants.PROPERTIES_FILE_EXTENSION;
+
+	/**
+	 * Locale suffix of a variant, after <code>app_</code>: language, then optional country and variant
+	 */
+	private static final Pattern LOCALE = Pattern.compile("[a-z]{2,3}(_[A-Z]{2}|_[0-9]{3})?(_\\w+)?");
+
+	/**
+	 * Content of one file, for one modification stamp (0 for the jar entries: a changed jar is another classpath entry,
+	 * whose package fragment root is reloaded)
+	 */
+	private static class ParsedFile {
+		private final long stamp;
+		private final String[] keys;
+		private final String[] values;
+
+		ParsedFile(long stamp, String[] keys, String[] values) {
+			this.stamp = stamp;
+			this.keys = keys;
+			this.values = values;
+		}
+	}
+
+	/**
+	 * Catalogs by key of their default file (see {@link #getKey(IStorage)})
+	 */
+	private final Map<IPath, MessageCatalog> catalogs = new ConcurrentHashMap<IPath, MessageCatalog>();
+
+	/**
+	 * Files read so far (default files and variants), by key (see {@link #getKey(IStorage)})
+	 */
+	private final Map<IPath, ParsedFile> parsedFiles = new ConcurrentHashMap<IPath, ParsedFile>();
+
+	/**
+	 * @param defaultFile e.g. <code>app.properties</code>, or <code>MyPage.properties</code>
+	 * @return the messages of the file and of its locale variants, or null if file is null
+	 */
+	public MessageCatalog getCatalog(IStorage defaultFile) {
+		if(defaultFile == null){
+			return null;
+		}
+		MessageCatalog catalog = catalogs.get(getKey(defaultFile));
+		if(catalog == null){
+			catalog = loadCatalog(defaultFile);
+		}
+		return catalog;
+	}
+
+	private synchronized MessageCatalog loadCatalog(IStorage defaultFile) {
+		IPath key = getKey(defaultFile);
+		MessageCatalog catalog = catalogs.get(key);
+		if(catalog == null){
+			catalog = buildCatalog(defaultFile, this);
+			catalogs.put(key, catalog);
+		}
+		return catalog;
+	}
+
+	/**
+	 * The full path of a jar entry is relative to its jar (<code>/org/example/app.properties</code>): it's appended to
+	 * the path of the jar, so that 2 libraries don't share their catalogs.
+	 *
+	 * @param file
+	 * @return the full path of a workspace file, the path of the jar followed by the full path of a jar entry
+	 */
+	private static IPath getKey(IStorage file) {
+		if(file instanceof IJarEntryResource){
+			IPackageFragmentRoot root = ((IJarEntryResource) file).getPackageFragmentRoot();
+			if(root != null){
+				return root.getPath().append(file.getFullPath());
+			}
+		}
+		return file.getFullPath();
+	}
+
+	/**
+	 * Reads a catalog and its variants without index (for the files outside of any project model)
+	 *
+	 * @param defaultFile
+	 * @return the messages of the file and of its locale variants, or null if file is null
+	 */
+	static MessageCatalog readCatalog(IStorage defaultFile) {
+		return defaultFile == null ? null : buildCatalog(defaultFile, null);
+	}
+
+	/**
+	 * A message file has been added, changed or removed: drops it, and the catalogs it may belong to
+	 * (<code>app_fr_CA.properties</code> may be a variant of <code>app_fr.properties</code> or
+	 * <code>app.properties</code>)
+	 *
+	 * @param path full path of the file (in the workspace: it's also its key)
+	 */
+	synchronized void fileChanged(IPath path) {
+		parsedFiles.remove(path);
+		catalogs.remove(path);
+		String baseName = path.removeFileExtension().lastSegment();
+		if(baseName == null){
+			return;
+		}
+		IPath folder = path.removeLastSegments(1);
+		int separator;
+		while((separator = baseName.lastIndexOf('_')) > 0){
+			baseName = baseName.substring(0, separator);
+			catalogs.remove(folder.append(baseName + EXTENSION));
+		}
+	}
+
+	/**
+	 * @return the number of catalogs, and of messages they contain
+	 */
+	@Override
+	public String toString() {
+		int messageCount = 0;
+		for (MessageCatalog catalog : catalogs.values()) {
+			messageCount += catalog.size();
+		}
+		return "MessageCatalogIndex [catalogs=" + catalogs.size() + ", messages=" + messageCount + "]";
+	}
+
+	/**
+	 * @param suffix the end of a file name, after <code>_</code> and without extension
+	 * @return true if it's a locale (<code>fr</code>, <code>fr_CA</code>...): the file is a locale variant
+	 */
+	static boolean isLocale(String suffix) {
+		return LOCALE.matcher(suffix).matches();
+	}
+
+	/**
+	 * @param defaultFile
+	 * @param index the index whose parsed files are reused, or null to read all the files
+	 */
+	private static MessageCatalog buildCatalog(IStorage defaultFile, MessageCatalogIndex index) {
+		Map<String, IStorage> variants = findVariants(defaultFile);
+		String[] locales = new String[variants.size() + 1];
+		List<String[]> fileKeys = new ArrayList<String[]>(locales.length);
+		List<String[]> fileValues = new ArrayList<String[]>(locales.length);
+
+		locales[0] = MessageCatalog.DEFAULT_LOCALE;
+		ParsedFile parsedFile = getParsedFile(defaultFile, index);
+		fileKeys.add(parsedFile.keys);
+		fileValues.add(parsedFile.values);
+
+		int locale = 1;
+		for (Map.Entry<String, IStorage> variant : variants.entrySet()) {
+			locales[locale++] = variant.getKey();
+			parsedFile = getParsedFile(variant.getValue(), index);
+			fileKeys.add(parsedFile.keys);
+			fileValues.add(parsedFile.values);
+		}
+		return new MessageCatalog(defaultFile.getFullPath(), fileKeys, fileValues, locales);
+	}
+
+	private static ParsedFile getParsedFile(IStorage file, MessageCatalogIndex index) {
+		long stamp = file instanceof IResource ? ((IResource) file).getModificationStamp() : 0;
+		IPath key = index == null ? null : getKey(file);
+		ParsedFile parsedFile = index == null ? null : index.parsedFiles.get(key);
+		if(parsedFile == null || parsedFile.stamp != stamp || stamp == IResource.NULL_STAMP){
+			parsedFile = parse(file, stamp);
+			if(index != null){
+				index.parsedFiles.put(key, parsedFile);
+			}
+		}
+		return parsedFile;
+	}
+
+	private static ParsedFile parse(IStorage file, long stamp) {
+		Properties properties = new Properties();
+		InputStream contents = null;
+		try {
+			contents = file.getContents();
+			properties.load(contents);
+		}
+		catch (IOException e) {
+			TapestryCore.logError(ErrorMessages.CAN_T_LOAD_PROPERTIES_FROM + file.getFullPath(), e);
+		}
+		catch (CoreException e) {
+			TapestryCore.logError(ErrorMessages.CAN_T_OPEN_PROPERTY_FILE + file.getFullPath(), e);
+		}
+		finally {
+			if(contents != null){
+				try {
+					contents.close();
+				}
+				catch (IOException e) {
+					TapestryCore.logWarning(ErrorMessages.FAILED_TO_CLOSE_STREAM, e);
+				}
+			}
+		}
+
+		Set<String> names = properties.stringPropertyNames();
+		String[] keys = new String[names.size()];
+		String[] values = new String[names.size()];
+		int i = 0;
+		for (String name : names) {
+			//the keys are repeated in each variant:
+			keys[i] = StringPool.canonical(name);
+			values[i] = properties.getProperty(name);
+			i++;
+		}
+		return new ParsedFile(stamp, keys, values);
+	}
+
+	/**
+	 * @param defaultFile
+	 * @return the variants of the file in the same folder, by locale (sorted)
+	 */
+	private static Map<String, IStorage> findVariants(IStorage defaultFile) {
+		Map<String, IStorage> variants = new TreeMap<String, IStorage>();
+		String name = defaultFile.getName();
+		if(! name.endsWith(EXTENSION)){
+			return variants;
+		}
+		String variantPrefix = name.substring(0, name.length() - EXTENSION.length()) + '_';
+		try {
+			for (Object sibling : getSiblings(defaultFile)) {
+				String siblingName = getFileName(sibling);
+				if(siblingName != null && siblingName.startsWith(variantPrefix) && siblingName.endsWith(EXTENSION)){
+					String locale = siblingName.substring(variantPrefix.length(), siblingName.length() - EXTENSION.length());
+					if(isLocale(locale)){
+						variants.put(locale, (IStorage) sibling);
+					}
+				}
+			}
+		}
+		catch (CoreException e) {
+			TapestryCore.logWarning(ErrorMessages.CAN_T_LIST_MESSAGE_CATALOG_VARIANTS + defaultFile.getFullPath(), e);
+		}
+		return variants;
+	}
+
+	private static Object[] getSiblings(IStorage file) throws CoreException {
+		if(file instanceof IResource){
+			IContainer parent = ((IResource) file).getParent();
+			if(parent != null && parent.exists()){
+				return parent.members();
+			}
+		}
+		else if(file instanceof IJarEntryResource){
+			Object parent = ((IJarEntryResource) file).getParent();
+			if(parent instanceof IPackageFragment){
+				return ((IPackageFragment) parent).getNonJavaResources();
+			}
+			if(parent instanceof IJarEntryResource){
+				return ((IJarEntryResource) parent).getChildren();
+			}
+		}
+		return new Object[0];
+	}
+
+	/**
+	 * @return the name of a file, null for a folder
+	 */
+	private static String getFileName(Object resource) {
+		if(resource instanceof IFile){
+			return ((IFile) resource).getName();
+		}
+		if(resource instanceof IJarEntryResource && ((IJarEntryResource) resource).isFile()){
+			return ((IJarEntryResource) resource).getName();
+		}
+		return null;
+	}
+}
@@ -0,0 +1,358 @@
+package net.atos.webtools.tapestry.core.models;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import net.atos.webtools.tapestry.core.models.assets.AssetModel;
+import net.atos.webtools.tapestry.core.models.assets.AssetTree;
+import net.atos.webtools.tapestry.core.models.assets.AssetType;
+import net.atos.webtools.tapestry.core.models.features.AbstractFeatureModel;
+import net.atos.webtools.tapestry.core.models.features.ComponentModel;
+import net.atos.webtools.tapestry.core.models.features.MixinModel;
+import net.atos.webtools.tapestry.core.models.features.PageModel;
+import net.atos.webtools.tapestry.core.models.features.ServiceModel;
+import net.atos.webtools.tapestry.core.models.features.ValidatorModel;
+
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeRoot;
+
+/**
+ * Immutable content of a {@link ProjectModel}: its features and assets, as they were at a given generation.
+ *
+ * <p>The {@link FeatureFinder}, {@link net.atos.webtools.tapestry.core.models.assets.AssetFinder} and
+ * {@link ProjectModelUpdater} fill a {@link Builder}, and the model publishes a new snapshot when a consistent
+ * state is reached (e.g. all the components of the classpath are loaded). Readers never lock, and never see
+ * a half-updated model: they keep working on the snapshot they got, and can compare the generations to
+ * know if something has changed since.
+ *
+ * <p>The features of one type that haven't changed are shared with the previous snapshot.
+ */
+public final class ModelSnapshot {
+	/**
+	 * The features of one type: list, table by full name and prefix index
+	 */
+	private static final class Features<T extends AbstractFeatureModel> {
+		private final List<T> list;
+		private final FullNameTable<T> byFullName;
+		/**
+		 * Built on first access: most snapshots are replaced before any completion is asked. The index is
+		 * immutable, so 2 threads may build it at the same time, and either one is kept.
+		 */
+		private volatile FeatureNameIndex<T> nameIndex;
+
+		private Features(Collection<T> features) {
+			this.list = Collections.unmodifiableList(new ArrayList<T>(features));
+			this.byFullName = new FullNameTable<T>(features);
+		}
+
+		private FeatureNameIndex<T> getNameIndex() {
+			FeatureNameIndex<T> index = nameIndex;
+			if(index == null){
+				index = new FeatureNameIndex<T>(list);
+				nameIndex = index;
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Snapshot of a model that hasn't been loaded yet
+	 */
+	static final ModelSnapshot EMPTY = new ModelSnapshot();
+
+	private final long generation;
+
+	private final Features<ComponentModel> components;
+	private final Features<MixinModel> mixins;
+	private final Features<PageModel> pages;
+	private final Features<ServiceModel> services;
+	private final List<ValidatorModel> validators;
+	private final AssetTree images;
+	private final AssetTree stylesheets;
+	private final AssetTree scripts;
+
+	private ModelSnapshot() {
+		this.generation = 0;
+		this.components = new Features<ComponentModel>(Collections.<ComponentModel>emptyList());
+		this.mixins = new Features<MixinModel>(Collections.<MixinModel>emptyList());
+		this.pages = new Features<PageModel>(Collections.<PageModel>emptyList());
+		this.services = new Features<ServiceModel>(Collections.<ServiceModel>emptyList());
+		this.validators = Collections.emptyList();
+		this.images = AssetTree.EMPTY;
+		this.stylesheets = AssetTree.EMPTY;
+		this.scripts = AssetTree.EMPTY;
+	}
+
+	private ModelSnapshot(ModelSnapshot previous, Builder builder) {
+		this.generation = previous.generation + 1;
+		this.components = builder.components.changed ? new Features<ComponentModel>(builder.components.items) : previous.components;
+		this.mixins = builder.mixins.changed ? new Features<MixinModel>(builder.mixins.items) : previous.mixins;
+		this.pages = builder.pages.changed ? new Features<PageModel>(builder.pages.items) : previous.pages;
+		this.services = builder.services.changed ? new Features<ServiceModel>(builder.services.items) : previous.services;
+		this.validators = builder.validators.changed ? builder.validators.toList() : previous.validators;
+		this.images = builder.images.changed ? new AssetTree(builder.images.items) : previous.images;
+		this.stylesheets = builder.stylesheets.changed ? new AssetTree(builder.stylesheets.items) : previous.stylesheets;
+		this.scripts = builder.scripts.changed ? new AssetTree(builder.scripts.items) : previous.scripts;
+	}
+
+	/**
+	 * @return the number of snapshots published before this one by the model (0 for an empty model)
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+
+	public List<ComponentModel> getComponents() {
+		return components.list;
+	}
+
+	/**
+	 * @param fullName any case, '.' or '/' as separator
+	 * @return the component, or null
+	 */
+	public ComponentModel getComponent(CharSequence fullName) {
+		return components.byFullName.get(fullName);
+	}
+
+	/**
+	 * Same as {@link #getComponent(CharSequence)}, on a region of a text (e.g. a document), without extracting the name
+	 */
+	public ComponentModel getComponent(CharSequence text, int start, int end) {
+		return components.byFullName.get(text, start, end);
+	}
+
+	public FeatureNameIndex<ComponentModel> getComponentNameIndex() {
+		return components.getNameIndex();
+	}
+
+	public List<MixinModel> getMixins() {
+		return mixins.list;
+	}
+
+	/**
+	 * @param fullName any case, '.' or '/' as separator
+	 * @return the mixin, or null
+	 */
+	public MixinModel getMixin(CharSequence fullName) {
+		return mixins.byFullName.get(fullName);
+	}
+
+	/**
+	 * Same as {@link #getMixin(CharSequence)}, on a region of a text (e.g. a document), without extracting the name
+	 */
+	public MixinModel getMixin(CharSequence text, int start, int end) {
+		return mixins.byFullName.get(text, start, end);
+	}
+
+	public FeatureNameIndex<MixinModel> getMixinNameIndex() {
+		return mixins.getNameIndex();
+	}
+
+	public List<PageModel> getPages() {
+		return pages.list;
+	}
+
+	/**
+	 * @param fullName any case, '.' or '/' as separator
+	 * @return the page, or null
+	 */
+	public PageModel getPage(CharSequence fullName) {
+		return pages.byFullName.get(fullName);
+	}
+
+	/**
+	 * Same as {@link #getPage(CharSequence)}, on a region of a text (e.g. a document), without extracting the name
+	 */
+	public PageModel getPage(CharSequence text, int start, int end) {
+		return pages.byFullName.get(text, start, end);
+	}
+
+	public FeatureNameIndex<PageModel> getPageNameIndex() {
+		return pages.getNameIndex();
+	}
+
+	public List<ServiceModel> getServices() {
+		return services.list;
+	}
+
+	/**
+	 * @param fullName any case, '.' or '/' as separator
+	 * @return the service, or null
+	 */
+	public ServiceModel getService(CharSequence fullName) {
+		return services.byFullName.get(fullName);
+	}
+
+	/**
+	 * Same as {@link #getService(CharSequence)}, on a region of a text (e.g. a document), without extracting the name
+	 */
+	public ServiceModel getService(CharSequence text, int start, int end) {
+		return services.byFullName.get(text, start, end);
+	}
+
+	public FeatureNameIndex<ServiceModel> getServiceNameIndex() {
+		return services.getNameIndex();
+	}
+
+	public List<ValidatorModel> getValidators() {
+		return validators;
+	}
+
+	public List<AssetModel> getImages() {
+		return images.getAssets();
+	}
+
+	public List<AssetModel> getStylesheets() {
+		return stylesheets.getAssets();
+	}
+
+	public List<AssetModel> getScripts() {
+		return scripts.getAssets();
+	}
+
+	/**
+	 * @param type
+	 * @return the assets of that type, by path and by folder
+	 */
+	public AssetTree getAssetTree(AssetType type) {
+		switch (type) {
+			case IMAGE:
+				return images;
+			case STYLESHEET:
+				return stylesheets;
+			case SCRIPT:
+				return scripts;
+			default:
+				return AssetTree.EMPTY;
+		}
+	}
+
+	/**
+	 * @param path path relative to the webapp folder
+	 * @return the asset of any type with that path, or null
+	 */
+	public AssetModel getAsset(String path) {
+		for (AssetType type : AssetType.values()) {
+			AssetModel asset = getAssetTree(type).get(path);
+			if(asset != null){
+				return asset;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Items of one type, in insertion order and without duplicates (assets are the same if they have the same path), and whether they have changed since
+	 * the last snapshot
+	 */
+	private static final class Staged<T> {
+		private final Set<T> items = new LinkedHashSet<T>();
+		private boolean changed;
+
+		private void add(T item) {
+			if(item != null && items.add(item)){
+				changed = true;
+			}
+		}
+
+		private List<T> toList() {
+			return Collections.unmodifiableList(new ArrayList<T>(items));
+		}
+	}
+
+	/**
+	 * Mutable content of a {@link ProjectModel}, from which the snapshots are built. All the methods are thread safe.
+	 */
+	static final class Builder {
+		private final Staged<ComponentModel> components = new Staged<ComponentModel>();
+		private final Staged<MixinModel> mixins = new Staged<MixinModel>();
+		private final Staged<PageModel> pages = new Staged<PageModel>();
+		private final Staged<ServiceModel> services = new Staged<ServiceModel>();
+		private final Staged<ValidatorModel> validators = new Staged<ValidatorModel>();
+		private final Staged<AssetModel> images = new Staged<AssetModel>();
+		private final Staged<AssetModel> stylesheets = new Staged<AssetModel>();
+		private final Staged<AssetModel> scripts = new Staged<AssetModel>();
+
+		synchronized void addComponent(ComponentModel component) {
+			components.add(component);
+		}
+
+		synchronized void addMixin(MixinModel mixin) {
+			mixins.add(mixin);
+		}
+
+		synchronized void addPage(PageModel page) {
+			pages.add(page);
+		}
+
+		synchronized void addService(ServiceModel service) {
+			services.add(service);
+		}
+
+		synchronized void addValidator(ValidatorModel validator) {
+			validators.add(validator);
+		}
+
+		synchronized void addImage(AssetModel image) {
+			images.add(image);
+		}
+
+		synchronized void addStylesheet(AssetModel stylesheet) {
+			stylesheets.add(stylesheet);
+		}
+
+		synchronized void addScript(AssetModel script) {
+			scripts.add(script);
+		}
+
+		/**
+		 * Removes all the features (of any type) defined in a compilation unit or class file
+		 *
+		 * @param typeRoot
+		 */
+		synchronized void removeFeatures(ITypeRoot typeRoot) {
+			removeFeatures(typeRoot, components);
+			removeFeatures(typeRoot, mixins);
+			removeFeatures(typeRoot, pages);
+			removeFeatures(typeRoot, services);
+		}
+
+		private <T extends AbstractFeatureModel> void removeFeatures(ITypeRoot typeRoot, Staged<T> features) {
+			for (Iterator<T> iterator = features.items.iterator(); iterator.hasNext();) {
+				IType type = iterator.next().getType();
+				if(type != null && typeRoot.equals(type.getTypeRoot())){
+					iterator.remove();
+					features.changed = true;
+				}
+			}
+		}
+
+		/**
+		 * Builds a snapshot with the changes made since the previous one
+		 *
+		 * @param previous the last published snapshot
+		 * @return the new snapshot, or previous if nothing has changed
+		 */
+		synchronized ModelSnapshot build(ModelSnapshot previous) {
+			if(! (components.changed || mixins.changed || pages.changed || services.changed || validators.changed
+					|| images.changed || stylesheets.changed || scripts.changed)){
+				return previous;
+			}
+			ModelSnapshot snapshot = new ModelSnapshot(previous, this);
+			components.changed = false;
+			mixins.changed = false;
+			pages.changed = false;
+			services.changed = false;
+			validators.changed = false;
+			images.changed = false;
+			stylesheets.changed = false;
+			scripts.changed = false;
+			return snapshot;
+		}
+	}
+}
@@ -8,17 +8,20 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.jar.Manifest;
 
 import net.atos.webtools.tapestry.core.TapestryCore;
 import net.atos.webtools.tapestry.core.models.assets.AssetFinder;
 import net.atos.webtools.tapestry.core.models.assets.AssetModel;
+import net.atos.webtools.tapestry.core.models.assets.AssetTree;
+import net.atos.webtools.tapestry.core.models.assets.AssetType;
+import net.atos.webtools.tapestry.core.models.features.AbstractFeatureModel;
 import net.atos.webtools.tapestry.core.models.features.ComponentModel;
 import net.atos.webtools.tapestry.core.models.features.MixinModel;
 import net.atos.webtools.tapestry.core.models.features.PageModel;
 import net.atos.webtools.tapestry.core.models.features.ServiceModel;
 import net.atos.webtools.tapestry.core.models.features.ValidatorModel;
+import net.atos.webtools.tapestry.core.preferences.CorePreferenceNames;
 import net.atos.webtools.tapestry.core.util.Constants;
 import net.atos.webtools.tapestry.core.util.ErrorMessages;
 import net.atos.webtools.tapestry.core.util.Messages;
@@ -30,9 +33,12 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceVisitor;
 import org.eclipse.core.resources.IStorage;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeRoot;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.internal.core.JavaProject;
@@ -66,64 +72,66 @@ public class ProjectModel {
 	 */
 	private IStorage appMessageCatalogFile;
 	
-	
 	/**
-	 * List of the components dynamically found.
-	 * 
-	 * A {@link ConcurrentLinkedQueue} is used internally to ensure it is thread safe 
-	 * (in case Ctrl-space is pressed while this Collection is still being filled by the {@link FeatureFinder} Job)
+	 * Messages of the app catalog and of the edited features, shared by all the editors of the project
 	 */
-	private Collection<ComponentModel> components = new ConcurrentLinkedQueue<ComponentModel>();
-	
-	private Map<String, ComponentModel> componentsByFullName = new ConcurrentHashMap<String, ComponentModel>();
+	private final MessageCatalogIndex messageCatalogIndex = new MessageCatalogIndex();
 	
 	/**
-	 * List of the mixins dynamically found.
+	 * java, tml and properties files of each feature, to open them together
 	 */
-	private Collection<MixinModel> mixins = new ConcurrentLinkedQueue<MixinModel>();
+	private final FeatureFileIndex featureFileIndex = new FeatureFileIndex(this);
 	
-	private Map<String, MixinModel> mixinsByFullName = new ConcurrentHashMap<String, MixinModel>();
 	
 	/**
-	 * List of the pages dynamically found.
+	 * Features and assets being found: they are visible by the readers once published
+	 * 
+	 * @see #publish()
 	 */
-	private Collection<PageModel> pages = new ConcurrentLinkedQueue<PageModel>();
+	private final ModelSnapshot.Builder contents = new ModelSnapshot.Builder();
 	
-	private Map<String, PageModel> pagesByFullName = new ConcurrentHashMap<String, PageModel>();
+	/**
+	 * Last published features and assets: they can be read while the {@link FeatureFinder} Job is still running
+	 * (e.g. when Ctrl-space is pressed), without lock
+	 */
+	private volatile ModelSnapshot snapshot = ModelSnapshot.EMPTY;
 	
 	/**
-	 * List of the services dynamically found.
+	 * Technical property, used to avoid reloading the model too often
+	 * 
+	 * @see TapestryCore
 	 */
-	private Collection<ServiceModel> services = new ConcurrentLinkedQueue<ServiceModel>();
-
-	private Map<String, ServiceModel> servicesByFullName = new ConcurrentHashMap<String, ServiceModel>();
+	private Date initDate;
 	
 	/**
-	 * List of the validators dynamically found.
+	 * Set when the model can't be updated incrementally anymore (classpath or configuration changed):
+	 * it will be replaced by a new one on next {@link TapestryCore#getProjectModel(IProject, boolean)}
+	 * 
+	 * @see ProjectModelUpdater
 	 */
-	private Collection<ValidatorModel> validators = new ConcurrentLinkedQueue<ValidatorModel>();
+	private volatile boolean stale;
 	
 	/**
-	 * List of the images dynamically found.
+	 * Source folders (of this project or of projects in dependency) in which features have been found, 
+	 * with their <code>String[]{prefix, package}</code>: used to update features when a compilation unit changes.
 	 */
-	private Collection<AssetModel> images = new ConcurrentLinkedQueue<AssetModel>();
-
+	private Map<IPath, String[]> sourceRootPackageInfos = new ConcurrentHashMap<IPath, String[]>();
+	
 	/**
-	 * List of the stylesheets dynamically found.
+	 * Telemetry of the last {@link FeatureFinder} run
 	 */
-	private Collection<AssetModel> stylesheets = new ConcurrentLinkedQueue<AssetModel>();
-
+	private volatile ScanReport scanReport;
+	
 	/**
-	 * List of the scripts dynamically found.
+	 * Completion of the {@link FeatureFinder} and {@link AssetFinder} Jobs: until then, the model is partial
 	 */
-	private Collection<AssetModel> scripts = new ConcurrentLinkedQueue<AssetModel>();
+	private final ScanFuture featureScan = new ScanFuture();
+	private final ScanFuture assetScan = new ScanFuture();
 	
 	/**
-	 * Technical property, used to avoid reloading the model too often
-	 * 
-	 * @see TapestryCore
+	 * Priority of the {@link FeatureFinder} and {@link AssetFinder} Jobs (lower for the {@link ProjectModelWarmUp})
 	 */
-	private Date initDate;
+	private int scanPriority = Job.LONG;
 	
 	
 	public IJavaProject getJavaProject() {
@@ -151,129 +159,353 @@ public class ProjectModel {
 	public IStorage getAppMessageCatalogFile() {
 		return appMessageCatalogFile;
 	}
+	
+	/**
+	 * @return the message catalogs (app catalog, catalogs of the features) read so far, with their locale variants
+	 */
+	public MessageCatalogIndex getMessageCatalogIndex() {
+		return messageCatalogIndex;
+	}
+	
+	/**
+	 * @return the java, tml and properties files of the features of the source folders and of the jars
+	 */
+	public FeatureFileIndex getFeatureFileIndex() {
+		return featureFileIndex;
+	}
 
-	void addComponent(ComponentModel component){
-		if(component != null){
-			components.add(component);
-			componentsByFullName.put(component.getFullName().toLowerCase().trim(), component);
+	/**
+	 * @return the features and assets published so far, that won't change anymore
+	 */
+	public ModelSnapshot getSnapshot() {
+		return snapshot;
+	}
+	
+	/**
+	 * @return the generation of the current snapshot: it changes each time features or assets are published
+	 */
+	public long getGeneration() {
+		return snapshot.getGeneration();
+	}
+	
+	/**
+	 * Makes the features and assets added (or removed) since the last call visible to the readers, all at once
+	 */
+	public void publish() {
+		synchronized (contents) {
+			snapshot = contents.build(snapshot);
 		}
 	}
+	
+	void addComponent(ComponentModel component){
+		contents.addComponent(component);
+	}
 
 
 	public Collection<ComponentModel> getComponents() {
-		return components;
+		return snapshot.getComponents();
 	}
 	
-	public ComponentModel getComponent(String fullName) {
-		if(fullName != null){
-			return componentsByFullName.get(fullName.toLowerCase().trim());
-		}
-		return null;
+	/**
+	 * Case-insensitive lookup, that doesn't allocate: it can be done at each mouse move
+	 * 
+	 * @param fullName e.g. <code>jquery/DatePicker</code> or <code>jquery.DatePicker</code>
+	 * @return the component, or null
+	 */
+	public ComponentModel getComponent(CharSequence fullName) {
+		return snapshot.getComponent(fullName);
+	}
+	
+	/**
+	 * Same as {@link #getComponent(CharSequence)}, on a region of a text (e.g. a document)
+	 * 
+	 * @param text
+	 * @param start index of the first char of the name
+	 * @param end index after the last char of the name
+	 * @return the component, or null
+	 */
+	public ComponentModel getComponent(CharSequence text, int start, int end) {
+		return snapshot.getComponent(text, start, end);
+	}
+	
+	/**
+	 * @return the components, by full name and qualified name, for prefix lookups
+	 */
+	public FeatureNameIndex<ComponentModel> getComponentNameIndex() {
+		return snapshot.getComponentNameIndex();
 	}
 
 
 	void addMixin(MixinModel mixin){
-		if(mixin != null){
-			mixins.add(mixin);
-			mixinsByFullName.put(mixin.getFullName().toLowerCase().trim(), mixin);
-		}
+		contents.addMixin(mixin);
 	}
 
 
 	public Collection<MixinModel> getMixins() {
-		return mixins;
+		return snapshot.getMixins();
 	}
 
 
-	public MixinModel getMixin(String fullName) {
-		if(fullName != null){
-			return mixinsByFullName.get(fullName.toLowerCase().trim());
-		}
-		return null;
+	public MixinModel getMixin(CharSequence fullName) {
+		return snapshot.getMixin(fullName);
+	}
+	
+	/**
+	 * @see #getComponent(CharSequence, int, int)
+	 */
+	public MixinModel getMixin(CharSequence text, int start, int end) {
+		return snapshot.getMixin(text, start, end);
+	}
+	
+	public FeatureNameIndex<MixinModel> getMixinNameIndex() {
+		return snapshot.getMixinNameIndex();
 	}
 
 
 	void addPage(PageModel page){
-		if(page != null){
-			pages.add(page);
-			pagesByFullName.put(page.getFullName().toLowerCase().trim(), page);
-		}
+		contents.addPage(page);
 	}
 
 
 	public Collection<PageModel> getPages() {
-		return pages;
+		return snapshot.getPages();
 	}
 	
-	public PageModel getPage(String fullName) {
-		if(fullName != null){
-			return pagesByFullName.get(fullName.toLowerCase().trim());
-		}
-		return null;
+	public PageModel getPage(CharSequence fullName) {
+		return snapshot.getPage(fullName);
+	}
+	
+	/**
+	 * @see #getComponent(CharSequence, int, int)
+	 */
+	public PageModel getPage(CharSequence text, int start, int end) {
+		return snapshot.getPage(text, start, end);
+	}
+	
+	public FeatureNameIndex<PageModel> getPageNameIndex() {
+		return snapshot.getPageNameIndex();
 	}
 	
 	void addService(ServiceModel service){
-		if(service != null){
-			services.add(service);
-			servicesByFullName.put(service.getFullName().toLowerCase().trim(), service);
-		}
+		contents.addService(service);
 	}
 	
 	public Collection<ServiceModel> getServices() {
-		return services;
+		return snapshot.getServices();
 	}
 
-	public ServiceModel getService(String fullName) {
-		if(fullName != null){
-			return servicesByFullName.get(fullName.toLowerCase().trim());
-		}
-		return null;
+	public ServiceModel getService(CharSequence fullName) {
+		return snapshot.getService(fullName);
+	}
+	
+	/**
+	 * @see #getComponent(CharSequence, int, int)
+	 */
+	public ServiceModel getService(CharSequence text, int start, int end) {
+		return snapshot.getService(text, start, end);
+	}
+	
+	public FeatureNameIndex<ServiceModel> getServiceNameIndex() {
+		return snapshot.getServiceNameIndex();
 	}
 	
 	public void addValidator(ValidatorModel validator) {
-		if (validator != null) {
-			validators.add(validator);
-		}
+		contents.addValidator(validator);
 	}
 	
 	public Collection<ValidatorModel> getValidators() {
-		return validators;
+		return snapshot.getValidators();
 	}
 	
 	public void addImage(AssetModel image) {
-		if (image != null && !images.contains(image)) {
-			images.add(image);
-		}
+		contents.addImage(image);
 	}
 	
 	public Collection<AssetModel> getImages() {
-		return images;
+		return snapshot.getImages();
 	}
 	
 	
 	public void addStylesheet(AssetModel stylesheet) {
-		if (stylesheet != null && !stylesheets.contains(stylesheet)) {
-			stylesheets.add(stylesheet);
-		}
+		contents.addStylesheet(stylesheet);
 	}
 	
 	public Collection<AssetModel> getStylesheets() {
-		return stylesheets;
+		return snapshot.getStylesheets();
 	}
 	
 	public void addScript(AssetModel script) {
-		if (script != null && !images.contains(script)) {
-			scripts.add(script);
-		}
+		contents.addScript(script);
 	}
 	
 	public Collection<AssetModel> getScripts() {
-		return scripts;
+		return snapshot.getScripts();
+	}
+	
+	/**
+	 * @param type
+	 * @return the assets of that type, to browse them folder by folder
+	 */
+	public AssetTree getAssetTree(AssetType type) {
+		return snapshot.getAssetTree(type);
+	}
+	
+	/**
+	 * @param path path relative to the webapp folder, e.g. <code>images/logo.png</code>
+	 * @return the asset (of any type), or null if there's no asset with that path
+	 */
+	public AssetModel getAsset(String path) {
+		return snapshot.getAsset(path);
 	}
 
 	public Date getInitDate() {
 		return initDate;
 	}
+	
+	public boolean isStale() {
+		return stale;
+	}
+	
+	/**
+	 * @return the telemetry of the last scan of the project, or null if it hasn't finished yet
+	 */
+	public ScanReport getScanReport() {
+		return scanReport;
+	}
+	
+	void setScanReport(ScanReport scanReport) {
+		this.scanReport = scanReport;
+	}
+	
+	/**
+	 * Measures the features and assets published so far: their parameters and javadoc are not loaded
+	 * 
+	 * @return the estimated heap retained by the model
+	 */
+	public MemoryFootprint getMemoryFootprint() {
+		return MemoryFootprint.measure(javaProject == null ? null : javaProject.getElementName(), snapshot);
+	}
+	
+	/**
+	 * @return the completion of the scan of the features (components, mixins, pages, services)
+	 */
+	public ScanFuture getFeatureScan() {
+		return featureScan;
+	}
+	
+	/**
+	 * @return the completion of the scan of the assets (images, scripts, stylesheets)
+	 */
+	public ScanFuture getAssetScan() {
+		return assetScan;
+	}
+	
+	/**
+	 * @param scanPriority the priority of the scan Jobs, to be set before {@link #loadSubFeatures()} and {@link #loadAssets()}
+	 */
+	void setScanPriority(int scanPriority) {
+		this.scanPriority = scanPriority;
+	}
+	
+	/**
+	 * Waits for the features, at most for the {@link CorePreferenceNames#SCAN_WAIT_BUDGET} time
+	 * 
+	 * @return true if all the features are loaded, false if the model is still partial
+	 */
+	public boolean awaitFeatureScan() {
+		return featureScan.await(getScanWaitBudget());
+	}
+	
+	/**
+	 * Waits for the assets, at most for the {@link CorePreferenceNames#SCAN_WAIT_BUDGET} time
+	 * 
+	 * @return true if all the assets are loaded, false if the model is still partial
+	 */
+	public boolean awaitAssetScan() {
+		return assetScan.await(getScanWaitBudget());
+	}
+	
+	private static long getScanWaitBudget() {
+		return TapestryCore.getDefault().getPreferenceStore().getInt(CorePreferenceNames.SCAN_WAIT_BUDGET);
+	}
+	
+	/**
+	 * The model doesn't reflect the project anymore, and must be fully reloaded
+	 */
+	public void markStale() {
+		stale = true;
+	}
+	
+	void setSourceRootPackageInfo(IPath sourceRootPath, String prefix, String appPackageName){
+		sourceRootPackageInfos.put(sourceRootPath, new String[]{prefix, appPackageName});
+	}
+	
+	/**
+	 * @param projectName
+	 * @return true if this is the project of the model, or if features have been found in the sources of that project
+	 */
+	boolean dependsOn(String projectName){
+		if(javaProject != null && javaProject.getElementName().equals(projectName)){
+			return true;
+		}
+		for (IPath sourceRootPath : sourceRootPackageInfos.keySet()) {
+			if(sourceRootPath.segmentCount() > 0 && sourceRootPath.segment(0).equals(projectName)){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * @param sourceRootPath
+	 * @return <code>String[]{prefix, package}</code> if features are searched in this source folder, null otherwise
+	 */
+	String[] getSourceRootPackageInfo(IPath sourceRootPath){
+		return sourceRootPackageInfos.get(sourceRootPath);
+	}
+	
+	/**
+	 * Instantiates the right feature model (corresponding to featureType), and adds it to the project model
+	 * 
+	 * @param featureType
+	 * @param type
+	 * @param prefix
+	 * @param source
+	 * @param subPackage
+	 * @return the new feature
+	 */
+	AbstractFeatureModel addFeature(FeatureType featureType, IType type, String prefix, String source, String subPackage){
+		if(featureType == FeatureType.COMPONENT){
+			ComponentModel component = new ComponentModel(prefix, type, this, source, subPackage);
+			addComponent(component);
+			return component;
+		}
+		else if(featureType == FeatureType.MIXIN){
+			MixinModel mixin = new MixinModel(prefix, type, this, source, subPackage);
+			addMixin(mixin);
+			return mixin;
+		}
+		else if(featureType == FeatureType.PAGE){
+			PageModel page = new PageModel(prefix, type, this, source, subPackage);
+			addPage(page);
+			return page;
+		}
+		else if(featureType == FeatureType.SERVICE){
+			ServiceModel service = new ServiceModel(prefix, type, this, source, subPackage);
+			addService(service);
+			return service;
+		}
+		return null;
+	}
+	
+	/**
+	 * Removes all the features (of any type) defined in a compilation unit or class file
+	 * 
+	 * @param typeRoot
+	 */
+	void removeFeatures(ITypeRoot typeRoot){
+		contents.removeFeatures(typeRoot);
+	}
 
 
 	/**
@@ -379,9 +611,12 @@ public class ProjectModel {
 	public void loadSubFeatures(){
 		//------------ defaults components -------------
 		this.addComponent(new ComponentModel(Constants.TAPESTRY_CORE, Constants.BLOCK, Messages.BLOCK_JAVADOC, Constants.TAPESTRY_CORE));
+		publish();
 		
 		//---- Searches asynchronously for other components in the classpath ----
 		FeatureFinder featureFinder = new FeatureFinder(this);
+		featureFinder.setPriority(scanPriority);
+		featureScan.track(featureFinder);
 		featureFinder.schedule();
 	}
 	
@@ -390,6 +625,8 @@ public class ProjectModel {
 	 */
 	public void loadAssets() {
 		AssetFinder assetFinder = new AssetFinder(this);
+		assetFinder.setPriority(scanPriority);
+		assetScan.track(assetFinder);
 		assetFinder.schedule();
 	}
 }
@@ -0,0 +1,358 @@
+package net.atos.webtools.tapestry.core.models;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import net.atos.webtools.tapestry.core.TapestryCore;
+import net.atos.webtools.tapestry.core.models.assets.AssetFinder;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * Cache of the {@link ProjectModel}s, by project name, used by {@link TapestryCore#getProjectModel(IProject, boolean)}.
+ *
+ * <p>Loading a model (parsing the configuration files, launching the {@link FeatureFinder}, finding the assets) is
+ * done outside the lock, but only once: a caller asking for a project being loaded by another thread waits for
+ * that load, and gets the same model.
+ *
+ * <p>The number of models is bounded, and so is their estimated heap size (see {@link MemoryFootprint}): the least
+ * recently used ones are evicted when the cache is full. The size of the models is only checked when a new model is
+ * added, so the cache can temporarily hold more while the {@link FeatureFinder} Jobs fill the models. A model is
+ * measured outside of the lock, once per published snapshot, and the cache keeps the running total. An evicted model
+ * is still valid for the editors that reference it, but it's not updated by the {@link ProjectModelUpdater} anymore,
+ * and a new one is loaded on the next request.
+ *
+ * <p>All the methods are thread safe.
+ */
+public class ProjectModelCache {
+	/**
+	 * A cached model, and the state of its loading
+	 */
+	private static class Entry {
+		private final String projectName;
+		private final ProjectModel projectModel;
+		private final CountDownLatch loaded = new CountDownLatch(1);
+		private final Thread loadingThread = Thread.currentThread();
+
+		/**
+		 * Estimated heap size of the model, when its snapshot of {@link #measuredGeneration} was measured
+		 */
+		private long estimatedBytes;
+		private long measuredGeneration = -1;
+
+		private Entry(String projectName, ProjectModel projectModel) {
+			this.projectName = projectName;
+			this.projectModel = projectModel;
+		}
+
+		private boolean isLoaded() {
+			return loaded.getCount() == 0;
+		}
+	}
+
+	private final int maxSize;
+	private final long maxEstimatedBytes;
+
+	/**
+	 * In access order: the first one is the least recently used
+	 */
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+	/**
+	 * Sum of the estimated heap sizes of the entries
+	 */
+	private long estimatedBytes;
+
+	//---------- Statistics ----------
+	private long hits;
+	private long misses;
+	private long waits;
+	private long evictions;
+	private long loadNanos;
+
+	/**
+	 * @param maxSize the maximum number of models kept
+	 * @param maxEstimatedBytes the maximum estimated heap size of the models kept
+	 */
+	public ProjectModelCache(int maxSize, long maxEstimatedBytes) {
+		this.maxSize = Math.max(1, maxSize);
+		this.maxEstimatedBytes = maxEstimatedBytes;
+	}
+
+	/**
+	 * Gets the model of a project, loading it if it's not in the cache, or if it's stale and a reload is requested.
+	 *
+	 * @param project
+	 * @param forceReload true to replace the model if it's stale
+	 * @return the model, never null
+	 */
+	public ProjectModel get(IProject project, boolean forceReload) {
+		return get(project, forceReload, Job.LONG);
+	}
+
+	/**
+	 * Same as {@link #get(IProject, boolean)}, with the priority of the scan Jobs of a model loaded by this call
+	 *
+	 * @param project
+	 * @param forceReload true to replace the model if it's stale
+	 * @param scanPriority priority of the {@link FeatureFinder} and {@link AssetFinder} Jobs (see {@link Job#setPriority(int)})
+	 * @return the model, never null
+	 */
+	ProjectModel get(IProject project, boolean forceReload, int scanPriority) {
+		Entry entry;
+		boolean mustLoad = false;
+
+		synchronized (this) {
+			entry = entries.get(project.getName());
+			if(entry != null && forceReload && entry.isLoaded() && entry.projectModel.isStale()){
+				remove(project.getName());
+				entry = null;
+			}
+
+			if(entry == null){
+				misses++;
+				entry = new Entry(project.getName(), new ProjectModel(project));
+				entry.projectModel.setScanPriority(scanPriority);
+				mustLoad = true;
+				entries.put(project.getName(), entry);
+			}
+			else if(entry.isLoaded()){
+				hits++;
+			}
+			else{
+				waits++;
+			}
+		}
+
+		if(mustLoad){
+			evict();
+			load(entry);
+		}
+		else{
+			awaitLoaded(entry);
+		}
+		return entry.projectModel;
+	}
+
+	private void load(Entry entry) {
+		long start = System.nanoTime();
+		boolean loaded = false;
+		try {
+			entry.projectModel.init();
+			//remembered to be loaded at the next startup (see ProjectModelWarmUp)
+			if(entry.projectModel.getAppPackage() != null){
+				TapestryCore.getDefault().getProjectModelWarmUp().recordTapestryProject(entry.projectName);
+			}
+			entry.projectModel.loadSubFeatures();
+			entry.projectModel.loadAssets();
+			loaded = true;
+		}
+		finally{
+			synchronized (this) {
+				loadNanos += System.nanoTime() - start;
+				//a model that failed to load will be loaded again by the next caller
+				if(! loaded && entries.get(entry.projectName) == entry){
+					remove(entry.projectName);
+				}
+			}
+			entry.loaded.countDown();
+		}
+	}
+
+	private void awaitLoaded(Entry entry) {
+		//the thread loading the model may need it (re-entrant call)
+		if(entry.loadingThread == Thread.currentThread()){
+			return;
+		}
+		try {
+			entry.loaded.await();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Measures the models (outside of the lock), then removes the least recently used ones, to respect the maximum
+	 * size and estimated heap size
+	 */
+	private void evict() {
+		measure();
+		synchronized (this) {
+			for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext() 
+					&& (entries.size() > maxSize || estimatedBytes > maxEstimatedBytes);) {
+				Entry entry = iterator.next();
+				//a model being loaded can't be evicted: its callers are waiting for it
+				if(entry.isLoaded()){
+					estimatedBytes -= entry.estimatedBytes;
+					iterator.remove();
+					evictions++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Measures the models whose snapshot has been published since their last measure (see
+	 * {@link ProjectModel#getMemoryFootprint()}), without holding the lock, and updates the running total
+	 */
+	private void measure() {
+		List<Entry> toMeasure = new ArrayList<Entry>();
+		synchronized (this) {
+			for (Entry entry : entries.values()) {
+				if(entry.measuredGeneration != entry.projectModel.getGeneration()){
+					toMeasure.add(entry);
+				}
+			}
+		}
+		for (Entry entry : toMeasure) {
+			long generation = entry.projectModel.getGeneration();
+			long bytes = entry.projectModel.getMemoryFootprint().getEstimatedBytes();
+			synchronized (this) {
+				//the entry may have been removed while it was measured
+				if(entries.get(entry.projectName) == entry){
+					estimatedBytes += bytes - entry.estimatedBytes;
+				}
+				entry.estimatedBytes = bytes;
+				entry.measuredGeneration = generation;
+			}
+		}
+	}
+
+	/**
+	 * Removes an entry, and its size from the running total (to be called with the lock)
+	 */
+	private Entry remove(String projectName) {
+		Entry entry = entries.remove(projectName);
+		if(entry != null){
+			estimatedBytes -= entry.estimatedBytes;
+		}
+		return entry;
+	}
+
+	/**
+	 * Removes the model of a project (closed or deleted)
+	 *
+	 * @param projectName
+	 * @return the removed model, or null if it wasn't in the cache
+	 */
+	public ProjectModel invalidate(String projectName) {
+		Entry entry;
+		synchronized (this) {
+			entry = remove(projectName);
+		}
+		if(entry == null){
+			return null;
+		}
+		entry.projectModel.markStale();
+		return entry.projectModel;
+	}
+
+	/**
+	 * @return all the models in the cache, including the ones being loaded
+	 */
+	public synchronized List<ProjectModel> getProjectModels() {
+		List<ProjectModel> projectModels = new ArrayList<ProjectModel>(entries.size());
+		for (Entry entry : entries.values()) {
+			projectModels.add(entry.projectModel);
+		}
+		return projectModels;
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		estimatedBytes = 0;
+	}
+
+	/**
+	 * @param projectName
+	 * @return true if the model of the project is in the cache (loaded or being loaded)
+	 */
+	synchronized boolean contains(String projectName) {
+		return entries.containsKey(projectName);
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	//---------- Statistics ----------
+
+	/**
+	 * @return the number of requests answered by a loaded model
+	 */
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of requests that have loaded a model
+	 */
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	/**
+	 * @return the number of requests that have waited for a model loaded by another thread
+	 */
+	public synchronized long getWaitCount() {
+		return waits;
+	}
+
+	public synchronized long getEvictionCount() {
+		return evictions;
+	}
+
+	/**
+	 * Measures the models in the cache that have changed since their last measure (see
+	 * {@link ProjectModel#getMemoryFootprint()})
+	 *
+	 * @return their estimated heap size (bytes)
+	 */
+	public long getEstimatedBytes() {
+		measure();
+		synchronized (this) {
+			return estimatedBytes;
+		}
+	}
+
+	/**
+	 * @return the total time spent loading models (ms), not including the {@link FeatureFinder} Jobs
+	 */
+	public synchronized long getTotalLoadMillis() {
+		return loadNanos / 1000000;
+	}
+
+	/**
+	 * For debugging...
+	 */
+	@Override
+	public String toString() {
+		long estimatedKB = getEstimatedBytes() / 1024;
+		StringBuilder builder = new StringBuilder();
+		synchronized (this) {
+			builder.append("ProjectModelCache [size=");
+			builder.append(entries.size());
+			builder.append("/");
+			builder.append(maxSize);
+			builder.append(", estimatedKB=");
+			builder.append(estimatedKB);
+			builder.append(", hits=");
+			builder.append(hits);
+			builder.append(", misses=");
+			builder.append(misses);
+			builder.append(", waits=");
+			builder.append(waits);
+			builder.append(", evictions=");
+			builder.append(evictions);
+			builder.append(", loadMillis=");
+			builder.append(getTotalLoadMillis());
+			builder.append("]");
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,266 @@
+package net.atos.webtools.tapestry.core.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.atos.webtools.tapestry.core.TapestryCore;
+import net.atos.webtools.tapestry.core.models.RootScan.FeaturePackage;
+import net.atos.webtools.tapestry.core.util.Constants;
+import net.atos.webtools.tapestry.core.util.ErrorMessages;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+
+/**
+ * <p>Keeps the {@link ProjectModel}s in the {@link TapestryCore} cache up to date with Java element deltas:
+ *
+ * <li>when a compilation unit is added, changed or removed in a features package (<code>app.package.components</code>...)
+ * of a source folder already scanned by a {@link FeatureFinder}, only its feature is re-created, or dropped.
+ * <li>when the classpath changes, a jar is modified, or a configuration file (web.xml, MANIFEST.MF) changes,
+ * the model is marked stale, and it will be fully reloaded on next request.
+ * <li>when a message catalog (<code>*.properties</code>) is added, changed or removed, only its catalog is dropped
+ * from the {@link MessageCatalogIndex}, and it will be read again on next request.
+ * <li>when a java, tml or properties file is added or removed, it's added to, or removed from, the
+ * {@link FeatureFileIndex}.
+ *
+ * <p>It's registered for {@link ElementChangedEvent#POST_CHANGE} only: unsaved editor content is ignored.
+ */
+public class ProjectModelUpdater implements IElementChangedListener {
+	private static final String WEB_XML = "web.xml";
+
+	private static final int CLASSPATH_CHANGED = IJavaElementDelta.F_CLASSPATH_CHANGED
+													| IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED;
+
+	private static final int ROOT_CHANGED = IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED
+													| IJavaElementDelta.F_ADDED_TO_CLASSPATH
+													| IJavaElementDelta.F_REMOVED_FROM_CLASSPATH;
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		List<ProjectModel> projectModels = TapestryCore.getDefault().getCachedProjectModels();
+		if(projectModels.isEmpty()){
+			return;
+		}
+		try {
+			visit(event.getDelta(), projectModels);
+		}
+		catch (RuntimeException e) {
+			//the listener must never break the notification of other listeners:
+			TapestryCore.logError(ErrorMessages.CAN_T_UPDATE_PROJECT_MODEL, e);
+		}
+	}
+
+	private void visit(IJavaElementDelta delta, List<ProjectModel> projectModels){
+		IJavaElement element = delta.getElement();
+
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_PROJECT:
+				if(delta.getKind() == IJavaElementDelta.REMOVED || (delta.getFlags() & IJavaElementDelta.F_CLOSED) != 0){
+					TapestryCore.getDefault().getClassLoaderPool().removeProject(element.getElementName());
+					TapestryCore.getDefault().getProjectModelCache().invalidate(element.getElementName());
+					if(delta.getKind() == IJavaElementDelta.REMOVED){
+						TapestryCore.getDefault().getProjectModelWarmUp().forgetProject(element.getElementName());
+					}
+					markStale(projectModels, element.getElementName());
+					return;
+				}
+				if((delta.getFlags() & CLASSPATH_CHANGED) != 0){
+					markStale(projectModels, element.getElementName());
+					return;
+				}
+				break;
+
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if((delta.getFlags() & ROOT_CHANGED) != 0
+						|| (delta.getKind() != IJavaElementDelta.CHANGED && ((IPackageFragmentRoot) element).isArchive())){
+					//a jar has changed: any project may use it
+					markStale(projectModels, null);
+					return;
+				}
+				break;
+
+			case IJavaElement.PACKAGE_FRAGMENT:
+				if(delta.getKind() != IJavaElementDelta.CHANGED){
+					//its files are not reported one by one:
+					for (ProjectModel projectModel : projectModels) {
+						projectModel.getFeatureFileIndex().folderChanged(element.getPath());
+					}
+					//new or removed features package: too rare to be worth an incremental update
+					for (ProjectModel projectModel : getModelsScanning((IPackageFragment) element, projectModels)) {
+						projectModel.markStale();
+					}
+					return;
+				}
+				break;
+
+			case IJavaElement.COMPILATION_UNIT:
+				if(delta.getKind() != IJavaElementDelta.CHANGED && element.getResource() != null){
+					updateFeatureFiles(element.getResource(), delta.getKind() == IJavaElementDelta.ADDED, projectModels);
+				}
+				updateFeature(delta, (ICompilationUnit) element, projectModels);
+				return;
+
+			default:
+				break;
+		}
+
+		checkNonJavaResources(delta, element, projectModels);
+
+		for (IJavaElementDelta childDelta : delta.getAffectedChildren()) {
+			visit(childDelta, projectModels);
+		}
+	}
+
+	/**
+	 * Re-creates or drops the feature defined in a compilation unit, in every model that scanned its source folder
+	 *
+	 * @param delta
+	 * @param compilationUnit
+	 * @param projectModels
+	 */
+	private void updateFeature(IJavaElementDelta delta, ICompilationUnit compilationUnit, List<ProjectModel> projectModels){
+		//a change in the imports or the comments of a class doesn't change its feature:
+		if(delta.getKind() == IJavaElementDelta.CHANGED && (delta.getFlags() & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_CHILDREN)) == 0){
+			return;
+		}
+		if(compilationUnit.getElementName().contains("$")){
+			return;
+		}
+
+		IPackageFragment packageFragment = (IPackageFragment) compilationUnit.getParent();
+		IPackageFragmentRoot packageFragmentRoot = (IPackageFragmentRoot) packageFragment.getParent();
+
+		for (ProjectModel projectModel : projectModels) {
+			String[] prefixPackageStrings = projectModel.getSourceRootPackageInfo(packageFragmentRoot.getPath());
+			if(prefixPackageStrings == null){
+				continue;
+			}
+			FeaturePackage featurePackage = FeatureFinder.classifyPackage(packageFragment, prefixPackageStrings[1]);
+			if(featurePackage == null){
+				continue;
+			}
+
+			projectModel.removeFeatures(compilationUnit);
+			if(delta.getKind() != IJavaElementDelta.REMOVED){
+				IType type = compilationUnit.findPrimaryType();
+				if(type != null && type.exists()){
+					projectModel.addFeature(featurePackage.getFeatureType(), type, prefixPackageStrings[0],
+							packageFragment.getPath().toPortableString(), featurePackage.getSubPackage());
+				}
+			}
+			//the old and new features are swapped at once
+			projectModel.publish();
+		}
+	}
+
+	/**
+	 * Adds or removes a file of a feature in the {@link FeatureFileIndex} of every model
+	 *
+	 * @param file
+	 * @param added
+	 * @param projectModels
+	 */
+	private void updateFeatureFiles(IResource file, boolean added, List<ProjectModel> projectModels){
+		for (ProjectModel projectModel : projectModels) {
+			if(added){
+				projectModel.getFeatureFileIndex().fileAdded(file);
+			}
+			else{
+				projectModel.getFeatureFileIndex().fileRemoved(file);
+			}
+		}
+	}
+
+	/**
+	 * web.xml and MANIFEST.MF define the application package, and the libraries prefixes.
+	 * The <code>*.properties</code> files may be message catalogs, or their locale variants.
+	 * The <code>*.tml</code> and <code>*.properties</code> files may belong to features.
+	 *
+	 * @param delta
+	 * @param element
+	 * @param projectModels
+	 */
+	private void checkNonJavaResources(IJavaElementDelta delta, IJavaElement element, List<ProjectModel> projectModels){
+		IResourceDelta[] resourceDeltas = delta.getResourceDeltas();
+		if(resourceDeltas == null){
+			return;
+		}
+		final boolean[] configurationChanged = new boolean[1];
+		final List<IPath> changedCatalogs = new ArrayList<IPath>();
+		final List<IResourceDelta> featureFileDeltas = new ArrayList<IResourceDelta>();
+		for (IResourceDelta resourceDelta : resourceDeltas) {
+			try {
+				resourceDelta.accept(new IResourceDeltaVisitor() {
+					@Override
+					public boolean visit(IResourceDelta childDelta) throws CoreException {
+						IResource resource = childDelta.getResource();
+						if(resource.getType() == IResource.FILE
+								&& (WEB_XML.equals(resource.getName()) || Constants.MANIFEST_MF.equals(resource.getName()))){
+							configurationChanged[0] = true;
+						}
+						else if(resource.getType() == IResource.FILE
+								&& Constants.PROPERTIES_FILE_EXTENSION.equals(resource.getFileExtension())){
+							changedCatalogs.add(resource.getFullPath());
+						}
+						if(resource.getType() == IResource.FILE && childDelta.getKind() != IResourceDelta.CHANGED
+								&& (Constants.PROPERTIES_FILE_EXTENSION.equals(resource.getFileExtension())
+										|| Constants.TML_FILE_EXTENSION.equals(resource.getFileExtension()))){
+							featureFileDeltas.add(childDelta);
+						}
+						return ! configurationChanged[0];
+					}
+				});
+			}
+			catch (CoreException e) {
+				TapestryCore.logWarning(ErrorMessages.CAN_T_UPDATE_PROJECT_MODEL, e);
+			}
+		}
+		if(configurationChanged[0]){
+			markStale(projectModels, element.getJavaProject() != null ? element.getJavaProject().getElementName() : null);
+			return;
+		}
+		for (IPath changedCatalog : changedCatalogs) {
+			for (ProjectModel projectModel : projectModels) {
+				projectModel.getMessageCatalogIndex().fileChanged(changedCatalog);
+			}
+		}
+		for (IResourceDelta featureFileDelta : featureFileDeltas) {
+			updateFeatureFiles(featureFileDelta.getResource(), featureFileDelta.getKind() == IResourceDelta.ADDED, projectModels);
+		}
+	}
+
+	private List<ProjectModel> getModelsScanning(IPackageFragment packageFragment, List<ProjectModel> projectModels){
+		List<ProjectModel> scanningModels = new ArrayList<ProjectModel>();
+		IPackageFragmentRoot packageFragmentRoot = (IPackageFragmentRoot) packageFragment.getParent();
+		for (ProjectModel projectModel : projectModels) {
+			String[] prefixPackageStrings = projectModel.getSourceRootPackageInfo(packageFragmentRoot.getPath());
+			if(prefixPackageStrings != null && packageFragment.getElementName().startsWith(prefixPackageStrings[1])){
+				scanningModels.add(projectModel);
+			}
+		}
+		return scanningModels;
+	}
+
+	/**
+	 * @param projectModels
+	 * @param projectName the changed project (every model depending on it is also marked), or null to mark all models
+	 */
+	private void markStale(List<ProjectModel> projectModels, String projectName){
+		for (ProjectModel projectModel : projectModels) {
+			if(projectName == null || projectModel.dependsOn(projectName)){
+				projectModel.markStale();
+			}
+		}
+	}
+}
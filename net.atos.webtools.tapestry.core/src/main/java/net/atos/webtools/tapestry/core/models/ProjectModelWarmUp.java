@@ -0,0 +1,348 @@
+package net.atos.webtools.tapestry.core.models;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import net.atos.webtools.tapestry.core.TapestryCore;
+import net.atos.webtools.tapestry.core.preferences.CorePreferenceNames;
+import net.atos.webtools.tapestry.core.util.ErrorMessages;
+import net.atos.webtools.tapestry.core.util.Messages;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * Loads the {@link ProjectModel}s of the Tapestry projects of the workspace in background after the startup, so that
+ * the first content assist in a project doesn't pay for the scan of its classpath.
+ *
+ * <p>The Tapestry projects are the ones whose model has been loaded in previous sessions, with a web.xml or
+ * MANIFEST.MF defining a Tapestry application, or in which a tml editor has been opened: they're remembered in the
+ * plugin state location, the most recently edited first, which is the order of the warm-up.
+ *
+ * <p>The warm-up is only done when the {@link CorePreferenceNames#WARM_UP} preference is set. It waits for the builds
+ * to finish before loading a project, and the scans it launches run at low priority, with a limited number of projects
+ * scanned at the same time. It stops as soon as the user launches a build: its running scans are cancelled, and their
+ * partial models removed from the {@link ProjectModelCache}.
+ *
+ * @see TapestryCore#getProjectModelWarmUp()
+ */
+public class ProjectModelWarmUp extends Job {
+	/**
+	 * The oldest projects are forgotten
+	 */
+	private static final int MAX_REMEMBERED_PROJECTS = 32;
+
+	/**
+	 * Number of {@link FeatureFinder} Jobs launched by the warm-up that can run at the same time
+	 */
+	private static final int MAX_CONCURRENT_SCANS = 2;
+
+	private static final long CANCEL_POLLING_PERIOD = 200;
+
+	/**
+	 * Time between two checks for running builds, before the warm-up starts (ms)
+	 */
+	private static final long IDLE_POLLING_PERIOD = 2000;
+
+	private final File file;
+
+	/**
+	 * Names of the Tapestry projects, the most recently edited first
+	 */
+	private final LinkedList<String> projectNames = new LinkedList<String>();
+
+	private boolean changed;
+
+	/**
+	 * Models loaded by the current run: their scans are cancelled with the warm-up
+	 */
+	private final List<ProjectModel> loadedModels = new ArrayList<ProjectModel>();
+
+	/**
+	 * Stops the warm-up when a build is launched by the user (the auto-build doesn't stop it)
+	 */
+	private final IResourceChangeListener buildListener = new IResourceChangeListener() {
+		@Override
+		public void resourceChanged(IResourceChangeEvent event) {
+			if(event.getBuildKind() != IncrementalProjectBuilder.AUTO_BUILD){
+				cancel();
+			}
+		}
+	};
+
+	/**
+	 * @param file the file in which the Tapestry projects are remembered
+	 */
+	public ProjectModelWarmUp(File file) {
+		super(Messages.WARM_UP_JOB);
+		this.file = file;
+		setSystem(true);
+		setPriority(Job.DECORATE);
+	}
+
+	/**
+	 * Schedules the warm-up, if it's enabled: it starts once no build is running
+	 */
+	public void start() {
+		if(TapestryCore.getDefault().getPreferenceStore().getBoolean(CorePreferenceNames.WARM_UP)){
+			schedule(IDLE_POLLING_PERIOD);
+		}
+	}
+
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		//the builds of the startup go first: checked again later
+		if(isBuilding()){
+			schedule(IDLE_POLLING_PERIOD);
+			return new Status(IStatus.OK, TapestryCore.PLUGIN_ID, Messages.JOB_DONE);
+		}
+		List<String> names = getProjectNames();
+		synchronized (loadedModels) {
+			loadedModels.clear();
+		}
+		ProjectModelCache projectModelCache = TapestryCore.getDefault().getProjectModelCache();
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(buildListener, IResourceChangeEvent.PRE_BUILD);
+		try {
+			monitor.beginTask(getName(), names.size());
+			List<ProjectModel> scannedModels = new ArrayList<ProjectModel>(names.size());
+			for (String name : names) {
+				IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(name);
+				//a model already in the cache belongs to the editors, not to the warm-up
+				if(project.isOpen() && ! projectModelCache.contains(name)){
+					if(! awaitScans(scannedModels, MAX_CONCURRENT_SCANS, true, monitor)){
+						return new Status(IStatus.CANCEL, TapestryCore.PLUGIN_ID, Messages.JOB_CANCELLED);
+					}
+					monitor.subTask(name);
+					ProjectModel projectModel = projectModelCache.get(project, false, Job.DECORATE);
+					synchronized (loadedModels) {
+						loadedModels.add(projectModel);
+					}
+					scannedModels.add(projectModel);
+					//cancelled while the model was loading: its scans have just been launched
+					if(monitor.isCanceled()){
+						canceling();
+						return new Status(IStatus.CANCEL, TapestryCore.PLUGIN_ID, Messages.JOB_CANCELLED);
+					}
+				}
+				monitor.worked(1);
+			}
+			//the last scans can still be cancelled by a build:
+			if(! awaitScans(scannedModels, 1, false, monitor)){
+				return new Status(IStatus.CANCEL, TapestryCore.PLUGIN_ID, Messages.JOB_CANCELLED);
+			}
+		}
+		finally{
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(buildListener);
+			monitor.done();
+		}
+		return new Status(IStatus.OK, TapestryCore.PLUGIN_ID, Messages.JOB_DONE);
+	}
+
+	/**
+	 * Cancels the scans launched by the warm-up that are not done yet: their models are removed from the cache, so
+	 * that the next request loads them completely.
+	 */
+	@Override
+	protected void canceling() {
+		List<ProjectModel> models;
+		synchronized (loadedModels) {
+			models = new ArrayList<ProjectModel>(loadedModels);
+			loadedModels.clear();
+		}
+		for (ProjectModel projectModel : models) {
+			boolean featureScanCancelled = projectModel.getFeatureScan().cancel(false);
+			boolean assetScanCancelled = projectModel.getAssetScan().cancel(false);
+			if(featureScanCancelled || assetScanCancelled){
+				TapestryCore.getDefault().getProjectModelCache().invalidate(projectModel.getJavaProject().getElementName());
+			}
+		}
+	}
+
+	/**
+	 * Waits until less than maxRunning of the models are being scanned
+	 *
+	 * @param scannedModels
+	 * @param maxRunning
+	 * @param awaitIdle true to wait for the builds too (before starting a new scan)
+	 * @param monitor
+	 * @return false if the warm-up has been cancelled
+	 */
+	private boolean awaitScans(List<ProjectModel> scannedModels, int maxRunning, boolean awaitIdle, IProgressMonitor monitor) {
+		while(true){
+			if(monitor.isCanceled()){
+				return false;
+			}
+			ProjectModel running = null;
+			int runningCount = 0;
+			for (ProjectModel projectModel : scannedModels) {
+				if(! projectModel.getFeatureScan().isDone()){
+					running = projectModel;
+					runningCount++;
+				}
+			}
+			if(runningCount < maxRunning && ! (awaitIdle && isBuilding())){
+				return true;
+			}
+			if(running != null){
+				running.getFeatureScan().await(CANCEL_POLLING_PERIOD);
+			}
+			else{
+				try {
+					Thread.sleep(CANCEL_POLLING_PERIOD);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return true if an auto-build or a manual build is waiting or running
+	 */
+	private static boolean isBuilding() {
+		return isRunning(ResourcesPlugin.FAMILY_AUTO_BUILD) || isRunning(ResourcesPlugin.FAMILY_MANUAL_BUILD);
+	}
+
+	private static boolean isRunning(Object family) {
+		for (Job job : Job.getJobManager().find(family)) {
+			if(job.getState() == Job.RUNNING || job.getState() == Job.WAITING){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Remembers a project whose model defines a Tapestry application
+	 *
+	 * @param projectName
+	 */
+	public synchronized void recordTapestryProject(String projectName) {
+		if(! projectNames.contains(projectName)){
+			projectNames.addLast(projectName);
+			trim();
+			changed = true;
+		}
+	}
+
+	/**
+	 * Remembers a project in which a Tapestry editor has been opened: it will be warmed up first
+	 *
+	 * @param projectName
+	 */
+	public synchronized void recordEditedProject(String projectName) {
+		if(! projectName.equals(projectNames.peekFirst())){
+			projectNames.remove(projectName);
+			projectNames.addFirst(projectName);
+			trim();
+			changed = true;
+		}
+	}
+
+	/**
+	 * Forgets a project that has been removed from the workspace
+	 *
+	 * @param projectName
+	 */
+	public synchronized void forgetProject(String projectName) {
+		if(projectNames.remove(projectName)){
+			changed = true;
+		}
+	}
+
+	/**
+	 * @return the Tapestry projects, in warm-up order
+	 */
+	public synchronized List<String> getProjectNames() {
+		return new ArrayList<String>(projectNames);
+	}
+
+	private void trim() {
+		while(projectNames.size() > MAX_REMEMBERED_PROJECTS){
+			projectNames.removeLast();
+		}
+	}
+
+	/**
+	 * Reads the projects remembered in the previous sessions (one name per line)
+	 */
+	public synchronized void load() {
+		if(! file.isFile()){
+			return;
+		}
+		BufferedReader reader = null;
+		try {
+			reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+			String line;
+			while((line = reader.readLine()) != null){
+				line = line.trim();
+				if(line.length() > 0 && ! projectNames.contains(line)){
+					projectNames.addLast(line);
+				}
+			}
+			trim();
+		}
+		catch (IOException e) {
+			TapestryCore.logWarning(ErrorMessages.CAN_T_READ_WARM_UP_PROJECTS + file, e);
+		}
+		finally{
+			if(reader != null){
+				try {
+					reader.close();
+				}
+				catch (IOException e) {
+					TapestryCore.logWarning(ErrorMessages.FAILED_TO_CLOSE_STREAM, e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the projects, if they have changed since the last load or save
+	 */
+	public synchronized void save() {
+		if(! changed){
+			return;
+		}
+		Writer writer = null;
+		try {
+			writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+			for (String projectName : projectNames) {
+				writer.write(projectName);
+				writer.write('\n');
+			}
+			changed = false;
+		}
+		catch (IOException e) {
+			TapestryCore.logWarning(ErrorMessages.CAN_T_WRITE_WARM_UP_PROJECTS + file, e);
+		}
+		finally{
+			if(writer != null){
+				try {
+					writer.close();
+				}
+				catch (IOException e) {
+					TapestryCore.logWarning(ErrorMessages.FAILED_TO_CLOSE_STREAM, e);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,325 @@
+package net.atos.webtools.tapestry.core.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import net.atos.webtools.tapestry.core.models.ScanReport.Resolution;
+import net.atos.webtools.tapestry.core.models.ScanReport.RootReport;
+import net.atos.webtools.tapestry.core.models.bytecode.JarScanner;
+import net.atos.webtools.tapestry.core.models.features.AbstractFeatureModel;
+import net.atos.webtools.tapestry.core.models.features.LibraryContent;
+import net.atos.webtools.tapestry.core.models.index.FeatureIndex;
+import net.atos.webtools.tapestry.core.models.index.IndexedFeature;
+import net.atos.webtools.tapestry.core.models.index.IndexedRoot;
+import net.atos.webtools.tapestry.core.models.index.JarFingerprint;
+import net.atos.webtools.tapestry.core.models.index.LibraryMappingResolution;
+
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+
+/**
+ * State of the {@link FeatureFinder} scan for one {@link IPackageFragmentRoot}.
+ *
+ * <p>A scan is done in 2 steps: first, the prefix and root package of the root are found, then its features are
+ * loaded, one {@link FeatureType} at a time. A RootScan is only used by one thread at a time: the
+ * {@link FeatureFinder} waits for every root to finish a step before starting the next one.
+ */
+class RootScan {
+	private final IPackageFragmentRoot packageFragmentRoot;
+
+	/**
+	 * Only set for jars
+	 */
+	private JarFingerprint fingerprint;
+
+	/**
+	 * Only set for jars found unchanged in the index
+	 */
+	private IndexedRoot indexedRoot;
+
+	/**
+	 * Only set for jars already scanned by another project
+	 */
+	private LibraryFeatures sharedLibrary;
+
+	/**
+	 * Only set for jars read without the JDT model
+	 */
+	private JarScanner jarScanner;
+
+	private String prefix;
+	private String appPackageName;
+
+	/**
+	 * Features found in a jar that must be (re-)indexed, null for source folders
+	 */
+	private List<IndexedFeature> foundFeatures;
+	
+	/**
+	 * Packages of the root that contain features, sorted by {@link FeatureType}
+	 */
+	private final Map<FeatureType, List<FeaturePackage>> featurePackages = new EnumMap<FeatureType, List<FeaturePackage>>(FeatureType.class);
+	
+	/**
+	 * Javadoc and parameters of the feature classes of a jar, shared with the other projects (see {@link LibraryFeatures}), 
+	 * null for source folders
+	 */
+	private LibraryContent content;
+	
+	//---------- Telemetry, for the ScanReport ----------
+	private Resolution resolution = Resolution.NONE;
+	private LibraryMappingResolution.Source mappingSource;
+	private boolean mappingCached;
+	private long resolveNanos;
+	private long loadNanos;
+	private int classesVisited;
+	private int featuresFound;
+
+	RootScan(IPackageFragmentRoot packageFragmentRoot) {
+		this.packageFragmentRoot = packageFragmentRoot;
+	}
+
+	IPackageFragmentRoot getPackageFragmentRoot() {
+		return packageFragmentRoot;
+	}
+
+	JarFingerprint getFingerprint() {
+		return fingerprint;
+	}
+
+	IndexedRoot getIndexedRoot() {
+		return indexedRoot;
+	}
+
+	String getPrefix() {
+		return prefix;
+	}
+
+	String getAppPackageName() {
+		return appPackageName;
+	}
+
+	LibraryFeatures getSharedLibrary() {
+		return sharedLibrary;
+	}
+
+	/**
+	 * The features of the jar are already loaded: they will be taken from the {@link LibraryFeatureCache}
+	 *
+	 * @param sharedLibrary
+	 */
+	void setSharedLibrary(LibraryFeatures sharedLibrary) {
+		this.sharedLibrary = sharedLibrary;
+		this.prefix = sharedLibrary.getPrefix();
+		this.appPackageName = sharedLibrary.getAppPackage();
+		this.content = sharedLibrary.getContent();
+		this.resolution = Resolution.SHARED_LIBRARY;
+	}
+
+	JarScanner getJarScanner() {
+		return jarScanner;
+	}
+
+	void setJarScanner(JarScanner jarScanner) {
+		this.jarScanner = jarScanner;
+	}
+
+	List<IndexedFeature> getFoundFeatures() {
+		return foundFeatures;
+	}
+
+	/**
+	 * The jar hasn't changed since it has been indexed: features will be loaded from the index
+	 *
+	 * @param indexedRoot
+	 */
+	void setIndexedRoot(IndexedRoot indexedRoot) {
+		this.indexedRoot = indexedRoot;
+		this.prefix = indexedRoot.getPrefix();
+		this.appPackageName = indexedRoot.getAppPackage();
+		this.content = new LibraryContent();
+		this.resolution = Resolution.FEATURE_INDEX;
+	}
+
+	/**
+	 * The jar must be scanned, and the result stored in the index
+	 *
+	 * @param fingerprint
+	 */
+	void setFingerprint(JarFingerprint fingerprint) {
+		this.fingerprint = fingerprint;
+		this.foundFeatures = new ArrayList<IndexedFeature>();
+		this.content = new LibraryContent();
+	}
+
+	/**
+	 * @param prefix
+	 * @param appPackageName
+	 * @param resolution how they have been found
+	 */
+	void setPackageInfo(String prefix, String appPackageName, Resolution resolution) {
+		this.prefix = prefix;
+		this.appPackageName = appPackageName;
+		this.resolution = resolution;
+	}
+	
+	/**
+	 * Records how the AppModule of the root has been resolved, whether its mapping is used or not
+	 * 
+	 * @param mappingSource
+	 * @param mappingCached true if it comes from the {@link net.atos.webtools.tapestry.core.models.index.LibraryMappingCache}
+	 */
+	void setMappingResolution(LibraryMappingResolution.Source mappingSource, boolean mappingCached) {
+		this.mappingSource = mappingSource;
+		this.mappingCached = mappingCached;
+	}
+	
+	void addResolveNanos(long nanos) {
+		resolveNanos += nanos;
+	}
+	
+	void addLoadNanos(long nanos) {
+		loadNanos += nanos;
+	}
+	
+	void classVisited() {
+		classesVisited++;
+	}
+	
+	void addFeaturePackage(FeaturePackage featurePackage) {
+		List<FeaturePackage> packages = featurePackages.get(featurePackage.getFeatureType());
+		if(packages == null){
+			packages = new ArrayList<FeaturePackage>();
+			featurePackages.put(featurePackage.getFeatureType(), packages);
+		}
+		packages.add(featurePackage);
+	}
+	
+	/**
+	 * @param featureType
+	 * @return the packages containing features of that type (may be empty, never null)
+	 */
+	List<FeaturePackage> getFeaturePackages(FeatureType featureType) {
+		List<FeaturePackage> packages = featurePackages.get(featureType);
+		if(packages == null){
+			return Collections.emptyList();
+		}
+		return packages;
+	}
+
+	/**
+	 * Records a feature loaded from this root, for the {@link FeatureIndex} and the {@link LibraryFeatureCache}: 
+	 * the feature of a jar shares its javadoc and parameters with the other projects
+	 *
+	 * @param featureType
+	 * @param feature
+	 * @param type the type of the feature
+	 * @param subPackage
+	 */
+	void featureLoaded(FeatureType featureType, AbstractFeatureModel feature, IType type, String subPackage) {
+		if(feature != null){
+			featuresFound++;
+			if(content != null){
+				feature.setLibraryContent(content);
+			}
+		}
+		if(foundFeatures != null){
+			foundFeatures.add(new IndexedFeature(featureType, type.getPackageFragment().getElementName(), 
+					type.getElementName(), subPackage));
+		}
+	}
+
+	/**
+	 * @return true if features can be found in that root
+	 */
+	boolean isTapestryRoot() {
+		return appPackageName != null;
+	}
+
+	/**
+	 * The prefix & package of a library found by reflection, or by deduction when the reflection failed, depend on the 
+	 * classloader of the project: another project may resolve the same jar differently. Only the results found in the 
+	 * jar itself are kept for the other projects (and the next sessions).
+	 * 
+	 * @return true if the jar contains the core library, if its AppModule gave its mapping, or if its manifest 
+	 * 			doesn't declare any AppModule (it's not a Tapestry library)
+	 */
+	private boolean isClasspathIndependent() {
+		switch (resolution) {
+			case CORE_LIBRARY:
+				return true;
+			case APP_MODULE:
+				return mappingSource == LibraryMappingResolution.Source.REFLECTION;
+			case NONE:
+				return mappingSource == null;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * @return the new entry for the index, or null if this root doesn't have to be indexed
+	 */
+	IndexedRoot toIndexedRoot() {
+		if(indexedRoot != null || fingerprint == null || ! isClasspathIndependent()){
+			return null;
+		}
+		return new IndexedRoot(fingerprint, prefix, appPackageName, foundFeatures);
+	}
+
+	/**
+	 * @return the features to share with the other projects, or null if this root isn't a jar, 
+	 * 			if its features are already shared, or if they depend on the classpath of this project
+	 */
+	LibraryFeatures toLibraryFeatures() {
+		if(sharedLibrary != null || content == null || (indexedRoot == null && ! isClasspathIndependent())){
+			return null;
+		}
+		if(indexedRoot != null){
+			return new LibraryFeatures(indexedRoot.getFingerprint(), prefix, appPackageName, indexedRoot.getFeatures(), content);
+		}
+		return new LibraryFeatures(fingerprint, prefix, appPackageName, foundFeatures, content);
+	}
+
+	/**
+	 * @return the telemetry of this root
+	 */
+	RootReport toRootReport() {
+		return new RootReport(packageFragmentRoot.getPath().toPortableString(), packageFragmentRoot.isArchive(), resolution, 
+				mappingSource, mappingCached, resolveNanos, loadNanos, classesVisited, featuresFound);
+	}
+	
+	/**
+	 * A package containing features, with its sub-package inside "components", "pages"...
+	 */
+	static class FeaturePackage {
+		private final FeatureType featureType;
+		private final IPackageFragment packageFragment;
+		private final String subPackage;
+		
+		FeaturePackage(FeatureType featureType, IPackageFragment packageFragment, String subPackage) {
+			this.featureType = featureType;
+			this.packageFragment = packageFragment;
+			this.subPackage = subPackage;
+		}
+		
+		FeatureType getFeatureType() {
+			return featureType;
+		}
+		
+		IPackageFragment getPackageFragment() {
+			return packageFragment;
+		}
+		
+		/**
+		 * @return the sub-package inside "components", if any, or empty String
+		 */
+		String getSubPackage() {
+			return subPackage;
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package net.atos.webtools.tapestry.core.models;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+
+/**
+ * Completion of a {@link Job} filling a {@link ProjectModel} (feature or asset scan): until it's done, the model
+ * is only partially filled.
+ *
+ * <p>The result is the status of the Job. Cancelling this future cancels the Job: a waiting Job doesn't run, a running
+ * one stops at its next check of its monitor, and the model keeps what has been found so far.
+ *
+ * @see ProjectModel#getFeatureScan()
+ * @see ProjectModel#getAssetScan()
+ */
+public class ScanFuture implements Future<IStatus> {
+	private final CountDownLatch done = new CountDownLatch(1);
+	private volatile IStatus status;
+	private volatile Job job;
+
+	/**
+	 * Completes this future when the job is done (whatever its result), the job must not have been scheduled yet
+	 *
+	 * @param job
+	 */
+	void track(Job job) {
+		this.job = job;
+		job.addJobChangeListener(new JobChangeAdapter() {
+			@Override
+			public void done(IJobChangeEvent event) {
+				complete(event.getResult());
+			}
+		});
+	}
+
+	void complete(IStatus status) {
+		this.status = status;
+		done.countDown();
+	}
+
+	/**
+	 * @param timeoutMillis maximum time to wait, 0 to return immediately
+	 * @return true if the scan is done
+	 */
+	public boolean await(long timeoutMillis) {
+		if(isDone() || timeoutMillis <= 0){
+			return isDone();
+		}
+		try {
+			return done.await(timeoutMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return isDone();
+		}
+	}
+
+	/**
+	 * Requests the cancellation of the Job (it's never interrupted, whatever mayInterruptIfRunning)
+	 *
+	 * @return false if the scan is already done, or if no Job has been tracked
+	 */
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		Job trackedJob = job;
+		if(trackedJob == null || isDone()){
+			return false;
+		}
+		trackedJob.cancel();
+		return true;
+	}
+
+	@Override
+	public boolean isCancelled() {
+		IStatus result = status;
+		return result != null && result.getSeverity() == IStatus.CANCEL;
+	}
+
+	@Override
+	public boolean isDone() {
+		return done.getCount() == 0;
+	}
+
+	@Override
+	public IStatus get() throws InterruptedException, ExecutionException {
+		done.await();
+		return status;
+	}
+
+	@Override
+	public IStatus get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		if(! done.await(timeout, unit)){
+			throw new TimeoutException();
+		}
+		return status;
+	}
+}
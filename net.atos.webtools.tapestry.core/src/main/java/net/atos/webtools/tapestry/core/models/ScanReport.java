@@ -0,0 +1,279 @@
+package net.atos.webtools.tapestry.core.models;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import net.atos.webtools.tapestry.core.TapestryCore;
+import net.atos.webtools.tapestry.core.models.index.LibraryMappingResolution;
+import net.atos.webtools.tapestry.core.preferences.CorePreferenceNames;
+import net.atos.webtools.tapestry.core.util.ErrorMessages;
+
+/**
+ * Telemetry of one {@link FeatureFinder} run: how long each jar and source folder of the classpath took,
+ * how many classes were visited and features found, and how its prefix & package were found.
+ *
+ * <p>The last report of a project is available from {@link ProjectModel#getScanReport()}, and it's written
+ * to the error log and to the plugin state location when the {@link CorePreferenceNames#SCAN_REPORT} preference is set.
+ *
+ * <p>Instances are immutable.
+ */
+public final class ScanReport {
+	/**
+	 * How the prefix & root package of a root have been found
+	 */
+	public enum Resolution {
+		/**
+		 * The jar has already been scanned by another project (see {@link LibraryFeatureCache})
+		 */
+		SHARED_LIBRARY,
+		/**
+		 * The jar hasn't changed since it has been indexed (see {@link net.atos.webtools.tapestry.core.models.index.FeatureIndex})
+		 */
+		FEATURE_INDEX,
+		/**
+		 * The jar contains the Tapestry core library
+		 */
+		CORE_LIBRARY,
+		/**
+		 * From the AppModule of a library (jar or project in dependency), see {@link RootReport#getMappingSource()}
+		 */
+		APP_MODULE,
+		/**
+		 * Source folder of the scanned project
+		 */
+		PROJECT_SOURCES,
+		/**
+		 * Not a Tapestry root, or nothing could be found
+		 */
+		NONE
+	}
+
+	/**
+	 * Telemetry of one jar or source folder
+	 */
+	public static final class RootReport {
+		private final String path;
+		private final boolean archive;
+		private final Resolution resolution;
+		private final LibraryMappingResolution.Source mappingSource;
+		private final boolean mappingCached;
+		private final long resolveNanos;
+		private final long loadNanos;
+		private final int classesVisited;
+		private final int featuresFound;
+
+		RootReport(String path, boolean archive, Resolution resolution, LibraryMappingResolution.Source mappingSource,
+				boolean mappingCached, long resolveNanos, long loadNanos, int classesVisited, int featuresFound) {
+			this.path = path;
+			this.archive = archive;
+			this.resolution = resolution;
+			this.mappingSource = mappingSource;
+			this.mappingCached = mappingCached;
+			this.resolveNanos = resolveNanos;
+			this.loadNanos = loadNanos;
+			this.classesVisited = classesVisited;
+			this.featuresFound = featuresFound;
+		}
+
+		public String getPath() {
+			return path;
+		}
+
+		/**
+		 * @return true for a jar, false for a source folder
+		 */
+		public boolean isArchive() {
+			return archive;
+		}
+
+		public Resolution getResolution() {
+			return resolution;
+		}
+
+		/**
+		 * @return how the AppModule mapping was found, or null if the resolution isn't {@link Resolution#APP_MODULE}
+		 */
+		public LibraryMappingResolution.Source getMappingSource() {
+			return mappingSource;
+		}
+
+		/**
+		 * @return true if the AppModule mapping was taken from the {@link net.atos.webtools.tapestry.core.models.index.LibraryMappingCache}
+		 */
+		public boolean isMappingCached() {
+			return mappingCached;
+		}
+
+		/**
+		 * @return time spent finding the prefix & package, and the feature packages (ms)
+		 */
+		public long getResolveMillis() {
+			return resolveNanos / 1000000;
+		}
+
+		/**
+		 * @return time spent loading the features, of all types (ms)
+		 */
+		public long getLoadMillis() {
+			return loadNanos / 1000000;
+		}
+
+		/**
+		 * @return wall time of the root, in the worker threads (ms)
+		 */
+		public long getTotalMillis() {
+			return (resolveNanos + loadNanos) / 1000000;
+		}
+
+		public int getClassesVisited() {
+			return classesVisited;
+		}
+
+		public int getFeaturesFound() {
+			return featuresFound;
+		}
+
+		private String getResolutionLabel() {
+			if(mappingSource == null){
+				return resolution.name();
+			}
+			return resolution.name() + "/" + mappingSource.name() + (mappingCached ? " (cached)" : "");
+		}
+	}
+
+	/**
+	 * Slowest roots first
+	 */
+	private static final Comparator<RootReport> BY_TOTAL_TIME = new Comparator<RootReport>() {
+		@Override
+		public int compare(RootReport r1, RootReport r2) {
+			long t1 = r1.resolveNanos + r1.loadNanos;
+			long t2 = r2.resolveNanos + r2.loadNanos;
+			return t1 < t2 ? 1 : (t1 == t2 ? 0 : -1);
+		}
+	};
+
+	private final String projectName;
+	private final Date date;
+	private final long wallMillis;
+	private final boolean cancelled;
+	private final List<RootReport> rootReports;
+
+	/**
+	 * @param projectName
+	 * @param wallMillis wall time of the whole Job
+	 * @param cancelled true if the Job has been cancelled before the end
+	 * @param rootReports
+	 */
+	ScanReport(String projectName, long wallMillis, boolean cancelled, List<RootReport> rootReports) {
+		this.projectName = projectName;
+		this.date = new Date();
+		this.wallMillis = wallMillis;
+		this.cancelled = cancelled;
+		List<RootReport> sortedReports = new ArrayList<RootReport>(rootReports);
+		Collections.sort(sortedReports, BY_TOTAL_TIME);
+		this.rootReports = Collections.unmodifiableList(sortedReports);
+	}
+
+	public String getProjectName() {
+		return projectName;
+	}
+
+	public Date getDate() {
+		return date;
+	}
+
+	public long getWallMillis() {
+		return wallMillis;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * @return the reports of all the roots, slowest first
+	 */
+	public List<RootReport> getRootReports() {
+		return rootReports;
+	}
+
+	public int getClassesVisited() {
+		int count = 0;
+		for (RootReport rootReport : rootReports) {
+			count += rootReport.getClassesVisited();
+		}
+		return count;
+	}
+
+	public int getFeaturesFound() {
+		int count = 0;
+		for (RootReport rootReport : rootReports) {
+			count += rootReport.getFeaturesFound();
+		}
+		return count;
+	}
+
+	/**
+	 * Writes the report in a text file (replaced if it exists)
+	 *
+	 * @param file
+	 */
+	public void writeTo(File file) {
+		Writer writer = null;
+		try {
+			writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+			writer.write(toString());
+		}
+		catch (IOException e) {
+			TapestryCore.logWarning(ErrorMessages.CAN_T_WRITE_SCAN_REPORT + file, e);
+		}
+		finally{
+			if(writer != null){
+				try {
+					writer.close();
+				}
+				catch (IOException e) {
+					TapestryCore.logWarning(ErrorMessages.FAILED_TO_CLOSE_STREAM, e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * One line per root, slowest first: total ms, resolve ms, load ms, classes visited, features found, resolution, path
+	 */
+	@Override
+	public String toString() {
+		String lineSeparator = System.getProperty("line.separator");
+		StringBuilder builder = new StringBuilder();
+		builder.append("Tapestry scan of ").append(projectName).append(" (").append(date).append("): ");
+		builder.append(wallMillis).append(" ms, ");
+		builder.append(rootReports.size()).append(" roots, ");
+		builder.append(getClassesVisited()).append(" classes visited, ");
+		builder.append(getFeaturesFound()).append(" features found");
+		if(cancelled){
+			builder.append(" - CANCELLED");
+		}
+		builder.append(lineSeparator);
+		builder.append("total\tresolve\tload\tclasses\tfeatures\tresolution\tpath").append(lineSeparator);
+		for (RootReport rootReport : rootReports) {
+			builder.append(rootReport.getTotalMillis()).append('\t');
+			builder.append(rootReport.getResolveMillis()).append('\t');
+			builder.append(rootReport.getLoadMillis()).append('\t');
+			builder.append(rootReport.getClassesVisited()).append('\t');
+			builder.append(rootReport.getFeaturesFound()).append('\t');
+			builder.append(rootReport.getResolutionLabel()).append('\t');
+			builder.append(rootReport.getPath()).append(lineSeparator);
+		}
+		return builder.toString();
+	}
+}
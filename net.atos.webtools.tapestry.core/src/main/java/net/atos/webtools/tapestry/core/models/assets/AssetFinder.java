@@ -66,6 +66,7 @@ public class AssetFinder extends Job {
 			} catch (CoreException e) {
 				
 			}
+			projectModel.publish();
 		}
 		return new Status(IStatus.OK, TapestryCore.PLUGIN_ID, Messages.JOB_DONE);
 	}
@@ -29,4 +29,23 @@ public class AssetModel {
 		String fullPath = resource.getFullPath().toString();
 		this.path = fullPath.substring(fullPath.indexOf(Constants.ASSET_PATH) + 16);
 	}
+	
+	/**
+	 * 2 assets are the same if they have the same path (the same file can't be added twice to a project model)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj){
+			return true;
+		}
+		if(! (obj instanceof AssetModel)){
+			return false;
+		}
+		return path.equals(((AssetModel) obj).path);
+	}
+	
+	@Override
+	public int hashCode() {
+		return path.hashCode();
+	}
 }
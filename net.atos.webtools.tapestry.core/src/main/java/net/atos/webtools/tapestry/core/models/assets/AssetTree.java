@@ -0,0 +1,109 @@
+package net.atos.webtools.tapestry.core.models.assets;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Immutable set of assets of one {@link AssetType}, indexed by path (relative to the webapp folder, e.g.
+ * <code>images/logo.png</code>) and by folder, so that the content assist can propose one folder level at a time
+ * instead of all the assets of the project.
+ */
+public final class AssetTree {
+	private static final char SEPARATOR = '/';
+
+	public static final AssetTree EMPTY = new AssetTree(Collections.<AssetModel>emptyList());
+
+	private final List<AssetModel> assets;
+	private final Map<String, AssetModel> assetsByPath;
+
+	/**
+	 * Folder path (empty for the webapp folder, ending with '/' otherwise) -> sorted names of its files and
+	 * sub-folders (ending with '/')
+	 */
+	private final Map<String, List<String>> entriesByFolder;
+
+	/**
+	 * @param assets assets without duplicates
+	 */
+	public AssetTree(Collection<AssetModel> assets) {
+		this.assets = Collections.unmodifiableList(new ArrayList<AssetModel>(assets));
+		this.assetsByPath = new HashMap<String, AssetModel>(assets.size() * 4 / 3 + 1);
+
+		Map<String, Set<String>> folders = new HashMap<String, Set<String>>();
+		for (AssetModel asset : assets) {
+			String path = asset.getPath();
+			assetsByPath.put(path, asset);
+
+			//the file in its folder, then each folder in its parent, until one is already known:
+			int separatorIndex = path.lastIndexOf(SEPARATOR);
+			String entry = path.substring(separatorIndex + 1);
+			while(true){
+				String folder = path.substring(0, separatorIndex + 1);
+				Set<String> entries = folders.get(folder);
+				boolean knownFolder = entries != null;
+				if(! knownFolder){
+					entries = new TreeSet<String>();
+					folders.put(folder, entries);
+				}
+				if(! entries.add(entry) || knownFolder || separatorIndex < 0){
+					break;
+				}
+				separatorIndex = path.lastIndexOf(SEPARATOR, separatorIndex - 1);
+				entry = folder.substring(separatorIndex + 1);
+			}
+		}
+
+		this.entriesByFolder = new HashMap<String, List<String>>(folders.size() * 4 / 3 + 1);
+		for (Map.Entry<String, Set<String>> folder : folders.entrySet()) {
+			entriesByFolder.put(folder.getKey(), Collections.unmodifiableList(new ArrayList<String>(folder.getValue())));
+		}
+	}
+
+	/**
+	 * @return all the assets, in the order they were found
+	 */
+	public List<AssetModel> getAssets() {
+		return assets;
+	}
+
+	public int size() {
+		return assets.size();
+	}
+
+	/**
+	 * @param path path relative to the webapp folder (a leading '/' is ignored)
+	 * @return the asset, or null if there's no asset of that type with that path
+	 */
+	public AssetModel get(String path) {
+		if(path == null){
+			return null;
+		}
+		return assetsByPath.get(trimLeadingSeparator(path));
+	}
+
+	/**
+	 * @param folder path of a folder relative to the webapp folder, "" for the webapp folder itself
+	 * @return the names of the files and sub-folders (ending with '/') containing assets of that type, sorted
+	 */
+	public List<String> list(String folder) {
+		String key = folder == null ? "" : trimLeadingSeparator(folder);
+		if(key.length() > 0 && key.charAt(key.length() - 1) != SEPARATOR){
+			key = key + SEPARATOR;
+		}
+		List<String> entries = entriesByFolder.get(key);
+		if(entries == null){
+			return Collections.emptyList();
+		}
+		return entries;
+	}
+
+	private static String trimLeadingSeparator(String path) {
+		return path.length() > 0 && path.charAt(0) == SEPARATOR ? path.substring(1) : path;
+	}
+}
@@ -0,0 +1,97 @@
+package net.atos.webtools.tapestry.core.models.bytecode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An annotation read from a class file, with its explicit values only (default values are
+ * defined in the annotation class, and are not repeated in the annotated class).
+ *
+ * <p>Values are: String (for strings, but also for enum constants and classes), Boolean, Character,
+ * Integer, Long, Float, Double, nested {@link AnnotationInfo}, or Object[] for arrays.
+ *
+ * <p>Instances are immutable.
+ */
+public final class AnnotationInfo {
+	private final String typeName;
+	private final Map<String, Object> values;
+
+	AnnotationInfo(String typeName, Map<String, Object> values) {
+		this.typeName = typeName;
+		this.values = Collections.unmodifiableMap(values);
+	}
+
+	/**
+	 * @return the fully qualified name of the annotation, i.e. <code>org.apache.tapestry5.annotations.Parameter</code>
+	 */
+	public String getTypeName() {
+		return typeName;
+	}
+
+	public Map<String, Object> getValues() {
+		return values;
+	}
+
+	public Object getValue(String name) {
+		return values.get(name);
+	}
+
+	/**
+	 * @param name
+	 * @return the value, or null if it's not defined, or not a String
+	 */
+	public String getString(String name) {
+		Object value = values.get(name);
+		return value instanceof String ? (String) value : null;
+	}
+
+	/**
+	 * @param name
+	 * @param defaultValue
+	 * @return the value, or defaultValue if it's not defined in the class
+	 */
+	public boolean getBoolean(String name, boolean defaultValue) {
+		Object value = values.get(name);
+		return value instanceof Boolean ? ((Boolean) value).booleanValue() : defaultValue;
+	}
+
+	/**
+	 * Annotation members of type String[] can be written with a single String (<code>@Mixins("Autocomplete")</code>):
+	 * both forms are returned as a list.
+	 *
+	 * @param name
+	 * @return the Strings (may be empty, never null)
+	 */
+	public List<String> getStrings(String name) {
+		Object value = values.get(name);
+		if(value instanceof String){
+			return Collections.singletonList((String) value);
+		}
+		if(value instanceof Object[]){
+			List<String> strings = new ArrayList<String>();
+			for (Object element : (Object[]) value) {
+				if(element instanceof String){
+					strings.add((String) element);
+				}
+			}
+			return strings;
+		}
+		return Collections.emptyList();
+	}
+
+	/**
+	 * For debugging...
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("AnnotationInfo [typeName=");
+		builder.append(typeName);
+		builder.append(", values=");
+		builder.append(values);
+		builder.append("]");
+		return builder.toString();
+	}
+}
@@ -0,0 +1,73 @@
+package net.atos.webtools.tapestry.core.models.bytecode;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * What is needed about a class to build the parameters of a feature: its super class, its fields
+ * with their annotations, and the names of its methods (for <code>defaultMyParam()</code> methods).
+ *
+ * <p>Instances are immutable.
+ *
+ * @see ClassFileReader
+ */
+public final class ClassFileInfo {
+	private final String name;
+	private final String superName;
+	private final int accessFlags;
+	private final List<FieldInfo> fields;
+	private final Set<String> methodNames;
+
+	ClassFileInfo(String name, String superName, int accessFlags, List<FieldInfo> fields, Set<String> methodNames) {
+		this.name = name;
+		this.superName = superName;
+		this.accessFlags = accessFlags;
+		this.fields = Collections.unmodifiableList(fields);
+		this.methodNames = Collections.unmodifiableSet(methodNames);
+	}
+
+	/**
+	 * @return the fully qualified name of the class (with '$' for nested classes)
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the fully qualified name of the super class, or null for java.lang.Object
+	 */
+	public String getSuperName() {
+		return superName;
+	}
+
+	public int getAccessFlags() {
+		return accessFlags;
+	}
+
+	public List<FieldInfo> getFields() {
+		return fields;
+	}
+
+	public boolean hasMethod(String methodName) {
+		return methodNames.contains(methodName);
+	}
+
+	/**
+	 * For debugging...
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("ClassFileInfo [name=");
+		builder.append(name);
+		builder.append(", superName=");
+		builder.append(superName);
+		builder.append(", fields=");
+		builder.append(fields);
+		builder.append(", methodNames=");
+		builder.append(methodNames);
+		builder.append("]");
+		return builder.toString();
+	}
+}
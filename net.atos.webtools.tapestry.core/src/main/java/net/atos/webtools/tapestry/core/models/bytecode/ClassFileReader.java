@@ -0,0 +1,268 @@
+package net.atos.webtools.tapestry.core.models.bytecode;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Minimal class file parser (JVM specification, chapter 4): it only reads the constant pool,
+ * the class and super class names, the fields with their annotations, and the method names.
+ * Code, signatures and debug attributes are skipped.
+ *
+ * <p>Nothing is loaded in a classloader, and no JDT model is opened.
+ */
+public final class ClassFileReader {
+	private static final int MAGIC = 0xCAFEBABE;
+
+	/*
+	 * Constant pool tags
+	 */
+	private static final int CONSTANT_UTF8 = 1;
+	private static final int CONSTANT_INTEGER = 3;
+	private static final int CONSTANT_FLOAT = 4;
+	private static final int CONSTANT_LONG = 5;
+	private static final int CONSTANT_DOUBLE = 6;
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_STRING = 8;
+	private static final int CONSTANT_FIELDREF = 9;
+	private static final int CONSTANT_METHODREF = 10;
+	private static final int CONSTANT_INTERFACE_METHODREF = 11;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+	private static final int CONSTANT_METHOD_HANDLE = 15;
+	private static final int CONSTANT_METHOD_TYPE = 16;
+	private static final int CONSTANT_DYNAMIC = 17;
+	private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+	private static final int CONSTANT_MODULE = 19;
+	private static final int CONSTANT_PACKAGE = 20;
+
+	private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+	private static final String RUNTIME_INVISIBLE_ANNOTATIONS = "RuntimeInvisibleAnnotations";
+
+	private final DataInputStream in;
+
+	/**
+	 * Constant pool: Strings for UTF8 entries, boxed values for numeric entries,
+	 * and the index of the referenced UTF8 entry for Class entries
+	 */
+	private Object[] constants;
+
+	private ClassFileReader(byte[] bytes) {
+		this.in = new DataInputStream(new ByteArrayInputStream(bytes));
+	}
+
+	/**
+	 * @param bytes the content of a .class file
+	 * @return the parsed class
+	 * @throws IOException if the content isn't a valid class file
+	 */
+	public static ClassFileInfo read(byte[] bytes) throws IOException{
+		try {
+			return new ClassFileReader(bytes).readClass();
+		}
+		catch (RuntimeException e) {
+			//bad indexes in the constant pool...
+			throw new IOException("Invalid class file: " + e);
+		}
+	}
+
+	private ClassFileInfo readClass() throws IOException{
+		if(in.readInt() != MAGIC){
+			throw new IOException("Not a class file");
+		}
+		in.readUnsignedShort();	//minor version
+		in.readUnsignedShort();	//major version
+		readConstantPool();
+
+		int accessFlags = in.readUnsignedShort();
+		String name = getClassName(in.readUnsignedShort());
+		int superIndex = in.readUnsignedShort();
+		String superName = superIndex != 0 ? getClassName(superIndex) : null;
+		if("java.lang.Object".equals(superName)){
+			superName = null;
+		}
+
+		int interfacesCount = in.readUnsignedShort();
+		skip(2 * interfacesCount);
+
+		int fieldsCount = in.readUnsignedShort();
+		List<FieldInfo> fields = new ArrayList<FieldInfo>(fieldsCount);
+		for (int i = 0; i < fieldsCount; i++) {
+			fields.add(readField());
+		}
+
+		int methodsCount = in.readUnsignedShort();
+		Set<String> methodNames = new HashSet<String>();
+		for (int i = 0; i < methodsCount; i++) {
+			in.readUnsignedShort();	//access flags
+			methodNames.add(getUtf8(in.readUnsignedShort()));
+			in.readUnsignedShort();	//descriptor
+			skipAttributes();
+		}
+		//class attributes are not needed
+
+		return new ClassFileInfo(name, superName, accessFlags, fields, methodNames);
+	}
+
+	private void readConstantPool() throws IOException{
+		int count = in.readUnsignedShort();
+		constants = new Object[count];
+		for (int i = 1; i < count; i++) {
+			int tag = in.readUnsignedByte();
+			switch (tag) {
+				case CONSTANT_UTF8:
+					constants[i] = in.readUTF();
+					break;
+				case CONSTANT_INTEGER:
+					constants[i] = Integer.valueOf(in.readInt());
+					break;
+				case CONSTANT_FLOAT:
+					constants[i] = Float.valueOf(in.readFloat());
+					break;
+				case CONSTANT_LONG:
+					constants[i] = Long.valueOf(in.readLong());
+					//8 bytes constants take 2 entries
+					i++;
+					break;
+				case CONSTANT_DOUBLE:
+					constants[i] = Double.valueOf(in.readDouble());
+					i++;
+					break;
+				case CONSTANT_CLASS:
+					constants[i] = Integer.valueOf(in.readUnsignedShort());
+					break;
+				case CONSTANT_STRING:
+				case CONSTANT_METHOD_TYPE:
+				case CONSTANT_MODULE:
+				case CONSTANT_PACKAGE:
+					skip(2);
+					break;
+				case CONSTANT_FIELDREF:
+				case CONSTANT_METHODREF:
+				case CONSTANT_INTERFACE_METHODREF:
+				case CONSTANT_NAME_AND_TYPE:
+				case CONSTANT_DYNAMIC:
+				case CONSTANT_INVOKE_DYNAMIC:
+					skip(4);
+					break;
+				case CONSTANT_METHOD_HANDLE:
+					skip(3);
+					break;
+				default:
+					throw new IOException("Unknown constant pool tag: " + tag);
+			}
+		}
+	}
+
+	private FieldInfo readField() throws IOException{
+		in.readUnsignedShort();	//access flags
+		String name = getUtf8(in.readUnsignedShort());
+		String descriptor = getUtf8(in.readUnsignedShort());
+
+		List<AnnotationInfo> annotations = new ArrayList<AnnotationInfo>();
+		int attributesCount = in.readUnsignedShort();
+		for (int i = 0; i < attributesCount; i++) {
+			String attributeName = getUtf8(in.readUnsignedShort());
+			int length = in.readInt();
+			if(RUNTIME_VISIBLE_ANNOTATIONS.equals(attributeName) || RUNTIME_INVISIBLE_ANNOTATIONS.equals(attributeName)){
+				int annotationsCount = in.readUnsignedShort();
+				for (int j = 0; j < annotationsCount; j++) {
+					annotations.add(readAnnotation());
+				}
+			}
+			else{
+				skip(length);
+			}
+		}
+		return new FieldInfo(name, descriptor, annotations);
+	}
+
+	private AnnotationInfo readAnnotation() throws IOException{
+		String typeName = toClassName(getUtf8(in.readUnsignedShort()));
+		int pairsCount = in.readUnsignedShort();
+		Map<String, Object> values = new LinkedHashMap<String, Object>();
+		for (int i = 0; i < pairsCount; i++) {
+			String name = getUtf8(in.readUnsignedShort());
+			values.put(name, readElementValue());
+		}
+		return new AnnotationInfo(typeName, values);
+	}
+
+	private Object readElementValue() throws IOException{
+		int tag = in.readUnsignedByte();
+		switch (tag) {
+			case 'Z':
+				return Boolean.valueOf(((Integer) constants[in.readUnsignedShort()]).intValue() != 0);
+			case 'C':
+				return Character.valueOf((char) ((Integer) constants[in.readUnsignedShort()]).intValue());
+			case 'B':
+			case 'S':
+			case 'I':
+			case 'J':
+			case 'F':
+			case 'D':
+				return constants[in.readUnsignedShort()];
+			case 's':
+				return getUtf8(in.readUnsignedShort());
+			case 'e':
+				in.readUnsignedShort();	//enum type
+				return getUtf8(in.readUnsignedShort());
+			case 'c':
+				return getUtf8(in.readUnsignedShort());
+			case '@':
+				return readAnnotation();
+			case '[':
+				int count = in.readUnsignedShort();
+				Object[] array = new Object[count];
+				for (int i = 0; i < count; i++) {
+					array[i] = readElementValue();
+				}
+				return array;
+			default:
+				throw new IOException("Unknown annotation element tag: " + (char) tag);
+		}
+	}
+
+	private void skipAttributes() throws IOException{
+		int attributesCount = in.readUnsignedShort();
+		for (int i = 0; i < attributesCount; i++) {
+			in.readUnsignedShort();	//name
+			skip(in.readInt());
+		}
+	}
+
+	private void skip(int length) throws IOException{
+		int remaining = length;
+		while(remaining > 0){
+			int skipped = in.skipBytes(remaining);
+			if(skipped <= 0){
+				throw new IOException("Truncated class file");
+			}
+			remaining -= skipped;
+		}
+	}
+
+	private String getUtf8(int index){
+		return (String) constants[index];
+	}
+
+	private String getClassName(int index){
+		return getUtf8(((Integer) constants[index]).intValue()).replace('/', '.');
+	}
+
+	/**
+	 * @param descriptor a type descriptor (<code>Lorg/apache/tapestry5/annotations/Parameter;</code>)
+	 * @return the fully qualified name (<code>org.apache.tapestry5.annotations.Parameter</code>)
+	 */
+	private static String toClassName(String descriptor){
+		if(descriptor.length() > 2 && descriptor.charAt(0) == 'L' && descriptor.endsWith(";")){
+			return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+		}
+		return descriptor;
+	}
+}
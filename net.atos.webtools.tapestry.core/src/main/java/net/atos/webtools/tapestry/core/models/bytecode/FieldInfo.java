@@ -0,0 +1,76 @@
+package net.atos.webtools.tapestry.core.models.bytecode;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A field read from a class file: its name, its type descriptor, and its annotations.
+ *
+ * <p>Instances are immutable.
+ */
+public final class FieldInfo {
+	private final String name;
+	private final String descriptor;
+	private final List<AnnotationInfo> annotations;
+
+	FieldInfo(String name, String descriptor, List<AnnotationInfo> annotations) {
+		this.name = name;
+		this.descriptor = descriptor;
+		this.annotations = Collections.unmodifiableList(annotations);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the JVM type descriptor, i.e. <code>Lorg/apache/tapestry5/Block;</code> or <code>Z</code>
+	 */
+	public String getDescriptor() {
+		return descriptor;
+	}
+
+	/**
+	 * @return the fully qualified name of the type of the field (with '$' for nested classes),
+	 * 			or null if it's a primitive or an array
+	 */
+	public String getTypeName() {
+		if(descriptor.length() > 2 && descriptor.charAt(0) == 'L' && descriptor.endsWith(";")){
+			return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+		}
+		return null;
+	}
+
+	public List<AnnotationInfo> getAnnotations() {
+		return annotations;
+	}
+
+	/**
+	 * @param typeName the fully qualified name of the annotation
+	 * @return the annotation, or null if the field doesn't have it
+	 */
+	public AnnotationInfo getAnnotation(String typeName) {
+		for (AnnotationInfo annotation : annotations) {
+			if(annotation.getTypeName().equals(typeName)){
+				return annotation;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * For debugging...
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("FieldInfo [name=");
+		builder.append(name);
+		builder.append(", descriptor=");
+		builder.append(descriptor);
+		builder.append(", annotations=");
+		builder.append(annotations);
+		builder.append("]");
+		return builder.toString();
+	}
+}
@@ -0,0 +1,235 @@
+package net.atos.webtools.tapestry.core.models.bytecode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import net.atos.webtools.tapestry.core.TapestryCore;
+import net.atos.webtools.tapestry.core.models.index.JarFingerprint;
+import net.atos.webtools.tapestry.core.preferences.CorePreferenceNames;
+import net.atos.webtools.tapestry.core.util.Constants;
+import net.atos.webtools.tapestry.core.util.ErrorMessages;
+
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+
+/**
+ * Reads the content of a library jar directly, without the JDT model: the list of its packages and top-level classes
+ * comes from the central directory of the zip file, and the classes needed are parsed by {@link ClassFileReader}.
+ *
+ * <p>Opening a JDT {@link IPackageFragmentRoot} builds a model element for every package and class file of the jar,
+ * and asking for the fields or annotations of an {@link IType} builds one for every member: that's useless for
+ * the thousands of classes of the libraries that are never displayed.
+ *
+ * <p>This is used when the {@link CorePreferenceNames#BYTECODE_SCANNER} preference is set, the JDT model being used
+ * otherwise, or when the jar can't be read.
+ */
+public class JarScanner {
+	private static final String CLASS_SUFFIX = "." + Constants.CLASS_FILE_EXTENSION;
+	private static final String PACKAGE_INFO = "package-info";
+
+	private final File jarFile;
+
+	/**
+	 * Simple names of the top-level classes, by package name
+	 */
+	private final Map<String, List<String>> classesByPackage = new HashMap<String, List<String>>();
+	private Manifest manifest;
+	private JarFingerprint fingerprint;
+
+	/**
+	 * @param jarFile the jar (see {@link JarFingerprint#getJarFile(IPackageFragmentRoot)})
+	 */
+	public JarScanner(File jarFile) {
+		this.jarFile = jarFile;
+	}
+
+	/**
+	 * @return true if the bytecode scanner must be used instead of the JDT model
+	 */
+	public static boolean isEnabled() {
+		return TapestryCore.getDefault().getPreferenceStore().getBoolean(CorePreferenceNames.BYTECODE_SCANNER);
+	}
+
+	/**
+	 * Reads the central directory and the manifest of the jar, and computes its fingerprint along the way
+	 *
+	 * @return false if the jar can't be read
+	 */
+	public boolean scan() {
+		if(jarFile == null || ! jarFile.isFile()){
+			return false;
+		}
+		ZipFile zipFile = null;
+		try {
+			zipFile = new ZipFile(jarFile);
+			JarFingerprint.Builder fingerprintBuilder = new JarFingerprint.Builder(jarFile);
+			Enumeration<? extends ZipEntry> entries = zipFile.entries();
+			while(entries.hasMoreElements()){
+				ZipEntry entry = entries.nextElement();
+				fingerprintBuilder.addEntry(entry);
+				String entryName = entry.getName();
+				if(entry.isDirectory() || ! entryName.endsWith(CLASS_SUFFIX)){
+					continue;
+				}
+				int lastSlash = entryName.lastIndexOf('/');
+				String simpleName = entryName.substring(lastSlash + 1, entryName.length() - CLASS_SUFFIX.length());
+				if(simpleName.indexOf('$') >= 0 || simpleName.equals(PACKAGE_INFO)){
+					continue;
+				}
+				String packageName = lastSlash > 0 ? entryName.substring(0, lastSlash).replace('/', '.') : "";
+				List<String> classes = classesByPackage.get(packageName);
+				if(classes == null){
+					classes = new ArrayList<String>();
+					classesByPackage.put(packageName, classes);
+				}
+				classes.add(simpleName);
+			}
+			fingerprint = fingerprintBuilder.build();
+
+			ZipEntry manifestEntry = zipFile.getEntry(JarFile.MANIFEST_NAME);
+			if(manifestEntry != null){
+				InputStream contents = zipFile.getInputStream(manifestEntry);
+				try {
+					manifest = new Manifest(contents);
+				}
+				finally{
+					contents.close();
+				}
+			}
+			return true;
+		}
+		catch (IOException e) {
+			TapestryCore.logWarning(ErrorMessages.CAN_T_SCAN_JAR + jarFile, e);
+			return false;
+		}
+		finally{
+			close(zipFile);
+		}
+	}
+
+	public File getJarFile() {
+		return jarFile;
+	}
+
+	/**
+	 * @return the names of the packages containing classes
+	 */
+	public Set<String> getPackageNames() {
+		return Collections.unmodifiableSet(classesByPackage.keySet());
+	}
+
+	public boolean hasPackage(String packageName) {
+		return classesByPackage.containsKey(packageName);
+	}
+
+	/**
+	 * @param packageName
+	 * @return the simple names of the top-level classes of the package (may be empty, never null)
+	 */
+	public List<String> getClassNames(String packageName) {
+		List<String> classes = classesByPackage.get(packageName);
+		if(classes == null){
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(classes);
+	}
+
+	/**
+	 * @return the fingerprint of the jar, computed by {@link #scan()}
+	 */
+	public JarFingerprint getFingerprint() {
+		return fingerprint;
+	}
+
+	/**
+	 * @return the manifest of the jar, or null
+	 */
+	public Manifest getManifest() {
+		return manifest;
+	}
+
+	/**
+	 * Reads a class of a library, if the bytecode scanner is enabled
+	 *
+	 * @param type a type
+	 * @return the class, or null if the scanner is disabled, if the type isn't in a jar, or if it can't be read
+	 */
+	public static ClassFileInfo readClass(IType type) {
+		if(type == null || ! type.isBinary() || ! isEnabled()){
+			return null;
+		}
+		IPackageFragmentRoot packageFragmentRoot = (IPackageFragmentRoot) type.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+		if(packageFragmentRoot == null || ! packageFragmentRoot.isArchive()){
+			return null;
+		}
+		return readClass(JarFingerprint.getJarFile(packageFragmentRoot), type.getFullyQualifiedName());
+	}
+
+	/**
+	 * @param jarFile
+	 * @param className the fully qualified name of the class (with '$' for nested classes)
+	 * @return the class, or null if it isn't found in the jar, or if it can't be read
+	 */
+	public static ClassFileInfo readClass(File jarFile, String className) {
+		if(jarFile == null || ! jarFile.isFile()){
+			return null;
+		}
+		ZipFile zipFile = null;
+		try {
+			zipFile = new ZipFile(jarFile);
+			ZipEntry entry = zipFile.getEntry(className.replace('.', '/') + CLASS_SUFFIX);
+			if(entry == null){
+				return null;
+			}
+			InputStream contents = zipFile.getInputStream(entry);
+			try {
+				return ClassFileReader.read(readFully(contents, entry.getSize()));
+			}
+			finally{
+				contents.close();
+			}
+		}
+		catch (IOException e) {
+			TapestryCore.logWarning(ErrorMessages.CAN_T_READ_CLASS_FILE + className + " (" + jarFile + ")", e);
+			return null;
+		}
+		finally{
+			close(zipFile);
+		}
+	}
+
+	private static byte[] readFully(InputStream in, long size) throws IOException{
+		ByteArrayOutputStream out = new ByteArrayOutputStream(size > 0 ? (int) size : 4096);
+		byte[] buffer = new byte[4096];
+		int length;
+		while((length = in.read(buffer)) > 0){
+			out.write(buffer, 0, length);
+		}
+		return out.toByteArray();
+	}
+
+	private static void close(ZipFile zipFile){
+		if(zipFile != null){
+			try {
+				zipFile.close();
+			}
+			catch (IOException e) {
+				TapestryCore.logWarning(ErrorMessages.FAILED_TO_CLOSE_JAR + zipFile.getName(), e);
+			}
+		}
+	}
+}
@@ -1,6 +1,9 @@
 package net.atos.webtools.tapestry.core.models.features;
 
+import java.util.Locale;
+
 import net.atos.webtools.tapestry.core.models.ProjectModel;
+import net.atos.webtools.tapestry.core.util.StringPool;
 import net.atos.webtools.tapestry.core.util.helpers.JavaModelHelper;
 
 import org.eclipse.core.resources.IResource;
@@ -16,7 +19,15 @@ import org.eclipse.jdt.core.IType;
 public abstract class AbstractFeatureModel {
 	protected String prefix;
 	protected String name;
-	protected String javadoc;
+	/**
+	 * Loaded on first access (see {@link #getClassJavadoc()}), except for statically defined features
+	 */
+	protected volatile String javadoc;
+	/**
+	 * For the features of a library jar: the javadoc and parameters of the classes of the jar loaded so far 
+	 * by any project
+	 */
+	private volatile LibraryContent libraryContent;
 	protected IType type;
 	protected ProjectModel projectModel;
 	
@@ -24,6 +35,22 @@ public abstract class AbstractFeatureModel {
 	protected String subPackage;
 	
 	private Object inputElement;
+	
+	private volatile boolean reconciled;
+	
+	/**
+	 * Computed on first access: the names are used as keys, and matched against every keystroke by the content assist.
+	 * Like the other strings of the model, they're taken from the {@link StringPool}.
+	 */
+	private volatile String fullName;
+	private volatile String qualifiedName;
+	
+	/**
+	 * The names in lower case, computed on first access: the content assist compares them with the typed text
+	 * without lower-casing the chars of every feature at each keystroke
+	 */
+	private volatile String fullNameKey;
+	private volatile String qualifiedNameKey;
 
 	public String getPrefix() {
 		return prefix;
@@ -32,7 +59,76 @@ public abstract class AbstractFeatureModel {
 		return name;
 	}
 	public String getJavadoc() {
-		return "<b>" + getFullName() + "<br/></b>" + javadoc + "<br/><br/><b>From file:</b> <i>" + source + "</i>";
+		return "<b>" + getFullName() + "<br/></b>" + getClassJavadoc() + "<br/><br/><b>From file:</b> <i>" + source + "</i>";
+	}
+	
+	/**
+	 * Rendering the javadoc of a class is expensive, and most of the features of the libraries are never displayed:
+	 * it's only loaded the first time it's needed, and then kept. The javadoc of a library class is rendered once
+	 * for all the projects using the jar.
+	 * 
+	 * @return the javadoc of the feature class, as HTML
+	 */
+	protected String getClassJavadoc() {
+		String classJavadoc = javadoc;
+		if(classJavadoc == null && type != null){
+			synchronized (this) {
+				if(javadoc == null){
+					LibraryContent content = libraryContent;
+					String loaded = content == null ? null : content.getJavadoc(type.getFullyQualifiedName());
+					if(loaded == null){
+						reconcile();
+						loaded = StringPool.canonical(JavaModelHelper.loadJavadoc(type));
+						if(content != null && loaded != null){
+							loaded = content.putJavadoc(type.getFullyQualifiedName(), loaded);
+						}
+					}
+					javadoc = loaded;
+				}
+				classJavadoc = javadoc;
+			}
+		}
+		return classJavadoc;
+	}
+	
+	/**
+	 * @param libraryContent what the features of the library jar of this feature share with the other projects:
+	 * 			the javadoc (and parameters) of this feature are taken from it, or added to it
+	 */
+	public void setLibraryContent(LibraryContent libraryContent) {
+		this.libraryContent = libraryContent;
+	}
+	
+	/**
+	 * @return what the features of the library jar share with the other projects, or null if this feature
+	 * 			isn't in a jar
+	 */
+	LibraryContent getLibraryContent() {
+		return libraryContent;
+	}
+	
+	/**
+	 * Doesn't load the javadoc: used to measure the {@link net.atos.webtools.tapestry.core.models.MemoryFootprint}
+	 * 
+	 * @return the number of chars of the javadoc loaded so far, 0 if it hasn't been displayed yet
+	 */
+	public int getLoadedJavadocLength() {
+		String classJavadoc = javadoc;
+		return classJavadoc == null ? 0 : classJavadoc.length();
+	}
+	
+	/**
+	 * Reconciles the type of the feature, once, before its content (javadoc, parameters...) is read
+	 */
+	protected void reconcile() {
+		if(! reconciled && type != null){
+			synchronized (this) {
+				if(! reconciled){
+					JavaModelHelper.reconcile(type);
+					reconciled = true;
+				}
+			}
+		}
 	}
 	public IType getType() {
 		return type;
@@ -61,15 +157,32 @@ public abstract class AbstractFeatureModel {
 	 * @return
 	 */
 	public String getFullName() {
-		StringBuilder sb = new StringBuilder();
-		if(prefix != null && prefix.length()>0){
-			sb.append(prefix + "/");
+		String result = fullName;
+		if(result == null){
+			StringBuilder sb = new StringBuilder();
+			if(prefix != null && prefix.length()>0){
+				sb.append(prefix + "/");
+			}
+			if(subPackage != null && subPackage.length() > 0){
+				sb.append(subPackage.replace('.', '/') + "/");
+			}
+			sb.append(getName());
+			result = StringPool.canonical(sb.toString());
+			fullName = result;
 		}
-		if(subPackage != null && subPackage.length() > 0){
-			sb.append(subPackage.replace('.', '/') + "/");
+		return result;
+	}
+	
+	/**
+	 * @return the full name in lower case, for case-insensitive matching (see {@link #getFullName()})
+	 */
+	public String getFullNameKey() {
+		String result = fullNameKey;
+		if(result == null){
+			result = getFullName().toLowerCase(Locale.ENGLISH);
+			fullNameKey = result;
 		}
-		sb.append(getName());
-		return sb.toString();
+		return result;
 	}
 	
 	/**
@@ -84,15 +197,41 @@ public abstract class AbstractFeatureModel {
 	 * @return
 	 */
 	public String getQualifiedName(String namespace) {
-		StringBuilder sb = new StringBuilder(namespace + ":");
-		if(prefix != null && prefix.length()>0){
-			sb.append(prefix + ".");
+		return namespace + ":" + getQualifiedName();
+	}
+	
+	/**
+	 * @return the qualified name of the feature without namespace, i.e. <code>jquery.SomeComponent</code>
+	 * @see #getQualifiedName(String)
+	 */
+	public String getQualifiedName() {
+		String result = qualifiedName;
+		if(result == null){
+			StringBuilder sb = new StringBuilder();
+			if(prefix != null && prefix.length()>0){
+				sb.append(prefix + ".");
+			}
+			if(subPackage != null && subPackage.length()>0){
+				sb.append(subPackage + ".");
+			}
+			sb.append(getName());
+			result = StringPool.canonical(sb.toString());
+			qualifiedName = result;
 		}
-		if(subPackage != null && subPackage.length()>0){
-			sb.append(subPackage + ".");
+		return result;
+	}
+	
+	/**
+	 * @return the qualified name without namespace in lower case, for case-insensitive matching 
+	 * (see {@link #getQualifiedName()})
+	 */
+	public String getQualifiedNameKey() {
+		String result = qualifiedNameKey;
+		if(result == null){
+			result = getQualifiedName().toLowerCase(Locale.ENGLISH);
+			qualifiedNameKey = result;
 		}
-		sb.append(getName());
-		return sb.toString();
+		return result;
 	}
 	
 	/**
@@ -102,7 +241,8 @@ public abstract class AbstractFeatureModel {
 	}
 	
 	/**
-	 * Standard constructor with parameters
+	 * Standard constructor with parameters: only what is needed to find the feature is set here,
+	 * the javadoc is loaded on first access.
 	 * 
 	 * @param prefix
 	 * @param type
@@ -112,10 +252,9 @@ public abstract class AbstractFeatureModel {
 	 */
 	public AbstractFeatureModel(String prefix, IType type, ProjectModel projectModel, String source, String subPackage) {
 		if(! "core".equals(prefix)){
-			this.prefix = prefix;
+			this.prefix = StringPool.canonical(prefix);
 		}
-		this.name = type.getElementName();
-		this.javadoc = JavaModelHelper.loadJavadoc(type);
+		this.name = StringPool.canonical(type.getElementName());
 		this.type = type;
 		
 		inputElement = type.getResource();
@@ -124,10 +263,9 @@ public abstract class AbstractFeatureModel {
 		}
 		
 		this.projectModel = projectModel;
-		this.source = source;
+		this.source = StringPool.canonical(source);
 		
-		this.subPackage = subPackage;
-		JavaModelHelper.reconcile(type);
+		this.subPackage = StringPool.canonical(subPackage);
 	}
 
 }
@@ -1,13 +1,16 @@
 package net.atos.webtools.tapestry.core.models.features;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 import net.atos.webtools.tapestry.core.TapestryCore;
 import net.atos.webtools.tapestry.core.models.ProjectModel;
+import net.atos.webtools.tapestry.core.models.bytecode.AnnotationInfo;
+import net.atos.webtools.tapestry.core.models.bytecode.ClassFileInfo;
+import net.atos.webtools.tapestry.core.models.bytecode.FieldInfo;
+import net.atos.webtools.tapestry.core.models.bytecode.JarScanner;
 import net.atos.webtools.tapestry.core.util.Constants;
 import net.atos.webtools.tapestry.core.util.ErrorMessages;
 import net.atos.webtools.tapestry.core.util.Messages;
@@ -15,6 +18,7 @@ import net.atos.webtools.tapestry.core.util.helpers.JavaModelHelper;
 
 import org.eclipse.jdt.core.IAnnotation;
 import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IMemberValuePair;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IType;
@@ -27,6 +31,8 @@ import org.eclipse.jdt.core.JavaModelException;
  *
  */
 public class AbstractParameteredFeatureModel extends AbstractFeatureModel{
+	private static final String JAVA_PACKAGE_PREFIX = "java.";
+	
 	/**
 	 * All parameters that are NOT of type Block
 	 */
@@ -39,28 +45,142 @@ public class AbstractParameteredFeatureModel extends AbstractFeatureModel{
 	/**
 	 * Mandatory parameters: these params can also be in {@link #parameters}
 	 */
-	private Set<Parameter> mandatoryParameters;
+	private volatile Set<Parameter> mandatoryParameters;
+	
+	/**
+	 * {@link #parameters} and {@link #blockParameters} are filled on first access
+	 */
+	private volatile boolean parametersLoaded;
+	
+	/**
+	 * While the parameters of a library feature are loaded: true as long as they only come from classes of its jar,
+	 * so that they can be shared with the other projects (see {@link LibraryContent})
+	 */
+	private boolean classpathIndependent;
 	
 	public Set<Parameter> getMandatoryParameters() {
 		if(mandatoryParameters == null){
-			mandatoryParameters = new HashSet<Parameter>();
-			for (Parameter parameter : parameters) {
+			Set<Parameter> mandatory = new HashSet<Parameter>();
+			for (Parameter parameter : getParameters()) {
 				if(parameter.isMandatory()){
-					mandatoryParameters.add(parameter);
+					mandatory.add(parameter);
 				}
 			}
+			mandatoryParameters = mandatory;
 		}
 		return mandatoryParameters;
 	}
 	
 	public Set<Parameter> getParameters() {
+		loadParameters();
 		return parameters;
 	}
 	
 	public Set<Parameter> getBlockParameters() {
+		loadParameters();
 		return blockParameters;
 	}
 	
+	/**
+	 * Doesn't load the parameters: used to measure the {@link net.atos.webtools.tapestry.core.models.MemoryFootprint}
+	 * 
+	 * @return the number of parameters (including block parameters), 0 if they haven't been loaded yet
+	 */
+	public int getLoadedParameterCount() {
+		if(! parametersLoaded){
+			return 0;
+		}
+		return parameters.size() + blockParameters.size();
+	}
+	
+	/**
+	 * @return the number of chars of the javadoc of the feature and of its parameters loaded so far
+	 */
+	@Override
+	public int getLoadedJavadocLength() {
+		int length = super.getLoadedJavadocLength();
+		if(parametersLoaded){
+			for (Parameter parameter : parameters) {
+				length += parameter.getLoadedJavadocLength();
+			}
+			for (Parameter parameter : blockParameters) {
+				length += parameter.getLoadedJavadocLength();
+			}
+		}
+		return length;
+	}
+	
+	/**
+	 * Scanning fields, annotations and super-classes is expensive, and most of the features of the libraries are 
+	 * never used in a project: parameters are only searched the first time they're needed.
+	 * 
+	 * <p>The parameters of a library feature are searched once for all the projects using the jar: the sets found by
+	 * the first project are shared by the others, unless they depend on its classpath (see {@link #typeVisited(IType)}).
+	 * 
+	 * <p>The sets are only modified while holding the lock, and published by the volatile {@link #parametersLoaded}, 
+	 * so they can then be read by any thread without synchronization.
+	 */
+	private void loadParameters() {
+		if(! parametersLoaded){
+			synchronized (this) {
+				if(! parametersLoaded){
+					if(type != null){
+						LibraryContent content = getLibraryContent();
+						String className = type.getFullyQualifiedName();
+						LibraryContent.ParameterSets sharedParameters = content == null ? null : content.getParameters(className);
+						if(sharedParameters == null){
+							reconcile();
+							classpathIndependent = content != null;
+							fillParameters(type);
+							if(classpathIndependent){
+								sharedParameters = content.putParameters(className, 
+										new LibraryContent.ParameterSets(parameters, blockParameters));
+							}
+						}
+						if(sharedParameters != null){
+							parameters = sharedParameters.getParameters();
+							blockParameters = sharedParameters.getBlockParameters();
+						}
+					}
+					parametersLoaded = true;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Parameters found in the jar of a library feature are the same in every project. The super classes and embedded 
+	 * components found in other jars, and the mixins, are resolved in the classpath of the project: the parameters 
+	 * found with them are not shared. Tapestry and JRE classes are considered the same everywhere.
+	 * 
+	 * @param visitedType a type whose parameters are being added, or null if it can't be found in the classpath
+	 */
+	private void typeVisited(IType visitedType) {
+		if(! classpathIndependent){
+			return;
+		}
+		if(visitedType == null || ! visitedType.exists()){
+			classpathIndependent = false;
+			return;
+		}
+		String className = visitedType.getFullyQualifiedName();
+		if(className.startsWith(Constants.TAPESTRY5_PACKAGE + ".") || className.startsWith(JAVA_PACKAGE_PREFIX)){
+			return;
+		}
+		IJavaElement root = visitedType.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+		classpathIndependent = root != null && root.equals(type.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT));
+	}
+	
+	/**
+	 * Parameters of library features are created without parent: they may be shared by all the projects using the jar,
+	 * and must not keep the {@link ProjectModel} of one of them alive
+	 * 
+	 * @return the feature to set as parent of a new {@link Parameter}, or null
+	 */
+	private AbstractParameteredFeatureModel getParameterParent() {
+		return getLibraryContent() == null ? this : null;
+	}
+	
 	/**
 	 * Seldom used constructor (for statically defined features only)
 	 */
@@ -68,7 +188,7 @@ public class AbstractParameteredFeatureModel extends AbstractFeatureModel{
 	}
 	
 	/**
-	 * Standard constructor with parameters
+	 * Standard constructor with parameters: parameters are loaded on first access
 	 * 
 	 * @param prefix
 	 * @param type
@@ -79,7 +199,6 @@ public class AbstractParameteredFeatureModel extends AbstractFeatureModel{
 	public AbstractParameteredFeatureModel(String prefix, IType type, ProjectModel projectModel, String source,
 			String subPackage) {
 		super(prefix, type, projectModel, source, subPackage);
-		fillParameters(type);
 	}
 
 	/**
@@ -94,13 +213,24 @@ public class AbstractParameteredFeatureModel extends AbstractFeatureModel{
 	 * <p>Simple & publishedParameters from the class are extracted using 
 	 * {@link #extractOneParam(IAnnotation, IField, IType, List)}.
 	 * 
-	 * <p>publishedParameters from the mixins are copied from the mixin: that's why all mixins must have been initialized 
-	 * before we start to set components.  
+	 * <p>publishedParameters from the mixins are copied from the mixin: that's why all mixins must have been loaded 
+	 * in the {@link ProjectModel} before the parameters of a component are first read (they are not loaded 
+	 * during the scan anymore, but on first access).
+	 * 
+	 * <p>Classes of the library jars are read from their bytecode (see {@link JarScanner}) when possible: 
+	 * the JDT model of the class is then not opened.
 	 *  
 	 * 
 	 * @param type the IType of the feature
 	 */
 	protected void fillParameters(IType type) {
+		typeVisited(type);
+		ClassFileInfo classFile = JarScanner.readClass(type);
+		if(classFile != null){
+			fillParameters(classFile, type);
+			return;
+		}
+		
 		IField[] fields;
 		try {
 			fields = type.getFields();
@@ -122,93 +252,224 @@ public class AbstractParameteredFeatureModel extends AbstractFeatureModel{
 							if(memberValuePair.getMemberName() != null 
 									&& memberValuePair.getMemberName().equals(Constants.TAPESTRY5_PUBLISH_PARAMETERS)
 									&& memberValuePair.getValueKind() ==  org.eclipse.jdt.core.IMemberValuePair.K_STRING){
-								String publishedParamString = (String) memberValuePair.getValue();
-								List<String> publishedParamList = Arrays.asList(publishedParamString.split(","));
-								//trim on every param, to manage spaces
-								for (String param : publishedParamList) {
-									publishedParams.add(param.trim());
-								}
+								addPublishedParamNames((String) memberValuePair.getValue(), publishedParams);
 							}
 						}
 						
 						if(publishedParams.size()>0){
 							//CASE2-1: published param from the same component class
-							IField[] innerTypeFields = innerComponentType.getFields();
-							for (IField innerTypeField : innerTypeFields) {
-								IAnnotation innerParamAnnotation = JavaModelHelper.getAnnotation(innerTypeField, Constants.TAPESTRY5_PARAMETER); 
-								if(innerParamAnnotation != null){
-									extractOneParam(innerParamAnnotation, innerTypeField, innerComponentType, publishedParams);
-								}
-							}
+							extractPublishedParams(innerComponentType, publishedParams);
+							
 							//CASE 2-2: published parameters from mixins:
 							IAnnotation mixinsAnnotation = JavaModelHelper.getAnnotation(field, Constants.TAPESTRY5_MIXINS);
 							if(mixinsAnnotation != null && mixinsAnnotation.exists()){
 								mixinsAnnotation.getJavaModel().open(null);
 								
-								
-								IMemberValuePair[] memberValuePairs = mixinsAnnotation.getMemberValuePairs();
-								
-								List<MixinModel> definedMixins = new ArrayList<MixinModel>();
-								for(MixinModel mixin : getProjectModel().getMixins()){
-									for(IMemberValuePair valuePair : memberValuePairs){
-										//When the mixins defined in @Mixins are found in projectModel:
-										if(valuePair.getMemberName().equals("value") && valuePair.getValueKind() == IMemberValuePair.K_STRING){
-											//simple element ( @Mixins(value="Autocomplete") )
-											if(valuePair.getValue().equals(mixin.getName())){
-												definedMixins.add(mixin);
-											}
-											//table element ( @Mixins(value={"Autocomplete"}) )
-											else if(valuePair.getValue() instanceof Object[]){
-												Object[] values = (Object[]) valuePair.getValue();
-												for (Object value : values) {
-													if(value.equals(mixin.getName())){
-														definedMixins.add(mixin);
-													}
-												}
-											}
+								List<String> mixinNames = new ArrayList<String>();
+								for(IMemberValuePair valuePair : mixinsAnnotation.getMemberValuePairs()){
+									if(valuePair.getMemberName().equals("value") && valuePair.getValueKind() == IMemberValuePair.K_STRING){
+										//simple element ( @Mixins(value="Autocomplete") )
+										if(valuePair.getValue() instanceof String){
+											mixinNames.add((String) valuePair.getValue());
 										}
-									}
-								}
-								
-								for (MixinModel mixin : definedMixins) {
-									for(Parameter param : mixin.getParameters()){
-										if(publishedParams.contains(param.getParamName())){
-											parameters.add(param);
-											publishedParams.remove(param.getParamName());
-										}
-									}
-									for(Parameter blockParam : mixin.getBlockParameters()){
-										if(publishedParams.contains(blockParam.getParamName())){
-											blockParameters.add(blockParam);
-											publishedParams.remove(blockParam.getParamName());
+										//table element ( @Mixins(value={"Autocomplete"}) )
+										else if(valuePair.getValue() instanceof Object[]){
+											for (Object value : (Object[]) valuePair.getValue()) {
+												mixinNames.add((String) value);
+											}
 										}
 									}
 								}
-								
+								extractMixinsPublishedParams(mixinNames, publishedParams);
 							}
 							//if some "publishedParameters" are not corresponding to a param that we find:
-							for(String remainingParam : publishedParams){
-								parameters.add(new Parameter(this, remainingParam, false, false, false, 
-										Messages.UNKNOWN, Messages.UNKNOWN, false, false, Messages.UNKNOWN_PUBLISHED_PARAMETER, false));
-							}
+							addUnknownPublishedParams(publishedParams);
 						}
 					}
+					else{
+						typeVisited(null);
+					}
 				}
 			}
 			
 			//--------------- recursive call on superclass ----------------
-			String superclassName = type.getSuperclassName();
-			if(superclassName != null){
-				IType superType = projectModel.getJavaProject().findType(superclassName);
-				if(superType != null && superType.exists()){
-					fillParameters(superType);
+			fillSuperclassParameters(type.getSuperclassName());
+		}
+		catch (JavaModelException e) {
+			classpathIndependent = false;
+			logLoadError(e);
+		}
+	}
+	
+	/**
+	 * Same as {@link #fillParameters(IType)}, from the bytecode of the class
+	 * 
+	 * @param classFile the class, read from its jar
+	 * @param type the handle of the same class, only used to find the javadoc of the parameters, when displayed
+	 */
+	private void fillParameters(ClassFileInfo classFile, IType type) {
+		try {
+			for (FieldInfo field : classFile.getFields()) {
+				//CASE-1: simple parameters:
+				AnnotationInfo paramAnnotation = field.getAnnotation(Constants.TAPESTRY5_PARAMETER);
+				if(paramAnnotation != null){
+					extractOneParam(paramAnnotation, field, classFile, type, null);
+				}
+				
+				//CASE-2: published parameters:
+				AnnotationInfo componentAnnotation = field.getAnnotation(Constants.TAPESTRY5_COMPONENT);
+				if(componentAnnotation != null && field.getTypeName() != null){
+					IType innerComponentType = findType(field.getTypeName());
+					if(innerComponentType != null && innerComponentType.exists()){
+						List<String> publishedParams = new ArrayList<String>();
+						addPublishedParamNames(componentAnnotation.getString(Constants.TAPESTRY5_PUBLISH_PARAMETERS), publishedParams);
+						
+						if(publishedParams.size()>0){
+							//CASE2-1: published param from the same component class
+							extractPublishedParams(innerComponentType, publishedParams);
+							
+							//CASE 2-2: published parameters from mixins:
+							AnnotationInfo mixinsAnnotation = field.getAnnotation(Constants.TAPESTRY5_MIXINS);
+							if(mixinsAnnotation != null){
+								extractMixinsPublishedParams(mixinsAnnotation.getStrings("value"), publishedParams);
+							}
+							//if some "publishedParameters" are not corresponding to a param that we find:
+							addUnknownPublishedParams(publishedParams);
+						}
+					}
+					else{
+						typeVisited(null);
+					}
 				}
 			}
+			
+			//--------------- recursive call on superclass ----------------
+			fillSuperclassParameters(classFile.getSuperName());
 		}
 		catch (JavaModelException e) {
+			classpathIndependent = false;
+			logLoadError(e);
+		}
+	}
+	
+	/**
+	 * The handles of the library features are created from the classes listed in their jar, without checking that
+	 * they exist in the JDT model (that would open each class file during the scan): a type that doesn't exist is
+	 * only found when its parameters are loaded, and the feature then simply has no parameter.
+	 * 
+	 * @param e
+	 */
+	private void logLoadError(JavaModelException e) {
+		if(! e.isDoesNotExist()){
 			TapestryCore.logError(ErrorMessages.CAN_T_LOAD_PARAMETERS_FOR_TYPE + this.getFullName(), e);
 		}
 	}
+	
+	/**
+	 * @param superclassName the name of the super class of a scanned type, or null
+	 * @throws JavaModelException
+	 */
+	private void fillSuperclassParameters(String superclassName) throws JavaModelException {
+		if(superclassName != null){
+			IType superType = findType(superclassName);
+			if(superType != null && superType.exists()){
+				fillParameters(superType);
+			}
+			else{
+				typeVisited(null);
+			}
+		}
+	}
+	
+	/**
+	 * @param className a fully qualified name, with '$' or '.' for nested classes
+	 * @return the type in the classpath of the project, or null
+	 * @throws JavaModelException
+	 */
+	private IType findType(String className) throws JavaModelException {
+		return projectModel.getJavaProject().findType(className.replace('$', '.'));
+	}
+	
+	/**
+	 * @param publishedParamString the value of <code>@Component(publishParameters="...")</code>, or null
+	 * @param publishedParams the list to which the names are added
+	 */
+	private static void addPublishedParamNames(String publishedParamString, List<String> publishedParams) {
+		if(publishedParamString != null){
+			//trim on every param, to manage spaces
+			for (String param : publishedParamString.split(",")) {
+				publishedParams.add(param.trim());
+			}
+		}
+	}
+	
+	/**
+	 * Adds the parameters of an embedded component, that are published by the feature
+	 * 
+	 * @param innerComponentType the type of the embedded component
+	 * @param publishedParams names of the published parameters, they're removed from the list when found
+	 * @throws JavaModelException
+	 */
+	private void extractPublishedParams(IType innerComponentType, List<String> publishedParams) throws JavaModelException {
+		typeVisited(innerComponentType);
+		ClassFileInfo innerClassFile = JarScanner.readClass(innerComponentType);
+		if(innerClassFile != null){
+			for (FieldInfo innerTypeField : innerClassFile.getFields()) {
+				AnnotationInfo innerParamAnnotation = innerTypeField.getAnnotation(Constants.TAPESTRY5_PARAMETER);
+				if(innerParamAnnotation != null){
+					extractOneParam(innerParamAnnotation, innerTypeField, innerClassFile, innerComponentType, publishedParams);
+				}
+			}
+		}
+		else{
+			IField[] innerTypeFields = innerComponentType.getFields();
+			for (IField innerTypeField : innerTypeFields) {
+				IAnnotation innerParamAnnotation = JavaModelHelper.getAnnotation(innerTypeField, Constants.TAPESTRY5_PARAMETER); 
+				if(innerParamAnnotation != null){
+					extractOneParam(innerParamAnnotation, innerTypeField, innerComponentType, publishedParams);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Copies the parameters published from the mixins of an embedded component
+	 * 
+	 * @param mixinNames the names found in the <code>@Mixins</code> annotation
+	 * @param publishedParams names of the published parameters, they're removed from the list when found
+	 */
+	private void extractMixinsPublishedParams(List<String> mixinNames, List<String> publishedParams) {
+		classpathIndependent = false;
+		List<MixinModel> definedMixins = new ArrayList<MixinModel>();
+		for(MixinModel mixin : getProjectModel().getMixins()){
+			//When the mixins defined in @Mixins are found in projectModel:
+			if(mixinNames.contains(mixin.getName())){
+				definedMixins.add(mixin);
+			}
+		}
+		
+		for (MixinModel mixin : definedMixins) {
+			for(Parameter param : mixin.getParameters()){
+				if(publishedParams.contains(param.getParamName())){
+					parameters.add(param);
+					publishedParams.remove(param.getParamName());
+				}
+			}
+			for(Parameter blockParam : mixin.getBlockParameters()){
+				if(publishedParams.contains(blockParam.getParamName())){
+					blockParameters.add(blockParam);
+					publishedParams.remove(blockParam.getParamName());
+				}
+			}
+		}
+	}
+	
+	private void addUnknownPublishedParams(List<String> publishedParams) {
+		for(String remainingParam : publishedParams){
+			parameters.add(new Parameter(getParameterParent(), remainingParam, false, false, false, 
+					Messages.UNKNOWN, Messages.UNKNOWN, false, false, Messages.UNKNOWN_PUBLISHED_PARAMETER, false));
+		}
+	}
 
 	/**
 	 * Creates and add a {@link Parameter} from a field and its annotation.
@@ -272,27 +533,70 @@ public class AbstractParameteredFeatureModel extends AbstractFeatureModel{
 		
 		//searches for a method in the component, that loads a default value for the parameter (named defaultMyParam())
 		boolean hasCalculatedDefault = false;
-		IMethod method = type.getMethod("default" + paramName.substring(0, 1).toUpperCase() + paramName.substring(1), null);
+		IMethod method = type.getMethod(getDefaultMethodName(paramName), null);
 		if(method != null && method.exists()){
 			hasCalculatedDefault = true;
 		}
 		
-		String paramJavadoc = JavaModelHelper.loadJavadoc(field);
 		if(publishedParams == null || publishedParams.contains(paramName)){
-			if(field.getTypeSignature().equals(Constants.TAPESTRY5_BLOCK_SIGNATURE)){
-				blockParameters.add(
-						new Parameter(this, paramName, required, allowNull, cache, value, defaultPrefix, principal, autoconnect, paramJavadoc, hasCalculatedDefault));
-			}
-			else{
-				parameters.add(
-						new Parameter(this, paramName, required, allowNull, cache, value, defaultPrefix, principal, autoconnect, paramJavadoc, hasCalculatedDefault));
-			}
-			if(publishedParams != null){
-				publishedParams.remove(paramName);
-			}
+			String paramJavadoc = JavaModelHelper.loadJavadoc(field);
+			addParameter(new Parameter(getParameterParent(), paramName, required, allowNull, cache, value, defaultPrefix, principal, autoconnect, paramJavadoc, hasCalculatedDefault),
+					field.getTypeSignature().equals(Constants.TAPESTRY5_BLOCK_SIGNATURE), publishedParams);
+		}
+	}
+	
+	/**
+	 * Same as {@link #extractOneParam(IAnnotation, IField, IType, List)}, from the bytecode: annotation values that are 
+	 * not in the class file are the defaults of the <code>@Parameter</code> annotation.
+	 * 
+	 * @param paramAnnotation the <code>org.apache.tapestry5.annotations.Parameter</code> annotation
+	 * @param field the field corresponding to the parameter
+	 * @param classFile the class in which the field is defined
+	 * @param type the handle of the same class, for the javadoc
+	 * @param publishedParams the list of published parameters of the including component (while adding component OR mixin param)
+	 */
+	private void extractOneParam(AnnotationInfo paramAnnotation, FieldInfo field, ClassFileInfo classFile, IType type, List<String> publishedParams) {
+		String paramName = paramAnnotation.getString("name");
+		if(paramName == null){
+			paramName = field.getName();
+		}
+		String value = paramAnnotation.getString("value");
+		String defaultPrefix = paramAnnotation.getString("defaultPrefix");
+		
+		if(publishedParams == null || publishedParams.contains(paramName)){
+			addParameter(new Parameter(getParameterParent(), paramName, 
+							paramAnnotation.getBoolean("required", false), 
+							paramAnnotation.getBoolean("allowNull", true), 
+							paramAnnotation.getBoolean("cache", true), 
+							value != null ? value : "", 
+							defaultPrefix != null ? defaultPrefix + ":" : Constants.PROP_BINDING, 
+							paramAnnotation.getBoolean("principal", false), 
+							paramAnnotation.getBoolean("autoconnect", false), 
+							type.getField(field.getName()), 
+							classFile.hasMethod(getDefaultMethodName(paramName))),
+					field.getDescriptor().replace('/', '.').equals(Constants.TAPESTRY5_BLOCK_SIGNATURE), publishedParams);
+		}
+	}
+	
+	/**
+	 * @param paramName
+	 * @return the name of the method that loads a default value for the parameter (named defaultMyParam())
+	 */
+	private static String getDefaultMethodName(String paramName) {
+		return "default" + paramName.substring(0, 1).toUpperCase() + paramName.substring(1);
+	}
+	
+	private void addParameter(Parameter parameter, boolean block, List<String> publishedParams) {
+		if(block){
+			blockParameters.add(parameter);
+		}
+		else{
+			parameters.add(parameter);
+		}
+		if(publishedParams != null){
+			publishedParams.remove(parameter.getParamName());
 		}
 	}
-
 	/**
 	 * For debugging...
 	 */
@@ -0,0 +1,93 @@
+package net.atos.webtools.tapestry.core.models.features;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * What the features of one version of a library jar share with the same features of the other projects
+ * (see {@link net.atos.webtools.tapestry.core.models.LibraryFeatures}): the javadoc of their classes, and their
+ * parameters, once they have been loaded by any project.
+ *
+ * <p>Parameters are only shared when they don't depend on the classpath of the project that loaded them (see
+ * {@link AbstractParameteredFeatureModel#getParameters()}): they are then immutable, and don't reference any project.
+ *
+ * <p>This class is thread safe.
+ */
+public final class LibraryContent {
+	/**
+	 * Javadoc of the feature classes, by fully qualified name
+	 */
+	private final ConcurrentMap<String, String> javadocs = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * Parameters of the feature classes, by fully qualified name
+	 */
+	private final ConcurrentMap<String, ParameterSets> parameters = new ConcurrentHashMap<String, ParameterSets>();
+
+	/**
+	 * @param className
+	 * @return the javadoc of the class, or null if it hasn't been rendered yet
+	 */
+	String getJavadoc(String className) {
+		return javadocs.get(className);
+	}
+
+	/**
+	 * @param className
+	 * @param javadoc
+	 * @return the javadoc to use: the one given, or the one added in the meantime by another project
+	 */
+	String putJavadoc(String className, String javadoc) {
+		String existing = javadocs.putIfAbsent(className, javadoc);
+		return existing != null ? existing : javadoc;
+	}
+
+	/**
+	 * @param className
+	 * @return the parameters of the class, or null if they haven't been loaded yet
+	 */
+	ParameterSets getParameters(String className) {
+		return parameters.get(className);
+	}
+
+	/**
+	 * @param className
+	 * @param parameterSets
+	 * @return the parameters to use: the ones given, or the ones added in the meantime by another project
+	 */
+	ParameterSets putParameters(String className, ParameterSets parameterSets) {
+		ParameterSets existing = parameters.putIfAbsent(className, parameterSets);
+		return existing != null ? existing : parameterSets;
+	}
+
+	public int getJavadocCount() {
+		return javadocs.size();
+	}
+
+	public int getParameterSetCount() {
+		return parameters.size();
+	}
+
+	/**
+	 * The parameters of one feature class, read-only
+	 */
+	static final class ParameterSets {
+		private final Set<Parameter> parameters;
+		private final Set<Parameter> blockParameters;
+
+		ParameterSets(Set<Parameter> parameters, Set<Parameter> blockParameters) {
+			this.parameters = Collections.unmodifiableSet(parameters);
+			this.blockParameters = Collections.unmodifiableSet(blockParameters);
+		}
+
+		Set<Parameter> getParameters() {
+			return parameters;
+		}
+
+		Set<Parameter> getBlockParameters() {
+			return blockParameters;
+		}
+	}
+}
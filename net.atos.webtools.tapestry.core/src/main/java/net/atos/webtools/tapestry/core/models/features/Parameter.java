@@ -2,6 +2,11 @@ package net.atos.webtools.tapestry.core.models.features;
 
 import java.util.HashSet;
 
+import net.atos.webtools.tapestry.core.util.StringPool;
+import net.atos.webtools.tapestry.core.util.helpers.JavaModelHelper;
+
+import org.eclipse.jdt.core.IField;
+
 /**
  * Class that represents a standard Tapestry parameter, i.e. a parameter for a {@link AbstractParameteredFeatureModel},
  * which is a Component ({@link ComponentModel}), or a Mixin ({@link MixinModel}).
@@ -13,7 +18,8 @@ import java.util.HashSet;
  */
 public class Parameter{
 	/**
-	 * Every Parameter is contained in a "feature":
+	 * Every Parameter is contained in a "feature": null for the parameters of the library features, that may be shared 
+	 * by all the projects using the jar (see {@link LibraryContent})
 	 */
 	private final AbstractParameteredFeatureModel parentFeature;
 
@@ -46,7 +52,11 @@ public class Parameter{
 	 * @see {@link Parameter#isMandatory() }
 	 */
 	private boolean required;
-	private String paramJavadoc;
+	private volatile String paramJavadoc;
+	/**
+	 * When the parameter has been read from the bytecode, its javadoc is only loaded from this field on first display 
+	 */
+	private final IField field;
 	private boolean allowNull;
 	private boolean cache;
 	private String value;
@@ -77,7 +87,7 @@ public class Parameter{
 	public String getJavadoc() {
 		return String.format(paramJavadocTemplate, 
 								paramName, 
-								paramJavadoc,
+								getParamJavadoc(),
 								required,
 								allowNull,
 								cache,
@@ -87,6 +97,21 @@ public class Parameter{
 								autoconnect);
 	}
 	
+	private String getParamJavadoc() {
+		if(paramJavadoc == null && field != null){
+			paramJavadoc = StringPool.canonical(JavaModelHelper.loadJavadoc(field));
+		}
+		return paramJavadoc;
+	}
+	
+	/**
+	 * @return the number of chars of the javadoc of the parameter, 0 if it hasn't been loaded yet from its field
+	 */
+	int getLoadedJavadocLength() {
+		String javadoc = paramJavadoc;
+		return javadoc == null ? 0 : javadoc.length();
+	}
+	
 	public boolean isAllowNull() {
 		return allowNull;
 	}
@@ -136,16 +161,61 @@ public class Parameter{
 						boolean autoconnect, 
 						String paramJavadoc,
 						boolean hasCalculatedDefault) {
+		this(componentModel, paramName, required, allowNull, cache, value, defaultPrefix, principal, autoconnect, 
+				paramJavadoc, null, hasCalculatedDefault);
+	}
+	
+	/**
+	 * Constructor for parameters read from the bytecode: the javadoc is loaded from the field when it's first needed
+	 * 
+	 * @param componentModel
+	 * @param paramName
+	 * @param required
+	 * @param allowNull
+	 * @param cache
+	 * @param value
+	 * @param defaultPrefix
+	 * @param principal
+	 * @param autoconnect
+	 * @param field the handle of the parameter field (it's not opened before the javadoc is displayed)
+	 * @param hasCalculatedDefault
+	 */
+	public Parameter(AbstractParameteredFeatureModel componentModel, String paramName, 
+						boolean required, 
+						boolean allowNull, 
+						boolean cache, 
+						String value, 
+						String defaultPrefix, 
+						boolean principal, 
+						boolean autoconnect, 
+						IField field,
+						boolean hasCalculatedDefault) {
+		this(componentModel, paramName, required, allowNull, cache, value, defaultPrefix, principal, autoconnect, 
+				null, field, hasCalculatedDefault);
+	}
+	
+	private Parameter(AbstractParameteredFeatureModel componentModel, String paramName, 
+						boolean required, 
+						boolean allowNull, 
+						boolean cache, 
+						String value, 
+						String defaultPrefix, 
+						boolean principal, 
+						boolean autoconnect, 
+						String paramJavadoc,
+						IField field,
+						boolean hasCalculatedDefault) {
 		parentFeature = componentModel;
-		this.paramName = paramName;
+		this.paramName = StringPool.canonical(paramName);
 		this.required = required;
 		this.allowNull = allowNull;
 		this.cache = cache;
-		this.value = value;
-		this.defaultPrefix = defaultPrefix;
+		this.value = StringPool.canonical(value);
+		this.defaultPrefix = StringPool.canonical(defaultPrefix);
 		this.principal = principal;
 		this.autoconnect = autoconnect;
-		this.paramJavadoc = paramJavadoc;
+		this.paramJavadoc = StringPool.canonical(paramJavadoc);
+		this.field = field;
 		this.hasCalculatedDefault = hasCalculatedDefault;
 	}
 
@@ -0,0 +1,223 @@
+package net.atos.webtools.tapestry.core.models.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import net.atos.webtools.tapestry.core.TapestryCore;
+import net.atos.webtools.tapestry.core.models.FeatureFinder;
+import net.atos.webtools.tapestry.core.util.ErrorMessages;
+
+/**
+ * <p>Persistent index of the features found in the jars of the classpath, kept in the plugin state location.
+ *
+ * <p>The {@link FeatureFinder} Job looks here before scanning a jar through JDT: when the jar
+ * {@link JarFingerprint} hasn't changed since the last scan, the features are loaded directly from
+ * their class files, and the jar packages are not enumerated again (neither is the manifest read, nor the
+ * AppModule called by reflection).
+ *
+ * <p>The index is shared by all the projects of the workspace (see {@link TapestryCore#getFeatureIndex()}),
+ * and all its methods are thread safe.
+ */
+public class FeatureIndex {
+	/**
+	 * Header of the index file, followed by {@link #FORMAT_VERSION}
+	 */
+	private static final int MAGIC = 0x54355849;
+
+	/**
+	 * Must be increased each time the file format changes
+	 */
+	private static final int FORMAT_VERSION = 1;
+
+	private final File file;
+
+	/**
+	 * Invalidates the whole index when it doesn't match the one found in the file
+	 * (i.e. the plugin has been updated, and may find features differently)
+	 */
+	private final String stamp;
+
+	/**
+	 * Indexed jars, by canonical path
+	 */
+	private final Map<String, IndexedRoot> roots = new HashMap<String, IndexedRoot>();
+
+	private boolean dirty;
+
+	/**
+	 * Creates an empty index, call {@link #load()} to read the existing file
+	 *
+	 * @param file the file where the index is persisted
+	 * @param stamp any String that identifies the way features are found (plugin version)
+	 */
+	public FeatureIndex(File file, String stamp) {
+		this.file = file;
+		this.stamp = stamp != null ? stamp : "";
+	}
+
+	/**
+	 * Get the result of a previous scan of that jar, if its size and date haven't changed: the jar isn't opened.
+	 *
+	 * @param jarFile the jar
+	 * @return the indexed scan result, or null if the jar has never been scanned, or has been modified since
+	 */
+	public IndexedRoot get(File jarFile){
+		if(jarFile == null){
+			return null;
+		}
+		String path = JarFingerprint.getCanonicalPath(jarFile);
+		IndexedRoot indexedRoot;
+		synchronized (this) {
+			indexedRoot = roots.get(path);
+		}
+		if(indexedRoot != null && indexedRoot.getFingerprint().isCurrent(jarFile)){
+			return indexedRoot;
+		}
+		return null;
+	}
+
+	/**
+	 * Get the result of a previous scan of a jar that has been modified, but still has the same content
+	 * (see {@link JarFingerprint#hasSameContent(JarFingerprint)}): the index is updated with its new fingerprint.
+	 *
+	 * @param fingerprint the current fingerprint of the jar
+	 * @return the indexed scan result, or null if the jar has never been scanned, or its content has changed since
+	 */
+	public synchronized IndexedRoot get(JarFingerprint fingerprint){
+		if(fingerprint == null){
+			return null;
+		}
+		IndexedRoot indexedRoot = roots.get(fingerprint.getPath());
+		if(indexedRoot == null || ! indexedRoot.getFingerprint().hasSameContent(fingerprint)){
+			return null;
+		}
+		if(! indexedRoot.getFingerprint().equals(fingerprint)){
+			indexedRoot = indexedRoot.withFingerprint(fingerprint);
+			put(indexedRoot);
+		}
+		return indexedRoot;
+	}
+
+	/**
+	 * Stores (or replaces) the scan result of a jar
+	 *
+	 * @param indexedRoot
+	 */
+	public synchronized void put(IndexedRoot indexedRoot){
+		if(indexedRoot != null){
+			roots.put(indexedRoot.getFingerprint().getPath(), indexedRoot);
+			dirty = true;
+		}
+	}
+
+	/**
+	 * Forgets everything, i.e. to force a full rescan
+	 */
+	public synchronized void clear(){
+		roots.clear();
+		dirty = true;
+	}
+
+	public synchronized int size(){
+		return roots.size();
+	}
+
+	/**
+	 * Reads the index file. A missing, corrupted or outdated file simply results in an empty index.
+	 */
+	public synchronized void load(){
+		roots.clear();
+		dirty = false;
+		if(file == null || ! file.isFile()){
+			return;
+		}
+
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			if(in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || ! stamp.equals(in.readUTF())){
+				dirty = true;
+				return;
+			}
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				IndexedRoot indexedRoot = IndexedRoot.read(in);
+				roots.put(indexedRoot.getFingerprint().getPath(), indexedRoot);
+			}
+		}
+		catch (IOException e) {
+			TapestryCore.logWarning(ErrorMessages.CAN_T_READ_FEATURE_INDEX + file, e);
+			roots.clear();
+			dirty = true;
+		}
+		finally{
+			close(in);
+		}
+	}
+
+	/**
+	 * Writes the index file if it has been modified since the last {@link #load()} or {@link #save()}.
+	 *
+	 * <p>Jars that don't exist anymore are removed first, so the file doesn't grow forever with old versions
+	 * of the libraries. The file is written in a temp file, then renamed, so a crash can't leave a truncated index.
+	 */
+	public synchronized void save(){
+		if(! dirty || file == null){
+			return;
+		}
+
+		for (Iterator<String> iterator = roots.keySet().iterator(); iterator.hasNext();) {
+			if(! new File(iterator.next()).isFile()){
+				iterator.remove();
+			}
+		}
+
+		File tempFile = new File(file.getPath() + ".tmp");
+		DataOutputStream out = null;
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeUTF(stamp);
+			out.writeInt(roots.size());
+			for (IndexedRoot indexedRoot : roots.values()) {
+				indexedRoot.write(out);
+			}
+			out.close();
+			out = null;
+
+			if(file.exists() && ! file.delete() || ! tempFile.renameTo(file)){
+				TapestryCore.logWarning(ErrorMessages.CAN_T_WRITE_FEATURE_INDEX + file);
+				return;
+			}
+			dirty = false;
+		}
+		catch (IOException e) {
+			TapestryCore.logWarning(ErrorMessages.CAN_T_WRITE_FEATURE_INDEX + file, e);
+		}
+		finally{
+			close(out);
+		}
+	}
+
+	private static void close(Closeable closeable){
+		if(closeable != null){
+			try {
+				closeable.close();
+			}
+			catch (IOException e) {
+				TapestryCore.logWarning(ErrorMessages.FAILED_TO_CLOSE_STREAM, e);
+			}
+		}
+	}
+}
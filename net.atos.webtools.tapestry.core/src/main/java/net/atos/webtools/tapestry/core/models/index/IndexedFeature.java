@@ -0,0 +1,88 @@
+package net.atos.webtools.tapestry.core.models.index;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import net.atos.webtools.tapestry.core.models.FeatureType;
+
+/**
+ * What the {@link FeatureIndex} remembers about one feature found in a jar: enough to find back
+ * its class file in the jar without enumerating the packages again.
+ *
+ * <p>Instances are immutable.
+ */
+public final class IndexedFeature {
+	private final FeatureType featureType;
+	private final String packageName;
+	private final String typeName;
+	private final String subPackage;
+
+	public IndexedFeature(FeatureType featureType, String packageName, String typeName, String subPackage) {
+		this.featureType = featureType;
+		this.packageName = packageName;
+		this.typeName = typeName;
+		this.subPackage = subPackage;
+	}
+
+	public FeatureType getFeatureType() {
+		return featureType;
+	}
+
+	/**
+	 * @return the name of the java package containing the feature class
+	 */
+	public String getPackageName() {
+		return packageName;
+	}
+
+	/**
+	 * @return the simple name of the feature class
+	 */
+	public String getTypeName() {
+		return typeName;
+	}
+
+	/**
+	 * @return the sub-package inside "components", "pages"..., or empty String
+	 */
+	public String getSubPackage() {
+		return subPackage;
+	}
+
+	void write(DataOutput out) throws IOException{
+		out.writeUTF(featureType.name());
+		out.writeUTF(packageName);
+		out.writeUTF(typeName);
+		out.writeUTF(subPackage);
+	}
+
+	static IndexedFeature read(DataInput in) throws IOException{
+		FeatureType featureType;
+		try {
+			featureType = FeatureType.valueOf(in.readUTF());
+		}
+		catch (IllegalArgumentException e) {
+			throw new IOException(e.getMessage());
+		}
+		return new IndexedFeature(featureType, in.readUTF(), in.readUTF(), in.readUTF());
+	}
+
+	/**
+	 * For debugging...
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("IndexedFeature [featureType=");
+		builder.append(featureType);
+		builder.append(", packageName=");
+		builder.append(packageName);
+		builder.append(", typeName=");
+		builder.append(typeName);
+		builder.append(", subPackage=");
+		builder.append(subPackage);
+		builder.append("]");
+		return builder.toString();
+	}
+}
@@ -0,0 +1,119 @@
+package net.atos.webtools.tapestry.core.models.index;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of the scan of one jar, as stored in the {@link FeatureIndex}.
+ *
+ * <p>Jars that are not Tapestry libraries are also stored (with a null app package, and no feature),
+ * so that they are not scanned again either. A library whose AppModule couldn't be resolved isn't stored: another
+ * project, or the next session, may resolve it.
+ *
+ * <p>Instances are immutable.
+ */
+public final class IndexedRoot {
+	private final JarFingerprint fingerprint;
+	private final String prefix;
+	private final String appPackage;
+	private final List<IndexedFeature> features;
+
+	/**
+	 * @param fingerprint the jar fingerprint when it was scanned
+	 * @param prefix the Tapestry prefix of the library, or null
+	 * @param appPackage the root package of the library, or null if this is not a Tapestry library
+	 * @param features features found in the jar, in the order they have been loaded
+	 */
+	public IndexedRoot(JarFingerprint fingerprint, String prefix, String appPackage, List<IndexedFeature> features) {
+		this.fingerprint = fingerprint;
+		this.prefix = prefix;
+		this.appPackage = appPackage;
+		this.features = Collections.unmodifiableList(new ArrayList<IndexedFeature>(features));
+	}
+
+	public JarFingerprint getFingerprint() {
+		return fingerprint;
+	}
+
+	/**
+	 * @param newFingerprint the fingerprint of the same jar, with the same content
+	 * @return the same scan result, for the new fingerprint
+	 */
+	IndexedRoot withFingerprint(JarFingerprint newFingerprint) {
+		return new IndexedRoot(newFingerprint, prefix, appPackage, features);
+	}
+
+	public String getPrefix() {
+		return prefix;
+	}
+
+	public String getAppPackage() {
+		return appPackage;
+	}
+
+	public List<IndexedFeature> getFeatures() {
+		return features;
+	}
+
+	/**
+	 * @return true if features have been searched in this jar
+	 */
+	public boolean isTapestryLibrary() {
+		return appPackage != null;
+	}
+
+	void write(DataOutput out) throws IOException{
+		fingerprint.write(out);
+		writeNullable(out, prefix);
+		writeNullable(out, appPackage);
+		out.writeInt(features.size());
+		for (IndexedFeature feature : features) {
+			feature.write(out);
+		}
+	}
+
+	static IndexedRoot read(DataInput in) throws IOException{
+		JarFingerprint fingerprint = JarFingerprint.read(in);
+		String prefix = readNullable(in);
+		String appPackage = readNullable(in);
+		int size = in.readInt();
+		List<IndexedFeature> features = new ArrayList<IndexedFeature>(size);
+		for (int i = 0; i < size; i++) {
+			features.add(IndexedFeature.read(in));
+		}
+		return new IndexedRoot(fingerprint, prefix, appPackage, features);
+	}
+
+	private static void writeNullable(DataOutput out, String value) throws IOException{
+		out.writeBoolean(value != null);
+		if(value != null){
+			out.writeUTF(value);
+		}
+	}
+
+	private static String readNullable(DataInput in) throws IOException{
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	/**
+	 * For debugging...
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("IndexedRoot [fingerprint=");
+		builder.append(fingerprint);
+		builder.append(", prefix=");
+		builder.append(prefix);
+		builder.append(", appPackage=");
+		builder.append(appPackage);
+		builder.append(", features=");
+		builder.append(features.size());
+		builder.append("]");
+		return builder.toString();
+	}
+}
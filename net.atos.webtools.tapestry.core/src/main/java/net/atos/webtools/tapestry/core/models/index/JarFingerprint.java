@@ -0,0 +1,283 @@
+package net.atos.webtools.tapestry.core.models.index;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.Enumeration;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import net.atos.webtools.tapestry.core.TapestryCore;
+import net.atos.webtools.tapestry.core.util.ErrorMessages;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+
+/**
+ * Identifies one version of a jar file on disk: its canonical path, its size, its last modification date,
+ * and a checksum computed on the jar central directory (names, sizes and CRC of every entry).
+ *
+ * <p>The path, size and date are checked first, without opening the jar (see {@link #isCurrent(File)}).
+ * Only the central directory is read for the checksum, along with the scan of the jar that it avoids
+ * (see {@link Builder}): a jar copied again with the same content (i.e. a dependency re-downloaded in the
+ * local maven repository) is recognized by {@link #hasSameContent(JarFingerprint)}, and isn't scanned again.
+ *
+ * <p>Instances are immutable.
+ *
+ * @see FeatureIndex
+ */
+public final class JarFingerprint {
+	private final String path;
+	private final long length;
+	private final long lastModified;
+	private final long contentHash;
+
+	JarFingerprint(String path, long length, long lastModified, long contentHash) {
+		this.path = path;
+		this.length = length;
+		this.lastModified = lastModified;
+		this.contentHash = contentHash;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public long getLength() {
+		return length;
+	}
+
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	public long getContentHash() {
+		return contentHash;
+	}
+
+	/**
+	 * Checks the size and date of the jar, without opening it
+	 *
+	 * @param file the jar, at the same path
+	 * @return true if the jar hasn't been modified since this fingerprint has been computed
+	 */
+	public boolean isCurrent(File file){
+		return file != null && file.length() == length && file.lastModified() == lastModified;
+	}
+
+	/**
+	 * @param other the fingerprint of a jar at the same path, computed later
+	 * @return true if the jar has the same content, even if its date has changed
+	 */
+	public boolean hasSameContent(JarFingerprint other){
+		return other != null
+				&& path.equals(other.path)
+				&& length == other.length
+				&& contentHash == other.contentHash;
+	}
+
+	/**
+	 * Computes the fingerprint of a jar file
+	 *
+	 * @param file the jar file
+	 * @return the fingerprint, or null if the file can't be read as a zip file
+	 */
+	public static JarFingerprint of(File file){
+		if(file == null || ! file.isFile()){
+			return null;
+		}
+
+		ZipFile zipFile = null;
+		try {
+			zipFile = new ZipFile(file);
+			Builder builder = new Builder(file);
+			Enumeration<? extends ZipEntry> entries = zipFile.entries();
+			while(entries.hasMoreElements()){
+				builder.addEntry(entries.nextElement());
+			}
+			return builder.build();
+		}
+		catch (IOException e) {
+			TapestryCore.logWarning(ErrorMessages.CAN_T_COMPUTE_FINGERPRINT_FOR_JAR + file, e);
+			return null;
+		}
+		finally{
+			if(zipFile != null){
+				try {
+					zipFile.close();
+				}
+				catch (IOException e) {
+					TapestryCore.logWarning(ErrorMessages.FAILED_TO_CLOSE_JAR + file, e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes the fingerprint of a file that is not a jar, i.e. a compiled class in the output folder of a project:
+	 * the checksum is computed on its whole content.
+	 *
+	 * @param file the file
+	 * @return the fingerprint, or null if the file can't be read
+	 */
+	public static JarFingerprint ofFile(File file){
+		if(file == null || ! file.isFile()){
+			return null;
+		}
+
+		String canonicalPath = getCanonicalPath(file);
+		InputStream in = null;
+		try {
+			in = new FileInputStream(file);
+			CRC32 crc = new CRC32();
+			byte[] buffer = new byte[4096];
+			int length;
+			while((length = in.read(buffer)) > 0){
+				crc.update(buffer, 0, length);
+			}
+			return new JarFingerprint(canonicalPath, file.length(), file.lastModified(), crc.getValue());
+		}
+		catch (IOException e) {
+			TapestryCore.logWarning(ErrorMessages.CAN_T_COMPUTE_FINGERPRINT_FOR_JAR + canonicalPath, e);
+			return null;
+		}
+		finally{
+			if(in != null){
+				try {
+					in.close();
+				}
+				catch (IOException e) {
+					TapestryCore.logWarning(ErrorMessages.FAILED_TO_CLOSE_STREAM, e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the jar on the file system: external jars are referenced by their absolute path,
+	 * but jars inside the workspace have a workspace relative path, that must be resolved.
+	 *
+	 * @param packageFragmentRoot a jar root
+	 * @return the jar file, or null if it can't be located
+	 */
+	public static File getJarFile(IPackageFragmentRoot packageFragmentRoot){
+		if(packageFragmentRoot == null){
+			return null;
+		}
+		IPath location = null;
+		IResource resource = packageFragmentRoot.getResource();
+		if(resource != null){
+			location = resource.getLocation();
+		}
+		if(location == null){
+			location = packageFragmentRoot.getPath();
+		}
+		return location != null ? location.toFile() : null;
+	}
+
+	/**
+	 * @param file
+	 * @return the path of the file, as used to identify it in the fingerprint
+	 */
+	public static String getCanonicalPath(File file){
+		try {
+			return file.getCanonicalPath();
+		}
+		catch (IOException e) {
+			return file.getAbsolutePath();
+		}
+	}
+
+	private static void putLong(byte[] buffer, long value){
+		for (int i = 7; i >= 0; i--) {
+			buffer[i] = (byte) (value & 0xFF);
+			value >>>= 8;
+		}
+	}
+
+	void write(DataOutput out) throws IOException{
+		out.writeUTF(path);
+		out.writeLong(length);
+		out.writeLong(lastModified);
+		out.writeLong(contentHash);
+	}
+
+	static JarFingerprint read(DataInput in) throws IOException{
+		return new JarFingerprint(in.readUTF(), in.readLong(), in.readLong(), in.readLong());
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(obj instanceof JarFingerprint){
+			JarFingerprint other = (JarFingerprint) obj;
+			return path.equals(other.path)
+					&& length == other.length
+					&& lastModified == other.lastModified
+					&& contentHash == other.contentHash;
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = path.hashCode();
+		result = 31 * result + (int) (length ^ (length >>> 32));
+		result = 31 * result + (int) (lastModified ^ (lastModified >>> 32));
+		result = 31 * result + (int) (contentHash ^ (contentHash >>> 32));
+		return result;
+	}
+
+	/**
+	 * Computes the fingerprint of a jar while its central directory is enumerated for another purpose
+	 * (see {@link net.atos.webtools.tapestry.core.models.bytecode.JarScanner#scan()}), so that the jar is read only once.
+	 * All the entries must be added, in the order of the central directory.
+	 */
+	public static final class Builder {
+		private final File file;
+		private final CRC32 crc = new CRC32();
+		private final byte[] buffer = new byte[8];
+
+		/**
+		 * @param file the jar
+		 */
+		public Builder(File file) {
+			this.file = file;
+		}
+
+		public void addEntry(ZipEntry entry) throws UnsupportedEncodingException{
+			crc.update(entry.getName().getBytes("UTF-8"));
+			putLong(buffer, entry.getCrc());
+			crc.update(buffer);
+			putLong(buffer, entry.getSize());
+			crc.update(buffer);
+		}
+
+		public JarFingerprint build(){
+			return new JarFingerprint(getCanonicalPath(file), file.length(), file.lastModified(), crc.getValue());
+		}
+	}
+
+	/**
+	 * For debugging...
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("JarFingerprint [path=");
+		builder.append(path);
+		builder.append(", length=");
+		builder.append(length);
+		builder.append(", lastModified=");
+		builder.append(lastModified);
+		builder.append(", contentHash=");
+		builder.append(Long.toHexString(contentHash));
+		builder.append("]");
+		return builder.toString();
+	}
+}
@@ -0,0 +1,203 @@
+package net.atos.webtools.tapestry.core.models.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import net.atos.webtools.tapestry.core.TapestryCore;
+import net.atos.webtools.tapestry.core.models.FeatureFinder;
+import net.atos.webtools.tapestry.core.util.ErrorMessages;
+
+/**
+ * <p>Cache of the library mappings (prefix and root package) found for the AppModules of the Tapestry libraries,
+ * kept in the plugin state location.
+ *
+ * <p>Finding them is expensive: the {@link FeatureFinder} builds a classloader on the whole classpath, loads the
+ * AppModule, and calls its <code>contributeComponentClassResolver</code> method by reflection. The result only depends
+ * on the AppModule class, so it's cached by AppModule name and {@link JarFingerprint} of the jar (or class file, for
+ * projects of the workspace) that contains it, and reused by all the projects.
+ *
+ * <p>All its methods are thread safe.
+ *
+ * @see TapestryCore#getLibraryMappingCache()
+ */
+public class LibraryMappingCache {
+	/**
+	 * Header of the cache file, followed by {@link #FORMAT_VERSION}
+	 */
+	private static final int MAGIC = 0x54354C4D;
+
+	/**
+	 * Must be increased each time the file format changes
+	 */
+	private static final int FORMAT_VERSION = 1;
+
+	private final File file;
+
+	/**
+	 * Invalidates the whole cache when it doesn't match the one found in the file
+	 */
+	private final String stamp;
+
+	/**
+	 * Resolutions, by AppModule and canonical path of the jar
+	 */
+	private final Map<String, LibraryMappingResolution> resolutions = new HashMap<String, LibraryMappingResolution>();
+
+	private boolean dirty;
+
+	/**
+	 * Creates an empty cache, call {@link #load()} to read the existing file
+	 *
+	 * @param file the file where the cache is persisted
+	 * @param stamp any String that identifies the way mappings are found (plugin version)
+	 */
+	public LibraryMappingCache(File file, String stamp) {
+		this.file = file;
+		this.stamp = stamp != null ? stamp : "";
+	}
+
+	/**
+	 * @param appModule the fully qualified name of the AppModule
+	 * @param fingerprint the current fingerprint of the jar (or class file) containing the AppModule
+	 * @return the mapping found the last time, or null if it has never been resolved, or if the jar has changed since
+	 */
+	public synchronized LibraryMappingResolution get(String appModule, JarFingerprint fingerprint){
+		if(appModule == null || fingerprint == null){
+			return null;
+		}
+		LibraryMappingResolution resolution = resolutions.get(getKey(appModule, fingerprint));
+		if(resolution != null && resolution.getFingerprint().equals(fingerprint)){
+			return resolution;
+		}
+		return null;
+	}
+
+	/**
+	 * Stores (or replaces) a resolution
+	 *
+	 * @param resolution (nothing is done if it's null, or if it has no fingerprint)
+	 */
+	public synchronized void put(LibraryMappingResolution resolution){
+		if(resolution != null && resolution.getAppModule() != null && resolution.getFingerprint() != null){
+			resolutions.put(getKey(resolution.getAppModule(), resolution.getFingerprint()), resolution);
+			dirty |= resolution.isPersistent();
+		}
+	}
+
+	public synchronized void clear(){
+		resolutions.clear();
+		dirty = true;
+	}
+
+	public synchronized int size(){
+		return resolutions.size();
+	}
+
+	private static String getKey(String appModule, JarFingerprint fingerprint){
+		return appModule + '@' + fingerprint.getPath();
+	}
+
+	/**
+	 * Reads the cache file. A missing, corrupted or outdated file simply results in an empty cache.
+	 */
+	public synchronized void load(){
+		resolutions.clear();
+		dirty = false;
+		if(file == null || ! file.isFile()){
+			return;
+		}
+
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			if(in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || ! stamp.equals(in.readUTF())){
+				dirty = true;
+				return;
+			}
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				LibraryMappingResolution resolution = LibraryMappingResolution.read(in);
+				resolutions.put(getKey(resolution.getAppModule(), resolution.getFingerprint()), resolution);
+			}
+		}
+		catch (IOException e) {
+			TapestryCore.logWarning(ErrorMessages.CAN_T_READ_LIBRARY_MAPPING_CACHE + file, e);
+			resolutions.clear();
+			dirty = true;
+		}
+		finally{
+			close(in);
+		}
+	}
+
+	/**
+	 * Writes the persistent resolutions (see {@link LibraryMappingResolution#isPersistent()}) if some of them have
+	 * changed since the last {@link #load()} or {@link #save()}. Resolutions of jars that don't exist anymore are dropped.
+	 */
+	public synchronized void save(){
+		if(! dirty || file == null){
+			return;
+		}
+
+		List<LibraryMappingResolution> persistentResolutions = new ArrayList<LibraryMappingResolution>();
+		for (Iterator<LibraryMappingResolution> iterator = resolutions.values().iterator(); iterator.hasNext();) {
+			LibraryMappingResolution resolution = iterator.next();
+			if(! new File(resolution.getFingerprint().getPath()).isFile()){
+				iterator.remove();
+			}
+			else if(resolution.isPersistent()){
+				persistentResolutions.add(resolution);
+			}
+		}
+
+		File tempFile = new File(file.getPath() + ".tmp");
+		DataOutputStream out = null;
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeUTF(stamp);
+			out.writeInt(persistentResolutions.size());
+			for (LibraryMappingResolution resolution : persistentResolutions) {
+				resolution.write(out);
+			}
+			out.close();
+			out = null;
+
+			if(file.exists() && ! file.delete() || ! tempFile.renameTo(file)){
+				TapestryCore.logWarning(ErrorMessages.CAN_T_WRITE_LIBRARY_MAPPING_CACHE + file);
+				return;
+			}
+			dirty = false;
+		}
+		catch (IOException e) {
+			TapestryCore.logWarning(ErrorMessages.CAN_T_WRITE_LIBRARY_MAPPING_CACHE + file, e);
+		}
+		finally{
+			close(out);
+		}
+	}
+
+	private static void close(Closeable closeable){
+		if(closeable != null){
+			try {
+				closeable.close();
+			}
+			catch (IOException e) {
+				TapestryCore.logWarning(ErrorMessages.FAILED_TO_CLOSE_STREAM, e);
+			}
+		}
+	}
+}
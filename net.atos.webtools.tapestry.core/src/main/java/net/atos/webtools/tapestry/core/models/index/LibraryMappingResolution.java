@@ -0,0 +1,147 @@
+package net.atos.webtools.tapestry.core.models.index;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The (prefix, root package) pair of a Tapestry library, as found from its AppModule
+ * (see {@link LibraryMappingCache}), with the way it has been found.
+ *
+ * <p>Instances are immutable.
+ */
+public final class LibraryMappingResolution {
+	/**
+	 * How the library mapping has been found, from the most to the least reliable
+	 */
+	public enum Source {
+		/**
+		 * <code>contributeComponentClassResolver</code> has been called on the AppModule
+		 */
+		REFLECTION,
+		/**
+		 * The AppModule is declared in the <code>components.libs</code> extension point
+		 */
+		EXTENSION_POINT,
+		/**
+		 * The root package is guessed from the package of the AppModule, the prefix is unknown
+		 */
+		DEDUCTION,
+		/**
+		 * Nothing could be found
+		 */
+		UNRESOLVED
+	}
+
+	private final String appModule;
+	private final JarFingerprint fingerprint;
+	private final String prefix;
+	private final String rootPackage;
+	private final Source source;
+
+	/**
+	 * @param appModule the fully qualified name of the AppModule class
+	 * @param fingerprint the jar (or class file) containing the AppModule
+	 * @param prefix the prefix, or null
+	 * @param rootPackage the root package, or null
+	 * @param source how it has been found
+	 */
+	public LibraryMappingResolution(String appModule, JarFingerprint fingerprint, String prefix, String rootPackage, Source source) {
+		this.appModule = appModule;
+		this.fingerprint = fingerprint;
+		this.prefix = prefix;
+		this.rootPackage = rootPackage;
+		this.source = source;
+	}
+
+	public String getAppModule() {
+		return appModule;
+	}
+
+	public JarFingerprint getFingerprint() {
+		return fingerprint;
+	}
+
+	public String getPrefix() {
+		return prefix;
+	}
+
+	public String getRootPackage() {
+		return rootPackage;
+	}
+
+	public Source getSource() {
+		return source;
+	}
+
+	/**
+	 * @return <code>String[]{prefix, package}</code>, as used by the {@link net.atos.webtools.tapestry.core.models.FeatureFinder}
+	 */
+	public String[] toPrefixPackageStrings() {
+		return new String[]{prefix, rootPackage};
+	}
+
+	/**
+	 * Only a mapping read from the AppModule itself is kept across restarts: extension points may change
+	 * with the installed plugins, and a deduction may be replaced by a successful reflection next time.
+	 *
+	 * @return true if this resolution can be written in the cache file
+	 */
+	boolean isPersistent() {
+		return source == Source.REFLECTION;
+	}
+
+	void write(DataOutput out) throws IOException{
+		out.writeUTF(appModule);
+		fingerprint.write(out);
+		writeNullable(out, prefix);
+		writeNullable(out, rootPackage);
+		out.writeUTF(source.name());
+	}
+
+	static LibraryMappingResolution read(DataInput in) throws IOException{
+		String appModule = in.readUTF();
+		JarFingerprint fingerprint = JarFingerprint.read(in);
+		String prefix = readNullable(in);
+		String rootPackage = readNullable(in);
+		Source source;
+		try {
+			source = Source.valueOf(in.readUTF());
+		}
+		catch (IllegalArgumentException e) {
+			throw new IOException(e.getMessage());
+		}
+		return new LibraryMappingResolution(appModule, fingerprint, prefix, rootPackage, source);
+	}
+
+	private static void writeNullable(DataOutput out, String value) throws IOException{
+		out.writeBoolean(value != null);
+		if(value != null){
+			out.writeUTF(value);
+		}
+	}
+
+	private static String readNullable(DataInput in) throws IOException{
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	/**
+	 * For debugging...
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("LibraryMappingResolution [appModule=");
+		builder.append(appModule);
+		builder.append(", fingerprint=");
+		builder.append(fingerprint);
+		builder.append(", prefix=");
+		builder.append(prefix);
+		builder.append(", rootPackage=");
+		builder.append(rootPackage);
+		builder.append(", source=");
+		builder.append(source);
+		builder.append("]");
+		return builder.toString();
+	}
+}
@@ -0,0 +1,29 @@
+package net.atos.webtools.tapestry.core.preferences;
+
+import net.atos.webtools.tapestry.core.TapestryCore;
+
+import org.eclipse.core.runtime.preferences.AbstractPreferenceInitializer;
+import org.eclipse.jface.preference.IPreferenceStore;
+
+/**
+ * Sets default values for Tapestry core preferences
+ */
+public class CorePreferenceInitializer extends AbstractPreferenceInitializer {
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.core.runtime.preferences.AbstractPreferenceInitializer#initializeDefaultPreferences()
+	 */
+	public void initializeDefaultPreferences() {
+		IPreferenceStore store = TapestryCore.getDefault().getPreferenceStore();
+		
+		//JDT model access doesn't scale much further, and we don't want to steal all the CPUs from the builder:
+		store.setDefault(CorePreferenceNames.SCAN_THREADS, Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())));
+		store.setDefault(CorePreferenceNames.BYTECODE_SCANNER, true);
+		store.setDefault(CorePreferenceNames.SCAN_REPORT, false);
+		//long enough for a small project, short enough not to freeze the editor on a big one:
+		store.setDefault(CorePreferenceNames.SCAN_WAIT_BUDGET, 500);
+		store.setDefault(CorePreferenceNames.WARM_UP, false);
+	}
+}
@@ -0,0 +1,64 @@
+package net.atos.webtools.tapestry.core.preferences;
+
+/**
+ * Preference keys for the Tapestry core plugin (model scanning), stored in the
+ * preference store of {@link net.atos.webtools.tapestry.core.TapestryCore}
+ */
+public class CorePreferenceNames {
+	/**
+	 * A named preference that holds the number of worker threads used by the
+	 * {@link net.atos.webtools.tapestry.core.models.FeatureFinder} to scan the classpath.
+	 * <p>
+	 * Value is of type <code>int</code>. 1 means that the scan is done sequentially in the Job thread.
+	 * </p>
+	 */
+	public static final String SCAN_THREADS = "scanThreads";
+	
+	/**
+	 * Upper bound for {@link #SCAN_THREADS}
+	 */
+	public static final int SCAN_THREADS_MAX = 16;
+	
+	/**
+	 * A named preference that controls whether library jars are scanned by reading their class files
+	 * directly ({@link net.atos.webtools.tapestry.core.models.bytecode.JarScanner}), instead of opening them
+	 * in the JDT model.
+	 * <p>
+	 * Value is of type <code>boolean</code>.
+	 * </p>
+	 */
+	public static final String BYTECODE_SCANNER = "bytecodeScanner";
+	
+	/**
+	 * A named preference that controls whether the {@link net.atos.webtools.tapestry.core.models.ScanReport} of each
+	 * {@link net.atos.webtools.tapestry.core.models.FeatureFinder} run is written to the error log and to the
+	 * plugin state location (it's always available from the project model).
+	 * <p>
+	 * Value is of type <code>boolean</code>.
+	 * </p>
+	 */
+	public static final String SCAN_REPORT = "scanReport";
+	
+	/**
+	 * A named preference that holds the maximum time (ms) the content assist, hover and hyperlinks wait for a
+	 * project model being scanned, before working on the partial model.
+	 * <p>
+	 * Value is of type <code>int</code>. 0 means that they never wait.
+	 * </p>
+	 */
+	public static final String SCAN_WAIT_BUDGET = "scanWaitBudget";
+	
+	/**
+	 * Upper bound for {@link #SCAN_WAIT_BUDGET}
+	 */
+	public static final int SCAN_WAIT_BUDGET_MAX = 5000;
+	
+	/**
+	 * A named preference that controls whether the models of the Tapestry projects known from the previous sessions
+	 * are loaded in background after the startup (see {@link net.atos.webtools.tapestry.core.models.ProjectModelWarmUp}).
+	 * <p>
+	 * Value is of type <code>boolean</code>.
+	 * </p>
+	 */
+	public static final String WARM_UP = "warmUp";
+}
@@ -0,0 +1,254 @@
+package net.atos.webtools.tapestry.core.util;
+
+import java.io.File;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.atos.webtools.tapestry.core.TapestryCore;
+
+/**
+ * Pool of the {@link JarClassLoader}s used to call the AppModules of the libraries by reflection.
+ *
+ * <p>A classloader opens every jar of the classpath, and keeps the classes it has defined in memory: instead of
+ * creating a new one for each scan of a project, it's reused as long as the resolved classpath doesn't change
+ * (same jars, same sizes and modification dates), and it's shared by the projects with the same classpath.
+ *
+ * <p>A classloader is closed as soon as it's not used anymore: when the classpath of all its projects has changed,
+ * when they are closed, or when the JVM runs short of memory (idle classloaders only).
+ *
+ * <p>Classloaders must be obtained with {@link #acquire(String, List, ClassLoader)}, and given back with
+ * {@link #release(JarClassLoader)} when the scan is finished. All the methods are thread safe.
+ *
+ * @see TapestryCore#getClassLoaderPool()
+ */
+public class ClassLoaderPool {
+	private static class Entry {
+		private final String key;
+		private final JarClassLoader classLoader;
+
+		/**
+		 * Projects whose current classpath is this one
+		 */
+		private final Set<String> projects = new HashSet<String>();
+
+		/**
+		 * Number of scans currently using the classloader
+		 */
+		private int leases;
+
+		private Entry(String key, JarClassLoader classLoader) {
+			this.key = key;
+			this.classLoader = classLoader;
+		}
+
+		private boolean isUnused() {
+			return projects.isEmpty() && leases == 0;
+		}
+	}
+
+	private final Map<String, Entry> entriesByKey = new HashMap<String, Entry>();
+	private final Map<String, String> keysByProject = new HashMap<String, String>();
+
+	/**
+	 * Cleared by the GC when memory runs low: the idle classloaders are then closed at the next acquisition
+	 */
+	private SoftReference<Object> memorySentinel = new SoftReference<Object>(new Object());
+
+	private int createdCount;
+	private int closedCount;
+
+	/**
+	 * Gets the classloader for the classpath of a project, creating it if no project uses that classpath yet.
+	 *
+	 * @param projectName the project being scanned
+	 * @param jarFiles the jars of its resolved classpath, in the classpath order
+	 * @param parent the parent classloader (it must always be the same one)
+	 * @return the classloader, to give back with {@link #release(JarClassLoader)}
+	 */
+	public synchronized JarClassLoader acquire(String projectName, List<File> jarFiles, ClassLoader parent) {
+		if(memorySentinel.get() == null){
+			TapestryCore.logInfo("Low memory: closing idle classloaders");
+			closeIdle();
+			memorySentinel = new SoftReference<Object>(new Object());
+		}
+
+		String key = getClasspathKey(jarFiles);
+		Entry entry = entriesByKey.get(key);
+		if(entry == null){
+			entry = new Entry(key, new JarClassLoader(jarFiles, parent));
+			entriesByKey.put(key, entry);
+			createdCount++;
+		}
+		entry.leases++;
+
+		String previousKey = keysByProject.put(projectName, key);
+		if(previousKey != null && ! previousKey.equals(key)){
+			//the classpath of the project has changed
+			Entry previous = entriesByKey.get(previousKey);
+			if(previous != null){
+				previous.projects.remove(projectName);
+				closeIfUnused(previous);
+			}
+		}
+		entry.projects.add(projectName);
+
+		return entry.classLoader;
+	}
+
+	/**
+	 * Gives back a classloader obtained with {@link #acquire(String, List, ClassLoader)}:
+	 * it stays open for the next scans of the same classpath.
+	 *
+	 * @param classLoader (nothing is done if it's null)
+	 */
+	public synchronized void release(JarClassLoader classLoader) {
+		if(classLoader == null){
+			return;
+		}
+		for (Entry entry : entriesByKey.values()) {
+			if(entry.classLoader == classLoader){
+				entry.leases--;
+				closeIfUnused(entry);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Forgets a project that is closed or removed: its classloader is closed if no other project uses it.
+	 *
+	 * @param projectName
+	 */
+	public synchronized void removeProject(String projectName) {
+		String key = keysByProject.remove(projectName);
+		if(key != null){
+			Entry entry = entriesByKey.get(key);
+			if(entry != null){
+				entry.projects.remove(projectName);
+				closeIfUnused(entry);
+			}
+		}
+	}
+
+	/**
+	 * Closes all the classloaders, even the ones in use (when the plugin is stopped)
+	 */
+	public synchronized void clear() {
+		for (Entry entry : entriesByKey.values()) {
+			close(entry);
+		}
+		entriesByKey.clear();
+		keysByProject.clear();
+	}
+
+	/**
+	 * Closes the classloaders that no scan is using, they will be re-created when needed
+	 */
+	public synchronized void closeIdle() {
+		for (Iterator<Entry> iterator = entriesByKey.values().iterator(); iterator.hasNext();) {
+			Entry entry = iterator.next();
+			if(entry.leases == 0){
+				iterator.remove();
+				close(entry);
+			}
+		}
+		keysByProject.values().retainAll(entriesByKey.keySet());
+	}
+
+	private void closeIfUnused(Entry entry) {
+		if(entry.isUnused()){
+			entriesByKey.remove(entry.key);
+			close(entry);
+		}
+	}
+
+	private void close(Entry entry) {
+		entry.classLoader.close();
+		closedCount++;
+	}
+
+	/**
+	 * The key identifies a version of a classpath: jar paths in order, with their sizes and modification dates
+	 */
+	private static String getClasspathKey(List<File> jarFiles) {
+		StringBuilder builder = new StringBuilder();
+		for (File jarFile : jarFiles) {
+			builder.append(jarFile.getPath());
+			builder.append('|');
+			builder.append(jarFile.length());
+			builder.append('|');
+			builder.append(jarFile.lastModified());
+			builder.append(File.pathSeparatorChar);
+		}
+		return builder.toString();
+	}
+
+	//---------------------- Diagnostics --------------------------
+
+	/**
+	 * @return the number of classloaders currently open
+	 */
+	public synchronized int getClassLoaderCount() {
+		return entriesByKey.size();
+	}
+
+	/**
+	 * @return the number of jar files held open by all the classloaders
+	 */
+	public synchronized int getOpenJarCount() {
+		int count = 0;
+		for (Entry entry : entriesByKey.values()) {
+			count += entry.classLoader.getOpenJarCount();
+		}
+		return count;
+	}
+
+	/**
+	 * @return the number of classes defined by all the open classloaders (they're kept in the perm gen/metaspace)
+	 */
+	public synchronized int getDefinedClassCount() {
+		int count = 0;
+		for (Entry entry : entriesByKey.values()) {
+			count += entry.classLoader.getDefinedClassCount();
+		}
+		return count;
+	}
+
+	/**
+	 * @return the bytecode size of the classes defined by all the open classloaders
+	 */
+	public synchronized long getDefinedClassBytes() {
+		long bytes = 0;
+		for (Entry entry : entriesByKey.values()) {
+			bytes += entry.classLoader.getDefinedClassBytes();
+		}
+		return bytes;
+	}
+
+	/**
+	 * For debugging...
+	 */
+	@Override
+	public synchronized String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("ClassLoaderPool [classLoaders=");
+		builder.append(getClassLoaderCount());
+		builder.append(", openJars=");
+		builder.append(getOpenJarCount());
+		builder.append(", definedClasses=");
+		builder.append(getDefinedClassCount());
+		builder.append(", definedClassBytes=");
+		builder.append(getDefinedClassBytes());
+		builder.append(", created=");
+		builder.append(createdCount);
+		builder.append(", closed=");
+		builder.append(closedCount);
+		builder.append("]");
+		return builder.toString();
+	}
+}
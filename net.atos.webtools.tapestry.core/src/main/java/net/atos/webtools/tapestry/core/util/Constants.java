@@ -104,6 +104,11 @@ public class Constants {
 	 */
 	public static final String TAPESTRY5_CORELIB_PACKAGE = "org.apache.tapestry5.corelib";
 	
+	/**
+	 * Root package of all the Tapestry 5 classes:
+	 */
+	public static final String TAPESTRY5_PACKAGE = "org.apache.tapestry5";
+	
 	/**
 	 * Default "prefix" for Tapestry features that comes from the core library:
 	 */
@@ -50,6 +50,44 @@ public class ErrorMessages {
 	public static final String CAN_T_LOAD_THE_PACKAGES = "Can't load the packages";
 	public static final String PROJECT_CAN_T_BE_PARSED_FOR_PACKAGES = "Project can't be parsed for packages";
 	public static final String CAN_T_LOAD_PARAMETERS_FOR_TYPE = "Can't load parameters for type";
+	public static final String CAN_T_UPDATE_PROJECT_MODEL = "Can't update the project model after a Java change";
+	public static final String FEATURE_SCAN_TASK_FAILED = "Scan of the classpath failed for some roots of project ";
 	public static final String CAN_T_LOOK_FOR_FEATURE_S_MESSAGES = "Can't look for feature's messages";
 	public static final String NOT_ABLE_TO_PERSIST_USER_PREFERENCES = "Not able to persist user preferences";
+	
+	/*
+	 * feature index
+	 */
+	public static final String CAN_T_READ_FEATURE_INDEX = "Can't read the feature index, all jars will be scanned again: ";
+	public static final String CAN_T_WRITE_FEATURE_INDEX = "Can't write the feature index: ";
+	public static final String CAN_T_COMPUTE_FINGERPRINT_FOR_JAR = "Can't compute fingerprint for jar: ";
+	public static final String CAN_T_READ_LIBRARY_MAPPING_CACHE = "Can't read the library mapping cache, AppModules will be called again: ";
+	public static final String CAN_T_WRITE_LIBRARY_MAPPING_CACHE = "Can't write the library mapping cache: ";
+	
+	/*
+	 * bytecode scanner
+	 */
+	public static final String CAN_T_SCAN_JAR = "Can't read the content of jar, it will be scanned with JDT: ";
+	public static final String CAN_T_READ_CLASS_FILE = "Can't read class file: ";
+	
+	/*
+	 * scan report
+	 */
+	public static final String CAN_T_WRITE_SCAN_REPORT = "Can't write the scan report: ";
+	
+	/*
+	 * memory footprint
+	 */
+	public static final String CAN_T_WRITE_MEMORY_FOOTPRINT = "Can't write the memory footprint of the Tapestry models: ";
+	
+	/*
+	 * warm-up
+	 */
+	public static final String CAN_T_READ_WARM_UP_PROJECTS = "Can't read the Tapestry projects to warm up: ";
+	public static final String CAN_T_WRITE_WARM_UP_PROJECTS = "Can't write the Tapestry projects to warm up: ";
+	
+	/*
+	 * message catalogs
+	 */
+	public static final String CAN_T_LIST_MESSAGE_CATALOG_VARIANTS = "Can't list the locale variants of message catalog: ";
 }
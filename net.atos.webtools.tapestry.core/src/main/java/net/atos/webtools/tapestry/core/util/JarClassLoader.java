@@ -40,6 +40,10 @@ public class JarClassLoader extends ClassLoader {
 	private List<JarCLInputStream> _openStreams = new LinkedList<JarCLInputStream>();
 	private boolean _open = true;
 	
+	// Classes defined by this classloader, and their size: they're kept in the perm gen/metaspace until it's collected
+	private int _definedClassCount;
+	private long _definedClassBytes;
+	
 	/**
 	 * creates a new classloader from jar and parent
 	 * 
@@ -98,7 +102,39 @@ public class JarClassLoader extends ClassLoader {
 	private InputStream openInputStream(InputStream in) {
 		JarCLInputStream result = new JarCLInputStream(in);
 		_openStreams.add(result);
-		return in;
+		return result;
+	}
+	
+	public synchronized boolean isOpen() {
+		return _open;
+	}
+	
+	/**
+	 * @return the number of jar files currently opened by this classloader (including the manifest classpath ones)
+	 */
+	public synchronized int getOpenJarCount() {
+		return _open ? _jars.size() : 0;
+	}
+	
+	/**
+	 * @return the number of resource streams not closed yet
+	 */
+	public synchronized int getOpenStreamCount() {
+		return _open ? _openStreams.size() : 0;
+	}
+	
+	/**
+	 * @return the number of classes defined by this classloader
+	 */
+	public synchronized int getDefinedClassCount() {
+		return _definedClassCount;
+	}
+	
+	/**
+	 * @return the total size of the bytecode of the classes defined by this classloader
+	 */
+	public synchronized long getDefinedClassBytes() {
+		return _definedClassBytes;
 	}
 	
 	private synchronized void closeInputStream(JarCLInputStream in) {
@@ -116,6 +152,8 @@ public class JarClassLoader extends ClassLoader {
 			throw new ClassNotFoundException(ErrorMessages.COULD_NOT_FIND_CLASS + name); //$NON-NLS-1$
 		}
 		Class<?> clazz = defineClass(name, b, 0, b.length);
+		_definedClassCount++;
+		_definedClassBytes += b.length;
 		// Define the package if necessary
 		String pkgName = getPackageName(name);
 		if (pkgName != null) {
@@ -27,6 +27,10 @@ public class Messages {
 	
 	//Model loading
 	public static final String JOB_DONE = "Job done";
+	public static final String JOB_CANCELLED = "Job cancelled";
+	public static final String SCAN_RESOLVING_LIBRARIES = "Resolving libraries";
+	public static final String SCAN_LOADING_FEATURES = "Loading features - ";
+	public static final String WARM_UP_JOB = "Loading Tapestry project models";
 	public static final String UNKNOWN_PUBLISHED_PARAMETER = "unknown published parameter";
 	public static final String UNKNOWN = "UNKNOWN";
 	public static final String NO_JAVADOC = "No javadoc";
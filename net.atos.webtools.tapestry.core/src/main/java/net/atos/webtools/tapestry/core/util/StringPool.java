@@ -0,0 +1,45 @@
+package net.atos.webtools.tapestry.core.util;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Canonical instances of the strings repeated in the feature models: prefixes, names, sub-packages and sources of the
+ * features, names, default values, binding prefixes and javadoc of their parameters.
+ *
+ * <p>The same libraries are used by most projects, and the same parameter names (<code>value</code>, <code>id</code>...)
+ * and binding prefixes (<code>prop:</code>, <code>literal:</code>) appear in most components: each distinct value is
+ * kept once, whatever the number of projects and features using it.
+ *
+ * <p>Unlike {@link String#intern()}, the pooled strings are weakly referenced: they're collected when no model uses
+ * them anymore. A pooled string is a copy trimmed to its own chars, so it never retains a larger string it was
+ * cut from (e.g. a javadoc extracted from a source file).
+ *
+ * <p>This class is thread safe.
+ */
+public final class StringPool {
+	private static final Map<String, WeakReference<String>> POOL = new WeakHashMap<String, WeakReference<String>>();
+
+	private StringPool() {
+	}
+
+	/**
+	 * @param string
+	 * @return the pooled string equal to it, or null for null
+	 */
+	public static String canonical(String string) {
+		if(string == null){
+			return null;
+		}
+		synchronized (POOL) {
+			WeakReference<String> reference = POOL.get(string);
+			String canonical = reference == null ? null : reference.get();
+			if(canonical == null){
+				canonical = new String(string);
+				POOL.put(canonical, new WeakReference<String>(canonical));
+			}
+			return canonical;
+		}
+	}
+}
@@ -438,7 +438,13 @@ public class JavaModelHelper {
 			}
 		}
 		catch (JavaModelException e) {
-			TapestryCore.logError(ErrorMessages.CAN_T_READ_JAVADOC_FOR + member, e);
+			//the handles of the library features are not checked during the scan: the class may be unknown to JDT
+			if(e.isDoesNotExist()){
+				classJavadoc.append(Messages.NO_JAVADOC);
+			}
+			else{
+				TapestryCore.logError(ErrorMessages.CAN_T_READ_JAVADOC_FOR + member, e);
+			}
 		}
 		
 		return classJavadoc.toString();
@@ -8,6 +8,8 @@ import java.util.regex.Pattern;
 
 import net.atos.webtools.tapestry.core.util.Constants;
 
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
 import org.w3c.dom.Node;
 
 /**
@@ -20,6 +22,11 @@ public class TmlHelper {
 	private static Pattern tagName = Pattern.compile("</?t:([\\w\\.]*).*>", Pattern.DOTALL); 
 	private static Pattern typeAttributeName = Pattern.compile("<.*?t:type=\"([\\w\\.]*)\".*>", Pattern.DOTALL);
 	
+	/**
+	 * What follows the namespace in the <code>t:type="..."</code> attribute
+	 */
+	private static final String TYPE_ATTRIBUTE_END = ":" + Constants.TYPE + "=\"";
+	
 	/**
 	 * Computes the Tapestry type in an XML node, managing both notations (<t:type or <div t:typ="type")
 	 * 
@@ -61,6 +68,76 @@ public class TmlHelper {
 		return null;
 	}
 	
+	/**
+	 * Same as {@link #getComponentFullName(String)}, on a region of a document, without extracting anything: 
+	 * a plain HTML tag (no Tapestry namespace on the element, no <code>t:type</code> attribute) is rejected
+	 * without creating any object, so it can be done at each mouse move.
+	 * 
+	 * @param text the document
+	 * @param tagOffset offset of the '&lt;' of the tag
+	 * @param tagEnd offset after the end of the tag
+	 * @param t the tapestry namespace
+	 * @return the region of the component name (i.e. <code>jquery.DatePicker</code> in 
+	 * <code>&lt;t:jquery.DatePicker ...&gt;</code>), or null if the tag is not a component
+	 */
+	public static IRegion getComponentNameRegion(CharSequence text, int tagOffset, int tagEnd, String t){
+		int index = tagOffset;
+		if(t == null || index >= tagEnd || text.charAt(index) != '<'){
+			return null;
+		}
+		index++;
+		if(index < tagEnd && text.charAt(index) == '/'){
+			index++;
+		}
+		
+		//Case-1: the <t:componentName ...
+		if(regionStartsWith(text, index, tagEnd, t) && regionStartsWith(text, index + t.length(), tagEnd, ":")){
+			return getNameRegion(text, index + t.length() + 1, tagEnd);
+		}
+		
+		//Case-2: <div t:type="prefix/componentName" ...
+		for(int i = index; i < tagEnd; i++){
+			if(Character.isWhitespace(text.charAt(i)) && regionStartsWith(text, i + 1, tagEnd, t)
+					&& regionStartsWith(text, i + 1 + t.length(), tagEnd, TYPE_ATTRIBUTE_END)){
+				return getNameRegion(text, i + 1 + t.length() + TYPE_ATTRIBUTE_END.length(), tagEnd);
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * @return the region of the name (letters, digits, '_', '.' and '/') starting at offset, or null if it's empty
+	 */
+	private static IRegion getNameRegion(CharSequence text, int offset, int end){
+		int nameEnd = offset;
+		while(nameEnd < end){
+			char c = text.charAt(nameEnd);
+			if(! (Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '/')){
+				break;
+			}
+			nameEnd++;
+		}
+		if(nameEnd == offset){
+			return null;
+		}
+		return new Region(offset, nameEnd - offset);
+	}
+	
+	/**
+	 * @return true if the text at offset (and before end) starts with prefix, case-sensitive
+	 */
+	private static boolean regionStartsWith(CharSequence text, int offset, int end, String prefix){
+		if(offset + prefix.length() > end){
+			return false;
+		}
+		for(int i = 0; i < prefix.length(); i++){
+			if(text.charAt(offset + i) != prefix.charAt(i)){
+				return false;
+			}
+		}
+		return true;
+	}
+	
 	/**
 	 * get the value of attribute "t:mixins" and split it on ',' char (removing spaces)
 	 * 
@@ -25,9 +25,14 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.IClassFile;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.internal.ui.javaeditor.CompilationUnitEditor;
 import org.eclipse.jdt.internal.ui.javaeditor.IClassFileEditorInput;
 import org.eclipse.jdt.internal.ui.javaeditor.InternalClassFileEditorInput;
+import org.eclipse.jdt.internal.ui.text.java.IJavaReconcilingListener;
+import org.eclipse.jdt.ui.JavaUI;
+import org.eclipse.jdt.ui.SharedASTProvider;
 import org.eclipse.jface.action.IMenuListener;
 import org.eclipse.jface.dialogs.IPageChangedListener;
 import org.eclipse.jface.dialogs.PageChangedEvent;
@@ -78,11 +83,14 @@ import org.eclipse.ui.views.contentoutline.IContentOutlinePage;
  * and implementing {@link IPageChangedListener}
  * Details of the outline implementations are in {@link MultiPageOutlinePage}
  * 
+ * The {@link EditedFeatureModel} follows the unsaved changes of the Java page: it's updated with the AST 
+ * of each reconcile of the Java editor (see {@link IJavaReconcilingListener})
+ * 
  */
 @SuppressWarnings("restriction")
 public class TapestryMultiPageEditor extends MultiPageEditorPart 
 		implements IResourceChangeListener,	IPageChangedListener, IGotoMarker, IElementStateListener, 
-		ITextEditorExtension, ITextEditorExtension2,  ITextEditorExtension3, ITextEditorExtension4, ITextEditorExtension5 {
+		IJavaReconcilingListener, ITextEditorExtension, ITextEditorExtension2,  ITextEditorExtension3, ITextEditorExtension4, ITextEditorExtension5 {
 	private final static String TML_EDITOR_ID = "theTmlEditor";
 	private final static String JAVA_EDITOR_ID = "theJavaEditor";
 	
@@ -279,6 +287,7 @@ public class TapestryMultiPageEditor extends MultiPageEditorPart
 	
 			try {
 				addPage(JAVA.getRank(), javaEditor, javaEditorInput);
+				((JavaEditor) javaEditor).addReconcileListener(this);
 			} 
 			catch (PartInitException e) {
 				TapestryUI.logError(UIErrorMessages.ERROR_CREATING_NESTED_JAVA_EDITOR, e);
@@ -312,6 +321,9 @@ public class TapestryMultiPageEditor extends MultiPageEditorPart
 	public void dispose() {
 		//Don't call super.dispose() because it permanently removes the tapestry image used in the "open-with" sub-menu...
 		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+		if(javaEditor instanceof JavaEditor){
+			((JavaEditor) javaEditor).removeReconcileListener(this);
+		}
 		tapestryFeatureModel = null;
 		super.dispose();
 	}
@@ -460,14 +472,58 @@ public class TapestryMultiPageEditor extends MultiPageEditorPart
 			}
 		}
 		else if(event.getType() == IResourceChangeEvent.POST_BUILD){
+			EditedFeatureModel featureModel = null;
 			if(storage != null){
-				tapestryFeatureModel = new EditedFeatureModel(storage, true);
+				featureModel = new EditedFeatureModel(storage, true);
 			}
 			else if(openedClassFile != null){
-				tapestryFeatureModel = new EditedFeatureModel(openedClassFile, true);
+				featureModel = new EditedFeatureModel(openedClassFile, true);
+			}
+			if(featureModel != null){
+				keepUnsavedJavaFields(featureModel);
+				tapestryFeatureModel = featureModel;
 			}
 		}
 	}
+	
+	/**
+	 * The new model is read from disk: if the Java page has unsaved changes, its properties are taken from the 
+	 * AST already reconciled by the Java editor (never waits for it, nor parses it)
+	 * 
+	 * @param featureModel
+	 */
+	private void keepUnsavedJavaFields(EditedFeatureModel featureModel) {
+		if(javaEditor instanceof JavaEditor && javaEditor.isDirty() && featureModel.getJavaFile() != null){
+			ITypeRoot typeRoot = JavaUI.getEditorInputTypeRoot(javaEditor.getEditorInput());
+			if(typeRoot != null){
+				CompilationUnit ast = SharedASTProvider.getAST(typeRoot, SharedASTProvider.WAIT_NO, null);
+				if(ast != null){
+					featureModel.updateJavaFields(ast);
+				}
+			}
+		}
+	}
+	
+	//------------- IJavaReconcilingListener -----------------------------
+	
+	/*
+	 * (non-Javadoc)
+	 * @see org.eclipse.jdt.internal.ui.text.java.IJavaReconcilingListener#aboutToBeReconciled()
+	 */
+	public void aboutToBeReconciled() {
+	}
+	
+	/**
+	 * The Java page has been reconciled (in the reconciler thread): the properties of the model are updated 
+	 * from its AST, so that the tml completion & hovers see the unsaved changes
+	 */
+	public void reconciled(CompilationUnit ast, boolean forced, IProgressMonitor progressMonitor) {
+		EditedFeatureModel featureModel = tapestryFeatureModel;
+		if(ast != null && featureModel != null && featureModel.getJavaFile() != null
+				&& (progressMonitor == null || ! progressMonitor.isCanceled())){
+			featureModel.updateJavaFields(ast);
+		}
+	}
 
 	//------------- IElementStateListener -----------------------------
 	
@@ -0,0 +1,189 @@
+package net.atos.webtools.tapestry.ui.editors.proposal;
+
+/**
+ * Matches the text typed by the user against the names proposed by the content assist, and scores them.
+ * A name matches (best score first):
+ * <ul>
+ * 	<li>if it starts with the typed text, ignoring case: <code>actionl</code> &rarr; <code>ActionLink</code>
+ * 	<li>by camel-case humps, each upper case letter or char after a separator (<code>/ . : _ -</code>) starting a new
+ * 		hump: <code>AL</code> &rarr; <code>ActionLink</code>, <code>jq/DP</code> &rarr; <code>jquery/DatePicker</code>
+ * 	<li>if it contains all the typed chars, in the same order, ignoring case: <code>alk</code> &rarr; <code>ActionLink</code>
+ * </ul>
+ *
+ * <p>The score is in <code>[0, {@link #SCORE_RANGE})</code>: it's added to the relevance of the category of the
+ * proposal (e.g. 10 for the properties, 100 for the components), so that the categories are not mixed.
+ *
+ * <p>The typed text is prepared once, in the constructor: matching a name doesn't allocate anything, so the matcher
+ * can be used on all the candidates at each keystroke. The names that are matched often (the features) give their
+ * lower case key, computed once, instead of lower-casing their chars at each match.
+ */
+public class NameMatcher {
+	/**
+	 * Returned by {@link #match(String)} when the name doesn't match
+	 */
+	public static final int NO_MATCH = -1;
+
+	/**
+	 * Scores are lower than this: the gap between the relevance of 2 categories of proposals must be at least as large
+	 */
+	public static final int SCORE_RANGE = 90;
+
+	private static final int PREFIX = 60;
+	private static final int CAMEL_CASE = 30;
+	private static final int SUBSEQUENCE = 0;
+
+	/**
+	 * Maximum penalty for the chars of the name that are not typed, within one kind of match
+	 */
+	private static final int MAX_PENALTY = 29;
+
+	private final String pattern;
+	private final String lowerPattern;
+
+	/**
+	 * true if the char of the pattern must match the beginning of a hump of the name
+	 */
+	private final boolean[] humpStarts;
+
+	/**
+	 * @param pattern the text typed by the user (null or empty matches everything)
+	 */
+	public NameMatcher(String pattern) {
+		this.pattern = pattern == null ? "" : pattern;
+		int length = this.pattern.length();
+		char[] lowerChars = new char[length];
+		humpStarts = new boolean[length];
+		for (int i = 0; i < length; i++) {
+			char c = this.pattern.charAt(i);
+			lowerChars[i] = Character.toLowerCase(c);
+			humpStarts[i] = i == 0 || Character.isUpperCase(c) || isSeparator(c) || isSeparator(this.pattern.charAt(i - 1));
+		}
+		lowerPattern = new String(lowerChars);
+	}
+
+	/**
+	 * @param name
+	 * @return true if the name matches the typed text
+	 */
+	public boolean matches(String name) {
+		return match(name) != NO_MATCH;
+	}
+
+	/**
+	 * @param name
+	 * @return true if the name starts with the typed text, ignoring case (the best kind of match)
+	 */
+	public boolean isPrefixOf(String name) {
+		return name != null && name.regionMatches(true, 0, pattern, 0, pattern.length());
+	}
+
+	/**
+	 * @param name
+	 * @return the score of the name, in <code>[0, {@link #SCORE_RANGE})</code> (higher is better), or {@link #NO_MATCH}
+	 */
+	public int match(String name) {
+		return match(name, null);
+	}
+
+	/**
+	 * Same as {@link #match(String)}, with the lower case key of the name computed beforehand
+	 *
+	 * @param name
+	 * @param lowerName the name in lower case, or null
+	 * @return the score of the name, in <code>[0, {@link #SCORE_RANGE})</code> (higher is better), or {@link #NO_MATCH}
+	 */
+	public int match(String name, String lowerName) {
+		if(name == null){
+			return NO_MATCH;
+		}
+		if(lowerName != null && lowerName.length() != name.length()){
+			lowerName = null;
+		}
+		if(lowerName != null ? lowerName.startsWith(lowerPattern) : isPrefixOf(name)){
+			return PREFIX + penalty(name.length() - pattern.length());
+		}
+		int skipped = matchCamelCase(name, lowerName);
+		if(skipped >= 0){
+			return CAMEL_CASE + penalty(skipped);
+		}
+		skipped = matchSubsequence(name, lowerName);
+		if(skipped >= 0){
+			return SUBSEQUENCE + penalty(skipped);
+		}
+		return NO_MATCH;
+	}
+
+	private static int penalty(int skipped) {
+		return MAX_PENALTY - Math.min(skipped, MAX_PENALTY);
+	}
+
+	/**
+	 * Each hump char of the pattern is matched with the next hump of the name that starts with it,
+	 * the other chars must follow directly.
+	 *
+	 * @return the number of chars of the name skipped between the humps, or -1 if it doesn't match
+	 */
+	private int matchCamelCase(String name, String lowerName) {
+		int length = name.length();
+		int index = 0;
+		int skipped = 0;
+		for (int i = 0; i < lowerPattern.length(); i++) {
+			char c = lowerPattern.charAt(i);
+			if(humpStarts[i]){
+				int humpIndex = index;
+				while(humpIndex < length && ! (isHumpStart(name, humpIndex) && lowerCharAt(name, lowerName, humpIndex) == c)){
+					humpIndex++;
+				}
+				if(humpIndex == length){
+					return -1;
+				}
+				skipped += humpIndex - index;
+				index = humpIndex + 1;
+			}
+			else{
+				if(index >= length || lowerCharAt(name, lowerName, index) != c){
+					return -1;
+				}
+				index++;
+			}
+		}
+		return skipped;
+	}
+
+	/**
+	 * @return the number of chars of the name between the first and last matched chars that are not typed,
+	 * or -1 if it doesn't match
+	 */
+	private int matchSubsequence(String name, String lowerName) {
+		int length = name.length();
+		int index = 0;
+		int first = -1;
+		for (int i = 0; i < lowerPattern.length(); i++) {
+			char c = lowerPattern.charAt(i);
+			while(index < length && lowerCharAt(name, lowerName, index) != c){
+				index++;
+			}
+			if(index == length){
+				return -1;
+			}
+			if(first < 0){
+				first = index;
+			}
+			index++;
+		}
+		return index - first - lowerPattern.length();
+	}
+
+	private static char lowerCharAt(String name, String lowerName, int index) {
+		return lowerName != null ? lowerName.charAt(index) : Character.toLowerCase(name.charAt(index));
+	}
+
+	private static boolean isHumpStart(String name, int index) {
+		char c = name.charAt(index);
+		return index == 0 || Character.isUpperCase(c) || isSeparator(c) || isSeparator(name.charAt(index - 1));
+	}
+
+	private static boolean isSeparator(char c) {
+		return c == '/' || c == '.' || c == ':' || c == '_' || c == '-';
+	}
+}
@@ -0,0 +1,94 @@
+package net.atos.webtools.tapestry.ui.editors.proposal;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.wst.sse.ui.internal.contentassist.CustomCompletionProposal;
+
+/**
+ * Proposal filtered by a {@link NameMatcher} while the user keeps typing: {@link CustomCompletionProposal} only keeps
+ * the proposals whose display string starts with the typed text, so the camel-case and subsequence matches would
+ * disappear at the next keystroke.
+ *
+ * <p>The replacement length follows the typed text, like a {@link CustomCompletionProposal} created with
+ * <code>updateReplacementLengthOnValidate</code>.
+ */
+@SuppressWarnings("restriction")
+public class NameMatchingProposal extends CustomCompletionProposal {
+	private final String name;
+	private final int ignoredLength;
+
+	/**
+	 * @param replacementString
+	 * @param replacementOffset
+	 * @param replacementLength
+	 * @param cursorPosition
+	 * @param image
+	 * @param displayString
+	 * @param additionalProposalInfo
+	 * @param relevance
+	 * @param name the name matched against the typed text (e.g. the full name of a feature)
+	 * @param ignoredLength number of chars typed after the replacement offset that are not part of the name
+	 * 		(<code>t:</code> namespace, <code>${</code>)
+	 */
+	public NameMatchingProposal(String replacementString, int replacementOffset, int replacementLength, int cursorPosition,
+			Image image, String displayString, String additionalProposalInfo, int relevance, String name, int ignoredLength) {
+		super(replacementString, replacementOffset, replacementLength, cursorPosition, image, displayString, null, 
+				additionalProposalInfo, relevance, true);
+		this.name = name;
+		this.ignoredLength = ignoredLength;
+	}
+
+	/**
+	 * Same as {@link #NameMatchingProposal(String, int, int, int, Image, String, String, int, String, int)}, when all
+	 * the typed text is matched
+	 */
+	public NameMatchingProposal(String replacementString, int replacementOffset, int replacementLength, int cursorPosition,
+			Image image, String displayString, String additionalProposalInfo, int relevance, String name) {
+		this(replacementString, replacementOffset, replacementLength, cursorPosition, image, displayString, 
+				additionalProposalInfo, relevance, name, 0);
+	}
+
+	@Override
+	public boolean validate(IDocument document, int offset, DocumentEvent event) {
+		if(event != null){
+			int insertedLength = event.getText() == null ? 0 : event.getText().length();
+			setReplacementLength(getReplacementLength() + insertedLength - event.getLength());
+		}
+		String typed = getTyped(document, offset);
+		return typed != null && new NameMatcher(getPattern(typed)).matches(name);
+	}
+
+	/**
+	 * Only a prefix match completes the common prefix of the proposals: the typed text of a camel-case or subsequence
+	 * match (<code>AL</code> for <code>ActionLink</code>) is kept as is
+	 */
+	@Override
+	public CharSequence getPrefixCompletionText(IDocument document, int completionOffset) {
+		String typed = getTyped(document, completionOffset);
+		if(typed != null && ! new NameMatcher(getPattern(typed)).isPrefixOf(name)){
+			return typed;
+		}
+		return super.getPrefixCompletionText(document, completionOffset);
+	}
+
+	/**
+	 * @return the text between the replacement offset and offset, or null if offset is before the name
+	 */
+	private String getTyped(IDocument document, int offset) {
+		if(offset < getReplacementOffset() + ignoredLength){
+			return null;
+		}
+		try {
+			return document.get(getReplacementOffset(), offset - getReplacementOffset());
+		}
+		catch (BadLocationException e) {
+			return null;
+		}
+	}
+
+	private String getPattern(String typed) {
+		return typed.substring(ignoredLength);
+	}
+}
@@ -10,6 +10,7 @@ import net.atos.webtools.tapestry.core.util.helpers.TmlHelper;
 import net.atos.webtools.tapestry.ui.TapestryUI;
 import net.atos.webtools.tapestry.ui.editors.multi.TapestryMultiPageEditor;
 import net.atos.webtools.tapestry.ui.util.UIConstants;
+import net.atos.webtools.tapestry.ui.util.UIMessages;
 
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 import org.eclipse.swt.graphics.Image;
@@ -114,6 +115,44 @@ public abstract class AbstractTapestryCompletionProposalComputer extends Abstrac
 		return replacementLength;
 	}
 	
+	/**
+	 * Waits for the scan of the components, mixins & pages if it's not finished (within the configured budget)
+	 * 
+	 * @return false if the project model is still partial: {@link #addIndexingProposal(List, CompletionProposalInvocationContext)}
+	 * should then be called
+	 */
+	protected boolean awaitFeatures() {
+		return tapestryFeatureModel.getProjectModel().awaitFeatureScan();
+	}
+	
+	/**
+	 * Waits for the scan of the assets if it's not finished (within the configured budget)
+	 * 
+	 * @return false if the project model is still partial
+	 */
+	protected boolean awaitAssets() {
+		return tapestryFeatureModel.getProjectModel().awaitAssetScan();
+	}
+	
+	/**
+	 * Adds a proposal that inserts nothing, to tell that the other proposals are not complete yet
+	 * 
+	 * @param proposals list to enrich
+	 * @param context
+	 */
+	protected void addIndexingProposal(List<ICompletionProposal> proposals, CompletionProposalInvocationContext context) {
+		proposals.add(new CustomCompletionProposal("", 				//replacementString 
+				context.getInvocationOffset(), 						//replacementOffset
+				0,													//replacementLength
+				0,													//cursorPosition
+				image, 												//image
+				UIMessages.PROJECT_MODEL_INDEXING,					//displayString
+				null, 												//contextInformation
+				UIMessages.PROJECT_MODEL_INDEXING_INFO,				//additionalProposalInfo 
+				0,													//relevance: after the real proposals
+				false));											//updateReplacementLengthOnValidate
+	}
+	
 	//***************************************************************************************
 	//
 	//							 Methods that can be implemented:
@@ -17,6 +17,8 @@ import net.atos.webtools.tapestry.core.util.Constants;
 import net.atos.webtools.tapestry.core.util.helpers.JavaModelHelper;
 import net.atos.webtools.tapestry.core.util.helpers.TmlHelper;
 import net.atos.webtools.tapestry.ui.TapestryUI;
+import net.atos.webtools.tapestry.ui.editors.proposal.NameMatcher;
+import net.atos.webtools.tapestry.ui.editors.proposal.NameMatchingProposal;
 import net.atos.webtools.tapestry.ui.util.UIErrorMessages;
 
 import org.eclipse.jdt.core.IType;
@@ -89,48 +91,48 @@ public class PropertyExpressionsCompletionProposalComputer extends AbstractTapes
 					}
 					
 					//add properties:
+					String lastTypedField = peCallsList.get(peCallsList.size() - 1).trim();
+					NameMatcher matcher = new NameMatcher(lastTypedField);
 					for(JavaElement property: JavaModelHelper.getPublicJavaBeanProperties(parsedType)){
-						String lastTypedField = peCallsList.get(peCallsList.size() - 1).trim();
-						if(property.getName().toLowerCase().startsWith(lastTypedField.toLowerCase())){
+						int score = matcher.match(property.getName());
+						if(score != NameMatcher.NO_MATCH){
 							int replacementLength = getAttributeReplacementLength(wholeDocument, context.getInvocationOffset()) + lastTypedField.length();
 							int offset = context.getInvocationOffset() - lastTypedField.length();
 							String toBeInserted = property.getName();
 							int cursorPosition = toBeInserted.length();
 							
 							proposals.add(
-									new CustomCompletionProposal(toBeInserted, 			//replacementString 
+									new NameMatchingProposal(toBeInserted, 				//replacementString 
 																offset, 				//replacementOffset
 																replacementLength,		//replacementLength
 																cursorPosition,			//cursorPosition
 																imagePE, 				//image
 																property.getName(), 	//displayString
-																null, 					//contextInformation
 																property.getJavadoc(),	//additionalProposalInfo 
-																10,						//relevance
-																true));					//updateReplacementLengthOnValidate
+																10 + score,			//relevance
+																property.getName()));	//name
 						}
 					}
 					
 					//add methods:
-					String lastTypedField = peCallsList.get(peCallsList.size() - 1).trim();
 					for(JavaElement property: JavaModelHelper.getPublicMethodsNoGetterNoVoid(parsedType)){
-						if(property.getName().toLowerCase().startsWith(lastTypedField.toLowerCase())){
+						int score = matcher.match(property.getName());
+						if(score != NameMatcher.NO_MATCH){
 							int offset = context.getInvocationOffset() - lastTypedField.length();
 							int replacementLength = getAttributeReplacementLength(wholeDocument, context.getInvocationOffset()) + lastTypedField.length();
 							String toBeInserted = property.getName();
 							int cursorPosition = toBeInserted.length();
 							
 							proposals.add(
-									new CustomCompletionProposal(toBeInserted, 			//replacementString 
+									new NameMatchingProposal(toBeInserted, 				//replacementString 
 																offset, 				//replacementOffset
 																replacementLength,		//replacementLength
 																cursorPosition,			//cursorPosition
 																imagePE, 				//image
 																property.getLabel(),	//displayString
-																null, 					//contextInformation
 																property.getJavadoc(),	//additionalProposalInfo 
-																10,						//relevance
-																true));					//updateReplacementLengthOnValidate
+																10 + score,			//relevance
+																property.getName()));	//name
 						}
 					}
 				}
@@ -141,28 +143,28 @@ public class PropertyExpressionsCompletionProposalComputer extends AbstractTapes
 			
 			
 			//------------------ PART-3 messages (no sub properties) -----------------------------------
-			
-			List<JavaElement> peProposals= new ArrayList<JavaElement>();
-			peProposals.addAll(tapestryFeatureModel.getMessages());
-			
-			for(JavaElement peProposal: peProposals){
-				if(peProposal.getName() != null && peProposal.getName().toLowerCase().startsWith(alreadyTyped.toLowerCase().replace("${", ""))){
+			//all the keys are matched: the typed text may be their initials, or a subsequence of them
+			String typedMessage = alreadyTyped.replace("${", "");
+			NameMatcher messageMatcher = new NameMatcher(typedMessage);
+			for(JavaElement peProposal: tapestryFeatureModel.findMessages("")){
+				int score = messageMatcher.match(peProposal.getName());
+				if(score != NameMatcher.NO_MATCH){
 					int offset = context.getInvocationOffset() - alreadyTyped.length();
 					int replacementLength = getAttributeReplacementLength(wholeDocument, context.getInvocationOffset()) + alreadyTyped.length();
 					String toBeInserted = "${" + peProposal.getName();
 					int cursorPosition = toBeInserted.length();
 					
 					proposals.add(
-							new CustomCompletionProposal(toBeInserted, 					//replacementString 
+							new NameMatchingProposal(toBeInserted, 						//replacementString 
 														offset, 	//replacementOffset
 														replacementLength,								//replacementLength
 														cursorPosition,			//cursorPosition
 														imagePE, 						//image
 														peProposal.getName(), 			//displayString
-														null, 							//contextInformation
 														peProposal.getJavadoc(),		//additionalProposalInfo 
-														100,							//relevance
-														true));							//updateReplacementLengthOnValidate
+														100 + score,					//relevance
+														peProposal.getName(),			//name
+														alreadyTyped.length() - typedMessage.length()));	//ignoredLength: ${
 				}
 			}
 		}
@@ -255,25 +257,26 @@ public class PropertyExpressionsCompletionProposalComputer extends AbstractTapes
 					}
 					
 					//add methods:
+					String lastTypedField = peCallsList.get(peCallsList.size() - 1).trim();
+					NameMatcher matcher = new NameMatcher(lastTypedField);
 					for(JavaElement property: JavaModelHelper.getPublicMethodsNoGetterNoVoid(parsedType)){
-						String lastTypedField = peCallsList.get(peCallsList.size() - 1).trim();
-						if(property.getName().toLowerCase().startsWith(lastTypedField.toLowerCase())){
+						int score = matcher.match(property.getName());
+						if(score != NameMatcher.NO_MATCH){
 							int offset = context.getInvocationOffset() - lastTypedField.length();
 							int replacementLength = getAttributeReplacementLength(wholeDocument, context.getInvocationOffset()) + lastTypedField.length();
 
 							String toBeInserted = property.getName();
 							
 							proposals.add(
-									new CustomCompletionProposal(toBeInserted, 					//replacementString 
+									new NameMatchingProposal(toBeInserted, 						//replacementString 
 																offset, 	//replacementOffset
 																replacementLength,								//replacementLength
 																toBeInserted.length(),			//cursorPosition
 																imagePE, 						//image
 																property.getLabel(), 			//displayString
-																null, 							//contextInformation
 																property.getJavadoc(),			//additionalProposalInfo 
-																10,								//relevance
-																true));							//updateReplacementLengthOnValidate
+																10 + score,					//relevance
+																property.getName()));			//name
 						}
 					}
 				}
@@ -283,13 +286,12 @@ public class PropertyExpressionsCompletionProposalComputer extends AbstractTapes
 			}
 			
 			//------------------ PART-2 messages (no sub properties) -----------------------------------
-			List<JavaElement> propertiesList= new ArrayList<JavaElement>();
-			
-			for (JavaElement message : tapestryFeatureModel.getMessages()) {
-				propertiesList.add(message);
-			}
-			
-			for(JavaElement peProposal: propertiesList){
+			//all the keys are matched: the typed text may be their initials, or a subsequence of them
+			NameMatcher messageMatcher = new NameMatcher(alreadyTyped);
+			int messageOffset = request.getStartOffset() + 1;
+			//the text of the attribute before the typed one (e.g. previous mixins) is not matched:
+			int ignoredLength = Math.max(0, context.getInvocationOffset() - alreadyTyped.length() - messageOffset);
+			for(JavaElement peProposal: tapestryFeatureModel.findMessages("")){
 				String toBeInserted;
 				//For tapestry parameters:
 				if(peProposal.getName().startsWith(MESSAGE_BINDING)){
@@ -306,18 +308,19 @@ public class PropertyExpressionsCompletionProposalComputer extends AbstractTapes
 				
 				int replacementLength = getAttributeReplacementLength(wholeDocument, context.getInvocationOffset()) + alreadyTyped.length();
 
-				if(peProposal.getName().toLowerCase().startsWith(alreadyTyped.toLowerCase())){
+				int score = messageMatcher.match(peProposal.getName());
+				if(score != NameMatcher.NO_MATCH){
 					proposals.add(
-							new CustomCompletionProposal(toBeInserted, 					//replacementString 
-														request.getStartOffset() + 1, 	//replacementOffset
+							new NameMatchingProposal(toBeInserted, 						//replacementString 
+														messageOffset, 					//replacementOffset
 														replacementLength,				//replacementLength
 														toBeInserted.length(),			//cursorPosition
 														imagePE, 						//image
 														peProposal.getName(), 			//displayString
-														null, 							//contextInformation
 														peProposal.getJavadoc(),		//additionalProposalInfo 
-														100,							//relevance
-														true));							//updateReplacementLengthOnValidate
+														100 + score,					//relevance
+														peProposal.getName(),			//name
+														ignoredLength));				//ignoredLength
 				}
 			}
 		}
@@ -6,9 +6,13 @@ import static net.atos.webtools.tapestry.core.util.Constants.TYPE;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
-import net.atos.webtools.tapestry.core.models.assets.AssetModel;
+import net.atos.webtools.tapestry.core.models.FeatureNameIndex;
+import net.atos.webtools.tapestry.core.models.ProjectModel;
+import net.atos.webtools.tapestry.core.models.assets.AssetType;
 import net.atos.webtools.tapestry.core.models.features.AbstractFeatureModel;
 import net.atos.webtools.tapestry.core.models.features.AbstractParameteredFeatureModel;
 import net.atos.webtools.tapestry.core.models.features.ComponentModel;
@@ -19,13 +23,14 @@ import net.atos.webtools.tapestry.core.models.features.ValidatorModel;
 import net.atos.webtools.tapestry.core.util.Components;
 import net.atos.webtools.tapestry.core.util.Constants;
 import net.atos.webtools.tapestry.core.util.helpers.TmlHelper;
+import net.atos.webtools.tapestry.ui.editors.proposal.NameMatcher;
+import net.atos.webtools.tapestry.ui.editors.proposal.NameMatchingProposal;
 import net.atos.webtools.tapestry.ui.editors.proposal.ProposalHelper;
 import net.atos.webtools.tapestry.ui.editors.proposal.ProposalModel;
 import net.atos.webtools.tapestry.ui.util.UIMessages;
 
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 import org.eclipse.wst.sse.ui.contentassist.CompletionProposalInvocationContext;
-import org.eclipse.wst.sse.ui.internal.contentassist.CustomCompletionProposal;
 import org.eclipse.wst.xml.ui.internal.contentassist.ContentAssistRequest;
 import org.w3c.dom.Node;
 
@@ -42,6 +47,11 @@ import org.w3c.dom.Node;
  */
 @SuppressWarnings("restriction")
 public class TagsCompletionProposalComputer extends AbstractTapestryCompletionProposalComputer {
+	/**
+	 * When fewer features start with the typed text or with its initials, all the features are matched: the typed text 
+	 * may skip some humps of a name, or be a subsequence of it (see {@link NameMatcher})
+	 */
+	private static final int MIN_PREFIX_MATCHES = 10;
 	
 	/**
 	 * Removes the namespace from a component name.
@@ -65,6 +75,7 @@ public class TagsCompletionProposalComputer extends AbstractTapestryCompletionPr
 		List<ICompletionProposal> proposals = new ArrayList<ICompletionProposal>();
 		
 		if(tapestryFeatureModel != null){
+			boolean complete = awaitFeatures();
 			
 			String wholeDocument = context.getDocument().get();
 			String alreadyTyped = getTypedBefore(wholeDocument, context.getInvocationOffset());
@@ -72,7 +83,16 @@ public class TagsCompletionProposalComputer extends AbstractTapestryCompletionPr
 			int offset = context.getInvocationOffset() - alreadyTyped.length();
 			
 			
-			for(ComponentModel componentModel : tapestryFeatureModel.getProjectModel().getComponents()){
+			// Do not take into account the t: while comparing the component name and the string already typed.
+			String typedName = removeNamespace(alreadyTyped);
+			int namespaceLength = alreadyTyped.length() - typedName.length();
+			NameMatcher matcher = new NameMatcher(typedName);
+			ProjectModel projectModel = tapestryFeatureModel.getProjectModel();
+			for(ComponentModel componentModel : getCandidates(projectModel.getComponentNameIndex(), projectModel.getComponents(), typedName, true)){
+				int score = matcher.match(componentModel.getQualifiedName(), componentModel.getQualifiedNameKey());
+				if(score == NameMatcher.NO_MATCH){
+					continue;
+				}
 				String compName = componentModel.getQualifiedName(t);
 				StringBuilder toBeInsertedSB = new StringBuilder(35); 
 				
@@ -80,7 +100,6 @@ public class TagsCompletionProposalComputer extends AbstractTapestryCompletionPr
 					toBeInsertedSB.append('<');
 				}
 				
-				// Do not take into account the t: while comparing the component name and the string already typed.
 				String nameToBeCompared = removeNamespace(compName);
 				
 				// Invisible instrumentation
@@ -105,19 +124,21 @@ public class TagsCompletionProposalComputer extends AbstractTapestryCompletionPr
 				int requiredParamIndex = toBeInserted.indexOf("\"\"");
 				int cursorPosition = requiredParamIndex > 0 ? requiredParamIndex + 1 :toBeInserted.indexOf(">");
 				
-				if(nameToBeCompared.toLowerCase().startsWith(alreadyTyped.toLowerCase())) {
-					proposals.add(
-							new CustomCompletionProposal(toBeInserted,					//replacementString 
-														offset, 						//replacementOffset
-														replacementLength,				//replacementLength
-														cursorPosition,					//cursorPosition
-														imageC, 						//imageC
-														compName,						//displayString
-														null, 							//contextInformation
-														componentModel.getJavadoc(),	//additionalProposalInfo 
-														100,							//relevance
-														true));							//updateReplacementLengthOnValidate
-				}
+				proposals.add(
+						new NameMatchingProposal(toBeInserted,						//replacementString 
+													offset, 						//replacementOffset
+													replacementLength,				//replacementLength
+													cursorPosition,					//cursorPosition
+													imageC, 						//imageC
+													compName,						//displayString
+													componentModel.getJavadoc(),	//additionalProposalInfo 
+													100 + score,					//relevance
+													componentModel.getQualifiedName(),	//name
+													namespaceLength));				//ignoredLength
+			}
+			
+			if(! complete){
+				addIndexingProposal(proposals, context);
 			}
 		}
 		
@@ -219,33 +240,43 @@ public class TagsCompletionProposalComputer extends AbstractTapestryCompletionPr
 			
 			String attributeName = TmlHelper.getAttributeBefore(wholeDocument, request.getStartOffset());
 			Node node = request.getNode();
+			NameMatcher matcher = new NameMatcher(alreadyTyped);
+			ProjectModel projectModel = tapestryFeatureModel.getProjectModel();
 			
 			//---------- ONLY if we're in a t:type attribute ------------------
 			if(attributeName.equals(t + ":" + TYPE)) {
-				for(AbstractParameteredFeatureModel feature : tapestryFeatureModel.getProjectModel().getComponents()) {
-						//updateReplacementLengthOnValidate
-					addAttributeValueProposal(feature, proposals, node, request, replacementLengthAfterCursor, startOffset, alreadyTyped);
+				if(! awaitFeatures()){
+					addIndexingProposal(proposals, context);
+				}
+				for(AbstractParameteredFeatureModel feature : getCandidates(projectModel.getComponentNameIndex(), projectModel.getComponents(), alreadyTyped, false)) {
+					addAttributeValueProposal(feature, proposals, node, request, replacementLengthAfterCursor, startOffset, alreadyTyped, matcher);
 				}
 			}
 			//---------- ONLY if we're in a t:mixins attribute ------------------
 			else if(attributeName.equals(t + ":" + MIXINS)) {
 				List<String> existingMixins = TmlHelper.getMixinTypes(node, t);
-				for(AbstractParameteredFeatureModel feature : tapestryFeatureModel.getProjectModel().getMixins()) {
+				if(! awaitFeatures()){
+					addIndexingProposal(proposals, context);
+				}
+				for(AbstractParameteredFeatureModel feature : getCandidates(projectModel.getMixinNameIndex(), projectModel.getMixins(), alreadyTyped, false)) {
 					if(! existingMixins.contains(feature.getName())){
-						addAttributeValueProposal(feature, proposals, node, request, replacementLengthAfterCursor, startOffset, alreadyTyped);
+						addAttributeValueProposal(feature, proposals, node, request, replacementLengthAfterCursor, startOffset, alreadyTyped, matcher);
 					}
 				}
 			}
 			//---------- ONLY if we're in a t:type attribute ------------------
 			else if(attributeName.equals(t + ":" + Constants.PAGE_ATTRIBUTE )) {
-				for(PageModel feature : tapestryFeatureModel.getProjectModel().getPages()) {
-					addAttributeValueProposal(feature, proposals, node, request, replacementLengthAfterCursor, startOffset, alreadyTyped);
+				if(! awaitFeatures()){
+					addIndexingProposal(proposals, context);
+				}
+				for(PageModel feature : getCandidates(projectModel.getPageNameIndex(), projectModel.getPages(), alreadyTyped, false)) {
+					addAttributeValueProposal(feature, proposals, node, request, replacementLengthAfterCursor, startOffset, alreadyTyped, matcher);
 				}
 			}
 			//---------- ONLY if we are in a t:validate attribute -------------
 			else if (attributeName.equals(t + ":" + Constants.VALIDATE)) {
-				for(ValidatorModel feature : tapestryFeatureModel.getProjectModel().getValidators()) {
-					addAttributeValueProposal(feature, proposals, node, request, replacementLengthAfterCursor, startOffset, alreadyTyped);
+				for(ValidatorModel feature : projectModel.getValidators()) {
+					addAttributeValueProposal(feature, proposals, node, request, replacementLengthAfterCursor, startOffset, alreadyTyped, matcher);
 				}
 			}
 			//---------- ONLY if we're in a src attribute ---------------------
@@ -253,21 +284,31 @@ public class TagsCompletionProposalComputer extends AbstractTapestryCompletionPr
 				String contextBinding = Constants.BINDING_SYMBOL + Constants.ASSET_CONTEXT_BINDING;
 				String classPathBinding = Constants.BINDING_SYMBOL + Constants.ASSET_CLASSPATH_BINDING;
 				
-				if (contextBinding.equals(alreadyTyped)) {
+				if (alreadyTyped.startsWith(contextBinding)) {
 					String htmlElement = request.getNode().getNodeName().toLowerCase();
-					Collection<AssetModel> assets = null;
+					AssetType assetType = null;
 					
 					if (htmlElement.equals(Components.IMG)) {
-						assets = tapestryFeatureModel.getProjectModel().getImages();
+						assetType = AssetType.IMAGE;
 					} else if (htmlElement.equals(Components.SCRIPT)) {
-						assets = tapestryFeatureModel.getProjectModel().getScripts();
+						assetType = AssetType.SCRIPT;
 					} else if (htmlElement.equals(Components.STYLE)) {
-						assets = tapestryFeatureModel.getProjectModel().getStylesheets();
+						assetType = AssetType.STYLESHEET;
 					}
 					
-					if (assets != null) {
-						for (AssetModel asset : assets) {
-							ProposalHelper.addProposal(new ProposalModel(asset.getPath(), alreadyTyped), proposals, alreadyTyped, replacementLengthAfterCursor, startOffset);
+					if (assetType != null) {
+						if(! awaitAssets()){
+							addIndexingProposal(proposals, context);
+						}
+						// One folder level at a time: sub-folders end with '/', the next level is proposed from there
+						String typedPath = alreadyTyped.substring(contextBinding.length());
+						int folderEnd = typedPath.lastIndexOf('/') + 1;
+						String folder = typedPath.substring(0, folderEnd);
+						String typedName = typedPath.substring(folderEnd);
+						for (String entry : tapestryFeatureModel.getProjectModel().getAssetTree(assetType).list(folder)) {
+							if (entry.startsWith(typedName)) {
+								ProposalHelper.addProposal(new ProposalModel(entry, contextBinding + folder), proposals, alreadyTyped, replacementLengthAfterCursor, startOffset);
+							}
 						}
 					}
 				} else {
@@ -286,6 +327,35 @@ public class TagsCompletionProposalComputer extends AbstractTapestryCompletionPr
 		}
 	}
 	
+	/**
+	 * The features whose name starts with the typed text, or whose initials start with the initials of the typed text 
+	 * (<code>AL</code> for <code>ActionLink</code>, <code>jq/DP</code> for <code>jquery/DatePicker</code>), are found 
+	 * in the index, without looking at the others: they are the prefix and camel-case matches. When they're too few, 
+	 * all the features are given to the {@link NameMatcher}.
+	 * 
+	 * @param nameIndex the index of the features
+	 * @param features all the features
+	 * @param typed the text typed so far
+	 * @param qualifiedName true to look for the qualified name (tag names), false for the full name (attribute values)
+	 * @return the features to match against the typed text
+	 */
+	private static <T extends AbstractFeatureModel> Collection<T> getCandidates(FeatureNameIndex<T> nameIndex, 
+			Collection<T> features, String typed, boolean qualifiedName){
+		if(typed == null || typed.length() == 0){
+			return features;
+		}
+		Set<T> candidates = new LinkedHashSet<T>();
+		if(qualifiedName){
+			candidates.addAll(nameIndex.findByQualifiedName(typed));
+			candidates.addAll(nameIndex.findByQualifiedNameInitials(typed));
+		}
+		else{
+			candidates.addAll(nameIndex.findByFullName(typed));
+			candidates.addAll(nameIndex.findByFullNameInitials(typed));
+		}
+		return candidates.size() < MIN_PREFIX_MATCHES ? features : candidates;
+	}
+	
 	/**
 	 * <p>Add the "feature" (Component or Mixin or Page) to the proposals. It will instantiate a new {@link ICompletionProposal}
 	 * and set all the parameters
@@ -299,12 +369,15 @@ public class TagsCompletionProposalComputer extends AbstractTapestryCompletionPr
 	 * @param replacementLengthAfterCursor
 	 * @param startOffset
 	 * @param alreadyTyped
+	 * @param matcher filters the features, and gives their score in the relevance band of the features
 	 */
 	private void addAttributeValueProposal(AbstractFeatureModel feature, List<ICompletionProposal> proposals, Node node, 
-			ContentAssistRequest request, int replacementLengthAfterCursor, int startOffset, String alreadyTyped){
+			ContentAssistRequest request, int replacementLengthAfterCursor, int startOffset, String alreadyTyped, 
+			NameMatcher matcher){
 		String toBeInserted = feature.getFullName();
+		int score = matcher.match(feature.getFullName(), feature.getFullNameKey());
 		
-		if(toBeInserted.toLowerCase().startsWith(alreadyTyped.toLowerCase())){
+		if(score != NameMatcher.NO_MATCH){
 			if(feature instanceof AbstractParameteredFeatureModel){
 				List<String> existingParams = TmlHelper.getNodeAttributeNames(node);
 				for(Parameter requiredParam : ((AbstractParameteredFeatureModel)feature).getMandatoryParameters()){
@@ -316,16 +389,15 @@ public class TagsCompletionProposalComputer extends AbstractTapestryCompletionPr
 			}
 			
 			proposals.add(
-					new CustomCompletionProposal(toBeInserted, 			//replacementString 
+					new NameMatchingProposal(toBeInserted, 				//replacementString 
 												startOffset, 			//replacementOffset
 												alreadyTyped.length() + replacementLengthAfterCursor,		//replacementLength
 												toBeInserted.length(),	//cursorPosition
 												imageC, 				//imageC
 												feature.getFullName(),	//displayString
-												null, 					//contextInformation
 												feature.getJavadoc(),	//additionalProposalInfo 
-												100,					//relevance
-												true));	
+												100 + score,			//relevance
+												feature.getFullName()));	//name
 		}
 	}
 }
@@ -10,13 +10,14 @@ import net.atos.webtools.tapestry.core.models.features.Parameter;
 import net.atos.webtools.tapestry.core.util.helpers.JavaModelHelper;
 import net.atos.webtools.tapestry.core.util.helpers.TmlHelper;
 import net.atos.webtools.tapestry.ui.TapestryUI;
+import net.atos.webtools.tapestry.ui.editors.proposal.NameMatcher;
+import net.atos.webtools.tapestry.ui.editors.proposal.NameMatchingProposal;
 import net.atos.webtools.tapestry.ui.util.UIErrorMessages;
 
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 import org.eclipse.wst.sse.ui.contentassist.CompletionProposalInvocationContext;
-import org.eclipse.wst.sse.ui.internal.contentassist.CustomCompletionProposal;
 import org.eclipse.wst.xml.ui.internal.contentassist.ContentAssistRequest;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -137,9 +138,11 @@ public class TagsParametersCompletionProposalComputer extends AbstractTapestryCo
 				}
 				
 				//--------------------------- ADD the proposals from the JavaProperties---------------------------
+				NameMatcher matcher = new NameMatcher(alreadyTyped);
 				for(JavaElement prop : properties){
 					if(! existingSiblings.contains(prop.getName())){
-						if(prop.getName() != null && prop.getName().toLowerCase().startsWith(alreadyTyped.toLowerCase())){
+						int score = matcher.match(prop.getName());
+						if(score != NameMatcher.NO_MATCH){
 							StringBuilder toBeInsertedSB = new StringBuilder();
 							if(isTagInsertion){
 								toBeInsertedSB.append('<');
@@ -154,16 +157,15 @@ public class TagsParametersCompletionProposalComputer extends AbstractTapestryCo
 							String toBeInserted = toBeInsertedSB.toString();
 							
 							proposals.add(
-									new CustomCompletionProposal(toBeInserted, 			//replacementString
+									new NameMatchingProposal(toBeInserted, 				//replacementString
 																offset,					//replacementOffset
 																replacementLength,		//replacementLength
 																toBeInserted.length(),	//cursorPosition
 																imageC,		 			//imageC
 																prop.getName(),			//displayString
-																null, 					//contextInformation
 																prop.getJavadoc(),		//additionalProposalInfo 
-																100,					//relevance
-																true));					//updateReplacementLengthOnValidate
+																100 + score,			//relevance
+																prop.getName()));		//name
 						}
 					}
 				}
@@ -7,6 +7,8 @@ import java.util.List;
 
 import net.atos.webtools.tapestry.core.models.EditedFeatureModel;
 import net.atos.webtools.tapestry.core.models.JavaElement;
+import net.atos.webtools.tapestry.core.models.ProjectModel;
+import net.atos.webtools.tapestry.core.models.assets.AssetModel;
 import net.atos.webtools.tapestry.core.models.features.ComponentModel;
 import net.atos.webtools.tapestry.core.models.features.MixinModel;
 import net.atos.webtools.tapestry.core.models.features.PageModel;
@@ -14,6 +16,7 @@ import net.atos.webtools.tapestry.core.models.features.Parameter;
 import net.atos.webtools.tapestry.core.util.Constants;
 import net.atos.webtools.tapestry.core.util.helpers.TmlHelper;
 import net.atos.webtools.tapestry.ui.editors.multi.TapestryMultiPageEditor;
+import net.atos.webtools.tapestry.ui.util.UIMessages;
 import net.atos.webtools.tapestry.ui.util.helpers.EclipseHelper;
 
 import org.eclipse.jface.text.IRegion;
@@ -52,6 +55,21 @@ public class TmlTextHover extends XMLTagInfoHoverProcessor {
 		}
 	}
 
+	/**
+	 * Finds a component, waiting for the scan of the project (within the configured budget) if it's not found yet
+	 * 
+	 * @param tapestryType full name of the component
+	 * @return the component, or null
+	 */
+	private ComponentModel getComponent(String tapestryType){
+		ProjectModel projectModel = tapestryFeatureModel.getProjectModel();
+		ComponentModel component = projectModel.getComponent(tapestryType);
+		if(component == null && tapestryType != null && ! projectModel.getFeatureScan().isDone() && projectModel.awaitFeatureScan()){
+			component = projectModel.getComponent(tapestryType);
+		}
+		return component;
+	}
+
 	@Override
 	protected String computeTagNameHelp(IDOMNode xmlnode, IDOMNode parentNode, IStructuredDocumentRegion flatNode,
 			ITextRegion region) {
@@ -59,10 +77,13 @@ public class TmlTextHover extends XMLTagInfoHoverProcessor {
 		
 		if(tapestryFeatureModel != null){
 			String tapestryType = TmlHelper.getComponentFullName(xmlnode, t);
-			ComponentModel component = tapestryFeatureModel.getProjectModel().getComponent(tapestryType);
+			ComponentModel component = getComponent(tapestryType);
 			if(component != null){
 				return component.getJavadoc();
 			}
+			if(tapestryType != null && ! tapestryFeatureModel.getProjectModel().getFeatureScan().isDone()){
+				return UIMessages.PROJECT_MODEL_INDEXING;
+			}
 		}
 		
 		return super.computeTagNameHelp(xmlnode, parentNode, flatNode, region);
@@ -77,7 +98,7 @@ public class TmlTextHover extends XMLTagInfoHoverProcessor {
 			String attributeName = flatNode.getFullText(region);
 			
 			String tapestryType = TmlHelper.getComponentFullName(xmlnode, t);
-			ComponentModel component = tapestryFeatureModel.getProjectModel().getComponent(tapestryType);
+			ComponentModel component = getComponent(tapestryType);
 			List<String> mixinTypes = TmlHelper.getMixinTypes(xmlnode, t);
 			
 			if(component != null && attributeName != null){
@@ -127,8 +148,27 @@ public class TmlTextHover extends XMLTagInfoHoverProcessor {
 		init();
 		
 		if(tapestryFeatureModel != null){
-			//------------ CASE-1 java prop -----------------------
 			String attributeValue = flatNode.getText(region).replace("\"", "");
+			
+			//------------ CASE-0 context asset -------------------
+			int assetIndex = attributeValue.indexOf(Constants.ASSET_CONTEXT_BINDING);
+			if(assetIndex >= 0){
+				String path = attributeValue.substring(assetIndex + Constants.ASSET_CONTEXT_BINDING.length());
+				int endIndex = path.indexOf('}');
+				if(endIndex >= 0){
+					path = path.substring(0, endIndex);
+				}
+				ProjectModel projectModel = tapestryFeatureModel.getProjectModel();
+				AssetModel asset = projectModel.getAsset(path);
+				if(asset != null){
+					return UIMessages.CONTEXT_ASSET + asset.getPath();
+				}
+				if(projectModel.getAssetScan().isDone()){
+					return UIMessages.CONTEXT_ASSET_NOT_FOUND + path;
+				}
+			}
+			
+			//------------ CASE-1 java prop -----------------------
 			for(JavaElement prop : tapestryFeatureModel.getJavaProperties()){
 				if(attributeValue.contains(prop.getName())){
 					return prop.getJavadoc();
@@ -141,7 +181,7 @@ public class TmlTextHover extends XMLTagInfoHoverProcessor {
 			String attributeName = TmlHelper.getAttributeBefore(wholeDocument, index);
 			
 			String tapestryType = TmlHelper.getComponentFullName(xmlnode, t);
-			ComponentModel component = tapestryFeatureModel.getProjectModel().getComponent(tapestryType);
+			ComponentModel component = getComponent(tapestryType);
 			if(component != null){
 				if((t + ":" + Constants.PAGE_ATTRIBUTE).equalsIgnoreCase(attributeName)){
 					PageModel page = tapestryFeatureModel.getProjectModel().getPage(attributeValue);
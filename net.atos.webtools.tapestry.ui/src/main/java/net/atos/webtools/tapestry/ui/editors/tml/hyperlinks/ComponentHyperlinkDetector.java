@@ -6,18 +6,15 @@ package net.atos.webtools.tapestry.ui.editors.tml.hyperlinks;
 import static net.atos.webtools.tapestry.core.util.Constants.MIXINS;
 import static net.atos.webtools.tapestry.core.util.Constants.PAGE_ATTRIBUTE;
 
-import java.text.StringCharacterIterator;
-
 import net.atos.webtools.tapestry.core.models.ProjectModel;
 import net.atos.webtools.tapestry.core.models.features.ComponentModel;
 import net.atos.webtools.tapestry.core.models.features.MixinModel;
 import net.atos.webtools.tapestry.core.models.features.PageModel;
 import net.atos.webtools.tapestry.core.util.helpers.TmlHelper;
 import net.atos.webtools.tapestry.ui.editors.multi.TapestryMultiPageEditor;
+import net.atos.webtools.tapestry.ui.util.DocumentCharSequence;
 import net.atos.webtools.tapestry.ui.util.helpers.EclipseHelper;
 
-import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.Region;
@@ -54,51 +51,50 @@ public class ComponentHyperlinkDetector extends AbstractHyperlinkDetector {
 			String t = tapestryEditor.getTapestryFeatureModel().getNamespace();
 			
 			if(projectModel != null){
+				//the document is read char by char, never copied: this is called at each mouse move
+				CharSequence text = new DocumentCharSequence(textViewer.getDocument());
+				
 				//----------------- 1: Inside a special parameter (t:mixins, t: pages?) ----------------------------------
 				
-				IRegion attributeValueRegion = getAttributeValueRegion(textViewer.getDocument(), region.getOffset());
+				IRegion attributeValueRegion = getAttributeValueRegion(text, region.getOffset());
 				if(attributeValueRegion != null){
-					String paramString = null;
-					try {
-						paramString = textViewer.getDocument().get(attributeValueRegion.getOffset(), attributeValueRegion.getLength());
-					}
-					catch (BadLocationException e) {
+					int valueStart = attributeValueRegion.getOffset();
+					int valueEnd = valueStart + attributeValueRegion.getLength();
+					if(isAttributeBefore(text, region.getOffset(), t, MIXINS)){
+						MixinModel mixin = projectModel.getMixin(text, valueStart, valueEnd);
+						if(mixin == null && awaitFeatures(projectModel)){
+							mixin = projectModel.getMixin(text, valueStart, valueEnd);
+						}
+						if(mixin != null && mixin.getInputElement() != null){
+							return new Hyperlink[]{new Hyperlink(attributeValueRegion, mixin.getInputElement())};
+						}
 					}
-					if(paramString != null){
-						String attributeName = getAttributeNameBefore(textViewer.getDocument(), region.getOffset());
-						if(attributeName.equalsIgnoreCase(t + ":"+ MIXINS)){
-							MixinModel mixin = projectModel.getMixin(paramString);
-							if(mixin != null && mixin.getInputElement() != null){
-								return new Hyperlink[]{new Hyperlink(attributeValueRegion, mixin.getInputElement())};
-							}
+					else if(isAttributeBefore(text, region.getOffset(), t, PAGE_ATTRIBUTE)){
+						PageModel page = projectModel.getPage(text, valueStart, valueEnd);
+						if(page == null && awaitFeatures(projectModel)){
+							page = projectModel.getPage(text, valueStart, valueEnd);
 						}
-						else if(attributeName.equalsIgnoreCase(t + ":"+ PAGE_ATTRIBUTE)){
-							PageModel page = projectModel.getPage(paramString);
-							projectModel.getPages();
-							if(page != null && page.getInputElement() != null){
-								return new Hyperlink[]{new Hyperlink(attributeValueRegion, page.getInputElement())};
-							}
+						if(page != null && page.getInputElement() != null){
+							return new Hyperlink[]{new Hyperlink(attributeValueRegion, page.getInputElement())};
 						}
 					}
 				}
 				
 				//---------------------------------------- 2: Inside a tag --------------------------------------------
-				IRegion tagRegion = getTagRegion(textViewer.getDocument(), region.getOffset());
+				IRegion tagRegion = getTagRegion(text, region.getOffset());
 				
 				//If we hover a tag:
 				if(tagRegion != null){
-					//Extract the tag (region between '<' and '>'):
-					String tagString;
-					try {
-						tagString = textViewer.getDocument().get(tagRegion.getOffset(), tagRegion.getLength());
-					}
-					catch (BadLocationException e) {
-						return null;
-					}
-					//Extract component full name
-					String componentFullName = TmlHelper.getComponentFullName(tagString);
-					if(componentFullName != null){
-						ComponentModel component = projectModel.getComponent(componentFullName);
+					//Component name, plain HTML tags are filtered out:
+					IRegion nameRegion = TmlHelper.getComponentNameRegion(text, tagRegion.getOffset(), 
+							tagRegion.getOffset() + tagRegion.getLength(), t);
+					if(nameRegion != null){
+						int nameStart = nameRegion.getOffset();
+						int nameEnd = nameStart + nameRegion.getLength();
+						ComponentModel component = projectModel.getComponent(text, nameStart, nameEnd);
+						if(component == null && awaitFeatures(projectModel)){
+							component = projectModel.getComponent(text, nameStart, nameEnd);
+						}
 						if(component != null && component.getInputElement() != null){
 							return new Hyperlink[]{new Hyperlink(tagRegion, component.getInputElement())};
 						}
@@ -109,94 +105,126 @@ public class ComponentHyperlinkDetector extends AbstractHyperlinkDetector {
 		return null;
 	}
 	
+	/**
+	 * A feature that is not found may not be scanned yet: waits for the scan (within the configured budget)
+	 * 
+	 * @return true if it was still running, and is now finished: the lookup must be done again
+	 */
+	private boolean awaitFeatures(ProjectModel projectModel){
+		return ! projectModel.getFeatureScan().isDone() && projectModel.awaitFeatureScan();
+	}
+	
 	/**
 	 * Extract the current tag (around the specified offset): it must be preceded by a '&lt;'
 	 * and followed by a 'gt;' (and not the opposite)
 	 * 
-	 * @param document the doc to scan
+	 * @param text the doc to scan
 	 * @param offset the position in the text around which the search will start
 	 * @return the {@link Region} of the following String: &lt;t:comp t:attr="xxx" id="yyy" ... &gt;
 	 */
-	private IRegion getTagRegion(IDocument document, int offset){
+	private IRegion getTagRegion(CharSequence text, int offset){
+		int length = text.length();
+		if(offset >= length){
+			return null;
+		}
 		
-		StringCharacterIterator characterIterator = new StringCharacterIterator(document.get(), offset);
 		int beginIndex = offset;
-		int endIndex = offset;
-		
-		char cur = characterIterator.current();
-		while(cur != StringCharacterIterator.DONE && cur != '<' && cur != '>'){
-			if(cur == '>' ){
-				return null;
-			}
+		while(beginIndex >= 0 && text.charAt(beginIndex) != '<' && text.charAt(beginIndex) != '>'){
 			beginIndex --;
-			cur = characterIterator.previous();
+		}
+		if(beginIndex < 0){
+			return null;
 		}
 		
-		characterIterator.setIndex(offset);
-		cur = characterIterator.next();
-		endIndex ++;
-		while(cur != StringCharacterIterator.DONE && cur != '>' && cur != '<'){
-			if(cur == '<' ){
-				return null;
-			}
+		int endIndex = offset + 1;
+		while(endIndex < length && text.charAt(endIndex) != '>' && text.charAt(endIndex) != '<'){
 			endIndex ++;
-			cur = characterIterator.next();
+		}
+		if(endIndex >= length){
+			return null;
 		}
 		endIndex ++;
 		
 		return new Region(beginIndex, endIndex - beginIndex);
 	}
 	
-	private IRegion getAttributeValueRegion(IDocument document, int offset){
+	/**
+	 * @return the region of the attribute value (or of the item of a comma-separated list) around the offset, 
+	 * or null if it's not in an attribute value
+	 */
+	private IRegion getAttributeValueRegion(CharSequence text, int offset){
+		int length = text.length();
+		if(offset >= length){
+			return null;
+		}
 		
-		StringCharacterIterator characterIterator = new StringCharacterIterator(document.get(), offset);
 		int beginIndex = offset;
-		int endIndex = offset;
-		
-		char cur = characterIterator.current();
-		while(cur != StringCharacterIterator.DONE && cur != '"' && cur != ','){
+		while(beginIndex >= 0){
+			char cur = text.charAt(beginIndex);
+			if(cur == '"' || cur == ','){
+				break;
+			}
 			if(cur == '>' || cur == '<'){
 				return null;
 			}
 			beginIndex --;
-			cur = characterIterator.previous();
 		}
 		beginIndex ++;
 		
-		characterIterator.setIndex(offset);
-		cur = characterIterator.next();
-		endIndex ++;
-		while(cur != StringCharacterIterator.DONE && cur != '"' && cur != ','){
+		int endIndex = offset + 1;
+		while(endIndex < length){
+			char cur = text.charAt(endIndex);
+			if(cur == '"' || cur == ','){
+				break;
+			}
 			if(cur == '>' || cur == '<'){
 				return null;
 			}
 			endIndex ++;
-			cur = characterIterator.next();
 		}
 		
 		return new Region(beginIndex, endIndex - beginIndex);
 	}
 	
-	private String getAttributeNameBefore(IDocument document, int offset){
-		StringCharacterIterator characterIterator = new StringCharacterIterator(document.get(), offset);
-		char cur = characterIterator.current();
+	/**
+	 * @param text
+	 * @param offset a position in an attribute value
+	 * @param t the tapestry namespace
+	 * @param attributeName the attribute name, without namespace
+	 * @return true if the attribute of the value is <code>t:attributeName</code> (ignoring case)
+	 */
+	private boolean isAttributeBefore(CharSequence text, int offset, String t, String attributeName){
+		if(t == null){
+			return false;
+		}
+		int index = Math.min(offset, text.length() - 1);
 		
 		//Skip attribute value characters
-		while(cur != StringCharacterIterator.DONE && cur != '"' ){
-			cur = characterIterator.previous();
+		while(index >= 0 && text.charAt(index) != '"'){
+			index --;
 		}
 		//Skip spaces, '=', '"'
-		while(cur != StringCharacterIterator.DONE 
-				&& (cur == '"' || cur == '=' || Character.isWhitespace(cur) )){
-			cur = characterIterator.previous();
+		while(index >= 0 && (text.charAt(index) == '"' || text.charAt(index) == '=' || Character.isWhitespace(text.charAt(index)))){
+			index --;
 		}
-		
-		StringBuilder sb = new StringBuilder();
-		while(cur != StringCharacterIterator.DONE && ! Character.isWhitespace(cur)){
-			sb.insert(0, cur);
-			cur = characterIterator.previous();
+		int nameEnd = index + 1;
+		while(index >= 0 && ! Character.isWhitespace(text.charAt(index))){
+			index --;
 		}
+		int nameStart = index + 1;
 		
-		return sb.toString();
+		return nameEnd - nameStart == t.length() + 1 + attributeName.length()
+				&& regionEqualsIgnoreCase(text, nameStart, t)
+				&& text.charAt(nameStart + t.length()) == ':'
+				&& regionEqualsIgnoreCase(text, nameStart + t.length() + 1, attributeName);
+	}
+	
+	private static boolean regionEqualsIgnoreCase(CharSequence text, int offset, String string){
+		for(int i = 0; i < string.length(); i++){
+			if(Character.toLowerCase(text.charAt(offset + i)) != Character.toLowerCase(string.charAt(i))){
+				return false;
+			}
+		}
+		return true;
 	}
 }
@@ -1,25 +1,36 @@
 package net.atos.webtools.tapestry.ui.preferences;
 
+import net.atos.webtools.tapestry.core.TapestryCore;
+import net.atos.webtools.tapestry.core.preferences.CorePreferenceNames;
 import net.atos.webtools.tapestry.ui.util.UIMessages;
 
+import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.preference.PreferencePage;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.ScrolledComposite;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Group;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Spinner;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.IWorkbenchPreferencePage;
 
 
 public class TapestryPreferencePage extends PreferencePage implements IWorkbenchPreferencePage {
+		
+		private Spinner fScanThreads;
+		private Spinner fScanWaitBudget;
+		private Button fBytecodeScanner;
+		private Button fScanReport;
+		private Button fWarmUp;
 
 		private Composite createComposite(Composite parent, int numColumns) {
-			noDefaultAndApplyButton();
-			
 			Composite composite = new Composite(parent, SWT.NULL);
 
 			// GridLayout
@@ -45,10 +56,87 @@ public class TapestryPreferencePage extends PreferencePage implements IWorkbench
 			// some themes on GTK have different background colors for Text and Labels
 			text.setBackground(composite.getBackground());
 			text.setText(description);
+			
+			createModelScanGroup(composite);
+			initializeValues();
 
 			setSize(composite);
 			return composite;
 		}
+		
+		private void createModelScanGroup(Composite parent) {
+			Group group = new Group(parent, SWT.NONE);
+			group.setText(UIMessages.MODEL_SCAN_GROUP_LABEL);
+			group.setLayout(new GridLayout(2, false));
+			group.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+			
+			Label label = new Label(group, SWT.NONE);
+			label.setText(UIMessages.SCAN_THREADS_LABEL);
+			
+			fScanThreads = new Spinner(group, SWT.BORDER);
+			fScanThreads.setMinimum(1);
+			fScanThreads.setMaximum(CorePreferenceNames.SCAN_THREADS_MAX);
+			fScanThreads.setToolTipText(UIMessages.SCAN_THREADS_TOOLTIP);
+			
+			label = new Label(group, SWT.NONE);
+			label.setText(UIMessages.SCAN_WAIT_BUDGET_LABEL);
+			
+			fScanWaitBudget = new Spinner(group, SWT.BORDER);
+			fScanWaitBudget.setMinimum(0);
+			fScanWaitBudget.setMaximum(CorePreferenceNames.SCAN_WAIT_BUDGET_MAX);
+			fScanWaitBudget.setIncrement(100);
+			fScanWaitBudget.setToolTipText(UIMessages.SCAN_WAIT_BUDGET_TOOLTIP);
+			
+			fBytecodeScanner = new Button(group, SWT.CHECK);
+			fBytecodeScanner.setText(UIMessages.BYTECODE_SCANNER_LABEL);
+			fBytecodeScanner.setToolTipText(UIMessages.BYTECODE_SCANNER_TOOLTIP);
+			fBytecodeScanner.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+			
+			fScanReport = new Button(group, SWT.CHECK);
+			fScanReport.setText(UIMessages.SCAN_REPORT_LABEL);
+			fScanReport.setToolTipText(UIMessages.SCAN_REPORT_TOOLTIP);
+			fScanReport.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+			
+			fWarmUp = new Button(group, SWT.CHECK);
+			fWarmUp.setText(UIMessages.WARM_UP_LABEL);
+			fWarmUp.setToolTipText(UIMessages.WARM_UP_TOOLTIP);
+			fWarmUp.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+		}
+		
+		private void initializeValues() {
+			fScanThreads.setSelection(getPreferenceStore().getInt(CorePreferenceNames.SCAN_THREADS));
+			fScanWaitBudget.setSelection(getPreferenceStore().getInt(CorePreferenceNames.SCAN_WAIT_BUDGET));
+			fBytecodeScanner.setSelection(getPreferenceStore().getBoolean(CorePreferenceNames.BYTECODE_SCANNER));
+			fScanReport.setSelection(getPreferenceStore().getBoolean(CorePreferenceNames.SCAN_REPORT));
+			fWarmUp.setSelection(getPreferenceStore().getBoolean(CorePreferenceNames.WARM_UP));
+		}
+		
+		/**
+		 * Scan preferences are used by the core plugin
+		 * 
+		 * @see org.eclipse.jface.preference.PreferencePage#doGetPreferenceStore()
+		 */
+		protected IPreferenceStore doGetPreferenceStore() {
+			return TapestryCore.getDefault().getPreferenceStore();
+		}
+		
+		protected void performDefaults() {
+			fScanThreads.setSelection(getPreferenceStore().getDefaultInt(CorePreferenceNames.SCAN_THREADS));
+			fScanWaitBudget.setSelection(getPreferenceStore().getDefaultInt(CorePreferenceNames.SCAN_WAIT_BUDGET));
+			fBytecodeScanner.setSelection(getPreferenceStore().getDefaultBoolean(CorePreferenceNames.BYTECODE_SCANNER));
+			fScanReport.setSelection(getPreferenceStore().getDefaultBoolean(CorePreferenceNames.SCAN_REPORT));
+			fWarmUp.setSelection(getPreferenceStore().getDefaultBoolean(CorePreferenceNames.WARM_UP));
+			super.performDefaults();
+		}
+		
+		public boolean performOk() {
+			getPreferenceStore().setValue(CorePreferenceNames.SCAN_THREADS, fScanThreads.getSelection());
+			getPreferenceStore().setValue(CorePreferenceNames.SCAN_WAIT_BUDGET, fScanWaitBudget.getSelection());
+			getPreferenceStore().setValue(CorePreferenceNames.BYTECODE_SCANNER, fBytecodeScanner.getSelection());
+			getPreferenceStore().setValue(CorePreferenceNames.SCAN_REPORT, fScanReport.getSelection());
+			getPreferenceStore().setValue(CorePreferenceNames.WARM_UP, fWarmUp.getSelection());
+			return super.performOk();
+		}
 
 		private Composite createScrolledComposite(Composite parent) {
 			// create scrollbars for this parent when needed
@@ -0,0 +1,25 @@
+package net.atos.webtools.tapestry.ui.startup;
+
+import net.atos.webtools.tapestry.core.TapestryCore;
+import net.atos.webtools.tapestry.core.preferences.CorePreferenceNames;
+
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.ui.IStartup;
+
+/**
+ * Launches the warm-up of the Tapestry project models (if enabled in the preferences) once the workbench is started
+ *
+ * <p>This package is excluded from the lazy activation of the bundle (see MANIFEST.MF): the preference is read from
+ * the instance scope, with the constants inlined by the compiler, so that neither the ui nor the core plugin is
+ * started when the warm-up is disabled (the default).
+ *
+ * @see net.atos.webtools.tapestry.core.models.ProjectModelWarmUp
+ */
+public class TapestryStartup implements IStartup {
+	@Override
+	public void earlyStartup() {
+		if(InstanceScope.INSTANCE.getNode(TapestryCore.PLUGIN_ID).getBoolean(CorePreferenceNames.WARM_UP, false)){
+			TapestryCore.getDefault().getProjectModelWarmUp().start();
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package net.atos.webtools.tapestry.ui.util;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+
+/**
+ * View of a document as a {@link CharSequence}: the chars are read in the document one by one, it's never copied
+ * (unlike {@link IDocument#get()}, which copies the whole text at each call).
+ *
+ * <p>Only {@link #subSequence(int, int)} and {@link #toString()} create strings.
+ */
+public class DocumentCharSequence implements CharSequence {
+	private final IDocument document;
+
+	public DocumentCharSequence(IDocument document) {
+		this.document = document;
+	}
+
+	@Override
+	public int length() {
+		return document.getLength();
+	}
+
+	@Override
+	public char charAt(int index) {
+		try {
+			return document.getChar(index);
+		}
+		catch (BadLocationException e) {
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+		}
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		try {
+			return document.get(start, end - start);
+		}
+		catch (BadLocationException e) {
+			throw new IndexOutOfBoundsException(start + "-" + end);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return document.get();
+	}
+}
@@ -71,5 +71,29 @@ public class UIMessages {
 	public static final String UNKNOWN = "UNKNOWN";
 	public static final String NO_JAVADOC = "No javadoc";
 	public static final String WEBTOOLS_PREFERENCE_MESSAGE = "XA Webtools Tapestry plugin configuration - please open subtree for more pages";
+	public static final String MODEL_SCAN_GROUP_LABEL = "Project model";
+	public static final String SCAN_THREADS_LABEL = "Threads used to scan the classpath:";
+	public static final String SCAN_THREADS_TOOLTIP = "Number of jars and source folders scanned in parallel when a project model is (re)loaded - 1 to scan sequentially";
+	public static final String BYTECODE_SCANNER_LABEL = "Read library jars without the Java model";
+	public static final String BYTECODE_SCANNER_TOOLTIP = "Components and mixins of the jars are found by reading their class files directly, the Java model of a class is only opened when it's displayed";
+	public static final String SCAN_REPORT_LABEL = "Log a report of each scan";
+	public static final String SCAN_REPORT_TOOLTIP = "Time spent, classes visited and features found for each jar and source folder are written to the error log, and to a file in the plugin state location";
+	public static final String SCAN_WAIT_BUDGET_LABEL = "Editor wait for a model being scanned (ms):";
+	public static final String SCAN_WAIT_BUDGET_TOOLTIP = "Maximum time the content assist, hovers and hyperlinks wait for the scan of the project, before using the components found so far - 0 to never wait";
+	public static final String PROJECT_MODEL_INDEXING = "Tapestry project is being indexed...";
+	public static final String PROJECT_MODEL_INDEXING_INFO = "The components, mixins, pages and assets of the project are still being scanned: the proposals are not complete yet";
+	public static final String CONTEXT_ASSET = "Asset of the webapp folder: ";
+	public static final String CONTEXT_ASSET_NOT_FOUND = "No image, script or stylesheet in the webapp folder with path: ";
+	public static final String WARM_UP_LABEL = "Load the models of the Tapestry projects in background after startup";
+	public static final String WARM_UP_TOOLTIP = "Projects with recently edited tml files are loaded first, at low priority - the loading stops when a build is launched";
+	public static final String FOOTPRINT_NAME_COLUMN = "Project / type";
+	public static final String FOOTPRINT_FEATURES_COLUMN = "Features";
+	public static final String FOOTPRINT_PARAMETERS_COLUMN = "Parameters";
+	public static final String FOOTPRINT_JAVADOC_COLUMN = "Javadoc (chars)";
+	public static final String FOOTPRINT_ASSETS_COLUMN = "Assets";
+	public static final String FOOTPRINT_ESTIMATED_COLUMN = "Estimated (KB)";
+	public static final String FOOTPRINT_REFRESH = "Refresh";
+	public static final String FOOTPRINT_EXPORT = "Export...";
+	public static final String FOOTPRINT_SUMMARY = " project models in the cache, estimated heap: ";
 	public static final String EDIT_TEMPLATES = "<a>edit templates</a>";
 }
@@ -0,0 +1,200 @@
+package net.atos.webtools.tapestry.ui.views;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.atos.webtools.tapestry.core.TapestryCore;
+import net.atos.webtools.tapestry.core.models.MemoryFootprint;
+import net.atos.webtools.tapestry.core.models.MemoryFootprint.TypeFootprint;
+import net.atos.webtools.tapestry.core.models.ProjectModel;
+import net.atos.webtools.tapestry.ui.util.UIMessages;
+
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.action.IToolBarManager;
+import org.eclipse.jface.viewers.ITableLabelProvider;
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.FileDialog;
+import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeColumn;
+import org.eclipse.ui.part.ViewPart;
+
+/**
+ * Diagnostics of the Tapestry project models in the cache: estimated heap retained by each model, with the details
+ * per feature type and asset type (see {@link MemoryFootprint}). The footprints can be exported in a text file.
+ *
+ * <p>The models are measured when the view is opened and when it's refreshed, not at each change.
+ */
+public class ProjectModelsView extends ViewPart {
+	public static final String ID = "net.atos.webtools.tapestry.ui.views.ProjectModelsView";
+
+	private static final String EXPORT_FILE_NAME = "tapestry-models.txt";
+
+	private static final int KB = 1024;
+
+	private static final String[] COLUMN_LABELS = {
+		UIMessages.FOOTPRINT_NAME_COLUMN,
+		UIMessages.FOOTPRINT_FEATURES_COLUMN,
+		UIMessages.FOOTPRINT_PARAMETERS_COLUMN,
+		UIMessages.FOOTPRINT_JAVADOC_COLUMN,
+		UIMessages.FOOTPRINT_ASSETS_COLUMN,
+		UIMessages.FOOTPRINT_ESTIMATED_COLUMN
+	};
+
+	private static final int[] COLUMN_WIDTHS = {220, 80, 90, 110, 70, 110};
+
+	/**
+	 * A {@link MemoryFootprint} per project, with its {@link TypeFootprint}s as children
+	 */
+	private static class FootprintContentProvider implements ITreeContentProvider {
+		@Override
+		public Object[] getElements(Object inputElement) {
+			return ((List<?>) inputElement).toArray();
+		}
+
+		@Override
+		public Object[] getChildren(Object parentElement) {
+			if(parentElement instanceof MemoryFootprint){
+				return ((MemoryFootprint) parentElement).getTypeFootprints().toArray();
+			}
+			return new Object[0];
+		}
+
+		@Override
+		public Object getParent(Object element) {
+			return null;
+		}
+
+		@Override
+		public boolean hasChildren(Object element) {
+			return element instanceof MemoryFootprint;
+		}
+
+		@Override
+		public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+		}
+
+		@Override
+		public void dispose() {
+		}
+	}
+
+	private static class FootprintLabelProvider extends LabelProvider implements ITableLabelProvider {
+		@Override
+		public Image getColumnImage(Object element, int columnIndex) {
+			return null;
+		}
+
+		@Override
+		public String getColumnText(Object element, int columnIndex) {
+			if(element instanceof MemoryFootprint){
+				MemoryFootprint footprint = (MemoryFootprint) element;
+				switch (columnIndex) {
+					case 0:
+						return footprint.getProjectName();
+					case 1:
+						return String.valueOf(footprint.getFeatureCount());
+					case 2:
+						return String.valueOf(footprint.getParameterCount());
+					case 3:
+						return String.valueOf(footprint.getJavadocChars());
+					case 4:
+						return String.valueOf(footprint.getAssetCount());
+					case 5:
+						return String.valueOf(footprint.getEstimatedBytes() / KB);
+				}
+			}
+			else if(element instanceof TypeFootprint){
+				TypeFootprint typeFootprint = (TypeFootprint) element;
+				switch (columnIndex) {
+					case 0:
+						return typeFootprint.getTypeName();
+					case 1:
+						return typeFootprint.isAsset() ? "" : String.valueOf(typeFootprint.getCount());
+					case 2:
+						return typeFootprint.isAsset() ? "" : String.valueOf(typeFootprint.getParameterCount());
+					case 3:
+						return typeFootprint.isAsset() ? "" : String.valueOf(typeFootprint.getJavadocChars());
+					case 4:
+						return typeFootprint.isAsset() ? String.valueOf(typeFootprint.getCount()) : "";
+					case 5:
+						return String.valueOf(typeFootprint.getEstimatedBytes() / KB);
+				}
+			}
+			return "";
+		}
+	}
+
+	private TreeViewer viewer;
+
+	private List<MemoryFootprint> footprints = Collections.emptyList();
+
+	@Override
+	public void createPartControl(Composite parent) {
+		viewer = new TreeViewer(parent, SWT.FULL_SELECTION | SWT.H_SCROLL | SWT.V_SCROLL);
+		Tree tree = viewer.getTree();
+		tree.setHeaderVisible(true);
+		tree.setLinesVisible(true);
+		for (int i = 0; i < COLUMN_LABELS.length; i++) {
+			TreeColumn column = new TreeColumn(tree, i == 0 ? SWT.LEFT : SWT.RIGHT);
+			column.setText(COLUMN_LABELS[i]);
+			column.setWidth(COLUMN_WIDTHS[i]);
+		}
+		viewer.setContentProvider(new FootprintContentProvider());
+		viewer.setLabelProvider(new FootprintLabelProvider());
+
+		IToolBarManager toolBar = getViewSite().getActionBars().getToolBarManager();
+		toolBar.add(new Action(UIMessages.FOOTPRINT_REFRESH) {
+			@Override
+			public void run() {
+				refresh();
+			}
+		});
+		toolBar.add(new Action(UIMessages.FOOTPRINT_EXPORT) {
+			@Override
+			public void run() {
+				export();
+			}
+		});
+
+		refresh();
+	}
+
+	/**
+	 * Measures the models currently in the cache
+	 */
+	private void refresh() {
+		List<MemoryFootprint> measured = new ArrayList<MemoryFootprint>();
+		long estimatedBytes = 0;
+		for (ProjectModel projectModel : TapestryCore.getDefault().getCachedProjectModels()) {
+			MemoryFootprint footprint = projectModel.getMemoryFootprint();
+			measured.add(footprint);
+			estimatedBytes += footprint.getEstimatedBytes();
+		}
+		footprints = measured;
+		viewer.setInput(footprints);
+		setContentDescription(measured.size() + UIMessages.FOOTPRINT_SUMMARY + (estimatedBytes / KB) + " KB");
+	}
+
+	private void export() {
+		FileDialog dialog = new FileDialog(getSite().getShell(), SWT.SAVE);
+		dialog.setFileName(EXPORT_FILE_NAME);
+		dialog.setOverwrite(true);
+		String path = dialog.open();
+		if(path != null){
+			MemoryFootprint.writeTo(new File(path), footprints);
+		}
+	}
+
+	@Override
+	public void setFocus() {
+		viewer.getControl().setFocus();
+	}
+}